@@ -1,13 +1,20 @@
 package com.example.SpringDemo.config;
 
+import com.example.SpringDemo.service.AuthenticationCacheService;
+import com.example.SpringDemo.service.DoctorPrincipal;
 import com.example.SpringDemo.service.DoctorUserDetailsService;
+import com.example.SpringDemo.service.RevokedTokenService;
 import com.example.SpringDemo.service.UserDetailsServiceImpl;
+import com.example.SpringDemo.service.UserPrincipal;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,6 +23,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 public class CustomJwtRequestFilter extends OncePerRequestFilter {
@@ -30,6 +38,16 @@ public class CustomJwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtConfig jwtConfig;
     
+    @Autowired
+    private AuthenticationCacheService authenticationCache;
+    
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
+    // "session" loads the user/doctor for every new token, "claims" trusts the signed role/userId claims
+    @Value("${app.auth.mode:session}")
+    private String authMode;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain chain) throws ServletException, IOException {
@@ -43,11 +61,24 @@ public class CustomJwtRequestFilter extends OncePerRequestFilter {
         
         String username = null;
         String jwtToken = null;
+        Claims claims = null;
         
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
+            
+            // Token was validated recently - skip the parse and the user lookups
+            UserDetails cachedDetails = authenticationCache.get(jwtToken);
+            if (cachedDetails != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                setAuthentication(cachedDetails, request);
+                System.out.println("Authentication served from cache for: " + cachedDetails.getUsername());
+                chain.doFilter(request, response);
+                return;
+            }
+            
             try {
-                username = jwtConfig.extractUsername(jwtToken);
+                // Single signature check - subject, role and expiry are all read from these claims
+                claims = jwtConfig.parseClaims(jwtToken);
+                username = claims.getSubject();
                 System.out.println("Extracted username: " + username);
             } catch (Exception e) {
                 System.err.println("Unable to get JWT Token or JWT Token has expired: " + e.getMessage());
@@ -56,36 +87,96 @@ public class CustomJwtRequestFilter extends OncePerRequestFilter {
             System.out.println("No Authorization header or invalid format");
         }
         
+        // Logged out or invalidated tokens are rejected before any lookup
+        if (claims != null && revokedTokenService.isRevoked(jwtToken, claims)) {
+            System.out.println("Token has been revoked");
+            username = null;
+        }
+        
+        if (username != null && "claims".equalsIgnoreCase(authMode)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails claimsPrincipal = createPrincipalFromClaims(claims);
+            if (claimsPrincipal != null) {
+                setAuthentication(claimsPrincipal, request);
+                System.out.println("Authentication built from claims for: " + username);
+                chain.doFilter(request, response);
+                return;
+            }
+            // Tokens without role/userId claims fall through to the database path
+        }
+        
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            long cacheGeneration = authenticationCache.currentGeneration();
             UserDetails userDetails = null;
             
-            // Try to load as regular user first (for admin/patient login)
-            try {
-                userDetails = userDetailsService.loadUserByUsername(username);
-                System.out.println("Loaded as user: " + username);
-            } catch (Exception e) {
-                System.out.println("Not found as user, trying as doctor: " + e.getMessage());
-                
-                // If not found as user, try as doctor
+            // Doctor tokens carry role=DOCTOR, so go straight to the doctor table instead of missing on users first
+            if ("DOCTOR".equals(claims.get("role", String.class))) {
                 try {
                     userDetails = doctorUserDetailsService.loadUserByUsername(username);
                     System.out.println("Loaded as doctor: " + username);
-                } catch (Exception ex) {
-                    System.err.println("User not found in both user and doctor tables: " + ex.getMessage());
+                } catch (Exception e) {
+                    System.err.println("Doctor not found for token: " + e.getMessage());
+                }
+            } else {
+                // Try to load as regular user first (for admin/patient login)
+                try {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                    System.out.println("Loaded as user: " + username);
+                } catch (Exception e) {
+                    System.out.println("Not found as user, trying as doctor: " + e.getMessage());
+                    
+                    // If not found as user, try as doctor
+                    try {
+                        userDetails = doctorUserDetailsService.loadUserByUsername(username);
+                        System.out.println("Loaded as doctor: " + username);
+                    } catch (Exception ex) {
+                        System.err.println("User not found in both user and doctor tables: " + ex.getMessage());
+                    }
                 }
             }
             
-            if (userDetails != null && jwtConfig.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                    .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+            if (userDetails != null && jwtConfig.validateToken(claims, userDetails)) {
+                setAuthentication(userDetails, request);
+                cacheAuthentication(jwtToken, userDetails, claims, cacheGeneration);
                 
                 System.out.println("Authentication set for: " + username + " with authorities: " + userDetails.getAuthorities());
             }
         }
         chain.doFilter(request, response);
     }
+    
+    private void setAuthentication(UserDetails userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
+            new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        usernamePasswordAuthenticationToken
+            .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+    }
+    
+    private UserDetails createPrincipalFromClaims(Claims claims) {
+        String role = claims.get("role", String.class);
+        Object userId = claims.get("userId");
+        if (role == null || !(userId instanceof Number)) {
+            return null;
+        }
+        
+        Long id = ((Number) userId).longValue();
+        String email = claims.getSubject();
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
+        if ("DOCTOR".equals(role)) {
+            return new DoctorPrincipal(id, email, email, null, Collections.singletonList(authority));
+        }
+        return new UserPrincipal(id, email, email, null, Collections.singletonList(authority));
+    }
+    
+    private void cacheAuthentication(String jwtToken, UserDetails userDetails, Claims claims, long cacheGeneration) {
+        if (userDetails instanceof UserPrincipal) {
+            authenticationCache.put(jwtToken, AuthenticationCacheService.TYPE_USER, ((UserPrincipal) userDetails).getId(),
+                userDetails, claims.getExpiration(), cacheGeneration);
+        } else if (userDetails instanceof DoctorPrincipal) {
+            authenticationCache.put(jwtToken, AuthenticationCacheService.TYPE_DOCTOR, ((DoctorPrincipal) userDetails).getId(),
+                userDetails, claims.getExpiration(), cacheGeneration);
+        }
+    }
 }
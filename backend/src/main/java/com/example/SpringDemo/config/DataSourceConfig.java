@@ -0,0 +1,71 @@
+package com.example.SpringDemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Two connection pools behind one DataSource: the primary (spring.datasource) for writes and the
+ * replica (app.datasource.replica) for read-only transactions. Without a replica URL the replica pool
+ * connects to the primary database, which still keeps reporting reads from queueing for the pool that
+ * booking writes use.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${app.datasource.replica.enabled:true}")
+    private boolean replicaEnabled;
+
+    @Value("${app.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${app.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Hikari opens no connection before the first one is asked for, so a disabled replica costs nothing
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        if (replicaUrl.isBlank()) {
+            dataSource.setJdbcUrl(properties.determineUrl());
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setUsername(properties.determineUsername());
+            dataSource.setPassword(properties.determinePassword());
+        } else {
+            dataSource.setJdbcUrl(replicaUrl);
+            dataSource.setUsername(replicaUsername);
+            dataSource.setPassword(replicaPassword);
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                          HikariDataSource replicaDataSource) {
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicaEnabled ? replicaDataSource : null);
+    }
+
+    // The one DataSource JPA, JdbcTemplate, Flyway and the SQL init scripts use
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
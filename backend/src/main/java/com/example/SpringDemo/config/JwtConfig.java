@@ -1,9 +1,11 @@
 package com.example.SpringDemo.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -23,8 +25,29 @@ public class JwtConfig {
     @Value("${jwt.expiration}")
     private Long expiration;
     
+    // Derived once at startup; the parser is immutable and thread-safe so every request shares it
+    private SecretKey signingKey;
+    
+    private JwtParser jwtParser;
+    
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
+    }
+    
+    /**
+     * Verifies the signature and expiry once and returns the claims.
+     * Throws a JwtException when the token is malformed, tampered with or expired.
+     */
+    public Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
     
     public String extractUsername(String token) {
@@ -41,15 +64,7 @@ public class JwtConfig {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parseClaims(token);
     }
     
     public String generateToken(UserDetails userDetails) {
@@ -87,7 +102,18 @@ public class JwtConfig {
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), userDetails);
+    }
+    
+    /**
+     * Validates already parsed claims against the loaded user, without verifying the signature again.
+     */
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        if (claims == null) {
+            return false;
+        }
+        final String username = claims.getSubject();
+        return (username != null && username.equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date()));
     }
 }
@@ -1,11 +1,15 @@
 package com.example.SpringDemo.config;
 
+import com.example.SpringDemo.service.AuthenticationCacheService;
+import com.example.SpringDemo.service.RevokedTokenService;
 import com.example.SpringDemo.service.UserDetailsServiceImpl;
 import com.example.SpringDemo.entity.Session;
 import com.example.SpringDemo.entity.User;
 import com.example.SpringDemo.entity.Doctor;
 import com.example.SpringDemo.repository.SessionRepository;
 import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.util.TokenDigest;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -37,6 +41,12 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private DoctorRepository doctorRepository;
     
+    @Autowired
+    private AuthenticationCacheService authenticationCache;
+    
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain chain) throws ServletException, IOException {
@@ -50,11 +60,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         
         String username = null;
         String jwtToken = null;
+        Claims claims = null;
         
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtConfig.extractUsername(jwtToken);
+                claims = jwtConfig.parseClaims(jwtToken);
+                username = claims.getSubject();
                 System.out.println("Extracted username: " + username);
             } catch (Exception e) {
                 System.err.println("Unable to get JWT Token or JWT Token has expired: " + e.getMessage());
@@ -64,9 +76,19 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
         
         if (jwtToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Skip the session/user lookups when this token was validated recently
+            UserDetails cachedDetails = authenticationCache.get(jwtToken);
+            if (cachedDetails != null) {
+                setAuthentication(cachedDetails, request);
+                System.out.println("Authentication served from cache");
+                chain.doFilter(request, response);
+                return;
+            }
+            
+            long cacheGeneration = authenticationCache.currentGeneration();
             try {
                 // Validate session from database
-                Optional<Session> sessionOpt = sessionRepository.findBySessionTokenAndIsActiveTrueAndDeletedAtIsNull(jwtToken);
+                Optional<Session> sessionOpt = sessionRepository.findByTokenHashAndIsActiveTrueAndDeletedAtIsNull(TokenDigest.sha256Hex(jwtToken));
                 
                 if (sessionOpt.isPresent()) {
                     Session session = sessionOpt.get();
@@ -78,6 +100,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                         session.setIsActive(false);
                         session.setUpdatedAt(LocalDateTime.now());
                         sessionRepository.save(session);
+                        revokedTokenService.revoke(session);
                         System.out.println("Session invalidated due to expiry");
                     } else {
                         // Session is valid, check user/doctor status
@@ -93,16 +116,14 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                                     session.setIsActive(false);
                                     session.setUpdatedAt(LocalDateTime.now());
                                     sessionRepository.save(session);
+                                    revokedTokenService.revoke(session);
                                 } else {
                                     // User is active, create authentication
                                     UserDetails userDetails = this.userDetailsService.loadUserByUsername(user.getEmail());
-                                    if (jwtConfig.validateToken(jwtToken, userDetails)) {
-                                        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
-                                            new UsernamePasswordAuthenticationToken(
-                                                userDetails, null, userDetails.getAuthorities());
-                                        usernamePasswordAuthenticationToken
-                                            .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                                        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                                    if (jwtConfig.validateToken(claims, userDetails)) {
+                                        setAuthentication(userDetails, request);
+                                        authenticationCache.put(jwtToken, AuthenticationCacheService.TYPE_USER, user.getId(),
+                                            userDetails, session.getExpiresAt(), cacheGeneration);
                                         System.out.println("User authentication successful");
                                     }
                                 }
@@ -121,17 +142,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                                         session.setIsActive(false);
                                         session.setUpdatedAt(LocalDateTime.now());
                                         sessionRepository.save(session);
+                                        revokedTokenService.revoke(session);
                                     } else {
                                         // Doctor is active, create authentication
                                         // For doctors, we need to create a custom UserDetails
                                         UserDetails doctorDetails = createDoctorUserDetails(doctor);
-                                        if (jwtConfig.validateToken(jwtToken, doctorDetails)) {
-                                            UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
-                                                new UsernamePasswordAuthenticationToken(
-                                                    doctorDetails, null, doctorDetails.getAuthorities());
-                                            usernamePasswordAuthenticationToken
-                                                .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                                            SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                                        if (jwtConfig.validateToken(claims, doctorDetails)) {
+                                            setAuthentication(doctorDetails, request);
+                                            authenticationCache.put(jwtToken, AuthenticationCacheService.TYPE_DOCTOR, doctor.getDoctorId(),
+                                                doctorDetails, session.getExpiresAt(), cacheGeneration);
                                             System.out.println("Doctor authentication successful");
                                         }
                                     }
@@ -150,6 +169,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
     
+    private void setAuthentication(UserDetails userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
+            new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        usernamePasswordAuthenticationToken
+            .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+    }
+    
     private UserDetails createDoctorUserDetails(Doctor doctor) {
         return org.springframework.security.core.userdetails.User.builder()
                 .username(doctor.getEmail())
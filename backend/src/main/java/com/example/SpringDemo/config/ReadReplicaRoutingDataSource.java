@@ -0,0 +1,98 @@
+package com.example.SpringDemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections of {@code @Transactional(readOnly = true)} methods (reporting: stats, admin lists
+ * and searches, exports) to the replica pool and everything else to the primary, so long reporting
+ * reads do not take connections from booking writes. The decision is made when the connection is
+ * first used, which is why it sits behind a LazyConnectionDataSourceProxy (see DataSourceConfig):
+ * JPA may ask for the connection while the transaction is still starting, before it is marked read-only.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final Map<Target, HikariDataSource> pools = new EnumMap<>(Target.class);
+
+    private final Map<Target, LongAdder> routed = new EnumMap<>(Target.class);
+
+    public ReadReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        pools.put(Target.PRIMARY, primary);
+        if (replica != null) {
+            pools.put(Target.REPLICA, replica);
+        }
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (Map.Entry<Target, HikariDataSource> pool : pools.entrySet()) {
+            targets.put(pool.getKey(), pool.getValue());
+            routed.put(pool.getKey(), new LongAdder());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (pools.containsKey(Target.REPLICA) && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        routed.get((Target) determineCurrentLookupKey()).increment();
+        return connection;
+    }
+
+    public boolean hasReplica() {
+        return pools.containsKey(Target.REPLICA);
+    }
+
+    public DataSource getTarget(Target target) {
+        return pools.get(target);
+    }
+
+    public long getRoutedConnections(Target target) {
+        LongAdder count = routed.get(target);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Usage of each target pool: connections handed out through this data source, and Hikari's live
+     * counts (absent until the pool opens its first connection).
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<Target, HikariDataSource> pool : pools.entrySet()) {
+            HikariDataSource dataSource = pool.getValue();
+            Map<String, Object> target = new LinkedHashMap<>();
+            target.put("poolName", dataSource.getPoolName());
+            target.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+            target.put("connectionsRouted", getRoutedConnections(pool.getKey()));
+            HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+            if (mxBean != null) {
+                target.put("active", mxBean.getActiveConnections());
+                target.put("idle", mxBean.getIdleConnections());
+                target.put("total", mxBean.getTotalConnections());
+                target.put("threadsAwaitingConnection", mxBean.getThreadsAwaitingConnection());
+            }
+            stats.put(pool.getKey().name().toLowerCase(), target);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.SpringDemo.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Boot-time check that the database has every index and unique constraint the entities declare in
+ * {@code @Table}. {@code ddl-auto: validate} only compares tables and columns, so a migration that
+ * forgot an index would otherwise show up as slow queries, and a missing unique constraint as
+ * duplicate rows. Indexes are matched by name; unique constraints by their columns, since databases
+ * name the index behind a constraint differently. Runs once the entity manager factory (and with it
+ * Flyway) is ready, before the application serves requests.
+ */
+@Component
+public class SchemaIndexCheck {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${app.schema-check.enabled:true}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void check() throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        int checked = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+                Table table = entity.getJavaType().getAnnotation(Table.class);
+                if (table == null || (table.indexes().length == 0 && table.uniqueConstraints().length == 0)) {
+                    continue;
+                }
+                Map<String, List<String>> indexes = indexes(metaData, connection, identifier(metaData, table.name()));
+                for (Index index : table.indexes()) {
+                    checked++;
+                    if (!indexes.containsKey(index.name().toLowerCase(Locale.ROOT))) {
+                        missing.add("index " + index.name() + " on " + table.name());
+                    }
+                }
+                Set<Set<String>> uniqueColumnSets = uniqueColumnSets(metaData, connection, identifier(metaData, table.name()));
+                for (UniqueConstraint constraint : table.uniqueConstraints()) {
+                    checked++;
+                    Set<String> columns = new HashSet<>();
+                    for (String column : constraint.columnNames()) {
+                        columns.add(column.trim().toLowerCase(Locale.ROOT));
+                    }
+                    if (!uniqueColumnSets.contains(columns)) {
+                        missing.add("unique constraint " + constraint.name() + " " + columns + " on " + table.name());
+                    }
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Database schema is missing " + missing
+                + " - apply the db/migration scripts (Flyway) or add them to a new migration");
+        }
+        System.out.println("Schema check: " + checked + " indexes and unique constraints present");
+    }
+
+    // Index name (lower case) -> its columns
+    private Map<String, List<String>> indexes(DatabaseMetaData metaData, Connection connection, String table)
+            throws SQLException {
+        Map<String, List<String>> indexes = new HashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, false)) {
+            while (rows.next()) {
+                String name = rows.getString("INDEX_NAME");
+                String column = rows.getString("COLUMN_NAME");
+                if (name != null && column != null) {
+                    indexes.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> new ArrayList<>())
+                        .add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private Set<Set<String>> uniqueColumnSets(DatabaseMetaData metaData, Connection connection, String table)
+            throws SQLException {
+        Map<String, Set<String>> unique = new HashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+            while (rows.next()) {
+                String name = rows.getString("INDEX_NAME");
+                String column = rows.getString("COLUMN_NAME");
+                if (name != null && column != null) {
+                    unique.computeIfAbsent(name, key -> new HashSet<>()).add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return new HashSet<>(unique.values());
+    }
+
+    // Unquoted identifiers are stored upper case by H2 and lower case by PostgreSQL
+    private String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return name.toUpperCase(Locale.ROOT);
+        }
+        return metaData.storesLowerCaseIdentifiers() ? name.toLowerCase(Locale.ROOT) : name;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.SpringDemo.config;
 
 import com.example.SpringDemo.service.DoctorUserDetailsService;
 import com.example.SpringDemo.service.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
@@ -71,6 +72,8 @@ public class SecurityConfig {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
+                // Completion dispatch of streamed responses (exports); the request itself was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
@@ -84,6 +87,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/doctor-slots/generate-next-week").hasRole("ADMIN")
                 .requestMatchers("/api/doctor-slots/generate-initial-slots").permitAll()
                 .requestMatchers("/api/doctor-slots/generate-slots").permitAll()
+                .requestMatchers("/api/doctor-slots/generation-status").hasRole("ADMIN")
                 .requestMatchers("/api/doctor/**").hasRole("DOCTOR")
                 .requestMatchers("/api/doctors/appointments/**").hasRole("DOCTOR")
                 .requestMatchers("/api/doctors").hasRole("ADMIN")
@@ -1,8 +1,11 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.AppointmentSummary;
+import com.example.SpringDemo.dto.CursorPage;
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.service.AppointmentService;
+import com.example.SpringDemo.util.ExportWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -11,6 +14,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 
@@ -24,7 +28,7 @@ public class AdminAppointmentController {
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getAllAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getAllAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -45,12 +49,53 @@ public class AdminAppointmentController {
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Appointment> appointments = appointmentService.getAllAppointments(patientName, doctorName, status, appointmentType, dateFrom, dateTo, pageable);
+        Page<AppointmentSummary> appointments = appointmentService.getAllAppointments(patientName, doctorName, status, appointmentType, dateFrom, dateTo, pageable);
         System.out.println("Found " + appointments.getTotalElements() + " appointments");
         
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
     
+    // Cursor-paginated list: newest first, pass nextCursor back for the following page (no total count)
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<AppointmentSummary>>> getAppointmentsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String patientName,
+            @RequestParam(required = false) String doctorName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String appointmentType,
+            @RequestParam(required = false) String dateFrom,
+            @RequestParam(required = false) String dateTo) {
+        try {
+            CursorPage<AppointmentSummary> appointments = appointmentService.getAllAppointmentsByCursor(
+                patientName, doctorName, status, appointmentType, dateFrom, dateTo, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(appointments));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    // Every matching appointment as a CSV or NDJSON download, streamed row by row in id order
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String patientName,
+            @RequestParam(required = false) String doctorName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String appointmentType,
+            @RequestParam(required = false) String dateFrom,
+            @RequestParam(required = false) String dateTo) {
+        try {
+            ExportWriter.Format exportFormat = ExportWriter.parseFormat(format);
+            return ExportWriter.attachment("appointments", exportFormat, out -> appointmentService.exportAppointments(
+                exportFormat, patientName, doctorName, status, appointmentType, dateFrom, dateTo, out));
+        } catch (Exception e) {
+            return ExportWriter.badRequest(e.getMessage());
+        }
+    }
+    
     @GetMapping("/stats")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Object>> getAppointmentStats() {
@@ -1,8 +1,10 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.CursorPage;
 import com.example.SpringDemo.entity.AuditLog;
 import com.example.SpringDemo.service.AuditLogService;
+import com.example.SpringDemo.util.ExportWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -11,8 +13,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/audit-logs")
@@ -51,6 +55,58 @@ public class AdminAuditLogController {
         return ResponseEntity.ok(ApiResponse.success(auditLogs));
     }
     
+    // Cursor-paginated list: newest first, pass nextCursor back for the following page (no total count)
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<AuditLog>>> getAuditLogsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String tableName,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate) {
+        try {
+            CursorPage<AuditLog> auditLogs = auditLogService.getAuditLogsByCursor(action, tableName, userId, fromDate, toDate, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(auditLogs));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    // Every matching audit log as a CSV or NDJSON download, streamed row by row in id order
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String tableName,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate) {
+        try {
+            ExportWriter.Format exportFormat = ExportWriter.parseFormat(format);
+            return ExportWriter.attachment("audit-logs", exportFormat, out -> auditLogService.exportAuditLogs(
+                exportFormat, action, tableName, userId, fromDate, toDate, out));
+        } catch (Exception e) {
+            return ExportWriter.badRequest(e.getMessage());
+        }
+    }
+    
+    // Queue depth, drop/spill counts and flush latency of the background audit writer
+    @GetMapping("/writer-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getWriterStats() {
+        return ResponseEntity.ok(ApiResponse.success(auditLogService.getWriterStats()));
+    }
+    
+    // Segments, records and bloom/time-index skip counts of the optional audit segment store
+    @GetMapping("/segment-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSegmentStoreStats() {
+        return ResponseEntity.ok(ApiResponse.success(auditLogService.getSegmentStoreStats()));
+    }
+    
     @GetMapping("/recent")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<List<AuditLog>>> getRecentAuditLogs() {
@@ -1,6 +1,7 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.CursorPage;
 import com.example.SpringDemo.dto.ComplaintRequest;
 import com.example.SpringDemo.entity.Complaint;
 import com.example.SpringDemo.service.ComplaintService;
@@ -51,6 +52,24 @@ public class AdminComplaintController {
         return ResponseEntity.ok(ApiResponse.success(complaints));
     }
     
+    // Cursor-paginated list: newest first, pass nextCursor back for the following page (no total count)
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<Complaint>>> getComplaintsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority) {
+        try {
+            CursorPage<Complaint> complaints = complaintService.getComplaintsByCursor(title, category, status, priority, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(complaints));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/available")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Page<Complaint>>> getAvailableComplaints(
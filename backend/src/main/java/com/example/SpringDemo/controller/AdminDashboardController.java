@@ -0,0 +1,57 @@
+package com.example.SpringDemo.controller;
+
+import com.example.SpringDemo.config.ReadReplicaRoutingDataSource;
+import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.service.DashboardService;
+import com.example.SpringDemo.service.StatusCounterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/dashboard")
+@CrossOrigin(origins = "*")
+public class AdminDashboardController {
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @Autowired
+    private StatusCounterRegistry statusCounters;
+    
+    @Autowired
+    private ReadReplicaRoutingDataSource routingDataSource;
+    
+    // Stats of all sections in one response; cached for a few seconds
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getDashboard() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(dashboardService.getDashboard()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(dashboardService.getCacheStats()));
+    }
+    
+    @GetMapping("/status-counters")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStatusCounters() {
+        return ResponseEntity.ok(ApiResponse.success(statusCounters.getStats()));
+    }
+    
+    // Connection pool usage per target (primary for writes, replica for read-only transactions)
+    @GetMapping("/pool-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPoolStats() {
+        return ResponseEntity.ok(ApiResponse.success(routingDataSource.getStats()));
+    }
+}
@@ -4,6 +4,7 @@ import com.example.SpringDemo.dto.ApiResponse;
 import com.example.SpringDemo.dto.DoctorRequest;
 import com.example.SpringDemo.entity.Doctor;
 import com.example.SpringDemo.entity.Specialization;
+import com.example.SpringDemo.service.DoctorCancellationService;
 import com.example.SpringDemo.service.DoctorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -25,6 +26,9 @@ public class AdminDoctorController {
     @Autowired
     private DoctorService doctorService;
     
+    @Autowired
+    private DoctorCancellationService doctorCancellationService;
+    
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -86,6 +90,30 @@ public class AdminDoctorController {
         }
     }
     
+    // Bulk-cancels the doctor's scheduled appointments in the background (e.g. after deactivating them)
+    @PostMapping("/{id}/cancel-appointments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> cancelDoctorAppointments(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "Doctor is no longer available") String reason) {
+        try {
+            DoctorCancellationService.Job job = doctorCancellationService.submit(id, reason);
+            return ResponseEntity.ok(ApiResponse.success("Appointment cancellation started", job.toMap()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/cancellation-jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCancellationJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(doctorCancellationService.getJob(jobId).toMap()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Doctor>> createDoctor(@RequestBody DoctorRequest request) {
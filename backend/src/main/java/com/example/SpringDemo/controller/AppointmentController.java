@@ -1,6 +1,7 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.AppointmentSummary;
 import com.example.SpringDemo.dto.AppointmentRequest;
 import com.example.SpringDemo.dto.AppointmentDetailsResponse;
 import com.example.SpringDemo.entity.Appointment;
@@ -139,7 +140,7 @@ public class AppointmentController {
     }
     
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getAppointmentsByPatient(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getAppointmentsByPatient(
             @PathVariable Long patientId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -150,12 +151,12 @@ public class AppointmentController {
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Appointment> appointments = appointmentService.getAppointmentsByPatient(patientId, pageable);
+        Page<AppointmentSummary> appointments = appointmentService.getAppointmentsByPatient(patientId, pageable);
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
     
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getAppointmentsByDoctor(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getAppointmentsByDoctor(
             @PathVariable Long doctorId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -166,13 +167,13 @@ public class AppointmentController {
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Appointment> appointments = appointmentService.getAppointmentsByDoctor(doctorId, pageable);
+        Page<AppointmentSummary> appointments = appointmentService.getAppointmentsByDoctor(doctorId, pageable);
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
     
     @GetMapping("/doctor/my-appointments")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getMyAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getMyAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "appointmentDate") String sortBy,
@@ -187,13 +188,13 @@ public class AppointmentController {
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Appointment> appointments = appointmentService.getMyAppointmentsAsDoctor(
+        Page<AppointmentSummary> appointments = appointmentService.getMyAppointmentsAsDoctor(
             pageable, status, appointmentType, dateFrom, dateTo, search);
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> searchAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> searchAppointments(
             @RequestParam(required = false) Long patientId,
             @RequestParam(required = false) Long doctorId,
             @RequestParam(required = false) String status,
@@ -209,7 +210,7 @@ public class AppointmentController {
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Appointment> appointments = appointmentService.searchAppointments(patientId, doctorId, status, 
+        Page<AppointmentSummary> appointments = appointmentService.searchAppointments(patientId, doctorId, status, 
                                                                               appointmentType, fromDate, toDate, pageable);
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
@@ -268,14 +269,14 @@ public class AppointmentController {
     }
     
     @GetMapping("/patient/{patientId}/upcoming")
-    public ResponseEntity<ApiResponse<List<Appointment>>> getUpcomingAppointmentsByPatient(@PathVariable Long patientId) {
-        List<Appointment> appointments = appointmentService.getUpcomingAppointmentsByPatient(patientId);
+    public ResponseEntity<ApiResponse<List<AppointmentSummary>>> getUpcomingAppointmentsByPatient(@PathVariable Long patientId) {
+        List<AppointmentSummary> appointments = appointmentService.getUpcomingAppointmentsByPatient(patientId);
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
     
     @GetMapping("/patient/{patientId}/past")
-    public ResponseEntity<ApiResponse<List<Appointment>>> getPastAppointmentsByPatient(@PathVariable Long patientId) {
-        List<Appointment> appointments = appointmentService.getPastAppointmentsByPatient(patientId);
+    public ResponseEntity<ApiResponse<List<AppointmentSummary>>> getPastAppointmentsByPatient(@PathVariable Long patientId) {
+        List<AppointmentSummary> appointments = appointmentService.getPastAppointmentsByPatient(patientId);
         return ResponseEntity.ok(ApiResponse.success(appointments));
     }
     
@@ -1,6 +1,8 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.AvailableSlotResponse;
+import com.example.SpringDemo.dto.SlotSummary;
 import com.example.SpringDemo.entity.DoctorSlot;
 import com.example.SpringDemo.entity.Specialization;
 import com.example.SpringDemo.service.AppointmentService;
@@ -44,11 +46,11 @@ public class AppointmentSchedulingController {
     }
     
     @GetMapping("/available-slots")
-    public ResponseEntity<ApiResponse<List<DoctorSlot>>> getAvailableSlots(
+    public ResponseEntity<ApiResponse<List<AvailableSlotResponse>>> getAvailableSlots(
             @RequestParam(required = false) Long specializationId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         try {
-            List<DoctorSlot> slots;
+            List<AvailableSlotResponse> slots;
             if (specializationId != null) {
                 slots = doctorSlotService.getAvailableSlotsBySpecializationAndDate(specializationId, date);
             } else {
@@ -61,11 +63,11 @@ public class AppointmentSchedulingController {
     }
     
     @GetMapping("/doctors/{doctorId}/slots")
-    public ResponseEntity<ApiResponse<List<DoctorSlot>>> getDoctorSlots(
+    public ResponseEntity<ApiResponse<List<SlotSummary>>> getDoctorSlots(
             @PathVariable Long doctorId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         try {
-            List<DoctorSlot> slots = doctorSlotService.getAvailableSlotsByDoctorAndDate(doctorId, date);
+            List<SlotSummary> slots = doctorSlotService.getAvailableSlotsByDoctorAndDate(doctorId, date);
             return ResponseEntity.ok(ApiResponse.success(slots));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
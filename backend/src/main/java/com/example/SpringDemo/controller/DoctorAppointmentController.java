@@ -1,6 +1,7 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.AppointmentSummary;
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.service.AppointmentService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,7 +29,7 @@ public class DoctorAppointmentController {
      * Get appointments for the current logged-in doctor
      */
     @GetMapping("/appointments")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getMyAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getMyAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "appointmentDate") String sortBy,
@@ -53,7 +54,7 @@ public class DoctorAppointmentController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            Page<Appointment> appointments = appointmentService.getMyAppointmentsAsDoctor(
+            Page<AppointmentSummary> appointments = appointmentService.getMyAppointmentsAsDoctor(
                 pageable, status, appointmentType, dateFrom, dateTo, search);
             
             return ResponseEntity.ok(ApiResponse.success(appointments));
@@ -1,6 +1,7 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.AppointmentSummary;
 import com.example.SpringDemo.dto.DoctorRequest;
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.entity.Doctor;
@@ -143,7 +144,7 @@ public class DoctorController {
      */
     @GetMapping("/appointments")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getMyAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getMyAppointments(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String appointmentType,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
@@ -158,7 +159,7 @@ public class DoctorController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            Page<Appointment> appointments = appointmentService.getMyAppointmentsAsDoctor(
+            Page<AppointmentSummary> appointments = appointmentService.getMyAppointmentsAsDoctor(
                 pageable, status, appointmentType, dateFrom, dateTo, search);
             
             return ResponseEntity.ok(ApiResponse.success(appointments));
@@ -211,7 +212,7 @@ public class DoctorController {
      */
     @GetMapping("/appointments/today")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getTodayAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getTodayAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
@@ -219,7 +220,7 @@ public class DoctorController {
             Sort sort = Sort.by("appointmentTime").ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            Page<Appointment> appointments = appointmentService.getMyAppointmentsAsDoctor(
+            Page<AppointmentSummary> appointments = appointmentService.getMyAppointmentsAsDoctor(
                 pageable, null, null, today, today, null);
             
             return ResponseEntity.ok(ApiResponse.success(appointments));
@@ -233,7 +234,7 @@ public class DoctorController {
      */
     @GetMapping("/appointments/upcoming")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getUpcomingAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getUpcomingAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
@@ -241,7 +242,7 @@ public class DoctorController {
             Sort sort = Sort.by("appointmentDate", "appointmentTime").ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            Page<Appointment> appointments = appointmentService.getMyAppointmentsAsDoctor(
+            Page<AppointmentSummary> appointments = appointmentService.getMyAppointmentsAsDoctor(
                 pageable, "SCHEDULED", null, today, null, null);
             
             return ResponseEntity.ok(ApiResponse.success(appointments));
@@ -255,7 +256,7 @@ public class DoctorController {
      */
     @GetMapping("/my-appointments")
     @PreAuthorize("hasRole('DOCTOR')")
-    public ResponseEntity<ApiResponse<Page<Appointment>>> getMyAppointments(
+    public ResponseEntity<ApiResponse<Page<AppointmentSummary>>> getMyAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "appointmentDate") String sortBy,
@@ -270,7 +271,7 @@ public class DoctorController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
             
-            Page<Appointment> appointments = appointmentService.getMyAppointmentsAsDoctor(
+            Page<AppointmentSummary> appointments = appointmentService.getMyAppointmentsAsDoctor(
                 pageable, status, appointmentType, dateFrom, dateTo, search);
             
             return ResponseEntity.ok(ApiResponse.success(appointments));
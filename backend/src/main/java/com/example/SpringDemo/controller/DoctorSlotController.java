@@ -2,10 +2,15 @@ package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
 import com.example.SpringDemo.service.DoctorSlotGeneratorService;
+import com.example.SpringDemo.service.SlotGenerationPipeline;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/doctor-slots")
 @CrossOrigin(origins = "*")
@@ -14,6 +19,23 @@ public class DoctorSlotController {
     @Autowired
     private DoctorSlotGeneratorService doctorSlotGeneratorService;
     
+    @Autowired
+    private SlotGenerationPipeline slotGenerationPipeline;
+    
+    /**
+     * Slot generation progress (admins only); 503 until the startup generation pass has finished
+     */
+    @GetMapping("/generation-status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGenerationStatus() {
+        Map<String, Object> stats = slotGenerationPipeline.getStats();
+        if (!slotGenerationPipeline.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.success("Slot generation in progress", stats));
+        }
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
     /**
      * Generate slots for all doctors for the next month
      */
@@ -6,6 +6,8 @@ import com.example.SpringDemo.dto.PaymentWithAppointmentRequest;
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.entity.Payment;
 import com.example.SpringDemo.service.PaymentService;
+import com.example.SpringDemo.service.RevenueRollupService;
+import com.example.SpringDemo.util.ExportWriter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -15,6 +17,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -28,6 +31,9 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
     @PostMapping
     public ResponseEntity<ApiResponse<Payment>> createPayment(@Valid @RequestBody PaymentRequest request) {
         try {
@@ -90,6 +96,24 @@ public class PaymentController {
         return ResponseEntity.ok(ApiResponse.success(payments));
     }
     
+    // Every matching payment as a CSV or NDJSON download, streamed row by row in id order
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long appointmentId) {
+        try {
+            ExportWriter.Format exportFormat = ExportWriter.parseFormat(format);
+            return ExportWriter.attachment("payments", exportFormat, out -> paymentService.exportPayments(
+                exportFormat, status, method, patientId, appointmentId, out));
+        } catch (Exception e) {
+            return ExportWriter.badRequest(e.getMessage());
+        }
+    }
+    
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<ApiResponse<Page<Payment>>> getPaymentsByPatient(
             @PathVariable Long patientId,
@@ -208,12 +232,26 @@ public class PaymentController {
     @GetMapping("/revenue")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Object>> getRevenueStats(
-            @RequestParam(required = false) String period) {
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate) {
         try {
-            Object stats = paymentService.getRevenueStats(period);
+            Object stats = paymentService.getRevenueStats(period, fromDate, toDate);
             return ResponseEntity.ok(ApiResponse.success(stats));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
+    
+    // Recomputes the revenue rollup from the payment table, e.g. after payments were changed outside the API
+    @PostMapping("/revenue/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildRevenueRollup() {
+        try {
+            int rows = revenueRollupService.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("Revenue rollup rebuilt", rows));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
 }
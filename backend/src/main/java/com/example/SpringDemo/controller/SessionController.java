@@ -2,6 +2,7 @@ package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
 import com.example.SpringDemo.entity.Session;
+import com.example.SpringDemo.service.SessionCleanupService;
 import com.example.SpringDemo.service.SessionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,6 +14,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -23,6 +25,9 @@ public class SessionController {
     @Autowired
     private SessionService sessionService;
     
+    @Autowired
+    private SessionCleanupService sessionCleanupService;
+    
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Page<Session>>> getAllSessions(
@@ -110,4 +115,10 @@ public class SessionController {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
+    
+    @GetMapping("/cleanup-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCleanupStats() {
+        return ResponseEntity.ok(ApiResponse.success(sessionCleanupService.getStats()));
+    }
 }
@@ -1,8 +1,8 @@
 package com.example.SpringDemo.controller;
 
 import com.example.SpringDemo.dto.ApiResponse;
+import com.example.SpringDemo.dto.AppointmentSummary;
 import com.example.SpringDemo.dto.ComplaintRequest;
-import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.entity.Complaint;
 import com.example.SpringDemo.service.AppointmentService;
 import com.example.SpringDemo.service.ComplaintService;
@@ -88,10 +88,10 @@ public class SimpleComplaintController {
     
     // Get past appointments for a patient - NO AUTHENTICATION REQUIRED (for past appointments only)
     @GetMapping("/patient/{patientId}/past-appointments")
-    public ResponseEntity<ApiResponse<List<Appointment>>> getPastAppointments(@PathVariable Long patientId) {
+    public ResponseEntity<ApiResponse<List<AppointmentSummary>>> getPastAppointments(@PathVariable Long patientId) {
         try {
             System.out.println("Getting past appointments for patient: " + patientId);
-            List<Appointment> pastAppointments = appointmentService.getPastAppointmentsByPatient(patientId);
+            List<AppointmentSummary> pastAppointments = appointmentService.getPastAppointmentsByPatient(patientId);
             System.out.println("Found " + pastAppointments.size() + " past appointments");
             return ResponseEntity.ok(ApiResponse.success(pastAppointments));
         } catch (Exception e) {
@@ -103,18 +103,18 @@ public class SimpleComplaintController {
     
     // Get all appointments for a patient - NO AUTHENTICATION REQUIRED (for demonstration purposes)
     @GetMapping("/patient/{patientId}/all-appointments")
-    public ResponseEntity<ApiResponse<List<Appointment>>> getAllAppointments(@PathVariable Long patientId) {
+    public ResponseEntity<ApiResponse<List<AppointmentSummary>>> getAllAppointments(@PathVariable Long patientId) {
         try {
             System.out.println("Getting all appointments for patient: " + patientId);
             Map<String, Object> allAppointments = appointmentService.getAllAppointmentsByPatient(patientId);
             
             // Combine upcoming and past appointments
             @SuppressWarnings("unchecked")
-            List<Appointment> upcoming = (List<Appointment>) allAppointments.get("upcoming");
+            List<AppointmentSummary> upcoming = (List<AppointmentSummary>) allAppointments.get("upcoming");
             @SuppressWarnings("unchecked")
-            List<Appointment> past = (List<Appointment>) allAppointments.get("past");
+            List<AppointmentSummary> past = (List<AppointmentSummary>) allAppointments.get("past");
             
-            List<Appointment> allAppointmentsList = new java.util.ArrayList<>();
+            List<AppointmentSummary> allAppointmentsList = new java.util.ArrayList<>();
             if (upcoming != null) allAppointmentsList.addAll(upcoming);
             if (past != null) allAppointmentsList.addAll(past);
             
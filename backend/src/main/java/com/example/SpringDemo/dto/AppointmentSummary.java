@@ -0,0 +1,61 @@
+package com.example.SpringDemo.dto;
+
+import com.example.SpringDemo.entity.Appointment;
+import com.example.SpringDemo.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Spring Data projection used by the appointment list endpoints. Property names match the
+ * Appointment entity JSON, but patient and doctor are reduced to what a list row shows.
+ * Backing queries fetch-join patient, doctor and specialization so a page is one select.
+ */
+public interface AppointmentSummary {
+    Long getId();
+    LocalDate getAppointmentDate();
+    LocalTime getAppointmentTime();
+    LocalTime getEndTime();
+    Appointment.Status getStatus();
+    Appointment.AppointmentType getAppointmentType();
+    BigDecimal getConsultationFee();
+    String getSymptoms();
+    String getNotes();
+    Long getCancelledByUser();
+    Long getCancelledByDoctor();
+    LocalDateTime getCancelledAt();
+    String getCancellationReason();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getDeletedAt();
+    PatientSummary getPatient();
+    DoctorSummary getDoctor();
+
+    interface PatientSummary {
+        Long getId();
+        String getName();
+        String getFirstname();
+        String getLastname();
+        String getEmail();
+        String getContact();
+        User.Gender getGender();
+        String getBloodGroup();
+    }
+
+    interface DoctorSummary {
+        Long getDoctorId();
+        String getFirstName();
+        String getLastName();
+        Integer getYearsOfExp();
+        BigDecimal getConsultationFee();
+        Boolean getActive();
+        LocalDateTime getDeletedAt();
+        SpecializationSummary getSpecialization();
+    }
+
+    interface SpecializationSummary {
+        Long getSpecializationId();
+        String getName();
+    }
+}
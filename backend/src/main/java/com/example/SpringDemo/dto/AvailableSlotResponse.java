@@ -0,0 +1,36 @@
+package com.example.SpringDemo.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Bookable slot as listed to patients; one DoctorInfo instance is shared by all slots of a doctor.
+ */
+@Data
+public class AvailableSlotResponse {
+    private Long slotId;
+    private LocalDate slotDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private DoctorInfo doctor;
+
+    @Data
+    public static class DoctorInfo {
+        private Long doctorId;
+        private String firstName;
+        private String lastName;
+        private Integer yearsOfExp;
+        private BigDecimal consultationFee;
+        private String bio;
+        private SpecializationInfo specialization;
+    }
+
+    @Data
+    public static class SpecializationInfo {
+        private Long specializationId;
+        private String name;
+    }
+}
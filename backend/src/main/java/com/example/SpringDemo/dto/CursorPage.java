@@ -0,0 +1,36 @@
+package com.example.SpringDemo.dto;
+
+import com.example.SpringDemo.util.PageCursor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. There is no total count; pass nextCursor back to get the
+ * following page, which stays stable while rows are inserted ahead of it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    /**
+     * Builds the page from a query that fetched up to size + 1 rows (see {@link PageCursor#window}).
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        int pageSize = PageCursor.clampSize(size);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, pageSize, false, null);
+        }
+        List<T> content = rows.subList(0, pageSize);
+        return new CursorPage<>(content, pageSize, true, cursorOf.apply(content.get(pageSize - 1)));
+    }
+}
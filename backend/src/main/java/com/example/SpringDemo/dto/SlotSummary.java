@@ -0,0 +1,17 @@
+package com.example.SpringDemo.dto;
+
+import com.example.SpringDemo.entity.DoctorSlot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Spring Data projection of a single doctor's slot (the doctor is implied by the request).
+ */
+public interface SlotSummary {
+    Long getSlotId();
+    LocalDate getSlotDate();
+    LocalTime getStartTime();
+    LocalTime getEndTime();
+    DoctorSlot.SlotStatus getStatus();
+}
@@ -16,7 +16,13 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments",
+       indexes = {
+           @Index(name = "idx_appointments_patient_deleted_date", columnList = "patient_id, deleted_at, appointment_date"),
+           @Index(name = "idx_appointments_doctor_status", columnList = "doctor_id, status"),
+           @Index(name = "idx_appointments_status_deleted", columnList = "status, deleted_at"),
+           @Index(name = "idx_appointments_date_time_id", columnList = "appointment_date DESC, appointment_time DESC, id DESC")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,20 +30,21 @@ import java.time.LocalTime;
 public class Appointment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Patient is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private User patient;
     
     @NotNull(message = "Doctor is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private Doctor doctor;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_slot_id")
     @JsonBackReference
     private DoctorSlot doctorSlot;
@@ -10,7 +10,12 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs",
+       indexes = {
+           @Index(name = "idx_audit_logs_created_id", columnList = "created_at DESC, id DESC"),
+           @Index(name = "idx_audit_logs_table_name", columnList = "table_name"),
+           @Index(name = "idx_audit_logs_action", columnList = "action")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,13 +23,19 @@ import java.time.LocalDateTime;
 public class AuditLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_seq")
+    @SequenceGenerator(name = "audit_log_seq", sequenceName = "audit_logs_seq", allocationSize = 50)
     private Long id;
     
+    // Acting user; null for doctors (see doctorId) and for unauthenticated/system changes
     @ManyToOne
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id")
     private User user;
     
+    // Acting doctor - doctors are not rows of the users table
+    @Column(name = "doctor_id")
+    private Long doctorId;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Action action;
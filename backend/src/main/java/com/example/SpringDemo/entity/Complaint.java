@@ -12,7 +12,12 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "complaints")
+@Table(name = "complaints",
+       indexes = {
+           @Index(name = "idx_complaints_patient_status", columnList = "patient_id, status"),
+           @Index(name = "idx_complaints_status_deleted", columnList = "status, deleted_at"),
+           @Index(name = "idx_complaints_created_id", columnList = "created_at DESC, complaint_id DESC")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
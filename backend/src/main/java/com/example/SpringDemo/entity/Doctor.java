@@ -1,5 +1,6 @@
 package com.example.SpringDemo.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -14,11 +15,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "doctors")
+@Table(name = "doctors",
+       indexes = @Index(name = "idx_doctors_active_deleted", columnList = "active, deleted_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Doctor {
     
     @Id
@@ -152,6 +155,10 @@ public class Doctor {
     @Column(name = "working_days")
     private String workingDays; // e.g., "MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY"
     
+    // Last date slots have been generated up to; the nightly job only appends days after it
+    @Column(name = "slots_materialized_through")
+    private LocalDate slotsMaterializedThrough;
+    
     private String bio;
     
     // Audit fields
@@ -1,6 +1,6 @@
 package com.example.SpringDemo.entity;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,19 +14,27 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "doctor_slots")
+@Table(name = "doctor_slots",
+       uniqueConstraints = @UniqueConstraint(name = "uk_doctor_slot_time", columnNames = {"doctor_id", "slot_date", "start_time"}),
+       indexes = {
+           @Index(name = "idx_doctor_slots_doctor_date_status", columnList = "doctor_id, slot_date, status"),
+           @Index(name = "idx_doctor_slots_date_status", columnList = "slot_date, status")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class DoctorSlot {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (ids handed out 50 at a time) so inserts can be JDBC-batched; IDENTITY disables batching
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctor_slot_seq")
+    @SequenceGenerator(name = "doctor_slot_seq", sequenceName = "doctor_slots_seq", allocationSize = 50)
     @Column(name = "slot_id")
     private Long slotId;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private Doctor doctor;
     
@@ -43,9 +51,10 @@ public class DoctorSlot {
     @Column(name = "status", nullable = false)
     private SlotStatus status = SlotStatus.AVAILABLE;
     
-    @OneToOne(mappedBy = "doctorSlot", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JsonManagedReference
-    private Appointment appointment;
+    // Optimistic lock - concurrent read-modify-write of the same slot fails instead of silently overwriting
+    @Version
+    @Column(name = "version")
+    private Long version;
     
     // Audit fields
     @CreatedDate
@@ -12,7 +12,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payment")
+@Table(name = "payment",
+       indexes = @Index(name = "idx_payment_status_deleted", columnList = "status, deleted_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +21,8 @@ import java.time.LocalDateTime;
 public class Payment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payment_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "payment_id", unique = true, nullable = false)
@@ -0,0 +1,47 @@
+package com.example.SpringDemo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Successful payment revenue per day, method, doctor and specialization. Maintained by
+ * RevenueRollupService in the same transaction as the payment change, so revenue queries read a few
+ * rows per day instead of scanning the payment table. Doctor/specialization 0 = payment without a doctor.
+ */
+@Entity
+@Table(name = "revenue_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_revenue_rollup_key",
+           columnNames = {"revenue_date", "method", "doctor_id", "specialization_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Payment.Method method;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "specialization_id", nullable = false)
+    private Long specializationId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "payment_count", nullable = false)
+    private Long paymentCount;
+}
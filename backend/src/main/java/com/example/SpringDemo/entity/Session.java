@@ -1,5 +1,6 @@
 package com.example.SpringDemo.entity;
 
+import com.example.SpringDemo.util.TokenDigest;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -11,7 +12,14 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "session")
+@Table(name = "session",
+       uniqueConstraints = @UniqueConstraint(name = "uk_session_token_hash", columnNames = "token_hash"),
+       indexes = {
+           @Index(name = "idx_session_user_active", columnList = "user_id, is_active"),
+           @Index(name = "idx_session_doctor_active", columnList = "doctor_id, is_active"),
+           @Index(name = "idx_session_active_deleted", columnList = "is_active, deleted_at"),
+           @Index(name = "idx_session_updated_at", columnList = "updated_at")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,7 +27,8 @@ import java.time.LocalDateTime;
 public class Session {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "session_seq")
+    @SequenceGenerator(name = "session_seq", sequenceName = "session_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -32,9 +41,13 @@ public class Session {
     @Column(name = "user_type", nullable = false)
     private String userType; // "USER" or "DOCTOR"
     
-    @Column(name = "session_token", unique = true, nullable = false, length = 1000)
+    @Column(name = "session_token", nullable = false, length = 1000)
     private String sessionToken;
     
+    // SHA-256 of sessionToken (set together with it); sessions are looked up by this fixed-size key
+    @Column(name = "token_hash", nullable = false, length = TokenDigest.LENGTH)
+    private String tokenHash;
+    
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
     
@@ -61,4 +74,9 @@ public class Session {
     
     @Column(name = "deleted_by")
     private Long deletedBy;
+    
+    public void setSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
+        this.tokenHash = sessionToken != null ? TokenDigest.sha256Hex(sessionToken) : null;
+    }
 }
@@ -11,7 +11,8 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "specialization")
+@Table(name = "specialization",
+       indexes = @Index(name = "idx_specialization_status_deleted", columnList = "status, deleted_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
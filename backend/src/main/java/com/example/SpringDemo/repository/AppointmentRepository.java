@@ -1,75 +1,129 @@
 package com.example.SpringDemo.repository;
 
+import com.example.SpringDemo.dto.AppointmentSummary;
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.entity.Doctor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.deletedAt IS NULL")
-    Page<Appointment> findByPatientId(@Param("patientId") Long patientId, Pageable pageable);
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.patient.id = :patientId AND a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId AND a.deletedAt IS NULL")
+    Page<AppointmentSummary> findByPatientId(@Param("patientId") Long patientId, Pageable pageable);
     
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND " +
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.patient.id = :patientId AND " +
+           "(:status IS NULL OR a.status = :statusEnum) AND " +
+           "a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId AND " +
            "(:status IS NULL OR a.status = :statusEnum) AND " +
            "a.deletedAt IS NULL")
-    Page<Appointment> findByPatientIdAndStatusAndDeletedAtIsNull(@Param("patientId") Long patientId, 
+    Page<AppointmentSummary> findByPatientIdAndStatusAndDeletedAtIsNull(@Param("patientId") Long patientId, 
                                                                  @Param("status") String status,
                                                                  @Param("statusEnum") Appointment.Status statusEnum, 
                                                                  Pageable pageable);
     
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND " +
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.patient.id = :patientId AND " +
+           "(:status IS NULL OR a.status = :statusEnum) AND " +
+           "(a.appointmentDate > :today OR (a.appointmentDate = :today AND a.appointmentTime > :currentTime)) AND " +
+           "a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId AND " +
            "(:status IS NULL OR a.status = :statusEnum) AND " +
            "(a.appointmentDate > :today OR (a.appointmentDate = :today AND a.appointmentTime > :currentTime)) AND " +
            "a.deletedAt IS NULL")
-    Page<Appointment> findUpcomingAppointmentsByPatient(@Param("patientId") Long patientId, 
+    Page<AppointmentSummary> findUpcomingAppointmentsByPatient(@Param("patientId") Long patientId, 
                                                         @Param("status") String status,
                                                         @Param("statusEnum") Appointment.Status statusEnum,
                                                         @Param("today") java.time.LocalDate today,
                                                         @Param("currentTime") java.time.LocalTime currentTime,
                                                         Pageable pageable);
     
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND " +
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.patient.id = :patientId AND " +
+           "(:status IS NULL OR a.status = :statusEnum) AND " +
+           "(a.appointmentDate < :today OR (a.appointmentDate = :today AND a.appointmentTime <= :currentTime)) AND " +
+           "a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.patient.id = :patientId AND " +
            "(:status IS NULL OR a.status = :statusEnum) AND " +
            "(a.appointmentDate < :today OR (a.appointmentDate = :today AND a.appointmentTime <= :currentTime)) AND " +
            "a.deletedAt IS NULL")
-    Page<Appointment> findPastAppointmentsByPatient(@Param("patientId") Long patientId, 
+    Page<AppointmentSummary> findPastAppointmentsByPatient(@Param("patientId") Long patientId, 
                                                     @Param("status") String status,
                                                     @Param("statusEnum") Appointment.Status statusEnum,
                                                     @Param("today") java.time.LocalDate today,
                                                     @Param("currentTime") java.time.LocalTime currentTime,
                                                     Pageable pageable);
     
-    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.deletedAt IS NULL")
-    Page<Appointment> findByDoctorId(@Param("doctorId") Long doctorId, Pageable pageable);
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.doctor.id = :doctorId AND a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId AND a.deletedAt IS NULL")
+    Page<AppointmentSummary> findByDoctorId(@Param("doctorId") Long doctorId, Pageable pageable);
     
     @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.status = 'SCHEDULED' AND a.deletedAt IS NULL")
     List<Appointment> findScheduledAppointmentsByDoctorId(@Param("doctorId") Long doctorId);
     
-    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND " +
+    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId AND a.status = 'SCHEDULED' AND a.deletedAt IS NULL")
+    long countScheduledAppointmentsByDoctorId(@Param("doctorId") Long doctorId);
+    
+    // (id, doctor_slot_id) of the doctor's scheduled appointments, row-locked so the bulk cancel that
+    // follows updates exactly these rows
+    @Query(value = "SELECT id, doctor_slot_id FROM appointments WHERE doctor_id = :doctorId AND status = 'SCHEDULED' " +
+           "AND deleted_at IS NULL ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockScheduledAppointmentsByDoctorId(@Param("doctorId") Long doctorId);
+    
+    // Clears the persistence context so managed copies of these rows are not flushed back over the update
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Appointment a SET a.status = 'CANCELLED', a.doctorSlot = NULL, a.cancellationReason = :reason, " +
+           "a.cancelledAt = :cancelledAt, a.cancelledByDoctor = :doctorId, a.updatedAt = :cancelledAt " +
+           "WHERE a.id IN :ids AND a.status = 'SCHEDULED'")
+    int cancelScheduledAppointments(@Param("ids") Collection<Long> ids,
+                                    @Param("doctorId") Long doctorId,
+                                    @Param("reason") String reason,
+                                    @Param("cancelledAt") LocalDateTime cancelledAt);
+    
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.doctor.id = :doctorId AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentType) AND " +
+           "(:fromDate IS NULL OR a.appointmentDate >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.appointmentDate <= :toDate) AND " +
+           "a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId AND " +
            "(:status IS NULL OR a.status = :status) AND " +
            "(:appointmentType IS NULL OR a.appointmentType = :appointmentType) AND " +
            "(:fromDate IS NULL OR a.appointmentDate >= :fromDate) AND " +
            "(:toDate IS NULL OR a.appointmentDate <= :toDate) AND " +
            "a.deletedAt IS NULL")
-    Page<Appointment> findMyAppointmentsWithFilters(@Param("doctorId") Long doctorId,
+    Page<AppointmentSummary> findMyAppointmentsWithFilters(@Param("doctorId") Long doctorId,
                                                    @Param("status") Appointment.Status status,
                                                    @Param("appointmentType") Appointment.AppointmentType appointmentType,
                                                    @Param("fromDate") LocalDate fromDate,
                                                    @Param("toDate") LocalDate toDate,
                                                    Pageable pageable);
     
-    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND " +
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.doctor.id = :doctorId AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentType) AND " +
+           "(:fromDate IS NULL OR a.appointmentDate >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.appointmentDate <= :toDate) AND " +
+           "(LOWER(a.patient.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(a.patient.email) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :doctorId AND " +
            "(:status IS NULL OR a.status = :status) AND " +
            "(:appointmentType IS NULL OR a.appointmentType = :appointmentType) AND " +
            "(:fromDate IS NULL OR a.appointmentDate >= :fromDate) AND " +
@@ -77,7 +131,7 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "(LOWER(a.patient.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(a.patient.email) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
            "a.deletedAt IS NULL")
-    Page<Appointment> findMyAppointmentsWithSearch(@Param("doctorId") Long doctorId,
+    Page<AppointmentSummary> findMyAppointmentsWithSearch(@Param("doctorId") Long doctorId,
                                                   @Param("status") Appointment.Status status,
                                                   @Param("appointmentType") Appointment.AppointmentType appointmentType,
                                                   @Param("fromDate") LocalDate fromDate,
@@ -93,7 +147,15 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
                                             @Param("date") LocalDate date, 
                                             @Param("time") LocalTime time);
     
-    @Query("SELECT a FROM Appointment a WHERE " +
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE " +
+           "(:patientId IS NULL OR a.patient.id = :patientId) AND " +
+           "(:doctorId IS NULL OR a.doctor.id = :doctorId) AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentType) AND " +
+           "(:fromDate IS NULL OR a.appointmentDate >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.appointmentDate <= :toDate) AND " +
+           "a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a WHERE " +
            "(:patientId IS NULL OR a.patient.id = :patientId) AND " +
            "(:doctorId IS NULL OR a.doctor.id = :doctorId) AND " +
            "(:status IS NULL OR a.status = :status) AND " +
@@ -101,7 +163,7 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "(:fromDate IS NULL OR a.appointmentDate >= :fromDate) AND " +
            "(:toDate IS NULL OR a.appointmentDate <= :toDate) AND " +
            "a.deletedAt IS NULL")
-    Page<Appointment> findAppointmentsWithFilters(@Param("patientId") Long patientId,
+    Page<AppointmentSummary> findAppointmentsWithFilters(@Param("patientId") Long patientId,
                                                  @Param("doctorId") Long doctorId,
                                                  @Param("status") Appointment.Status status,
                                                  @Param("appointmentType") Appointment.AppointmentType appointmentType,
@@ -112,11 +174,11 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.doctor = :doctor AND a.appointmentDate = :date AND a.status = 'SCHEDULED' AND a.deletedAt IS NULL")
     Long countScheduledAppointmentsByDoctorAndDate(@Param("doctor") Doctor doctor, @Param("date") LocalDate date);
     
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.status != 'CANCELLED' AND a.appointmentDate >= :fromDate AND a.deletedAt IS NULL ORDER BY a.appointmentDate ASC, a.appointmentTime ASC")
-    List<Appointment> findUpcomingAppointmentsByPatient(@Param("patientId") Long patientId, @Param("fromDate") LocalDate fromDate);
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.patient.id = :patientId AND a.status != 'CANCELLED' AND a.appointmentDate >= :fromDate AND a.deletedAt IS NULL ORDER BY a.appointmentDate ASC, a.appointmentTime ASC")
+    List<AppointmentSummary> findUpcomingAppointmentsByPatient(@Param("patientId") Long patientId, @Param("fromDate") LocalDate fromDate);
     
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.status != 'CANCELLED' AND a.appointmentDate < :toDate AND a.deletedAt IS NULL ORDER BY a.appointmentDate DESC, a.appointmentTime DESC")
-    List<Appointment> findPastAppointmentsByPatient(@Param("patientId") Long patientId, @Param("toDate") LocalDate toDate);
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE a.patient.id = :patientId AND a.status != 'CANCELLED' AND a.appointmentDate < :toDate AND a.deletedAt IS NULL ORDER BY a.appointmentDate DESC, a.appointmentTime DESC")
+    List<AppointmentSummary> findPastAppointmentsByPatient(@Param("patientId") Long patientId, @Param("toDate") LocalDate toDate);
     
     // Debug query to get ALL appointments for a patient
     @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.deletedAt IS NULL ORDER BY a.appointmentDate DESC, a.appointmentTime DESC")
@@ -125,7 +187,19 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.status = :status AND a.deletedAt IS NULL")
     Long countByStatus(@Param("status") Appointment.Status status);
     
-    @Query("SELECT a FROM Appointment a JOIN a.patient p JOIN a.doctor d WHERE " +
+    // Per status: all rows, and rows not soft-deleted (getAppointmentStats in one scan)
+    @Query("SELECT a.status, COUNT(a), SUM(CASE WHEN a.deletedAt IS NULL THEN 1 ELSE 0 END) FROM Appointment a GROUP BY a.status")
+    List<Object[]> countGroupedByStatus();
+    
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE " +
+           "(:patientName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))) AND " +
+           "(:doctorName IS NULL OR LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :doctorName, '%'))) AND " +
+           "(:status IS NULL OR a.status = :statusEnum) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentTypeEnum) AND " +
+           "(:dateFrom IS NULL OR a.appointmentDate >= :dateFromParsed) AND " +
+           "(:dateTo IS NULL OR a.appointmentDate <= :dateToParsed) AND " +
+           "a.deletedAt IS NULL",
+           countQuery = "SELECT COUNT(a) FROM Appointment a JOIN a.patient p JOIN a.doctor d WHERE " +
            "(:patientName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))) AND " +
            "(:doctorName IS NULL OR LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :doctorName, '%'))) AND " +
            "(:status IS NULL OR a.status = :statusEnum) AND " +
@@ -133,7 +207,7 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "(:dateFrom IS NULL OR a.appointmentDate >= :dateFromParsed) AND " +
            "(:dateTo IS NULL OR a.appointmentDate <= :dateToParsed) AND " +
            "a.deletedAt IS NULL")
-    Page<Appointment> findAppointmentsWithFilters(@Param("patientName") String patientName,
+    Page<AppointmentSummary> findAppointmentsWithFilters(@Param("patientName") String patientName,
                                                  @Param("doctorName") String doctorName,
                                                  @Param("status") String status,
                                                  @Param("statusEnum") Appointment.Status statusEnum,
@@ -149,14 +223,21 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     Optional<Appointment> findByIdAndDeletedAtIsNull(@Param("id") Long id);
     
     // Method to include deleted records for display purposes
-    @Query("SELECT a FROM Appointment a JOIN a.patient p JOIN a.doctor d WHERE " +
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE " +
+           "(:patientName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))) AND " +
+           "(:doctorName IS NULL OR LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :doctorName, '%'))) AND " +
+           "(:status IS NULL OR a.status = :statusEnum) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentTypeEnum) AND " +
+           "(:dateFrom IS NULL OR a.appointmentDate >= :dateFromParsed) AND " +
+           "(:dateTo IS NULL OR a.appointmentDate <= :dateToParsed)",
+           countQuery = "SELECT COUNT(a) FROM Appointment a JOIN a.patient p JOIN a.doctor d WHERE " +
            "(:patientName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))) AND " +
            "(:doctorName IS NULL OR LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :doctorName, '%'))) AND " +
            "(:status IS NULL OR a.status = :statusEnum) AND " +
            "(:appointmentType IS NULL OR a.appointmentType = :appointmentTypeEnum) AND " +
            "(:dateFrom IS NULL OR a.appointmentDate >= :dateFromParsed) AND " +
            "(:dateTo IS NULL OR a.appointmentDate <= :dateToParsed)")
-    Page<Appointment> findAppointmentsWithFiltersIncludingDeleted(@Param("patientName") String patientName,
+    Page<AppointmentSummary> findAppointmentsWithFiltersIncludingDeleted(@Param("patientName") String patientName,
                                                                  @Param("doctorName") String doctorName,
                                                                  @Param("status") String status,
                                                                  @Param("statusEnum") Appointment.Status statusEnum,
@@ -168,15 +249,71 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
                                                                  @Param("dateToParsed") LocalDate dateToParsed,
                                                                  Pageable pageable);
     
+    // Keyset page for the admin list (deleted included): newest appointment first, no count query.
+    // The cursor is the last row's (date, time, id); searchTerm matches either the patient or the doctor name
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE " +
+           "(:patientName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))) AND " +
+           "(:doctorName IS NULL OR LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :doctorName, '%'))) AND " +
+           "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentType) AND " +
+           "(:dateFrom IS NULL OR a.appointmentDate >= :dateFrom) AND " +
+           "(:dateTo IS NULL OR a.appointmentDate <= :dateTo) AND " +
+           "(:cursorDate IS NULL OR a.appointmentDate < :cursorDate OR " +
+           "(a.appointmentDate = :cursorDate AND (a.appointmentTime < :cursorTime OR " +
+           "(a.appointmentTime = :cursorTime AND a.id < :cursorId)))) " +
+           "ORDER BY a.appointmentDate DESC, a.appointmentTime DESC, a.id DESC")
+    List<AppointmentSummary> findAppointmentsAfterCursor(@Param("patientName") String patientName,
+                                                         @Param("doctorName") String doctorName,
+                                                         @Param("searchTerm") String searchTerm,
+                                                         @Param("status") Appointment.Status status,
+                                                         @Param("appointmentType") Appointment.AppointmentType appointmentType,
+                                                         @Param("dateFrom") LocalDate dateFrom,
+                                                         @Param("dateTo") LocalDate dateTo,
+                                                         @Param("cursorDate") LocalDate cursorDate,
+                                                         @Param("cursorTime") LocalTime cursorTime,
+                                                         @Param("cursorId") Long cursorId,
+                                                         Pageable pageable);
+    
+    // Export: same filters as the keyset query, all rows in id order, read through a JDBC cursor
+    // (callers must consume it inside a transaction and close it)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE " +
+           "(:patientName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))) AND " +
+           "(:doctorName IS NULL OR LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :doctorName, '%'))) AND " +
+           "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+           "(:status IS NULL OR a.status = :status) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentType) AND " +
+           "(:dateFrom IS NULL OR a.appointmentDate >= :dateFrom) AND " +
+           "(:dateTo IS NULL OR a.appointmentDate <= :dateTo) " +
+           "ORDER BY a.id")
+    Stream<Appointment> streamAppointmentsForExport(@Param("patientName") String patientName,
+                                                    @Param("doctorName") String doctorName,
+                                                    @Param("searchTerm") String searchTerm,
+                                                    @Param("status") Appointment.Status status,
+                                                    @Param("appointmentType") Appointment.AppointmentType appointmentType,
+                                                    @Param("dateFrom") LocalDate dateFrom,
+                                                    @Param("dateTo") LocalDate dateTo);
+    
     // Method with OR logic for patient and doctor name search
-    @Query("SELECT a FROM Appointment a JOIN a.patient p JOIN a.doctor d WHERE " +
+    @Query(value = "SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.doctor d JOIN FETCH d.specialization WHERE " +
+           "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+           "(:status IS NULL OR a.status = :statusEnum) AND " +
+           "(:appointmentType IS NULL OR a.appointmentType = :appointmentTypeEnum) AND " +
+           "(:dateFrom IS NULL OR a.appointmentDate >= :dateFromParsed) AND " +
+           "(:dateTo IS NULL OR a.appointmentDate <= :dateToParsed)",
+           countQuery = "SELECT COUNT(a) FROM Appointment a JOIN a.patient p JOIN a.doctor d WHERE " +
            "(:searchTerm IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(CONCAT(d.firstName, ' ', d.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
            "(:status IS NULL OR a.status = :statusEnum) AND " +
            "(:appointmentType IS NULL OR a.appointmentType = :appointmentTypeEnum) AND " +
            "(:dateFrom IS NULL OR a.appointmentDate >= :dateFromParsed) AND " +
            "(:dateTo IS NULL OR a.appointmentDate <= :dateToParsed)")
-    Page<Appointment> findAppointmentsWithSearchIncludingDeleted(@Param("searchTerm") String searchTerm,
+    Page<AppointmentSummary> findAppointmentsWithSearchIncludingDeleted(@Param("searchTerm") String searchTerm,
                                                                 @Param("status") String status,
                                                                 @Param("statusEnum") Appointment.Status statusEnum,
                                                                 @Param("appointmentType") String appointmentType,
@@ -1,16 +1,20 @@
 package com.example.SpringDemo.repository;
 
 import com.example.SpringDemo.entity.AuditLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
@@ -60,8 +64,14 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.action = :action")
     Long countByAction(@Param("action") String action);
     
-    @Query("SELECT a FROM AuditLog a ORDER BY a.createdAt DESC")
-    List<AuditLog> findTop10OrderByCreatedAtDesc();
+    @Query("SELECT a.action, COUNT(a) FROM AuditLog a GROUP BY a.action")
+    List<Object[]> countGroupedByAction();
+    
+    // Walks idx_audit_logs_created_id; both bounds are required so the range can use it
+    long countByCreatedAtBetween(LocalDateTime fromDate, LocalDateTime toDate);
+    
+    // Derived so the Top10 limit applies (an explicit @Query would read the whole table); walks idx_audit_logs_created_id
+    List<AuditLog> findTop10ByOrderByCreatedAtDescIdDesc();
     
     @Query("SELECT a FROM AuditLog a WHERE " +
            "(:action IS NULL OR a.action = :actionEnum) AND " +
@@ -78,4 +88,40 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
                                            @Param("toDate") String toDate,
                                            @Param("toDateParsed") LocalDateTime toDateParsed,
                                            Pageable pageable);
+    
+    // Keyset page: newest first, the cursor is the last row's (createdAt, id); no count query
+    @Query("SELECT a FROM AuditLog a LEFT JOIN FETCH a.user WHERE " +
+           "(:action IS NULL OR a.action = :action) AND " +
+           "(:tableName IS NULL OR a.tableName = :tableName) AND " +
+           "(:userId IS NULL OR a.user.id = :userId) AND " +
+           "(:fromDate IS NULL OR a.createdAt >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.createdAt <= :toDate) AND " +
+           "(:cursorCreatedAt IS NULL OR a.createdAt < :cursorCreatedAt OR " +
+           "(a.createdAt = :cursorCreatedAt AND a.id < :cursorId)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLog> findAuditLogsAfterCursor(@Param("action") AuditLog.Action action,
+                                            @Param("tableName") String tableName,
+                                            @Param("userId") Long userId,
+                                            @Param("fromDate") LocalDateTime fromDate,
+                                            @Param("toDate") LocalDateTime toDate,
+                                            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                            @Param("cursorId") Long cursorId,
+                                            Pageable pageable);
+    
+    // Export: same filters as the keyset query, all rows in id order, read through a JDBC cursor
+    // (callers must consume it inside a transaction and close it)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM AuditLog a LEFT JOIN FETCH a.user WHERE " +
+           "(:action IS NULL OR a.action = :action) AND " +
+           "(:tableName IS NULL OR a.tableName = :tableName) AND " +
+           "(:userId IS NULL OR a.user.id = :userId) AND " +
+           "(:fromDate IS NULL OR a.createdAt >= :fromDate) AND " +
+           "(:toDate IS NULL OR a.createdAt <= :toDate) " +
+           "ORDER BY a.id")
+    Stream<AuditLog> streamAuditLogsForExport(@Param("action") AuditLog.Action action,
+                                              @Param("tableName") String tableName,
+                                              @Param("userId") Long userId,
+                                              @Param("fromDate") LocalDateTime fromDate,
+                                              @Param("toDate") LocalDateTime toDate);
 }
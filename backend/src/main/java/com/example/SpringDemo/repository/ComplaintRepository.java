@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -65,6 +66,9 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
     @Query("SELECT COUNT(c) FROM Complaint c WHERE c.deletedAt IS NULL")
     Long countByDeletedAtIsNull();
     
+    @Query("SELECT c.status, COUNT(c) FROM Complaint c WHERE c.deletedAt IS NULL GROUP BY c.status")
+    List<Object[]> countGroupedByStatus();
+    
     @Query("SELECT c FROM Complaint c WHERE c.patient.id = :patientId AND c.deletedAt IS NULL")
     Page<Complaint> findByPatientIdAndDeletedAtIsNull(@Param("patientId") Long patientId, Pageable pageable);
     
@@ -115,6 +119,24 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
                                                             @Param("assignedToId") Long assignedToId,
                                                             Pageable pageable);
     
+    // Keyset page for the admin list (deleted included): newest first, the cursor is the last row's
+    // (createdAt, complaintId); no count query
+    @Query("SELECT c FROM Complaint c JOIN FETCH c.patient LEFT JOIN FETCH c.assignedTo LEFT JOIN FETCH c.appointment WHERE " +
+           "(:title IS NULL OR LOWER(c.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
+           "(:category IS NULL OR c.category = :category) AND " +
+           "(:status IS NULL OR c.status = :status) AND " +
+           "(:priority IS NULL OR c.priority = :priority) AND " +
+           "(:cursorCreatedAt IS NULL OR c.createdAt < :cursorCreatedAt OR " +
+           "(c.createdAt = :cursorCreatedAt AND c.complaintId < :cursorId)) " +
+           "ORDER BY c.createdAt DESC, c.complaintId DESC")
+    List<Complaint> findComplaintsAfterCursor(@Param("title") String title,
+                                              @Param("category") Complaint.Category category,
+                                              @Param("status") Complaint.Status status,
+                                              @Param("priority") Complaint.Priority priority,
+                                              @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+    
     // Method to get available complaints (unassigned or assigned to specific admin)
     @Query("SELECT c FROM Complaint c WHERE " +
            "(:title IS NULL OR LOWER(c.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
@@ -5,11 +5,14 @@ import com.example.SpringDemo.entity.Specialization;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -74,6 +77,12 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     @Query("SELECT d FROM Doctor d WHERE d.doctorId = :id AND d.deletedAt IS NULL")
     Optional<Doctor> findByIdAndDeletedAtIsNull(@Param("id") Long id);
     
+    // Only moves the slot watermark forward, so a late or repeated run never shrinks it
+    @Modifying
+    @Query("UPDATE Doctor d SET d.slotsMaterializedThrough = :through WHERE d.doctorId IN :doctorIds " +
+           "AND (d.slotsMaterializedThrough IS NULL OR d.slotsMaterializedThrough < :through)")
+    int advanceSlotsMaterializedThrough(@Param("doctorIds") Collection<Long> doctorIds, @Param("through") LocalDate through);
+    
     // Methods to include deleted records for display purposes
     @Query("SELECT d FROM Doctor d WHERE d.active = true")
     List<Doctor> findAllActiveIncludingDeleted();
@@ -1,13 +1,16 @@
 package com.example.SpringDemo.repository;
 
+import com.example.SpringDemo.dto.SlotSummary;
 import com.example.SpringDemo.entity.DoctorSlot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,8 +20,11 @@ public interface DoctorSlotRepository extends JpaRepository<DoctorSlot, Long> {
     
     List<DoctorSlot> findByDoctorDoctorIdAndSlotDateOrderByStartTime(Long doctorId, LocalDate slotDate);
     
-    @Query("SELECT s FROM DoctorSlot s WHERE s.doctor.doctorId = :doctorId AND s.slotDate = :slotDate AND s.status = 'AVAILABLE' AND s.doctor.active = true AND s.doctor.deletedAt IS NULL ORDER BY s.startTime")
-    List<DoctorSlot> findAvailableSlotsByDoctorAndDate(@Param("doctorId") Long doctorId, @Param("slotDate") LocalDate slotDate);
+    // Scalar projection: the doctor is only joined for the visibility filter, never loaded
+    @Query("SELECT s.slotId AS slotId, s.slotDate AS slotDate, s.startTime AS startTime, s.endTime AS endTime, s.status AS status " +
+           "FROM DoctorSlot s JOIN s.doctor d WHERE d.doctorId = :doctorId AND s.slotDate = :slotDate AND s.status = 'AVAILABLE' " +
+           "AND d.active = true AND d.deletedAt IS NULL ORDER BY s.startTime")
+    List<SlotSummary> findAvailableSlotsByDoctorAndDate(@Param("doctorId") Long doctorId, @Param("slotDate") LocalDate slotDate);
     
     @Query("SELECT s FROM DoctorSlot s WHERE s.doctor.doctorId = :doctorId AND s.slotDate >= :startDate AND s.slotDate <= :endDate ORDER BY s.slotDate, s.startTime")
     List<DoctorSlot> findSlotsByDoctorAndDateRange(@Param("doctorId") Long doctorId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
@@ -37,6 +43,63 @@ public interface DoctorSlotRepository extends JpaRepository<DoctorSlot, Long> {
     
     boolean existsByDoctorDoctorIdAndSlotDateAndStartTimeAndStatus(Long doctorId, LocalDate slotDate, LocalTime startTime, DoctorSlot.SlotStatus status);
     
+    // Flat rows for the patient availability listing (see AvailableSlotReadModel) - no entity graph is loaded
+    @Query("SELECT s.slotId, s.slotDate, s.startTime, s.endTime, d.doctorId, d.firstName, d.lastName, d.yearsOfExp, " +
+           "d.consultationFee, d.bio, sp.specializationId, sp.name " +
+           "FROM DoctorSlot s JOIN s.doctor d JOIN d.specialization sp " +
+           "WHERE s.slotDate = :slotDate AND s.status = 'AVAILABLE' AND d.active = true AND d.deletedAt IS NULL " +
+           "ORDER BY d.doctorId, s.startTime")
+    List<Object[]> findAvailableSlotRows(@Param("slotDate") LocalDate slotDate);
+    
+    // Atomic compare-and-set on the status column; returns 0 when the slot was not in expectedStatus
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DoctorSlot s SET s.status = :newStatus, s.version = s.version + 1, s.updatedAt = CURRENT_TIMESTAMP, s.updatedBy = :updatedBy " +
+           "WHERE s.slotId = :slotId AND s.status = :expectedStatus")
+    int updateStatusIfCurrent(@Param("slotId") Long slotId,
+                              @Param("expectedStatus") DoctorSlot.SlotStatus expectedStatus,
+                              @Param("newStatus") DoctorSlot.SlotStatus newStatus,
+                              @Param("updatedBy") Long updatedBy);
+    
+    // (doctorId, slotDate) pairs that already have slots - one query for a whole generation window
+    @Query("SELECT DISTINCT s.doctor.doctorId, s.slotDate FROM DoctorSlot s WHERE s.slotDate >= :startDate AND s.slotDate <= :endDate")
+    List<Object[]> findCoveredDays(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT DISTINCT s.slotDate FROM DoctorSlot s WHERE s.doctor.doctorId = :doctorId AND s.slotDate >= :startDate AND s.slotDate <= :endDate")
+    List<LocalDate> findCoveredDays(@Param("doctorId") Long doctorId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT s.slotDate, s.startTime FROM DoctorSlot s WHERE s.doctor.doctorId = :doctorId AND s.slotDate >= :startDate AND s.slotDate <= :endDate")
+    List<Object[]> findSlotStartTimes(@Param("doctorId") Long doctorId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    // Past slots nobody booked - booked/cancelled ones stay as appointment history
+    @Modifying
+    @Query("DELETE FROM DoctorSlot s WHERE s.slotDate < :before AND s.status = 'AVAILABLE' " +
+           "AND NOT EXISTS (SELECT a.id FROM Appointment a WHERE a.doctorSlot = s)")
+    int deleteUnusedSlotsBefore(@Param("before") LocalDate before);
+    
+    // (slotId, slotDate, startTime, endTime, status, referenced by an appointment) from a date on - input of a schedule re-plan
+    @Query("SELECT s.slotId, s.slotDate, s.startTime, s.endTime, s.status, " +
+           "CASE WHEN EXISTS (SELECT a.id FROM Appointment a WHERE a.doctorSlot = s) THEN true ELSE false END " +
+           "FROM DoctorSlot s WHERE s.doctor.doctorId = :doctorId AND s.slotDate >= :startDate")
+    List<Object[]> findSlotLayout(@Param("doctorId") Long doctorId, @Param("startDate") LocalDate startDate);
+    
+    // Only slots that are still AVAILABLE and unreferenced are removed; a slot booked meanwhile is left alone
+    @Modifying
+    @Query("DELETE FROM DoctorSlot s WHERE s.slotId IN :slotIds AND s.status = 'AVAILABLE' " +
+           "AND NOT EXISTS (SELECT a.id FROM Appointment a WHERE a.doctorSlot = s)")
+    int deleteUnusedSlots(@Param("slotIds") Collection<Long> slotIds);
+    
+    // Frees the BOOKED slots of cancelled appointments so they can be booked again
+    @Modifying
+    @Query("UPDATE DoctorSlot s SET s.status = 'AVAILABLE', s.version = s.version + 1, s.updatedAt = CURRENT_TIMESTAMP, s.updatedBy = :updatedBy " +
+           "WHERE s.slotId IN :slotIds AND s.status = 'BOOKED'")
+    int releaseBookedSlots(@Param("slotIds") Collection<Long> slotIds, @Param("updatedBy") Long updatedBy);
+    
+    // Takes AVAILABLE slots out of booking without deleting them (they are still referenced by appointment history)
+    @Modifying
+    @Query("UPDATE DoctorSlot s SET s.status = 'CANCELLED', s.version = s.version + 1, s.updatedAt = CURRENT_TIMESTAMP, s.updatedBy = :updatedBy " +
+           "WHERE s.slotId IN :slotIds AND s.status = 'AVAILABLE'")
+    int withdrawAvailableSlots(@Param("slotIds") Collection<Long> slotIds, @Param("updatedBy") Long updatedBy);
+    
     @Query("SELECT COUNT(s) > 0 FROM DoctorSlot s WHERE s.doctor = :doctor AND s.slotDate = :slotDate")
     boolean existsByDoctorAndSlotDate(@Param("doctor") com.example.SpringDemo.entity.Doctor doctor, @Param("slotDate") LocalDate slotDate);
 }
\ No newline at end of file
@@ -1,17 +1,20 @@
 package com.example.SpringDemo.repository;
 
 import com.example.SpringDemo.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -39,6 +42,9 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status AND p.deletedAt IS NULL")
     Long countByStatusAndDeletedAtIsNull(@Param("status") String status);
     
+    @Query("SELECT p.status, COUNT(p) FROM Payment p WHERE p.deletedAt IS NULL GROUP BY p.status")
+    List<Object[]> countGroupedByStatus();
+    
     @Query("SELECT p FROM Payment p WHERE " +
            "(:status IS NULL OR p.status = :status) AND " +
            "(:method IS NULL OR p.method = :method) AND " +
@@ -74,9 +80,19 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'SUCCESS' AND p.deletedAt IS NULL")
     BigDecimal calculateTotalRevenue();
     
-    @Query("SELECT p.method, SUM(p.amount) FROM Payment p WHERE p.status = 'SUCCESS' AND p.deletedAt IS NULL GROUP BY p.method")
-    Map<String, BigDecimal> calculateRevenueByMethod();
-    
-    @Query("SELECT DATE(p.paymentDate), SUM(p.amount) FROM Payment p WHERE p.status = 'SUCCESS' AND p.paymentDate >= CURRENT_DATE AND p.deletedAt IS NULL GROUP BY DATE(p.paymentDate) ORDER BY DATE(p.paymentDate)")
-    Map<String, BigDecimal> calculateDailyRevenue();
+    // Export: all live payments matching the filters in id order, read through a JDBC cursor
+    // (callers must consume it inside a transaction and close it)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Payment p JOIN FETCH p.patient LEFT JOIN FETCH p.appointment WHERE " +
+           "(:status IS NULL OR p.status = :status) AND " +
+           "(:method IS NULL OR p.method = :method) AND " +
+           "(:patientId IS NULL OR p.patient.id = :patientId) AND " +
+           "(:appointmentId IS NULL OR p.appointment.id = :appointmentId) AND " +
+           "p.deletedAt IS NULL " +
+           "ORDER BY p.id")
+    Stream<Payment> streamPaymentsForExport(@Param("status") Payment.Status status,
+                                            @Param("method") Payment.Method method,
+                                            @Param("patientId") Long patientId,
+                                            @Param("appointmentId") Long appointmentId);
 }
@@ -0,0 +1,52 @@
+package com.example.SpringDemo.repository;
+
+import com.example.SpringDemo.entity.Payment;
+import com.example.SpringDemo.entity.RevenueDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueDailyRollup, Long> {
+    
+    // Adds to an existing rollup row; 0 means the row does not exist yet
+    @Modifying
+    @Query("UPDATE RevenueDailyRollup r SET r.amount = r.amount + :amount, r.paymentCount = r.paymentCount + :count " +
+           "WHERE r.revenueDate = :revenueDate AND r.method = :method AND r.doctorId = :doctorId AND r.specializationId = :specializationId")
+    int addToRollup(@Param("revenueDate") LocalDate revenueDate,
+                    @Param("method") Payment.Method method,
+                    @Param("doctorId") Long doctorId,
+                    @Param("specializationId") Long specializationId,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") Long count);
+    
+    @Query("SELECT COALESCE(SUM(r.amount), 0), COALESCE(SUM(r.paymentCount), 0) FROM RevenueDailyRollup r")
+    List<Object[]> sumAll();
+    
+    @Query("SELECT r.method, SUM(r.amount) FROM RevenueDailyRollup r GROUP BY r.method")
+    List<Object[]> sumByMethod();
+    
+    @Query("SELECT r.revenueDate, SUM(r.amount), SUM(r.paymentCount) FROM RevenueDailyRollup r " +
+           "WHERE r.revenueDate BETWEEN :fromDate AND :toDate GROUP BY r.revenueDate ORDER BY r.revenueDate")
+    List<Object[]> sumByDay(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+    
+    @Query("SELECT r.method, SUM(r.amount) FROM RevenueDailyRollup r " +
+           "WHERE r.revenueDate BETWEEN :fromDate AND :toDate GROUP BY r.method")
+    List<Object[]> sumByMethodBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+    
+    // Payments without a doctor (specializationId 0) come under "Unassigned", so the groups add up to the range total
+    @Query("SELECT COALESCE(s.name, 'Unassigned'), SUM(r.amount) FROM RevenueDailyRollup r " +
+           "LEFT JOIN Specialization s ON s.specializationId = r.specializationId " +
+           "WHERE r.revenueDate BETWEEN :fromDate AND :toDate GROUP BY s.name")
+    List<Object[]> sumBySpecializationBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+    
+    @Query("SELECT r.doctorId, SUM(r.amount) FROM RevenueDailyRollup r " +
+           "WHERE r.revenueDate BETWEEN :fromDate AND :toDate GROUP BY r.doctorId ORDER BY SUM(r.amount) DESC")
+    List<Object[]> sumByDoctorBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
@@ -4,11 +4,13 @@ import com.example.SpringDemo.entity.Session;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,12 +52,45 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     @Query("SELECT COUNT(s) FROM Session s WHERE s.isActive = false AND s.deletedAt IS NULL")
     Long countByIsActiveFalseAndDeletedAtIsNull();
     
-    @Query("SELECT s FROM Session s WHERE s.sessionToken = :sessionToken AND s.isActive = true AND s.deletedAt IS NULL")
-    Optional<Session> findBySessionTokenAndIsActiveTrueAndDeletedAtIsNull(@Param("sessionToken") String sessionToken);
+    @Query("SELECT s.isActive, COUNT(s) FROM Session s WHERE s.deletedAt IS NULL GROUP BY s.isActive")
+    List<Object[]> countGroupedByIsActive();
     
-    @Query("SELECT s FROM Session s WHERE s.expiresAt < :currentTime AND s.isActive = true AND s.deletedAt IS NULL")
-    List<Session> findExpiredActiveSessions(@Param("currentTime") LocalDateTime currentTime);
+    // tokenHash = TokenDigest.sha256Hex(token): a unique-index probe instead of comparing the full JWT
+    @Query("SELECT s FROM Session s WHERE s.tokenHash = :tokenHash AND s.isActive = true AND s.deletedAt IS NULL")
+    Optional<Session> findByTokenHashAndIsActiveTrueAndDeletedAtIsNull(@Param("tokenHash") String tokenHash);
     
-    @Query("SELECT s FROM Session s WHERE s.isActive = false AND s.updatedAt < :cutoffDate AND s.deletedAt IS NULL")
-    List<Session> findByIsActiveFalseAndUpdatedAtBeforeAndDeletedAtIsNull(@Param("cutoffDate") LocalDateTime cutoffDate);
+    // Id chunks for the cleanup jobs, keyset-paged on id (each chunk resumes after the previous one instead of
+    // rescanning the rows already handled); each chunk is then updated or deleted with one statement
+    @Query("SELECT s.id FROM Session s WHERE s.id > :afterId AND s.expiresAt < :currentTime AND s.isActive = true " +
+           "AND s.deletedAt IS NULL ORDER BY s.id")
+    List<Long> findExpiredActiveSessionIds(@Param("afterId") Long afterId, @Param("currentTime") LocalDateTime currentTime,
+                                           Pageable pageable);
+    
+    @Query("SELECT s.id FROM Session s WHERE s.id > :afterId AND s.isActive = false AND s.updatedAt < :cutoffDate " +
+           "AND s.deletedAt IS NULL ORDER BY s.id")
+    List<Long> findInactiveSessionIdsBefore(@Param("afterId") Long afterId, @Param("cutoffDate") LocalDateTime cutoffDate,
+                                            Pageable pageable);
+    
+    @Query("SELECT s.id FROM Session s WHERE s.id > :afterId AND s.deletedAt < :cutoffDate ORDER BY s.id")
+    List<Long> findDeletedSessionIdsBefore(@Param("afterId") Long afterId, @Param("cutoffDate") LocalDateTime cutoffDate,
+                                           Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Session s SET s.isActive = false, s.updatedAt = :now WHERE s.id IN :ids AND s.isActive = true")
+    int deactivateSessions(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Session s SET s.deletedAt = :now, s.deletedBy = COALESCE(s.user.id, s.doctorId) " +
+           "WHERE s.id IN :ids AND s.deletedAt IS NULL")
+    int softDeleteSessions(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM Session s WHERE s.id IN :ids")
+    int deleteSessions(@Param("ids") Collection<Long> ids);
+    
+    // Token + expiry of sessions revoked since the given time whose JWT is still within its lifetime
+    @Query("SELECT s.sessionToken, s.expiresAt FROM Session s WHERE (s.isActive = false OR s.deletedAt IS NOT NULL) " +
+           "AND s.expiresAt > :currentTime AND s.updatedAt >= :since")
+    List<Object[]> findRevokedTokensSince(@Param("since") LocalDateTime since,
+                                          @Param("currentTime") LocalDateTime currentTime);
 }
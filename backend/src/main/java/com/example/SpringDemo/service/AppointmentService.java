@@ -1,6 +1,8 @@
 package com.example.SpringDemo.service;
 
 import com.example.SpringDemo.dto.AppointmentRequest;
+import com.example.SpringDemo.dto.AppointmentSummary;
+import com.example.SpringDemo.dto.CursorPage;
 import com.example.SpringDemo.dto.AppointmentDetailsResponse;
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.entity.Doctor;
@@ -10,17 +12,29 @@ import com.example.SpringDemo.repository.AppointmentRepository;
 import com.example.SpringDemo.repository.DoctorRepository;
 import com.example.SpringDemo.repository.DoctorSlotRepository;
 import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.util.ExportWriter;
+import com.example.SpringDemo.util.PageCursor;
+import com.example.SpringDemo.util.GroupCounts;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,6 +45,12 @@ public class AppointmentService {
     @Autowired
     private AppointmentRepository appointmentRepository;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     @Autowired
     private DoctorRepository doctorRepository;
     
@@ -40,6 +60,19 @@ public class AppointmentService {
     @Autowired
     private DoctorSlotRepository doctorSlotRepository;
     
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+    
+    @Autowired
+    private StatusCounterRegistry statusCounters;
+    
+    @Autowired
+    private AuditCaptureListener auditCaptureListener;
+    
+    @Value("${app.doctor-cancellation.batch-size:1000}")
+    private int cancellationBatchSize;
+    
+    @Transactional
     public Appointment createAppointment(AppointmentRequest request) {
         User patient = userRepository.findById(request.getPatientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
@@ -52,41 +85,36 @@ public class AppointmentService {
             throw new RuntimeException("Appointment date cannot be in the past");
         }
         
-        // Find available slot for the doctor at the specified time
-        List<DoctorSlot> availableSlots = doctorSlotRepository.findAvailableSlotsByDoctorAndDate(
-            request.getDoctorId(), request.getAppointmentDate());
-        
-        DoctorSlot selectedSlot = null;
-        for (DoctorSlot slot : availableSlots) {
-            if (slot.getStartTime().equals(request.getAppointmentTime()) && 
-                slot.getEndTime().equals(request.getEndTime())) {
-                selectedSlot = slot;
-                break;
-            }
-        }
-        
-        if (selectedSlot == null) {
+        // Inactive or removed doctors have no bookable slots
+        if (!Boolean.TRUE.equals(doctor.getActive()) || doctor.getDeletedAt() != null) {
             throw new RuntimeException("No available slot found for the selected time");
         }
         
-        // Check for conflicts
-        List<Appointment> conflictingAppointments = appointmentRepository.findByDoctorAndDateTime(
-            doctor, request.getAppointmentDate(), request.getAppointmentTime());
+        // Claim the slot in the availability index - the slot is the doctor's lock on that time,
+        // so a taken slot (re-read from the database once) is rejected here without querying for conflicts
+        Long slotId = slotAvailabilityIndex.tryReserve(
+            request.getDoctorId(), request.getAppointmentDate(), request.getAppointmentTime(), request.getEndTime());
         
-        if (!conflictingAppointments.isEmpty()) {
-            throw new RuntimeException("Doctor is not available at the selected time");
+        if (slotId == null) {
+            throw new RuntimeException("No available slot found for the selected time");
         }
+        // Reservation is confirmed if this transaction commits and handed back if it rolls back
+        slotAvailabilityIndex.settleOnCompletion(request.getDoctorId(), request.getAppointmentDate(), slotId);
         
-        // Book the slot
-        selectedSlot.setStatus(DoctorSlot.SlotStatus.BOOKED);
-        doctorSlotRepository.save(selectedSlot);
-        System.out.println("Booked slot ID: " + selectedSlot.getSlotId() + " for new appointment");
+        // The database remains the source of truth - book only if the row is still AVAILABLE
+        int updated = doctorSlotRepository.updateStatusIfCurrent(
+            slotId, DoctorSlot.SlotStatus.AVAILABLE, DoctorSlot.SlotStatus.BOOKED, request.getPatientId());
+        if (updated == 0) {
+            slotAvailabilityIndex.markTaken(request.getDoctorId(), request.getAppointmentDate(), slotId);
+            throw new RuntimeException("No available slot found for the selected time");
+        }
+        System.out.println("Booked slot ID: " + slotId + " for new appointment");
         
         Appointment appointment = new Appointment();
         appointment.setPatient(patient);
         appointment.setDoctor(doctor);
-        appointment.setDoctorSlot(selectedSlot);
-        System.out.println("Assigned slot ID: " + selectedSlot.getSlotId() + " to appointment");
+        appointment.setDoctorSlot(doctorSlotRepository.getReferenceById(slotId));
+        System.out.println("Assigned slot ID: " + slotId + " to appointment");
         appointment.setAppointmentDate(request.getAppointmentDate());
         appointment.setAppointmentTime(request.getAppointmentTime());
         appointment.setEndTime(request.getEndTime());
@@ -96,18 +124,20 @@ public class AppointmentService {
         appointment.setSymptoms(request.getSymptoms());
         appointment.setNotes(request.getNotes());
         
-        return appointmentRepository.save(appointment);
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        statusCounters.created(StatusCounterRegistry.Kind.APPOINTMENT, savedAppointment.getStatus());
+        return savedAppointment;
     }
     
-    public Page<Appointment> getAppointmentsByPatient(Long patientId, Pageable pageable) {
+    public Page<AppointmentSummary> getAppointmentsByPatient(Long patientId, Pageable pageable) {
         return appointmentRepository.findByPatientId(patientId, pageable);
     }
     
-    public Page<Appointment> getAppointmentsByDoctor(Long doctorId, Pageable pageable) {
+    public Page<AppointmentSummary> getAppointmentsByDoctor(Long doctorId, Pageable pageable) {
         return appointmentRepository.findByDoctorId(doctorId, pageable);
     }
     
-    public Page<Appointment> getMyAppointmentsAsDoctor(Pageable pageable, String status, 
+    public Page<AppointmentSummary> getMyAppointmentsAsDoctor(Pageable pageable, String status, 
                                                       String appointmentType, LocalDate dateFrom, 
                                                       LocalDate dateTo, String search) {
         // Get current doctor ID from authentication context
@@ -217,6 +247,7 @@ public class AppointmentService {
         }
         
         // Update status
+        Appointment.Status previousStatus = appointment.getStatus();
         try {
             appointment.setStatus(Appointment.Status.valueOf(status));
         } catch (IllegalArgumentException e) {
@@ -228,7 +259,9 @@ public class AppointmentService {
             appointment.setNotes(notes);
         }
         
-        return appointmentRepository.save(appointment);
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.APPOINTMENT, previousStatus, savedAppointment.getStatus());
+        return savedAppointment;
     }
     
     public Appointment getAppointmentByIdForDoctor(Long appointmentId) {
@@ -333,7 +366,8 @@ public class AppointmentService {
         return response;
     }
     
-    public Page<Appointment> searchAppointments(Long patientId, Long doctorId, String status, 
+    @Transactional(readOnly = true)
+    public Page<AppointmentSummary> searchAppointments(Long patientId, Long doctorId, String status, 
                                                String appointmentType, LocalDate fromDate, 
                                                LocalDate toDate, Pageable pageable) {
         Appointment.Status statusEnum = status != null ? Appointment.Status.valueOf(status) : null;
@@ -379,6 +413,7 @@ public class AppointmentService {
         if (appointment.getStatus() == Appointment.Status.CANCELLED) {
             throw new RuntimeException("Appointment is already cancelled");
         }
+        Appointment.Status previousStatus = appointment.getStatus();
         
         // Free up the slot
         if (appointment.getDoctorSlot() != null) {
@@ -386,6 +421,7 @@ public class AppointmentService {
             System.out.println("Before cancellation - Slot ID: " + slot.getSlotId() + ", Status: " + slot.getStatus());
             slot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
             DoctorSlot savedSlot = doctorSlotRepository.save(slot);
+            slotAvailabilityIndex.slotChanged(savedSlot);
             System.out.println("After cancellation - Slot ID: " + savedSlot.getSlotId() + ", Status: " + savedSlot.getStatus());
             
             // Clear the doctor slot reference from the cancelled appointment
@@ -409,7 +445,9 @@ public class AppointmentService {
             appointment.setCancelledByUser(currentUserId);
         }
         
-        return appointmentRepository.save(appointment);
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.APPOINTMENT, previousStatus, Appointment.Status.CANCELLED);
+        return savedAppointment;
     }
     
     public Appointment completeAppointment(Long id) {
@@ -423,6 +461,7 @@ public class AppointmentService {
         if (appointment.getStatus() == Appointment.Status.COMPLETED) {
             throw new RuntimeException("Appointment is already completed");
         }
+        Appointment.Status previousStatus = appointment.getStatus();
         
         // Check if appointment time has passed
         LocalDate appointmentDate = appointment.getAppointmentDate();
@@ -439,12 +478,14 @@ public class AppointmentService {
         appointment.setUpdatedAt(LocalDateTime.now());
         appointment.setUpdatedBy(getCurrentUserId());
         
-        return appointmentRepository.save(appointment);
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.APPOINTMENT, previousStatus, Appointment.Status.COMPLETED);
+        return savedAppointment;
     }
     
-    public List<Appointment> getUpcomingAppointmentsByPatient(Long patientId) {
+    public List<AppointmentSummary> getUpcomingAppointmentsByPatient(Long patientId) {
         try {
-            List<Appointment> appointments = appointmentRepository.findUpcomingAppointmentsByPatient(patientId, LocalDate.now());
+            List<AppointmentSummary> appointments = appointmentRepository.findUpcomingAppointmentsByPatient(patientId, LocalDate.now());
             return appointments;
         } catch (Exception e) {
             System.err.println("ERROR in getUpcomingAppointmentsByPatient: " + e.getMessage());
@@ -453,9 +494,9 @@ public class AppointmentService {
         }
     }
     
-    public List<Appointment> getPastAppointmentsByPatient(Long patientId) {
+    public List<AppointmentSummary> getPastAppointmentsByPatient(Long patientId) {
         try {
-            List<Appointment> appointments = appointmentRepository.findPastAppointmentsByPatient(patientId, LocalDate.now());
+            List<AppointmentSummary> appointments = appointmentRepository.findPastAppointmentsByPatient(patientId, LocalDate.now());
             return appointments;
         } catch (Exception e) {
             System.err.println("ERROR in getPastAppointmentsByPatient: " + e.getMessage());
@@ -466,8 +507,8 @@ public class AppointmentService {
     
     public Map<String, Object> getAllAppointmentsByPatient(Long patientId) {
         try {
-            List<Appointment> upcoming = getUpcomingAppointmentsByPatient(patientId);
-            List<Appointment> past = getPastAppointmentsByPatient(patientId);
+            List<AppointmentSummary> upcoming = getUpcomingAppointmentsByPatient(patientId);
+            List<AppointmentSummary> past = getPastAppointmentsByPatient(patientId);
             
             Map<String, Object> result = new HashMap<>();
             result.put("upcoming", upcoming);
@@ -498,7 +539,7 @@ public class AppointmentService {
             }
             
             // Get paginated appointments
-            org.springframework.data.domain.Page<Appointment> appointmentPage = appointmentRepository.findByPatientIdAndStatusAndDeletedAtIsNull(
+            org.springframework.data.domain.Page<AppointmentSummary> appointmentPage = appointmentRepository.findByPatientIdAndStatusAndDeletedAtIsNull(
                 patientId, status, statusEnum, pageable);
             
             Map<String, Object> result = new HashMap<>();
@@ -535,7 +576,7 @@ public class AppointmentService {
             
             java.time.LocalDate today = java.time.LocalDate.now();
             java.time.LocalTime currentTime = java.time.LocalTime.now();
-            org.springframework.data.domain.Page<Appointment> appointmentPage;
+            org.springframework.data.domain.Page<AppointmentSummary> appointmentPage;
             
             if ("upcoming".equalsIgnoreCase(type)) {
                 appointmentPage = appointmentRepository.findUpcomingAppointmentsByPatient(
@@ -567,6 +608,7 @@ public class AppointmentService {
         }
     }
     
+    @Transactional
     public Appointment rescheduleAppointment(Long id, LocalDate newDate, LocalTime newTime, LocalTime newEndTime) {
         Appointment appointment = appointmentRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
@@ -574,50 +616,49 @@ public class AppointmentService {
         if (appointment.getStatus() == Appointment.Status.CANCELLED) {
             throw new RuntimeException("Cannot reschedule a cancelled appointment");
         }
+        // Rescheduling always resets the status to SCHEDULED
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.APPOINTMENT, appointment.getStatus(), Appointment.Status.SCHEDULED);
         
         if (newDate.isBefore(LocalDate.now())) {
             throw new RuntimeException("Cannot reschedule to a past date");
         }
         
-        // Free up the current slot
-        if (appointment.getDoctorSlot() != null) {
-            DoctorSlot currentSlot = appointment.getDoctorSlot();
-            currentSlot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
-            doctorSlotRepository.save(currentSlot);
-        }
+        Long doctorId = appointment.getDoctor().getDoctorId();
+        DoctorSlot currentSlot = appointment.getDoctorSlot();
         
-        // Find new available slot
-        List<DoctorSlot> availableSlots = doctorSlotRepository.findAvailableSlotsByDoctorAndDate(
-            appointment.getDoctor().getDoctorId(), newDate);
-        
-        DoctorSlot newSlot = null;
-        for (DoctorSlot slot : availableSlots) {
-            if (slot.getStartTime().equals(newTime) && slot.getEndTime().equals(newEndTime)) {
-                newSlot = slot;
-                break;
-            }
+        // Rescheduling onto the slot the appointment already holds - nothing to swap
+        if (currentSlot != null && currentSlot.getSlotDate().equals(newDate)
+                && currentSlot.getStartTime().equals(newTime) && currentSlot.getEndTime().equals(newEndTime)) {
+            appointment.setStatus(Appointment.Status.SCHEDULED); // Reset to scheduled
+            return appointmentRepository.save(appointment);
         }
         
-        if (newSlot == null) {
+        if (!Boolean.TRUE.equals(appointment.getDoctor().getActive()) || appointment.getDoctor().getDeletedAt() != null) {
             throw new RuntimeException("No available slot found for the selected time");
         }
         
-        // Check for conflicts with new time
-        List<Appointment> conflictingAppointments = appointmentRepository.findByDoctorAndDateTime(
-            appointment.getDoctor(), newDate, newTime);
-        
-        // Remove current appointment from conflict check
-        conflictingAppointments.removeIf(conflict -> conflict.getId().equals(id));
+        // Claim the new slot first so the current one is only released once the move can happen
+        Long newSlotId = slotAvailabilityIndex.tryReserve(doctorId, newDate, newTime, newEndTime);
+        if (newSlotId == null) {
+            throw new RuntimeException("No available slot found for the selected time");
+        }
+        slotAvailabilityIndex.settleOnCompletion(doctorId, newDate, newSlotId);
         
-        if (!conflictingAppointments.isEmpty()) {
-            throw new RuntimeException("Doctor is not available at the selected time");
+        // Book the new slot only if it is still AVAILABLE in the database
+        int updated = doctorSlotRepository.updateStatusIfCurrent(
+            newSlotId, DoctorSlot.SlotStatus.AVAILABLE, DoctorSlot.SlotStatus.BOOKED, appointment.getPatient().getId());
+        if (updated == 0) {
+            slotAvailabilityIndex.markTaken(doctorId, newDate, newSlotId);
+            throw new RuntimeException("No available slot found for the selected time");
         }
         
-        // Book the new slot
-        newSlot.setStatus(DoctorSlot.SlotStatus.BOOKED);
-        doctorSlotRepository.save(newSlot);
+        // Free up the current slot - version checked, so a concurrent change to it rolls the move back
+        if (currentSlot != null) {
+            currentSlot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
+            slotAvailabilityIndex.slotChanged(doctorSlotRepository.save(currentSlot));
+        }
         
-        appointment.setDoctorSlot(newSlot);
+        appointment.setDoctorSlot(doctorSlotRepository.getReferenceById(newSlotId));
         appointment.setAppointmentDate(newDate);
         appointment.setAppointmentTime(newTime);
         appointment.setEndTime(newEndTime);
@@ -630,7 +671,8 @@ public class AppointmentService {
         return appointmentRepository.findAll(pageable);
     }
     
-    public Page<Appointment> getAllAppointments(String patientName, String doctorName, String status, 
+    @Transactional(readOnly = true)
+    public Page<AppointmentSummary> getAllAppointments(String patientName, String doctorName, String status, 
                                                String appointmentType, String dateFrom, String dateTo, Pageable pageable) {
         // Convert string parameters to proper types
         Appointment.Status statusEnum = null;
@@ -682,6 +724,96 @@ public class AppointmentService {
                                                                                 dateFrom, dateFromParsed, dateTo, dateToParsed, pageable);
     }
     
+    /**
+     * Keyset-paginated variant of {@link #getAllAppointments(String, String, String, String, String, String, Pageable)}:
+     * newest appointment first, no count query, and the cost of a page does not grow with its depth.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentSummary> getAllAppointmentsByCursor(String patientName, String doctorName, String status,
+                                                                     String appointmentType, String dateFrom, String dateTo,
+                                                                     String cursor, int size) {
+        // The same text in both name filters is a general search matching either name
+        String searchTerm = null;
+        if (patientName != null && patientName.equals(doctorName)) {
+            searchTerm = patientName;
+            patientName = null;
+            doctorName = null;
+        }
+        
+        String[] keys = PageCursor.decode(cursor, 3);
+        LocalDate cursorDate = null;
+        LocalTime cursorTime = null;
+        Long cursorId = null;
+        if (keys != null) {
+            try {
+                cursorDate = LocalDate.parse(keys[0]);
+                cursorTime = LocalTime.parse(keys[1]);
+                cursorId = Long.valueOf(keys[2]);
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        
+        List<AppointmentSummary> rows = appointmentRepository.findAppointmentsAfterCursor(patientName, doctorName, searchTerm,
+            parseEnumOrNull(Appointment.Status.class, status), parseEnumOrNull(Appointment.AppointmentType.class, appointmentType),
+            parseDateOrNull(dateFrom), parseDateOrNull(dateTo), cursorDate, cursorTime, cursorId, PageCursor.window(size));
+        return CursorPage.of(rows, size,
+            last -> PageCursor.encode(last.getAppointmentDate(), last.getAppointmentTime(), last.getId()));
+    }
+    
+    /**
+     * Streams every appointment matching the admin filters (deleted included) to {@code out} in id order,
+     * reading through a database cursor - memory use does not depend on the number of rows.
+     */
+    @Transactional(readOnly = true)
+    public long exportAppointments(ExportWriter.Format format, String patientName, String doctorName, String status,
+                                   String appointmentType, String dateFrom, String dateTo, OutputStream out) throws IOException {
+        String searchTerm = null;
+        if (patientName != null && patientName.equals(doctorName)) {
+            searchTerm = patientName;
+            patientName = null;
+            doctorName = null;
+        }
+        
+        ExportWriter writer = new ExportWriter(out, format, objectMapper,
+            "id", "appointmentDate", "appointmentTime", "endTime", "status", "appointmentType",
+            "patientId", "patientName", "patientEmail", "doctorId", "doctorName", "specialization",
+            "consultationFee", "symptoms", "notes", "cancellationReason", "createdAt", "deletedAt");
+        return writer.writeAll(appointmentRepository.streamAppointmentsForExport(patientName, doctorName, searchTerm,
+                parseEnumOrNull(Appointment.Status.class, status), parseEnumOrNull(Appointment.AppointmentType.class, appointmentType),
+                parseDateOrNull(dateFrom), parseDateOrNull(dateTo)),
+            entityManager,
+            a -> new Object[] {
+                a.getId(), a.getAppointmentDate(), a.getAppointmentTime(), a.getEndTime(), a.getStatus(), a.getAppointmentType(),
+                a.getPatient().getId(), a.getPatient().getName(), a.getPatient().getEmail(),
+                a.getDoctor().getDoctorId(), a.getDoctor().getFirstName() + " " + a.getDoctor().getLastName(),
+                a.getDoctor().getSpecialization() == null ? null : a.getDoctor().getSpecialization().getName(),
+                a.getConsultationFee(), a.getSymptoms(), a.getNotes(), a.getCancellationReason(), a.getCreatedAt(), a.getDeletedAt()
+            });
+    }
+    
+    private static <E extends Enum<E>> E parseEnumOrNull(Class<E> type, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null; // Invalid value, filter ignored
+        }
+    }
+    
+    private static LocalDate parseDateOrNull(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (Exception e) {
+            return null; // Invalid date format, filter ignored
+        }
+    }
+    
     public Appointment updateAppointment(Long id, Map<String, Object> updateData) {
         Appointment appointment = appointmentRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
@@ -710,6 +842,7 @@ public class AppointmentService {
                 throw new RuntimeException("Invalid appointment type: " + typeStr);
             }
         }
+        Appointment.Status previousStatus = appointment.getStatus();
         if (updateData.containsKey("status") && updateData.get("status") != null) {
             String statusStr = updateData.get("status").toString();
             try {
@@ -737,7 +870,9 @@ public class AppointmentService {
         appointment.setUpdatedAt(LocalDateTime.now());
         appointment.setUpdatedBy(appointment.getPatient().getId());
         
-        return appointmentRepository.save(appointment);
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.APPOINTMENT, previousStatus, savedAppointment.getStatus());
+        return savedAppointment;
     }
     
     public void deleteAppointment(Long id) {
@@ -746,15 +881,30 @@ public class AppointmentService {
         
         appointment.setDeletedAt(LocalDateTime.now());
         appointmentRepository.save(appointment);
+        statusCounters.deleted(StatusCounterRegistry.Kind.APPOINTMENT, appointment.getStatus());
     }
     
+    @Transactional(readOnly = true)
     public Object getAppointmentStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalAppointments", appointmentRepository.count());
-        stats.put("pendingAppointments", appointmentRepository.countByStatus(Appointment.Status.SCHEDULED));
-        stats.put("completedAppointments", appointmentRepository.countByStatus(Appointment.Status.COMPLETED));
-        stats.put("cancelledAppointments", appointmentRepository.countByStatus(Appointment.Status.CANCELLED));
+        if (statusCounters.isReady()) {
+            stats.put("totalAppointments", statusCounters.getTotal(StatusCounterRegistry.Kind.APPOINTMENT));
+            stats.put("pendingAppointments", statusCounters.get(StatusCounterRegistry.Kind.APPOINTMENT, Appointment.Status.SCHEDULED));
+            stats.put("completedAppointments", statusCounters.get(StatusCounterRegistry.Kind.APPOINTMENT, Appointment.Status.COMPLETED));
+            stats.put("cancelledAppointments", statusCounters.get(StatusCounterRegistry.Kind.APPOINTMENT, Appointment.Status.CANCELLED));
+            return stats;
+        }
+        
+        List<Object[]> rows = appointmentRepository.countGroupedByStatus();
+        GroupCounts all = GroupCounts.of(rows, 1);
+        GroupCounts live = GroupCounts.of(rows, 2);
+        
+        // Total includes soft-deleted appointments, the per-status counts do not
+        stats.put("totalAppointments", all.getTotal());
+        stats.put("pendingAppointments", live.get(Appointment.Status.SCHEDULED));
+        stats.put("completedAppointments", live.get(Appointment.Status.COMPLETED));
+        stats.put("cancelledAppointments", live.get(Appointment.Status.CANCELLED));
         
         return stats;
     }
@@ -778,6 +928,7 @@ public class AppointmentService {
         appointment.setCreatedBy(patientId);
         
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        statusCounters.created(StatusCounterRegistry.Kind.APPOINTMENT, savedAppointment.getStatus());
         
         Map<String, Object> result = new HashMap<>();
         result.put("appointmentId", savedAppointment.getId());
@@ -791,37 +942,60 @@ public class AppointmentService {
         return result;
     }
     
-    public int cancelAllAppointmentsForDoctor(Long doctorId, String reason) {
-        List<Appointment> scheduledAppointments = appointmentRepository.findScheduledAppointmentsByDoctorId(doctorId);
-        int cancelledCount = 0;
-        
-        for (Appointment appointment : scheduledAppointments) {
-            try {
-                // Free up the slot
-                if (appointment.getDoctorSlot() != null) {
-                    DoctorSlot slot = appointment.getDoctorSlot();
-                    slot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
-                    doctorSlotRepository.save(slot);
-                    appointment.setDoctorSlot(null);
+    /**
+     * Cancels every scheduled appointment of the doctor with set-based statements: the appointments are
+     * row-locked and read as (id, slot) pairs, then each chunk of {@code app.doctor-cancellation.batch-size}
+     * ids takes one UPDATE to free the booked slots and one to cancel the appointments. The statements
+     * bypass Hibernate, so audit events, status counters and the slot index are updated here explicitly.
+     *
+     * @param updatedBy id of the acting admin, recorded on the freed slots; null when there is none
+     * @return ids of the cancelled appointments
+     */
+    @Transactional
+    public List<Long> cancelAllAppointmentsForDoctor(Long doctorId, String reason, Long updatedBy) {
+        List<Object[]> scheduled = appointmentRepository.lockScheduledAppointmentsByDoctorId(doctorId);
+        if (scheduled.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime cancelledAt = LocalDateTime.now();
+        List<Long> cancelledIds = new ArrayList<>(scheduled.size());
+        Map<Long, Map<String, Object>> oldValues = new LinkedHashMap<>();
+        
+        for (int from = 0; from < scheduled.size(); from += cancellationBatchSize) {
+            List<Object[]> chunk = scheduled.subList(from, Math.min(from + cancellationBatchSize, scheduled.size()));
+            List<Long> ids = new ArrayList<>(chunk.size());
+            List<Long> slotIds = new ArrayList<>();
+            for (Object[] row : chunk) {
+                Long id = ((Number) row[0]).longValue();
+                Long slotId = row[1] != null ? ((Number) row[1]).longValue() : null;
+                ids.add(id);
+                if (slotId != null) {
+                    slotIds.add(slotId);
                 }
-                
-                // Cancel the appointment
-                appointment.setStatus(Appointment.Status.CANCELLED);
-                appointment.setCancellationReason(reason);
-                appointment.setCancelledAt(LocalDateTime.now());
-                appointment.setCancelledByDoctor(doctorId); // Admin is cancelling on behalf of doctor
-                
-                appointmentRepository.save(appointment);
-                cancelledCount++;
-                
-                System.out.println("Cancelled appointment ID: " + appointment.getId() + " for doctor ID: " + doctorId);
-            } catch (Exception e) {
-                System.err.println("Error cancelling appointment ID: " + appointment.getId() + " - " + e.getMessage());
-                // Continue with other appointments even if one fails
+                Map<String, Object> old = new LinkedHashMap<>();
+                old.put("status", Appointment.Status.SCHEDULED);
+                old.put("doctorSlot", slotId);
+                oldValues.put(id, old);
             }
-        }
-        
-        System.out.println("Successfully cancelled " + cancelledCount + " appointments for doctor ID: " + doctorId);
-        return cancelledCount;
+            if (!slotIds.isEmpty()) {
+                doctorSlotRepository.releaseBookedSlots(slotIds, updatedBy);
+            }
+            appointmentRepository.cancelScheduledAppointments(ids, doctorId, reason, cancelledAt);
+            cancelledIds.addAll(ids);
+        }
+        
+        Map<String, Object> newValues = new LinkedHashMap<>();
+        newValues.put("status", Appointment.Status.CANCELLED);
+        newValues.put("doctorSlot", null);
+        newValues.put("cancellationReason", reason);
+        newValues.put("cancelledAt", cancelledAt);
+        newValues.put("cancelledByDoctor", doctorId);
+        auditCaptureListener.captureBulkUpdate("appointments", oldValues, newValues);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.APPOINTMENT, Appointment.Status.SCHEDULED,
+            Appointment.Status.CANCELLED, cancelledIds.size());
+        slotAvailabilityIndex.invalidateDoctor(doctorId);
+        
+        System.out.println("Cancelled " + cancelledIds.size() + " appointments for doctor ID: " + doctorId);
+        return cancelledIds;
     }
 }
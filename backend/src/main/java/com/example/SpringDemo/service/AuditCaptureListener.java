@@ -0,0 +1,227 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.Appointment;
+import com.example.SpringDemo.entity.AuditLog;
+import com.example.SpringDemo.entity.Complaint;
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.entity.Payment;
+import com.example.SpringDemo.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Captures every insert, update and delete of appointments, payments, doctors, users and complaints
+ * as Hibernate flushes them, so no service method needs audit calls of its own. The request thread only
+ * copies the changed column values plus actor and client address; the event is handed to
+ * {@link AuditLogWriter} after the transaction commits (rolled-back changes are never audited).
+ * Bulk JPQL/JDBC statements bypass Hibernate events; callers report those through {@link #captureBulkUpdate}.
+ */
+@Component
+public class AuditCaptureListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Set<Class<?>> AUDITED_ENTITIES =
+        Set.of(Appointment.class, Payment.class, Doctor.class, User.class, Complaint.class);
+
+    private static final String REDACTED = "[redacted]";
+
+    // Length of the user_agent column
+    private static final int MAX_USER_AGENT_LENGTH = 255;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void register() {
+        if (!enabled) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (isAudited(event.getEntity())) {
+            capture(AuditLog.Action.INSERT, event.getPersister(), event.getId(), null,
+                values(event.getPersister(), event.getState(), null));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!isAudited(event.getEntity())) {
+            return;
+        }
+        int[] changed = event.getDirtyProperties();
+        if (changed == null) {
+            changed = changedProperties(event.getOldState(), event.getState());
+        }
+        if (changed.length == 0) {
+            return;
+        }
+        capture(AuditLog.Action.UPDATE, event.getPersister(), event.getId(),
+            event.getOldState() == null ? null : values(event.getPersister(), event.getOldState(), changed),
+            values(event.getPersister(), event.getState(), changed));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (isAudited(event.getEntity())) {
+            capture(AuditLog.Action.DELETE, event.getPersister(), event.getId(),
+                values(event.getPersister(), event.getDeletedState(), null), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false; // Commit is handled through the Spring transaction synchronization below
+    }
+
+    private static boolean isAudited(Object entity) {
+        return AUDITED_ENTITIES.contains(entity.getClass());
+    }
+
+    /**
+     * Audits rows changed by a bulk UPDATE, which Hibernate events never see: one UPDATE event per
+     * record id with its own old values and the shared new values, handed to the writer after commit.
+     */
+    public void captureBulkUpdate(String tableName, Map<Long, Map<String, Object>> oldValuesById,
+                                  Map<String, Object> newValues) {
+        if (!enabled || oldValuesById.isEmpty()) {
+            return;
+        }
+        List<AuditEvent> events = new ArrayList<>(oldValuesById.size());
+        oldValuesById.forEach((id, oldValues) ->
+            events.add(event(AuditLog.Action.UPDATE, tableName, id, oldValues, newValues)));
+        afterCommit(() -> events.forEach(auditLogWriter::submit));
+    }
+
+    private void capture(AuditLog.Action action, EntityPersister persister, Object id,
+                         Map<String, Object> oldValues, Map<String, Object> newValues) {
+        AuditEvent event = event(action, persister instanceof AbstractEntityPersister entityPersister
+                ? entityPersister.getTableName() : persister.getEntityName(),
+            id instanceof Number number ? number.longValue() : null, oldValues, newValues);
+        afterCommit(() -> auditLogWriter.submit(event));
+    }
+
+    private static AuditEvent event(AuditLog.Action action, String tableName, Long recordId,
+                                    Map<String, Object> oldValues, Map<String, Object> newValues) {
+        AuditEvent event = new AuditEvent();
+        event.setAction(action);
+        event.setTableName(tableName);
+        event.setRecordId(recordId);
+        event.setOldValues(oldValues);
+        event.setNewValues(newValues);
+        event.setCreatedAt(LocalDateTime.now());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            if (authentication.getPrincipal() instanceof UserPrincipal user) {
+                event.setUserId(user.getId());
+            } else if (authentication.getPrincipal() instanceof DoctorPrincipal doctor) {
+                event.setDoctorId(doctor.getId());
+            }
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            event.setIpAddress(request.getRemoteAddr());
+            String userAgent = request.getHeader("User-Agent");
+            event.setUserAgent(userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH
+                ? userAgent.substring(0, MAX_USER_AGENT_LENGTH) : userAgent);
+        }
+        return event;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Column values by property name (all properties, or only {@code indexes}); associations are reduced
+     * to their ids, collections skipped and password hashes redacted.
+     */
+    private static Map<String, Object> values(EntityPersister persister, Object[] state, int[] indexes) {
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        Map<String, Object> values = new LinkedHashMap<>();
+        int count = indexes == null ? state.length : indexes.length;
+        for (int n = 0; n < count; n++) {
+            int i = indexes == null ? n : indexes[n];
+            if (types[i].isCollectionType()) {
+                continue;
+            }
+            Object value = state[i];
+            if (value != null && types[i].isEntityType()) {
+                value = persister.getFactory().getPersistenceUnitUtil().getIdentifier(value);
+            } else if (value != null && names[i].toLowerCase().contains("password")) {
+                value = REDACTED;
+            }
+            values.put(names[i], value);
+        }
+        return values;
+    }
+
+    private static int[] changedProperties(Object[] oldState, Object[] state) {
+        if (oldState == null) {
+            int[] all = new int[state.length];
+            for (int i = 0; i < state.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        return IntStream.range(0, state.length)
+            .filter(i -> !Objects.equals(oldState[i], state[i]))
+            .toArray();
+    }
+}
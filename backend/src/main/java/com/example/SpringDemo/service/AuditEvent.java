@@ -0,0 +1,30 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.AuditLog;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One captured change, queued for {@link AuditLogWriter}. Values are plain column values (associations
+ * reduced to their ids), so the event can be serialized on the writer thread or spilled to a file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+
+    private AuditLog.Action action;
+    private String tableName;
+    private Long recordId;
+    private Map<String, Object> oldValues;
+    private Map<String, Object> newValues;
+    private Long userId;
+    private Long doctorId;
+    private String ipAddress;
+    private String userAgent;
+    private LocalDateTime createdAt;
+}
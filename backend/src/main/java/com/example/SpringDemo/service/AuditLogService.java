@@ -1,27 +1,59 @@
 package com.example.SpringDemo.service;
 
+import com.example.SpringDemo.dto.CursorPage;
 import com.example.SpringDemo.entity.AuditLog;
+import com.example.SpringDemo.entity.User;
 import com.example.SpringDemo.repository.AuditLogRepository;
+import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.util.ExportWriter;
+import com.example.SpringDemo.util.PageCursor;
+import com.example.SpringDemo.util.GroupCounts;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class AuditLogService {
     
+    // Open bounds of a search, for the count that needs both
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
+    @Autowired
+    private AuditSegmentStore auditSegmentStore;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public Page<AuditLog> getAllAuditLogs(Long userId, String tableName, String action, 
                                          LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable) {
         return auditLogRepository.findAuditLogsWithFilters(userId, tableName, action, 
@@ -36,13 +68,63 @@ public class AuditLogService {
         return auditLogRepository.findByTableName(tableName, pageable);
     }
     
+    /**
+     * Answered from the audit segment store when it is enabled, can apply the requested sort (id and/or
+     * createdAt) and holds every audit_logs row of the time range - it does not while rows from other
+     * nodes, or rows not yet backfilled, are missing from it. Otherwise from the audit_logs table.
+     */
     public Page<AuditLog> searchAuditLogs(Long userId, String tableName, String action, 
                                          Long recordId, String ipAddress, LocalDateTime fromDate, 
                                          LocalDateTime toDate, Pageable pageable) {
+        if (auditSegmentStore.isEnabled() && auditSegmentStore.supportsSort(pageable.getSort())
+                && segmentStoreCovers(fromDate, toDate)) {
+            AuditLog.Action actionEnum = null;
+            if (action != null && !action.isEmpty()) {
+                try {
+                    actionEnum = AuditLog.Action.valueOf(action.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    // Invalid action, will be ignored
+                }
+            }
+            Page<AuditLog> page = auditSegmentStore.search(userId, tableName, actionEnum, recordId, ipAddress,
+                                                           fromDate, toDate, pageable);
+            attachUsers(page.getContent());
+            return page;
+        }
         return auditLogRepository.searchAuditLogs(userId, tableName, action, recordId, 
                                                  ipAddress, fromDate, toDate, pageable);
     }
     
+    // Segment rows carry only the user id; load the users in one query so the rows match the table's
+    private void attachUsers(List<AuditLog> auditLogs) {
+        Set<Long> userIds = new HashSet<>();
+        for (AuditLog auditLog : auditLogs) {
+            if (auditLog.getUser() != null) {
+                userIds.add(auditLog.getUser().getId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            users.put(user.getId(), user);
+        }
+        for (AuditLog auditLog : auditLogs) {
+            if (auditLog.getUser() != null) {
+                auditLog.setUser(users.getOrDefault(auditLog.getUser().getId(), auditLog.getUser()));
+            }
+        }
+    }
+    
+    // Rows only reach the store after the table, so equal counts mean it has all of them
+    private boolean segmentStoreCovers(LocalDateTime fromDate, LocalDateTime toDate) {
+        long inStore = auditSegmentStore.countBetween(fromDate, toDate);
+        long inTable = auditLogRepository.countByCreatedAtBetween(fromDate != null ? fromDate : EARLIEST,
+                                                                  toDate != null ? toDate : LATEST);
+        return inStore == inTable;
+    }
+    
     public Optional<AuditLog> getAuditLogById(Long id) {
         return auditLogRepository.findByIdCustom(id);
     }
@@ -50,17 +132,19 @@ public class AuditLogService {
     public Object getAuditLogStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalAuditLogs", auditLogRepository.countAll());
-        stats.put("inserts", auditLogRepository.countByAction("INSERT"));
-        stats.put("updates", auditLogRepository.countByAction("UPDATE"));
-        stats.put("deletes", auditLogRepository.countByAction("DELETE"));
-        stats.put("selects", auditLogRepository.countByAction("SELECT"));
+        GroupCounts byAction = GroupCounts.of(auditLogRepository.countGroupedByAction());
+        
+        stats.put("totalAuditLogs", byAction.getTotal());
+        stats.put("inserts", byAction.get(AuditLog.Action.INSERT));
+        stats.put("updates", byAction.get(AuditLog.Action.UPDATE));
+        stats.put("deletes", byAction.get(AuditLog.Action.DELETE));
+        stats.put("selects", byAction.get(AuditLog.Action.SELECT));
         
         return stats;
     }
     
     public List<AuditLog> getRecentAuditLogs(int limit) {
-        return auditLogRepository.findTop10OrderByCreatedAtDesc();
+        return auditLogRepository.findTop10ByOrderByCreatedAtDescIdDesc();
     }
     
     public Page<AuditLog> getAllAuditLogs(Pageable pageable) {
@@ -100,7 +184,100 @@ public class AuditLogService {
         return auditLogRepository.findAuditLogsWithFilters(action, actionEnum, tableName, userId, fromDate, fromDateParsed, toDate, toDateParsed, pageable);
     }
     
+    /**
+     * Keyset-paginated audit log listing (same filters as the Page variant, status is not stored):
+     * newest first, no count query, so deep pages cost the same as the first one.
+     */
+    public CursorPage<AuditLog> getAuditLogsByCursor(String action, String tableName, Long userId, String fromDate, String toDate,
+                                                    String cursor, int size) {
+        AuditLog.Action actionEnum = null;
+        if (action != null && !action.isEmpty()) {
+            try {
+                actionEnum = AuditLog.Action.valueOf(action.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // Invalid action, will be ignored
+            }
+        }
+        
+        LocalDateTime fromDateParsed = null;
+        LocalDateTime toDateParsed = null;
+        try {
+            if (fromDate != null && !fromDate.isEmpty()) {
+                fromDateParsed = LocalDate.parse(fromDate).atStartOfDay();
+            }
+            if (toDate != null && !toDate.isEmpty()) {
+                toDateParsed = LocalDate.parse(toDate).atTime(23, 59, 59);
+            }
+        } catch (Exception e) {
+            // Invalid date format, will be ignored
+        }
+        
+        String[] keys = PageCursor.decode(cursor, 2);
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        if (keys != null) {
+            try {
+                cursorCreatedAt = LocalDateTime.parse(keys[0]);
+                cursorId = Long.valueOf(keys[1]);
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        
+        List<AuditLog> rows = auditLogRepository.findAuditLogsAfterCursor(actionEnum, tableName, userId, fromDateParsed, toDateParsed,
+                                                                          cursorCreatedAt, cursorId, PageCursor.window(size));
+        return CursorPage.of(rows, size, last -> PageCursor.encode(last.getCreatedAt(), last.getId()));
+    }
+    
+    /**
+     * Streams every audit log matching the filters to {@code out} in id order, reading through a database cursor.
+     */
+    @Transactional(readOnly = true)
+    public long exportAuditLogs(ExportWriter.Format format, String action, String tableName, Long userId,
+                                String fromDate, String toDate, OutputStream out) throws IOException {
+        AuditLog.Action actionEnum = null;
+        if (action != null && !action.isEmpty()) {
+            try {
+                actionEnum = AuditLog.Action.valueOf(action.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid action: " + action);
+            }
+        }
+        
+        LocalDateTime fromDateParsed = null;
+        LocalDateTime toDateParsed = null;
+        try {
+            if (fromDate != null && !fromDate.isEmpty()) {
+                fromDateParsed = LocalDate.parse(fromDate).atStartOfDay();
+            }
+            if (toDate != null && !toDate.isEmpty()) {
+                toDateParsed = LocalDate.parse(toDate).atTime(23, 59, 59);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid date, expected yyyy-MM-dd");
+        }
+        
+        ExportWriter writer = new ExportWriter(out, format, objectMapper,
+            "id", "createdAt", "action", "tableName", "recordId", "userId", "doctorId",
+            "ipAddress", "userAgent", "oldValues", "newValues");
+        return writer.writeAll(auditLogRepository.streamAuditLogsForExport(actionEnum, tableName, userId, fromDateParsed, toDateParsed),
+            entityManager,
+            a -> new Object[] {
+                a.getId(), a.getCreatedAt(), a.getAction(), a.getTableName(), a.getRecordId(),
+                a.getUser() == null ? null : a.getUser().getId(), a.getDoctorId(),
+                a.getIpAddress(), a.getUserAgent(), a.getOldValues(), a.getNewValues()
+            });
+    }
+    
+    public Map<String, Object> getWriterStats() {
+        return auditLogWriter.getStats();
+    }
+    
+    public Map<String, Object> getSegmentStoreStats() {
+        return auditSegmentStore.getStats();
+    }
+    
     public List<AuditLog> getRecentAuditLogs() {
-        return auditLogRepository.findTop10OrderByCreatedAtDesc();
+        return auditLogRepository.findTop10ByOrderByCreatedAtDescIdDesc();
     }
 }
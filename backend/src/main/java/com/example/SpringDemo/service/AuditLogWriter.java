@@ -0,0 +1,410 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes audit events off the request path: callers only enqueue onto a bounded queue, and a single
+ * background thread drains it in JDBC batches. When the queue is full the configured overflow policy
+ * applies - drop the event, block the caller for a bounded time, or spill it to a local file that is
+ * replayed into the table once the writer is idle again (also after a restart).
+ */
+@Service
+public class AuditLogWriter {
+
+    public enum OverflowPolicy {
+        DROP, BLOCK, SPILL
+    }
+
+    private static final String INSERT_AUDIT_LOG_SQL =
+        "INSERT INTO audit_logs (id, user_id, doctor_id, action, table_name, record_id, old_values, new_values, " +
+        "ip_address, user_agent, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String BACKFILL_SQL =
+        "SELECT id, user_id, doctor_id, action, table_name, record_id, old_values, new_values, ip_address, " +
+        "user_agent, created_at FROM audit_logs WHERE id > ? ORDER BY id";
+
+    // Length of the old_values/new_values columns
+    private static final int MAX_VALUES_LENGTH = 2000;
+
+    // allocationSize of audit_logs_seq on the AuditLog entity
+    private static final int ID_BLOCK_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuditSegmentStore auditSegmentStore;
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.overflow:block}")
+    private String overflow;
+
+    @Value("${app.audit.block-timeout-ms:100}")
+    private long blockTimeoutMs;
+
+    @Value("${app.audit.spill-file:${java.io.tmpdir}/audit-spill.ndjson}")
+    private String spillFile;
+
+    private BlockingQueue<AuditEvent> queue;
+    private OverflowPolicy overflowPolicy;
+    private Path spillPath;
+    private Path replayPath;
+    private final Object spillLock = new Object();
+    private String nextSequenceValueSql;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // Id block reserved from the sequence; only touched by the writer thread
+    private long nextId;
+    private long lastIdInBlock = -1;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private volatile int inFlight;
+    private volatile int lastBatchSize;
+    private volatile long lastFlushMicros;
+    private volatile long maxFlushMicros;
+
+    @PostConstruct
+    public void init() {
+        overflowPolicy = OverflowPolicy.valueOf(overflow.trim().toUpperCase());
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        spillPath = Paths.get(spillFile);
+        replayPath = spillPath.resolveSibling(spillPath.getFileName() + ".replay");
+        nextSequenceValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString("audit_logs_seq");
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread != null) {
+            // The writer finishes the queued events before it exits
+            running = false;
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues an event; never waits on the database. A full queue is handled by the overflow policy.
+     */
+    public void submit(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (queue.offer(event)) {
+            enqueued.increment();
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                if (queue.offer(event, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    enqueued.increment();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Still full after the timeout - a stalled writer must not stall requests indefinitely
+            dropped.increment();
+        } else if (overflowPolicy == OverflowPolicy.SPILL) {
+            spill(List.of(event));
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long flushCount = flushes.sum();
+        stats.put("enabled", enabled);
+        stats.put("overflowPolicy", overflowPolicy);
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("inFlight", inFlight);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("spilled", spilled.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("flushes", flushCount);
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("lastFlushMillis", lastFlushMicros / 1000.0);
+        stats.put("avgFlushMillis", flushCount == 0 ? 0.0 : flushNanos.sum() / 1e6 / flushCount);
+        stats.put("maxFlushMillis", maxFlushMicros / 1000.0);
+        stats.put("spillFileBytes", fileSize(spillPath) + fileSize(replayPath));
+        return stats;
+    }
+
+    private void runWriter() {
+        backfillSegmentStore();
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpill(); // Idle: catch up on events spilled under overload
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                inFlight = batch.size();
+                if (!flush(batch)) {
+                    if (overflowPolicy == OverflowPolicy.SPILL) {
+                        spill(batch);
+                    } else {
+                        failed.add(batch.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Audit log writer error: " + e.getMessage());
+            } finally {
+                batch.clear();
+                inFlight = 0;
+            }
+        }
+    }
+
+    /**
+     * Before the first flush, appends the audit_logs rows the segment store does not have yet - written
+     * before it was enabled, while this node was down or by other nodes - in id order. Segment files
+     * holding rows the table does not (the database was recreated) are dropped and rebuilt from the table.
+     */
+    private void backfillSegmentStore() {
+        if (!auditSegmentStore.isEnabled()) {
+            return;
+        }
+        try {
+            long tableRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Long.class);
+            long tableMaxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM audit_logs", Long.class);
+            if (auditSegmentStore.getMaxId() > tableMaxId || auditSegmentStore.getRecordCount() > tableRows) {
+                System.out.println("Audit segment store does not match audit_logs, rebuilding it");
+                auditSegmentStore.reset();
+            }
+            long before = auditSegmentStore.getRecordCount();
+            jdbcTemplate.query(BACKFILL_SQL, (RowCallbackHandler) rs -> {
+                AuditEvent event = new AuditEvent(AuditLog.Action.valueOf(rs.getString("action")),
+                    rs.getString("table_name"), rs.getObject("record_id", Long.class), null, null,
+                    rs.getObject("user_id", Long.class), rs.getObject("doctor_id", Long.class),
+                    rs.getString("ip_address"), rs.getString("user_agent"), rs.getTimestamp("created_at").toLocalDateTime());
+                auditSegmentStore.append(rs.getLong("id"), event, rs.getString("old_values"), rs.getString("new_values"));
+            }, auditSegmentStore.getMaxId());
+            System.out.println("Audit segment store backfilled with " + (auditSegmentStore.getRecordCount() - before)
+                + " rows from audit_logs");
+        } catch (Exception e) {
+            // Searches fall back to the table for whatever the store is missing
+            System.err.println("Audit segment store backfill failed: " + e.getMessage());
+        }
+    }
+
+    // Inserts one batch; false if it did not reach the table (the caller decides what happens to it)
+    private boolean flush(List<AuditEvent> batch) {
+        long start = System.nanoTime();
+        boolean inserted = false;
+        try {
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (AuditEvent event : batch) {
+                rows.add(new Object[] {
+                    nextId(), event.getUserId(), event.getDoctorId(), event.getAction().name(), event.getTableName(),
+                    event.getRecordId(), toJson(event.getOldValues()), toJson(event.getNewValues()),
+                    event.getIpAddress(), event.getUserAgent(), Timestamp.valueOf(event.getCreatedAt())
+                });
+            }
+            jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG_SQL, rows);
+            if (auditSegmentStore.isEnabled()) {
+                for (int i = 0; i < batch.size(); i++) {
+                    Object[] row = rows.get(i);
+                    auditSegmentStore.append((Long) row[0], batch.get(i), (String) row[6], (String) row[7]);
+                }
+            }
+            written.add(batch.size());
+            inserted = true;
+        } catch (Exception e) {
+            System.err.println("Audit log flush of " + batch.size() + " events failed: " + e.getMessage());
+        }
+        long nanos = System.nanoTime() - start;
+        flushes.increment();
+        flushNanos.add(nanos);
+        lastBatchSize = batch.size();
+        lastFlushMicros = nanos / 1000;
+        maxFlushMicros = Math.max(maxFlushMicros, lastFlushMicros);
+        return inserted;
+    }
+
+    private long nextId() {
+        if (nextId > lastIdInBlock) {
+            // Same pooled blocks Hibernate derives from the sequence value, so ids never collide with entity inserts
+            long value;
+            do {
+                value = jdbcTemplate.queryForObject(nextSequenceValueSql, Long.class);
+            } while (value < ID_BLOCK_SIZE);
+            nextId = value - ID_BLOCK_SIZE + 1;
+            lastIdInBlock = value;
+        }
+        return nextId++;
+    }
+
+    private String toJson(Map<String, Object> values) throws IOException {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        String json = objectMapper.writeValueAsString(values);
+        return json.length() > MAX_VALUES_LENGTH ? json.substring(0, MAX_VALUES_LENGTH) : json;
+    }
+
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AuditEvent event : events) {
+                    out.write(objectMapper.writeValueAsString(event));
+                    out.newLine();
+                }
+                spilled.add(events.size());
+            } catch (IOException e) {
+                dropped.add(events.size());
+                System.err.println("Audit log spill to " + spillPath + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves the spill file aside (new spills start a fresh file) and inserts its events. Stops at the first
+     * batch that fails and keeps it and the rest of the file for the next idle round; the file is deleted
+     * only once every batch is in. At-least-once: a crash during replay re-inserts that file's events.
+     */
+    private void replaySpill() throws IOException {
+        synchronized (spillLock) {
+            if (!Files.exists(replayPath)) {
+                if (!Files.exists(spillPath)) {
+                    return;
+                }
+                Files.move(spillPath, replayPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        List<String> batchLines = new ArrayList<>(batchSize);
+        Path unreplayed = replayPath.resolveSibling(replayPath.getFileName() + ".rest");
+        boolean complete = true;
+        try (BufferedReader in = Files.newBufferedReader(replayPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    try {
+                        batch.add(objectMapper.readValue(line, AuditEvent.class));
+                        batchLines.add(line);
+                    } catch (IOException e) {
+                        failed.increment(); // Truncated line from a crash mid-spill
+                    }
+                }
+                if (batch.size() == batchSize) {
+                    if (!replayBatch(batch, batchLines, in, unreplayed)) {
+                        complete = false;
+                        break;
+                    }
+                }
+            }
+            if (complete && !batch.isEmpty()) {
+                complete = replayBatch(batch, batchLines, in, unreplayed);
+            }
+        }
+        if (complete) {
+            Files.delete(replayPath);
+        } else {
+            Files.move(unreplayed, replayPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Inserts one replayed batch; if that fails, writes its lines and the rest of the file to unreplayed
+    private boolean replayBatch(List<AuditEvent> batch, List<String> batchLines, BufferedReader rest,
+                                Path unreplayed) throws IOException {
+        if (flush(batch)) {
+            replayed.add(batch.size());
+            batch.clear();
+            batchLines.clear();
+            return true;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(unreplayed, StandardCharsets.UTF_8)) {
+            for (String line : batchLines) {
+                out.write(line);
+                out.newLine();
+            }
+            String line;
+            while ((line = rest.readLine()) != null) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+        return false;
+    }
+
+    private static long fileSize(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
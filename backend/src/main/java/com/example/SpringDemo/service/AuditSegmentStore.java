@@ -0,0 +1,600 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.AuditLog;
+import com.example.SpringDemo.entity.User;
+import com.example.SpringDemo.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Optional append-only store for audit rows, fed by {@link AuditLogWriter} after each batch is in the
+ * database. Rows go to fixed-size, memory-mapped segment files in the order they were written; each segment
+ * keeps a sparse time index (min/max createdAt per block of records) and bloom filters on table name, user id
+ * and record id, so a search only decodes the blocks of segments that can contain a match.
+ *
+ * Segment metadata lives in memory and is rebuilt by scanning the files on startup. Data is written through
+ * the page cache and forced to disk on shutdown; the database table stays the system of record: the writer
+ * backfills the store from it on startup, and searches only come here for time ranges the store fully
+ * covers (see AuditLogService.searchAuditLogs).
+ */
+@Service
+public class AuditSegmentStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final AuditLog.Action[] ACTIONS = AuditLog.Action.values();
+
+    // Length prefix, id, createdAt, action, recordId, userId, doctorId
+    private static final int FIXED_RECORD_BYTES = 4 + 8 + 8 + 1 + 8 + 8 + 8;
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    @Value("${app.audit.segment-store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.audit.segment-store.dir:${java.io.tmpdir}/audit-segments}")
+    private String dir;
+
+    @Value("${app.audit.segment-store.segment-mb:64}")
+    private int segmentMb;
+
+    @Value("${app.audit.segment-store.index-interval:128}")
+    private int indexInterval;
+
+    @Value("${app.audit.segment-store.bloom-expected-entries:200000}")
+    private int bloomExpectedEntries;
+
+    private Path directory;
+    private int segmentBytes;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    // Only touched by the writer thread
+    private Segment active;
+
+    private final LongAdder appendFailures = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder segmentsScanned = new LongAdder();
+    private final LongAdder segmentsSkipped = new LongAdder();
+    private final LongAdder blocksScanned = new LongAdder();
+    private final LongAdder blocksSkipped = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        directory = Paths.get(dir);
+        segmentBytes = segmentMb * 1024 * 1024;
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+        segments.clear();
+        active = null;
+        for (Path file : files) {
+            segments.add(openSegment(file, segmentNumber(file)));
+        }
+        if (!segments.isEmpty()) {
+            active = segments.get(segments.size() - 1);
+        }
+        long records = segments.stream().mapToLong(segment -> segment.records).sum();
+        System.out.println("Audit segment store: " + segments.size() + " segments, " + records + " records in " + directory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends one row (writer thread only). The length prefix is written last, so a record cut short by a
+     * crash reads as the end of the segment.
+     */
+    public void append(long id, AuditEvent event, String oldValues, String newValues) {
+        byte[] tableName = bytes(event.getTableName());
+        byte[] ipAddress = bytes(event.getIpAddress());
+        byte[] userAgent = bytes(event.getUserAgent());
+        byte[] oldJson = bytes(oldValues);
+        byte[] newJson = bytes(newValues);
+        int size = FIXED_RECORD_BYTES + stringBytes(tableName) + stringBytes(ipAddress) + stringBytes(userAgent)
+            + stringBytes(oldJson) + stringBytes(newJson);
+        long createdAt = toMicros(event.getCreatedAt());
+
+        try {
+            // Keep room for the zero length that terminates the segment
+            if (active == null || active.limit + size + 4 > segmentBytes) {
+                int number = active == null ? 1 : active.number + 1;
+                active = openSegment(segmentPath(number), number);
+                segments.add(active);
+            }
+        } catch (IOException e) {
+            appendFailures.increment();
+            System.err.println("Audit segment could not be created: " + e.getMessage());
+            return;
+        }
+
+        Segment segment = active;
+        MappedByteBuffer buffer = segment.buffer;
+        int start = segment.limit;
+        int position = start + 4;
+        buffer.putLong(position, id);
+        buffer.putLong(position + 8, createdAt);
+        buffer.put(position + 16, (byte) event.getAction().ordinal());
+        buffer.putLong(position + 17, orNoValue(event.getRecordId()));
+        buffer.putLong(position + 25, orNoValue(event.getUserId()));
+        buffer.putLong(position + 33, orNoValue(event.getDoctorId()));
+        position += 41;
+        position = putString(buffer, position, tableName);
+        position = putString(buffer, position, ipAddress);
+        position = putString(buffer, position, userAgent);
+        position = putString(buffer, position, oldJson);
+        putString(buffer, position, newJson);
+        buffer.putInt(start, size - 4);
+
+        synchronized (segment) {
+            segment.index(start, size, id, createdAt, event.getTableName(), event.getUserId(), event.getRecordId(), indexInterval);
+        }
+    }
+
+    /**
+     * Drops every segment (writer thread only), for files that no longer match the audit_logs table.
+     */
+    public void reset() throws IOException {
+        List<Segment> dropped = new ArrayList<>(segments);
+        segments.clear();
+        active = null;
+        for (Segment segment : dropped) {
+            Files.deleteIfExists(segmentPath(segment.number));
+        }
+    }
+
+    public long getRecordCount() {
+        long records = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                records += segment.records;
+            }
+        }
+        return records;
+    }
+
+    // Highest id appended, 0 when empty
+    public long getMaxId() {
+        long maxId = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                maxId = Math.max(maxId, segment.maxId);
+            }
+        }
+        return maxId;
+    }
+
+    /**
+     * Records with createdAt in [fromDate, toDate] (null for an open bound). Answered from the time index;
+     * only blocks that straddle a bound are read.
+     */
+    public long countBetween(LocalDateTime fromDate, LocalDateTime toDate) {
+        long from = fromDate == null ? Long.MIN_VALUE : toMicros(fromDate);
+        long to = toDate == null ? Long.MAX_VALUE : toMicros(toDate);
+        long count = 0;
+        for (Segment segment : segments) {
+            int limit;
+            List<IndexBlock> blocks;
+            synchronized (segment) {
+                if (segment.records == 0 || segment.maxTime < from || segment.minTime > to) {
+                    continue;
+                }
+                if (segment.minTime >= from && segment.maxTime <= to) {
+                    count += segment.records;
+                    continue;
+                }
+                limit = segment.limit;
+                blocks = copyBlocks(segment.blocks);
+            }
+            for (int b = 0; b < blocks.size(); b++) {
+                IndexBlock block = blocks.get(b);
+                if (block.maxTime < from || block.minTime > to) {
+                    continue;
+                }
+                if (block.minTime >= from && block.maxTime <= to) {
+                    count += block.records;
+                    continue;
+                }
+                int end = b + 1 < blocks.size() ? blocks.get(b + 1).offset : limit;
+                MappedByteBuffer buffer = segment.buffer;
+                for (int position = block.offset; position < end; position += 4 + buffer.getInt(position)) {
+                    long createdAt = buffer.getLong(position + 4 + 8);
+                    if (createdAt >= from && createdAt <= to) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    // Sorts search can apply: any combination of id and createdAt, either direction
+    public boolean supportsSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!order.getProperty().equals("id") && !order.getProperty().equals("createdAt")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matching rows in the pageable's order (id and createdAt only, see {@link #supportsSort}); unsorted
+     * pages come in write order, oldest first. Every candidate block is scanned so the page carries an
+     * exact total; for a sorted page the first offset + size matches are kept in a bounded heap.
+     */
+    public Page<AuditLog> search(Long userId, String tableName, AuditLog.Action action, Long recordId, String ipAddress,
+                                 LocalDateTime fromDate, LocalDateTime toDate, Pageable pageable) {
+        if (!supportsSort(pageable.getSort())) {
+            throw new IllegalArgumentException("Audit segment store cannot sort by " + pageable.getSort());
+        }
+        searches.increment();
+        long from = fromDate == null ? Long.MIN_VALUE : toMicros(fromDate);
+        long to = toDate == null ? Long.MAX_VALUE : toMicros(toDate);
+        long skip = pageable.getOffset();
+        int size = pageable.getPageSize();
+        List<AuditLog> content = new ArrayList<>(size);
+        long total = 0;
+        Comparator<Match> order = pageable.getSort().isSorted() ? comparator(pageable.getSort()) : null;
+        // Worst kept match on top
+        PriorityQueue<Match> kept = order == null ? null : new PriorityQueue<>(order.reversed());
+        long keep = skip + size;
+
+        for (Segment segment : segments) {
+            int limit;
+            List<IndexBlock> blocks;
+            synchronized (segment) {
+                if (segment.records == 0 || segment.maxTime < from || segment.minTime > to
+                        || (tableName != null && !segment.tableNames.mightContain(tableName))
+                        || (userId != null && !segment.userIds.mightContain(userId))
+                        || (recordId != null && !segment.recordIds.mightContain(recordId))) {
+                    segmentsSkipped.increment();
+                    continue;
+                }
+                limit = segment.limit;
+                blocks = copyBlocks(segment.blocks);
+            }
+            segmentsScanned.increment();
+
+            for (int b = 0; b < blocks.size(); b++) {
+                IndexBlock block = blocks.get(b);
+                if (block.maxTime < from || block.minTime > to) {
+                    blocksSkipped.increment();
+                    continue;
+                }
+                blocksScanned.increment();
+                int end = b + 1 < blocks.size() ? blocks.get(b + 1).offset : limit;
+                MappedByteBuffer buffer = segment.buffer;
+                for (int position = block.offset; position < end; position += 4 + buffer.getInt(position)) {
+                    int body = position + 4;
+                    long createdAt = buffer.getLong(body + 8);
+                    if (createdAt < from || createdAt > to
+                            || (action != null && buffer.get(body + 16) != action.ordinal())
+                            || (recordId != null && buffer.getLong(body + 17) != recordId)
+                            || (userId != null && buffer.getLong(body + 25) != userId)) {
+                        continue;
+                    }
+                    if (tableName != null || ipAddress != null) {
+                        int stringStart = body + 41;
+                        if (tableName != null && !tableName.equals(getString(buffer, stringStart))) {
+                            continue;
+                        }
+                        if (ipAddress != null && !ipAddress.equals(getString(buffer, skipString(buffer, stringStart)))) {
+                            continue;
+                        }
+                    }
+                    total++;
+                    if (kept == null) {
+                        if (total > skip && content.size() < size) {
+                            content.add(decode(buffer, body));
+                        }
+                        continue;
+                    }
+                    Match match = new Match(buffer, body, buffer.getLong(body), createdAt);
+                    if (kept.size() < keep) {
+                        kept.add(match);
+                    } else if (order.compare(match, kept.peek()) < 0) {
+                        kept.poll();
+                        kept.add(match);
+                    }
+                }
+            }
+        }
+        if (kept != null) {
+            List<Match> ranked = new ArrayList<>(kept);
+            ranked.sort(order);
+            for (int i = (int) Math.min(skip, ranked.size()); i < ranked.size(); i++) {
+                content.add(decode(ranked.get(i).buffer, ranked.get(i).body));
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long records = 0;
+        long bytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                records += segment.records;
+                bytes += segment.limit;
+            }
+        }
+        stats.put("enabled", enabled);
+        stats.put("directory", directory == null ? null : directory.toString());
+        stats.put("segments", segments.size());
+        stats.put("records", records);
+        stats.put("maxId", getMaxId());
+        stats.put("bytes", bytes);
+        stats.put("appendFailures", appendFailures.sum());
+        stats.put("searches", searches.sum());
+        stats.put("segmentsScanned", segmentsScanned.sum());
+        stats.put("segmentsSkipped", segmentsSkipped.sum());
+        stats.put("blocksScanned", blocksScanned.sum());
+        stats.put("blocksSkipped", blocksSkipped.sum());
+        return stats;
+    }
+
+    /**
+     * Maps a segment file (created at full size if new) and rebuilds its index from the records in it.
+     */
+    private Segment openSegment(Path file, int number) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, channel.size()));
+        }
+        Segment segment = new Segment(number, buffer, bloomExpectedEntries);
+        int position = 0;
+        while (position + 4 <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + 4 + length > buffer.capacity()) {
+                break;
+            }
+            int body = position + 4;
+            int stringStart = body + 41;
+            segment.index(position, 4 + length, buffer.getLong(body), buffer.getLong(body + 8), getString(buffer, stringStart),
+                noValueToNull(buffer.getLong(body + 25)), noValueToNull(buffer.getLong(body + 17)), indexInterval);
+            position += 4 + length;
+        }
+        return segment;
+    }
+
+    private static AuditLog decode(MappedByteBuffer buffer, int body) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setId(buffer.getLong(body));
+        auditLog.setCreatedAt(fromMicros(buffer.getLong(body + 8)));
+        auditLog.setAction(ACTIONS[buffer.get(body + 16)]);
+        auditLog.setRecordId(noValueToNull(buffer.getLong(body + 17)));
+        Long userId = noValueToNull(buffer.getLong(body + 25));
+        if (userId != null) {
+            // Id only; AuditLogService.searchAuditLogs replaces it with the loaded user
+            User user = new User();
+            user.setId(userId);
+            auditLog.setUser(user);
+        }
+        auditLog.setDoctorId(noValueToNull(buffer.getLong(body + 33)));
+        int position = body + 41;
+        auditLog.setTableName(getString(buffer, position));
+        position = skipString(buffer, position);
+        auditLog.setIpAddress(getString(buffer, position));
+        position = skipString(buffer, position);
+        auditLog.setUserAgent(getString(buffer, position));
+        position = skipString(buffer, position);
+        auditLog.setOldValues(getString(buffer, position));
+        position = skipString(buffer, position);
+        auditLog.setNewValues(getString(buffer, position));
+        return auditLog;
+    }
+
+    // Sort orders by id and/or createdAt; ties go by id in the direction of the first order
+    private static Comparator<Match> comparator(Sort sort) {
+        Comparator<Match> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Match> next = order.getProperty().equals("id")
+                ? Comparator.comparingLong(match -> match.id)
+                : Comparator.comparingLong(match -> match.createdAt);
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Match> byId = Comparator.comparingLong(match -> match.id);
+        return comparator.thenComparing(sort.iterator().next().isDescending() ? byId.reversed() : byId);
+    }
+
+    private static List<IndexBlock> copyBlocks(List<IndexBlock> blocks) {
+        List<IndexBlock> copy = new ArrayList<>(blocks.size());
+        for (IndexBlock block : blocks) {
+            copy.add(block.copy());
+        }
+        return copy;
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringBytes(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    // Strings are stored as length (-1 for null) + UTF-8 bytes
+    private static int putString(MappedByteBuffer buffer, int position, byte[] value) {
+        if (value == null) {
+            buffer.putInt(position, -1);
+            return position + 4;
+        }
+        buffer.putInt(position, value.length);
+        buffer.put(position + 4, value);
+        return position + 4 + value.length;
+    }
+
+    private static String getString(MappedByteBuffer buffer, int position) {
+        int length = buffer.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(position + 4, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int skipString(MappedByteBuffer buffer, int position) {
+        return position + 4 + Math.max(0, buffer.getInt(position));
+    }
+
+    private static long orNoValue(Long value) {
+        return value == null ? NO_VALUE : value;
+    }
+
+    private static Long noValueToNull(long value) {
+        return value == NO_VALUE ? null : value;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+            (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * One segment file. Records are appended by the writer thread; the fields below are guarded by the
+     * segment's monitor, records before {@code limit} are immutable.
+     */
+    private static final class Segment {
+        final int number;
+        final MappedByteBuffer buffer;
+        final BloomFilter tableNames;
+        final BloomFilter userIds;
+        final BloomFilter recordIds;
+        final List<IndexBlock> blocks = new ArrayList<>();
+        int limit;
+        long records;
+        long maxId;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+
+        Segment(int number, MappedByteBuffer buffer, int bloomExpectedEntries) {
+            this.number = number;
+            this.buffer = buffer;
+            this.tableNames = new BloomFilter(bloomExpectedEntries, BLOOM_FALSE_POSITIVE_RATE);
+            this.userIds = new BloomFilter(bloomExpectedEntries, BLOOM_FALSE_POSITIVE_RATE);
+            this.recordIds = new BloomFilter(bloomExpectedEntries, BLOOM_FALSE_POSITIVE_RATE);
+        }
+
+        void index(int offset, int size, long id, long createdAt, String tableName, Long userId, Long recordId, int indexInterval) {
+            if (records % indexInterval == 0) {
+                blocks.add(new IndexBlock(offset));
+            }
+            IndexBlock block = blocks.get(blocks.size() - 1);
+            block.minTime = Math.min(block.minTime, createdAt);
+            block.maxTime = Math.max(block.maxTime, createdAt);
+            block.records++;
+            maxId = Math.max(maxId, id);
+            minTime = Math.min(minTime, createdAt);
+            maxTime = Math.max(maxTime, createdAt);
+            if (tableName != null) {
+                tableNames.add(tableName);
+            }
+            if (userId != null) {
+                userIds.add(userId);
+            }
+            if (recordId != null) {
+                recordIds.add(recordId);
+            }
+            records++;
+            limit = offset + size;
+        }
+    }
+
+    // Sparse time index entry: where a run of indexInterval records starts and the createdAt range it covers
+    private static final class IndexBlock {
+        final int offset;
+        int records;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+
+        IndexBlock(int offset) {
+            this.offset = offset;
+        }
+
+        IndexBlock copy() {
+            IndexBlock copy = new IndexBlock(offset);
+            copy.records = records;
+            copy.minTime = minTime;
+            copy.maxTime = maxTime;
+            return copy;
+        }
+    }
+
+    // A match kept for a sorted page, decoded only if it makes the page
+    private static final class Match {
+        final MappedByteBuffer buffer;
+        final int body;
+        final long id;
+        final long createdAt;
+
+        Match(MappedByteBuffer buffer, int body, long id, long createdAt) {
+            this.buffer = buffer;
+            this.body = body;
+            this.id = id;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.example.SpringDemo.entity.Session;
 import com.example.SpringDemo.repository.UserRepository;
 import com.example.SpringDemo.repository.DoctorRepository;
 import com.example.SpringDemo.repository.SessionRepository;
+import com.example.SpringDemo.util.TokenDigest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -35,6 +36,12 @@ public class AuthService {
     @Autowired
     private SessionRepository sessionRepository;
     
+    @Autowired
+    private AuthenticationCacheService authenticationCache;
+    
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
     public LoginResponse authenticateUser(LoginRequest loginRequest) {
         System.out.println("=== AUTH SERVICE DEBUG ===");
         System.out.println("Login Request Email: " + loginRequest.getEmail());
@@ -232,32 +239,40 @@ public class AuthService {
     
     private void invalidateUserSessions(Long userId) {
         // Invalidate all active sessions for the user
+        authenticationCache.evictUser(userId);
         sessionRepository.findByUserIdAndIsActiveTrueAndDeletedAtIsNull(userId)
             .forEach(session -> {
                 session.setIsActive(false);
                 session.setUpdatedAt(LocalDateTime.now());
                 sessionRepository.save(session);
+                revokedTokenService.revoke(session);
             });
     }
     
     private void invalidateDoctorSessions(Long doctorId) {
         // Invalidate all active sessions for the doctor
+        authenticationCache.evictDoctor(doctorId);
         sessionRepository.findByDoctorIdAndIsActiveTrueAndDeletedAtIsNull(doctorId)
             .forEach(session -> {
                 session.setIsActive(false);
                 session.setUpdatedAt(LocalDateTime.now());
                 sessionRepository.save(session);
+                revokedTokenService.revoke(session);
             });
     }
     
     public void logout(String jwtToken) {
         try {
+            // Drop the cached principal so the token stops working right away
+            authenticationCache.evict(jwtToken);
+            
             // Find and invalidate the session
-            sessionRepository.findBySessionTokenAndIsActiveTrueAndDeletedAtIsNull(jwtToken)
+            sessionRepository.findByTokenHashAndIsActiveTrueAndDeletedAtIsNull(TokenDigest.sha256Hex(jwtToken))
                 .ifPresent(session -> {
                     session.setIsActive(false);
                     session.setUpdatedAt(LocalDateTime.now());
                     sessionRepository.save(session);
+                    revokedTokenService.revoke(session);
                     System.out.println("Session invalidated for logout: " + session.getId());
                 });
         } catch (Exception e) {
@@ -0,0 +1,222 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.util.TokenDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, TTL based cache of principals that already passed JWT and session validation.
+ * Entries are keyed by a SHA-256 hash of the token so raw tokens are never kept in memory twice.
+ */
+@Service
+public class AuthenticationCacheService {
+
+    public static final String TYPE_USER = "USER";
+    public static final String TYPE_DOCTOR = "DOCTOR";
+
+    @Value("${app.auth-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.auth-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.auth-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<String, CachedAuthentication> cache = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so a request that started validating before a revocation cannot re-cache it
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Returns the cached principal for the token, or null when absent or expired.
+     */
+    public UserDetails get(String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+
+        String key = hashToken(token);
+        CachedAuthentication entry = cache.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            cache.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.userDetails;
+    }
+
+    /**
+     * Generation to capture before loading a principal from the database; pass it back to {@link #put}.
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public void put(String token, String principalType, Long principalId, UserDetails userDetails,
+                    LocalDateTime sessionExpiresAt, long loadedAtGeneration) {
+        Date expiresAt = sessionExpiresAt != null
+                ? Date.from(sessionExpiresAt.atZone(ZoneId.systemDefault()).toInstant())
+                : null;
+        put(token, principalType, principalId, userDetails, expiresAt, loadedAtGeneration);
+    }
+
+    public void put(String token, String principalType, Long principalId, UserDetails userDetails,
+                    Date tokenExpiresAt, long loadedAtGeneration) {
+        if (!enabled || token == null || userDetails == null || maxEntries <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiresAtMillis = now + ttlSeconds * 1000;
+        if (tokenExpiresAt != null) {
+            expiresAtMillis = Math.min(expiresAtMillis, tokenExpiresAt.getTime());
+        }
+        if (expiresAtMillis <= now) {
+            return;
+        }
+
+        if (cache.size() >= maxEntries) {
+            makeRoom(now);
+        }
+
+        String key = hashToken(token);
+        cache.put(key, new CachedAuthentication(principalType, principalId, userDetails, expiresAtMillis));
+
+        // An invalidation ran while this principal was being loaded - drop what we just stored
+        if (generation.get() != loadedAtGeneration) {
+            cache.remove(key);
+        }
+    }
+
+    public void evict(String token) {
+        if (token == null) {
+            return;
+        }
+        String key = hashToken(token);
+        runNowAndAfterCommit(() -> {
+            if (cache.remove(key) != null) {
+                evictions.increment();
+            }
+        });
+    }
+
+    public void evictUser(Long userId) {
+        evictPrincipal(TYPE_USER, userId);
+    }
+
+    public void evictDoctor(Long doctorId) {
+        evictPrincipal(TYPE_DOCTOR, doctorId);
+    }
+
+    public void clear() {
+        runNowAndAfterCommit(cache::clear);
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", cache.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    public static String hashToken(String token) {
+        return TokenDigest.sha256Hex(token);
+    }
+
+    private void evictPrincipal(String principalType, Long principalId) {
+        if (principalId == null) {
+            return;
+        }
+        runNowAndAfterCommit(() -> cache.entrySet().removeIf(e -> {
+            boolean matches = principalType.equals(e.getValue().principalType)
+                    && principalId.equals(e.getValue().principalId);
+            if (matches) {
+                evictions.increment();
+            }
+            return matches;
+        }));
+    }
+
+    // Evict immediately and once more after commit, so a request reading the old row before commit can't re-populate it
+    private void runNowAndAfterCommit(Runnable eviction) {
+        generation.incrementAndGet();
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private void makeRoom(long now) {
+        cache.entrySet().removeIf(e -> e.getValue().expiresAtMillis <= now);
+        if (cache.size() < maxEntries) {
+            return;
+        }
+
+        // Still full - drop the entry closest to expiry
+        String oldestKey = null;
+        long oldestExpiry = Long.MAX_VALUE;
+        for (Map.Entry<String, CachedAuthentication> e : cache.entrySet()) {
+            if (e.getValue().expiresAtMillis < oldestExpiry) {
+                oldestExpiry = e.getValue().expiresAtMillis;
+                oldestKey = e.getKey();
+            }
+        }
+        if (oldestKey != null && cache.remove(oldestKey) != null) {
+            evictions.increment();
+        }
+    }
+
+    private static final class CachedAuthentication {
+        private final String principalType;
+        private final Long principalId;
+        private final UserDetails userDetails;
+        private final long expiresAtMillis;
+
+        private CachedAuthentication(String principalType, Long principalId, UserDetails userDetails, long expiresAtMillis) {
+            this.principalType = principalType;
+            this.principalId = principalId;
+            this.userDetails = userDetails;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
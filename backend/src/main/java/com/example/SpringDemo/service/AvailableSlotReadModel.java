@@ -0,0 +1,182 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.dto.AvailableSlotResponse;
+import com.example.SpringDemo.repository.DoctorSlotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Precomputed "available slots on a date" listing for patients, per date and per specialization.
+ * A day is built with one flat query and then kept current by the slot events that already feed
+ * SlotAvailabilityIndex (booked, cancelled, blocked, generated, re-planned); reads never touch the
+ * database while the day is cached. Taking a slot only marks it in the day; freeing a slot that was
+ * not in the day, and any bulk change, drops the day so the next read rebuilds it.
+ */
+@Service
+public class AvailableSlotReadModel {
+
+    @Autowired
+    private DoctorSlotRepository doctorSlotRepository;
+
+    @Value("${app.slot-read-model.ttl-seconds:120}")
+    private long ttlSeconds;
+
+    private final Map<LocalDate, DayView> days = new ConcurrentHashMap<>();
+
+    // Sequence of the last event per date; a day built while an event for its date arrived is not cached
+    private final AtomicLong eventSequence = new AtomicLong();
+    private final Map<LocalDate, Long> lastEventByDate = new ConcurrentHashMap<>();
+    private volatile long lastClearSequence;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+
+    /**
+     * Available slots on the date, ordered by doctor and start time; for today only slots that have not started.
+     */
+    public List<AvailableSlotResponse> getAvailableSlots(LocalDate date, Long specializationId) {
+        DayView day = getDay(date);
+        List<AvailableSlotResponse> slots = specializationId == null
+            ? day.slots
+            : day.bySpecialization.getOrDefault(specializationId, List.of());
+
+        LocalTime notBefore = date.equals(LocalDate.now()) ? LocalTime.now() : null;
+        if (notBefore == null && day.taken.isEmpty()) {
+            return slots;
+        }
+        List<AvailableSlotResponse> result = new ArrayList<>(slots.size());
+        for (AvailableSlotResponse slot : slots) {
+            if ((notBefore == null || slot.getStartTime().isAfter(notBefore)) && !day.taken.contains(slot.getSlotId())) {
+                result.add(slot);
+            }
+        }
+        return result;
+    }
+
+    public void slotTaken(LocalDate date, Long slotId) {
+        recordEvent(date);
+        DayView day = days.get(date);
+        if (day != null) {
+            day.taken.add(slotId);
+        }
+    }
+
+    public void slotFreed(LocalDate date, Long slotId) {
+        recordEvent(date);
+        DayView day = days.get(date);
+        if (day != null && !(day.slotIds.contains(slotId) && day.taken.remove(slotId))) {
+            // Not part of this day's listing (it was taken when the day was built)
+            days.remove(date, day);
+        }
+    }
+
+    public void invalidate(LocalDate date) {
+        recordEvent(date);
+        days.remove(date);
+    }
+
+    public void invalidateRange(LocalDate startDate, LocalDate endDate) {
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            invalidate(date);
+        }
+    }
+
+    /**
+     * Drops every cached day, e.g. after a doctor's profile or schedule changed.
+     */
+    public void invalidateAll() {
+        lastClearSequence = eventSequence.incrementAndGet();
+        days.clear();
+    }
+
+    public void evictBefore(LocalDate date) {
+        days.keySet().removeIf(day -> day.isBefore(date));
+        lastEventByDate.keySet().removeIf(day -> day.isBefore(date));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cachedDays", days.size());
+        stats.put("hits", hits.sum());
+        stats.put("builds", builds.sum());
+        return stats;
+    }
+
+    private void recordEvent(LocalDate date) {
+        lastEventByDate.put(date, eventSequence.incrementAndGet());
+    }
+
+    private DayView getDay(LocalDate date) {
+        DayView day = days.get(date);
+        if (day != null && day.builtAtMillis + ttlSeconds * 1000 >= System.currentTimeMillis()) {
+            hits.increment();
+            return day;
+        }
+        long sequence = eventSequence.get();
+        day = new DayView(doctorSlotRepository.findAvailableSlotRows(date));
+        builds.increment();
+        if (lastEventByDate.getOrDefault(date, 0L) <= sequence && lastClearSequence <= sequence) {
+            days.put(date, day);
+        }
+        return day;
+    }
+
+    private static final class DayView {
+        private final List<AvailableSlotResponse> slots;
+        private final Map<Long, List<AvailableSlotResponse>> bySpecialization = new HashMap<>();
+        private final Set<Long> slotIds = new HashSet<>();
+        // Slots booked or blocked since the day was built
+        private final Set<Long> taken = ConcurrentHashMap.newKeySet();
+        private final long builtAtMillis = System.currentTimeMillis();
+
+        private DayView(List<Object[]> rows) {
+            List<AvailableSlotResponse> all = new ArrayList<>(rows.size());
+            Map<Long, AvailableSlotResponse.DoctorInfo> doctors = new HashMap<>();
+            Map<Long, List<AvailableSlotResponse>> bySpec = new HashMap<>();
+            for (Object[] row : rows) {
+                AvailableSlotResponse slot = new AvailableSlotResponse();
+                slot.setSlotId((Long) row[0]);
+                slot.setSlotDate((LocalDate) row[1]);
+                slot.setStartTime((LocalTime) row[2]);
+                slot.setEndTime((LocalTime) row[3]);
+                slot.setDoctor(doctors.computeIfAbsent((Long) row[4], id -> toDoctorInfo(row)));
+                all.add(slot);
+                slotIds.add(slot.getSlotId());
+                bySpec.computeIfAbsent((Long) row[10], id -> new ArrayList<>()).add(slot);
+            }
+            slots = Collections.unmodifiableList(all);
+            bySpec.forEach((id, list) -> bySpecialization.put(id, Collections.unmodifiableList(list)));
+        }
+
+        private static AvailableSlotResponse.DoctorInfo toDoctorInfo(Object[] row) {
+            AvailableSlotResponse.SpecializationInfo specialization = new AvailableSlotResponse.SpecializationInfo();
+            specialization.setSpecializationId((Long) row[10]);
+            specialization.setName((String) row[11]);
+
+            AvailableSlotResponse.DoctorInfo doctor = new AvailableSlotResponse.DoctorInfo();
+            doctor.setDoctorId((Long) row[4]);
+            doctor.setFirstName((String) row[5]);
+            doctor.setLastName((String) row[6]);
+            doctor.setYearsOfExp((Integer) row[7]);
+            doctor.setConsultationFee((BigDecimal) row[8]);
+            doctor.setBio((String) row[9]);
+            doctor.setSpecialization(specialization);
+            return doctor;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.SpringDemo.service;
 
 import com.example.SpringDemo.dto.ComplaintRequest;
+import com.example.SpringDemo.dto.CursorPage;
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.entity.Complaint;
 import com.example.SpringDemo.entity.User;
 import com.example.SpringDemo.repository.AppointmentRepository;
 import com.example.SpringDemo.repository.ComplaintRepository;
 import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.util.PageCursor;
+import com.example.SpringDemo.util.GroupCounts;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -30,6 +34,9 @@ public class ComplaintService {
     @Autowired
     private AppointmentRepository appointmentRepository;
     
+    @Autowired
+    private StatusCounterRegistry statusCounters;
+    
     public Complaint createComplaint(ComplaintRequest request) {
         User patient = userRepository.findById(request.getPatientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
@@ -50,7 +57,9 @@ public class ComplaintService {
         complaint.setCreatedAt(LocalDateTime.now());
         complaint.setCreatedBy(patient.getId());
         
-        return complaintRepository.save(complaint);
+        Complaint savedComplaint = complaintRepository.save(complaint);
+        statusCounters.created(StatusCounterRegistry.Kind.COMPLAINT, savedComplaint.getStatus());
+        return savedComplaint;
     }
     
     public Page<Complaint> getAllComplaints(String category, String status, String priority, 
@@ -108,6 +117,7 @@ public class ComplaintService {
         return complaintRepository.findByPatientIdAndStatusAndDeletedAtIsNull(patientId, status, statusEnum, pageable);
     }
     
+    @Transactional(readOnly = true)
     public Page<Complaint> searchComplaints(String title, String description, String category, 
                                           String status, String priority, Long patientId, 
                                           Long assignedTo, Pageable pageable) {
@@ -151,7 +161,9 @@ public class ComplaintService {
         }
         complaint.setUpdatedAt(LocalDateTime.now());
         
-        return complaintRepository.save(complaint);
+        Complaint savedComplaint = complaintRepository.save(complaint);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.COMPLAINT, currentStatus, newStatus);
+        return savedComplaint;
     }
     
     private boolean isInvalidStatusTransition(Complaint.Status currentStatus, Complaint.Status newStatus) {
@@ -185,15 +197,27 @@ public class ComplaintService {
         complaint.setDeletedAt(LocalDateTime.now());
         complaint.setDeletedBy(complaint.getPatient().getId());
         complaintRepository.save(complaint);
+        statusCounters.deleted(StatusCounterRegistry.Kind.COMPLAINT, complaint.getStatus());
     }
     
+    @Transactional(readOnly = true)
     public Object getComplaintStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalComplaints", complaintRepository.countByDeletedAtIsNull());
-        stats.put("openComplaints", complaintRepository.countByStatusAndDeletedAtIsNull("OPEN"));
-        stats.put("inProgressComplaints", complaintRepository.countByStatusAndDeletedAtIsNull("IN_PROGRESS"));
-        stats.put("closedComplaints", complaintRepository.countByStatusAndDeletedAtIsNull("CLOSED"));
+        if (statusCounters.isReady()) {
+            stats.put("totalComplaints", statusCounters.getTotal(StatusCounterRegistry.Kind.COMPLAINT));
+            stats.put("openComplaints", statusCounters.get(StatusCounterRegistry.Kind.COMPLAINT, Complaint.Status.OPEN));
+            stats.put("inProgressComplaints", statusCounters.get(StatusCounterRegistry.Kind.COMPLAINT, Complaint.Status.IN_PROGRESS));
+            stats.put("closedComplaints", statusCounters.get(StatusCounterRegistry.Kind.COMPLAINT, Complaint.Status.CLOSED));
+            return stats;
+        }
+        
+        GroupCounts byStatus = GroupCounts.of(complaintRepository.countGroupedByStatus());
+        
+        stats.put("totalComplaints", byStatus.getTotal());
+        stats.put("openComplaints", byStatus.get(Complaint.Status.OPEN));
+        stats.put("inProgressComplaints", byStatus.get(Complaint.Status.IN_PROGRESS));
+        stats.put("closedComplaints", byStatus.get(Complaint.Status.CLOSED));
         
         return stats;
     }
@@ -202,12 +226,50 @@ public class ComplaintService {
         return complaintRepository.findAll(pageable);
     }
     
+    @Transactional(readOnly = true)
     public Page<Complaint> getAllComplaints(String title, String category, String status, String priority, Pageable pageable) {
         // Use the method that includes deleted records for display purposes
         // The repository method handles string-to-enum conversion internally
         return complaintRepository.findComplaintsWithFiltersIncludingDeleted(title, null, category, status, priority, null, null, pageable);
     }
     
+    /**
+     * Keyset-paginated variant of {@link #getAllComplaints(String, String, String, String, Pageable)}:
+     * newest first, no count query, so deep pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Complaint> getComplaintsByCursor(String title, String category, String status, String priority,
+                                                      String cursor, int size) {
+        String[] keys = PageCursor.decode(cursor, 2);
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        if (keys != null) {
+            try {
+                cursorCreatedAt = LocalDateTime.parse(keys[0]);
+                cursorId = Long.valueOf(keys[1]);
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        
+        List<Complaint> rows = complaintRepository.findComplaintsAfterCursor(title,
+            parseEnumOrNull(Complaint.Category.class, category), parseEnumOrNull(Complaint.Status.class, status),
+            parseEnumOrNull(Complaint.Priority.class, priority), cursorCreatedAt, cursorId, PageCursor.window(size));
+        return CursorPage.of(rows, size, last -> PageCursor.encode(last.getCreatedAt(), last.getComplaintId()));
+    }
+    
+    private static <E extends Enum<E>> E parseEnumOrNull(Class<E> type, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null; // Invalid value, filter ignored
+        }
+    }
+    
+    @Transactional(readOnly = true)
     public Page<Complaint> getAvailableComplaints(String title, String category, String status, String priority, Long assignedTo, Pageable pageable) {
         // Get complaints that are either unassigned or assigned to the specific admin
         // This is for the "Available to Me" filter in admin dashboard
@@ -219,10 +281,13 @@ public class ComplaintService {
         Complaint complaint = complaintRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Complaint not found"));
         
+        Complaint.Status previousStatus = complaint.getStatus();
         complaint.setStatus(Complaint.Status.valueOf(status.toUpperCase()));
         complaint.setUpdatedAt(LocalDateTime.now());
         
-        return complaintRepository.save(complaint);
+        Complaint savedComplaint = complaintRepository.save(complaint);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.COMPLAINT, previousStatus, savedComplaint.getStatus());
+        return savedComplaint;
     }
 
     public Complaint getComplaintById(Long id) {
@@ -245,6 +310,7 @@ public class ComplaintService {
 
     public void updateComplaintResolution(Long complaintId, Map<String, Object> resolutionData) {
         Complaint complaint = getComplaintById(complaintId);
+        Complaint.Status previousStatus = complaint.getStatus();
         
         if (resolutionData.containsKey("status")) {
             complaint.setStatus(Complaint.Status.valueOf(((String) resolutionData.get("status")).toUpperCase()));
@@ -257,6 +323,7 @@ public class ComplaintService {
         }
         
         complaintRepository.save(complaint);
+        statusCounters.statusChanged(StatusCounterRegistry.Kind.COMPLAINT, previousStatus, complaint.getStatus());
     }
 
     public void addComplaintNote(Long complaintId, String note) {
@@ -0,0 +1,172 @@
+package com.example.SpringDemo.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admin dashboard: the stats of every section, computed in parallel (one aggregate query each) and
+ * cached for {@code app.dashboard.cache-ttl-ms}. Only one request recomputes an expired snapshot;
+ * concurrent requests get the previous snapshot meanwhile, or wait for the same computation when
+ * there is none yet.
+ */
+@Service
+public class DashboardService {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ComplaintService complaintService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Value("${app.dashboard.cache-ttl-ms:5000}")
+    private long cacheTtlMs;
+
+    @Value("${app.dashboard.threads:6}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    private volatile Snapshot snapshot;
+
+    // Set while a recomputation runs; later callers join it instead of starting their own
+    private final AtomicReference<CompletableFuture<Snapshot>> refresh = new AtomicReference<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder computations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stats-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getDashboard() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.computedAtMillis < cacheTtlMs) {
+            hits.increment();
+            return current.toResponse();
+        }
+
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = refresh.compareAndExchange(null, mine);
+        if (running == null) {
+            try {
+                Snapshot computed = compute();
+                snapshot = computed;
+                mine.complete(computed);
+                return computed.toResponse();
+            } catch (RuntimeException e) {
+                RuntimeException cause = unwrap(e);
+                mine.completeExceptionally(cause);
+                throw cause;
+            } finally {
+                refresh.set(null);
+            }
+        }
+
+        if (current != null) {
+            staleHits.increment();
+            return current.toResponse();
+        }
+        waits.increment();
+        try {
+            return running.join().toResponse();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cacheTtlMs", cacheTtlMs);
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("waits", waits.sum());
+        stats.put("computations", computations.sum());
+        Snapshot current = snapshot;
+        stats.put("lastComputeMillis", current == null ? null : current.computeMillis);
+        return stats;
+    }
+
+    private Snapshot compute() {
+        long start = System.currentTimeMillis();
+        // Each section runs its own read-only transaction on a pool thread
+        CompletableFuture<Object> appointments = submit(appointmentService::getAppointmentStats);
+        CompletableFuture<Object> payments = submit(paymentService::getPaymentStats);
+        CompletableFuture<Object> complaints = submit(complaintService::getComplaintStats);
+        CompletableFuture<Object> auditLogs = submit(auditLogService::getAuditLogStats);
+        CompletableFuture<Object> users = submit(userService::getUserStats);
+        CompletableFuture<Object> sessions = submit(sessionService::getSessionStats);
+
+        Map<String, Object> sections = new LinkedHashMap<>();
+        sections.put("appointments", appointments.join());
+        sections.put("payments", payments.join());
+        sections.put("complaints", complaints.join());
+        sections.put("auditLogs", auditLogs.join());
+        sections.put("users", users.join());
+        sections.put("sessions", sessions.join());
+        computations.increment();
+        return new Snapshot(sections, LocalDateTime.now(), System.currentTimeMillis(), System.currentTimeMillis() - start);
+    }
+
+    private CompletableFuture<Object> submit(Supplier<Object> section) {
+        return CompletableFuture.supplyAsync(section, executor);
+    }
+
+    // Section failures arrive wrapped by join(); surface the service's own exception
+    private static RuntimeException unwrap(RuntimeException e) {
+        if (e instanceof CompletionException && e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return e;
+    }
+
+    private record Snapshot(Map<String, Object> sections, LocalDateTime generatedAt, long computedAtMillis, long computeMillis) {
+
+        Map<String, Object> toResponse() {
+            Map<String, Object> response = new LinkedHashMap<>(sections);
+            response.put("generatedAt", generatedAt);
+            response.put("ageMs", System.currentTimeMillis() - computedAtMillis);
+            return response;
+        }
+    }
+}
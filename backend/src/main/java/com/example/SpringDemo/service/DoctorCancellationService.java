@@ -0,0 +1,184 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.User;
+import com.example.SpringDemo.repository.AppointmentRepository;
+import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the bulk cancellation of a doctor's scheduled appointments as a background job, so deleting a
+ * doctor with thousands of bookings does not hold the admin request open. Jobs are kept in memory under
+ * a random id for {@code app.doctor-cancellation.job-retention-minutes} after they finish, for the admin
+ * UI to poll. The submitting admin is kept on the job and recorded as updatedBy on the freed slots, and
+ * their security context is carried over to the worker, so the audit events name them too.
+ */
+@Service
+public class DoctorCancellationService {
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Doctors with more scheduled appointments than this are cancelled in the background on delete
+    @Value("${app.doctor-cancellation.sync-threshold:500}")
+    private long syncThreshold;
+
+    @Value("${app.doctor-cancellation.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private ExecutorService executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // One worker: cancellations of different doctors queue up instead of competing for the same tables
+        executor = new DelegatingSecurityContextExecutorService(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "doctor-cancellation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean shouldRunInBackground(Long doctorId) {
+        return appointmentRepository.countScheduledAppointmentsByDoctorId(doctorId) > syncThreshold;
+    }
+
+    /**
+     * Queues the cancellation of every scheduled appointment of the doctor and returns the job to poll.
+     */
+    public Job submit(Long doctorId, String reason) {
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new RuntimeException("Doctor not found");
+        }
+        pruneFinishedJobs();
+        Job job = new Job(UUID.randomUUID().toString(), doctorId, actingAdminId());
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job, reason));
+        return job;
+    }
+
+    /**
+     * Id of the signed-in admin a cancellation is recorded under; null without one (doctors are not
+     * users, and scheduled tasks have no login).
+     */
+    public Long actingAdminId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return userRepository.findByEmail(authentication.getName()).map(User::getId).orElse(null);
+    }
+
+    public Job getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Cancellation job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(Job job, String reason) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try {
+            job.cancelledAppointmentIds = appointmentService.cancelAllAppointmentsForDoctor(job.doctorId, reason, job.requestedBy);
+            job.status = JobStatus.COMPLETED;
+        } catch (Exception e) {
+            System.err.println("Appointment cancellation job " + job.id + " failed: " + e.getMessage());
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Progress of one cancellation job. Fields are written by the worker thread and read by pollers.
+     */
+    public static final class Job {
+        private final String id;
+        private final Long doctorId;
+        private final Long requestedBy;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile List<Long> cancelledAppointmentIds = List.of();
+        private volatile String error;
+
+        private Job(String id, Long doctorId, Long requestedBy) {
+            this.id = id;
+            this.doctorId = doctorId;
+            this.requestedBy = requestedBy;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public JobStatus getStatus() {
+            return status;
+        }
+
+        public List<Long> getCancelledAppointmentIds() {
+            return cancelledAppointmentIds;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", id);
+            map.put("doctorId", doctorId);
+            map.put("requestedBy", requestedBy);
+            map.put("status", status);
+            map.put("submittedAt", submittedAt);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("cancelledAppointments", cancelledAppointmentIds.size());
+            map.put("cancelledAppointmentIds", cancelledAppointmentIds);
+            map.put("error", error);
+            return map;
+        }
+    }
+}
@@ -9,16 +9,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class DoctorService {
     
+    private static final String DOCTOR_UNAVAILABLE_REASON = "Doctor is no longer available";
+    
     @Autowired
     private DoctorRepository doctorRepository;
     
@@ -35,6 +39,18 @@ public class DoctorService {
     @Autowired
     private AppointmentService appointmentService;
     
+    @Autowired
+    private AuthenticationCacheService authenticationCache;
+    
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
+    @Autowired
+    private AvailableSlotReadModel availableSlotReadModel;
+    
+    @Autowired
+    private DoctorCancellationService doctorCancellationService;
+    
     public Doctor createDoctor(DoctorRequest request) {
         Specialization specialization = specializationRepository.findById(request.getSpecializationId())
                 .orElseThrow(() -> new RuntimeException("Specialization not found"));
@@ -92,6 +108,7 @@ public class DoctorService {
         return doctorRepository.findAll(pageable);
     }
     
+    @Transactional(readOnly = true)
     public Page<Doctor> getAllDoctors(String name, String email, Long specialization, String active, Pageable pageable) {
         // Use the method that includes deleted records for display purposes with specialization ID
         return doctorRepository.findDoctorsWithFiltersBySpecializationIdIncludingDeleted(name, email, specialization, active, pageable);
@@ -109,6 +126,7 @@ public class DoctorService {
         return doctorRepository.findBySpecializationIdAndActive(specializationId);
     }
     
+    @Transactional(readOnly = true)
     public Page<Doctor> searchDoctors(String name, Long specializationId, Integer minExperience, 
                                      Integer maxExperience, BigDecimal minFee, BigDecimal maxFee, 
                                      Pageable pageable) {
@@ -123,6 +141,7 @@ public class DoctorService {
     public Doctor updateDoctor(Long id, DoctorRequest request) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        String previousEmail = doctor.getEmail();
         
         Specialization specialization = specializationRepository.findById(request.getSpecializationId())
                 .orElseThrow(() -> new RuntimeException("Specialization not found"));
@@ -163,15 +182,24 @@ public class DoctorService {
         }
         
         // Update slot management fields
+        boolean slotConfigChanged = !Objects.equals(doctor.getSlotStartTime(), request.getSlotStartTime())
+                || !Objects.equals(doctor.getSlotEndTime(), request.getSlotEndTime())
+                || !Objects.equals(doctor.getAppointmentDuration(), request.getAppointmentDuration())
+                || !Objects.equals(doctor.getWorkingDays(), request.getWorkingDays());
         doctor.setSlotStartTime(request.getSlotStartTime());
         doctor.setSlotEndTime(request.getSlotEndTime());
         doctor.setAppointmentDuration(request.getAppointmentDuration());
         doctor.setWorkingDays(request.getWorkingDays());
         
         Doctor savedDoctor = doctorRepository.save(doctor);
+        authenticationCache.evictDoctor(id);
+        availableSlotReadModel.invalidateAll();
+        revokeTokensIfNeeded(savedDoctor, previousEmail);
         
         // Handle slot configuration changes for existing doctor
-        slotGeneratorService.handleWorkingDaysUpdate(savedDoctor);
+        if (slotConfigChanged) {
+            slotGeneratorService.handleWorkingDaysUpdate(savedDoctor);
+        }
         
         return savedDoctor;
     }
@@ -180,21 +208,32 @@ public class DoctorService {
         Doctor doctor = doctorRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
         
-        // Cancel all scheduled appointments for this doctor
-        int cancelledAppointments = appointmentService.cancelAllAppointmentsForDoctor(id, "Doctor is no longer available");
-        
-        // Mark doctor as deleted
+        // Mark doctor as deleted first, so no new appointment can be booked while the old ones are cancelled
         doctor.setDeletedAt(java.time.LocalDateTime.now());
         doctor.setDeletedBy(doctor.getDoctorId());
         doctor.setActive(false);
         doctorRepository.save(doctor);
+        authenticationCache.evictDoctor(id);
+        availableSlotReadModel.invalidateAll();
+        revokedTokenService.revokePrincipal(AuthenticationCacheService.TYPE_DOCTOR, id);
         
-        // Return result with cancellation info
         Map<String, Object> result = new HashMap<>();
         result.put("doctorId", id);
         result.put("doctorName", doctor.getFirstName() + " " + doctor.getLastName());
-        result.put("cancelledAppointments", cancelledAppointments);
-        result.put("message", "Doctor deleted successfully and " + cancelledAppointments + " appointments cancelled");
+        
+        // Cancel all scheduled appointments for this doctor; large schedules are cancelled in the background
+        if (doctorCancellationService.shouldRunInBackground(id)) {
+            DoctorCancellationService.Job job = doctorCancellationService.submit(id, DOCTOR_UNAVAILABLE_REASON);
+            result.put("cancellationJobId", job.getId());
+            result.put("cancellationStatus", job.getStatus());
+            result.put("message", "Doctor deleted successfully; appointments are being cancelled (job " + job.getId() + ")");
+        } else {
+            List<Long> cancelledIds = appointmentService.cancelAllAppointmentsForDoctor(id, DOCTOR_UNAVAILABLE_REASON,
+                doctorCancellationService.actingAdminId());
+            result.put("cancelledAppointments", cancelledIds.size());
+            result.put("cancelledAppointmentIds", cancelledIds);
+            result.put("message", "Doctor deleted successfully and " + cancelledIds.size() + " appointments cancelled");
+        }
         
         return result;
     }
@@ -203,6 +242,7 @@ public class DoctorService {
     public Doctor updateDoctor(Long id, Map<String, Object> updateData) {
         Doctor doctor = doctorRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        String previousEmail = doctor.getEmail();
         
         // Only update fields that are provided and not null
         if (updateData.containsKey("firstName") && updateData.get("firstName") != null) {
@@ -316,6 +356,9 @@ public class DoctorService {
         doctor.setUpdatedBy(doctor.getDoctorId());
         
         Doctor savedDoctor = doctorRepository.save(doctor);
+        authenticationCache.evictDoctor(id);
+        availableSlotReadModel.invalidateAll();
+        revokeTokensIfNeeded(savedDoctor, previousEmail);
         
         // Handle slot configuration changes
         if (slotConfigChanged) {
@@ -325,6 +368,7 @@ public class DoctorService {
         return savedDoctor;
     }
     
+    @Transactional(readOnly = true)
     public Object getDoctorStats() {
         Map<String, Object> stats = new HashMap<>();
         
@@ -334,4 +378,11 @@ public class DoctorService {
         
         return stats;
     }
+    
+    // Doctor tokens carry the email as subject, so claims-only auth must drop them on deactivation or email change
+    private void revokeTokensIfNeeded(Doctor doctor, String previousEmail) {
+        if (!Boolean.TRUE.equals(doctor.getActive()) || !previousEmail.equals(doctor.getEmail())) {
+            revokedTokenService.revokePrincipal(AuthenticationCacheService.TYPE_DOCTOR, doctor.getDoctorId());
+        }
+    }
 }
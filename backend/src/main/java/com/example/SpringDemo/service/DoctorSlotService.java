@@ -1,5 +1,7 @@
 package com.example.SpringDemo.service;
 
+import com.example.SpringDemo.dto.AvailableSlotResponse;
+import com.example.SpringDemo.dto.SlotSummary;
 import com.example.SpringDemo.entity.DoctorSlot;
 import com.example.SpringDemo.entity.DoctorSlotTemplate;
 import com.example.SpringDemo.repository.DoctorSlotRepository;
@@ -8,12 +10,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,105 +29,54 @@ public class DoctorSlotService {
     @Autowired
     private DoctorSlotTemplateRepository doctorSlotTemplateRepository;
     
-    public List<DoctorSlot> generateSlotsForDoctor(Long doctorId, LocalDate startDate, LocalDate endDate) {
-        List<DoctorSlot> generatedSlots = new ArrayList<>();
-        
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+    
+    @Autowired
+    private SlotGenerationEngine slotGenerationEngine;
+    
+    @Autowired
+    private AvailableSlotReadModel availableSlotReadModel;
+    
+    public int generateSlotsForDoctor(Long doctorId, LocalDate startDate, LocalDate endDate) {
         // Get all active templates for this doctor
         List<DoctorSlotTemplate> templates = doctorSlotTemplateRepository.findByDoctorDoctorIdAndIsActiveTrue(doctorId);
         
-        if (templates.isEmpty()) {
-            return generatedSlots;
-        }
-        
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            DayOfWeek dayOfWeek = currentDate.getDayOfWeek();
-            
-            // Find templates for this day of week
-            List<DoctorSlotTemplate> dayTemplates = templates.stream()
-                .filter(template -> template.getDayOfWeek() == dayOfWeek)
-                .toList();
-            
-            for (DoctorSlotTemplate template : dayTemplates) {
-                List<DoctorSlot> daySlots = generateSlotsForTemplate(template, currentDate);
-                generatedSlots.addAll(daySlots);
-            }
-            
-            currentDate = currentDate.plusDays(1);
-        }
-        
-        // Save all generated slots
-        return doctorSlotRepository.saveAll(generatedSlots);
-    }
-    
-    private List<DoctorSlot> generateSlotsForTemplate(DoctorSlotTemplate template, LocalDate slotDate) {
-        List<DoctorSlot> slots = new ArrayList<>();
-        
-        LocalTime currentTime = template.getStartTime();
-        LocalTime endTime = template.getEndTime();
-        int slotDuration = template.getSlotDurationMinutes();
-        
-        while (currentTime.plusMinutes(slotDuration).isBefore(endTime) || 
-               currentTime.plusMinutes(slotDuration).equals(endTime)) {
-            
-            // Check if slot already exists
-            boolean slotExists = doctorSlotRepository.existsByDoctorDoctorIdAndSlotDateAndStartTimeAndStatus(
-                template.getDoctor().getDoctorId(), 
-                slotDate, 
-                currentTime, 
-                DoctorSlot.SlotStatus.AVAILABLE
-            );
-            
-            if (!slotExists) {
-                DoctorSlot slot = new DoctorSlot();
-                slot.setDoctor(template.getDoctor());
-                slot.setSlotDate(slotDate);
-                slot.setStartTime(currentTime);
-                slot.setEndTime(currentTime.plusMinutes(slotDuration));
-                slot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
-                slot.setCreatedBy(1L); // System user
-                
-                slots.add(slot);
-            }
-            
-            currentTime = currentTime.plusMinutes(slotDuration);
-        }
-        
-        return slots;
+        // Existing slot times for the whole range are read once, new slots are batch inserted
+        return slotGenerationEngine.generateSlotsFromTemplates(doctorId, templates, startDate, endDate);
     }
     
-    public List<DoctorSlot> getAvailableSlotsByDoctorAndDate(Long doctorId, LocalDate slotDate) {
+    public List<SlotSummary> getAvailableSlotsByDoctorAndDate(Long doctorId, LocalDate slotDate) {
         return doctorSlotRepository.findAvailableSlotsByDoctorAndDate(doctorId, slotDate);
     }
     
-    public List<DoctorSlot> getAvailableSlotsBySpecializationAndDate(Long specializationId, LocalDate slotDate) {
-        // If it's today, filter out past time slots
-        if (slotDate.equals(LocalDate.now())) {
-            return doctorSlotRepository.findAvailableSlotsByDateAndSpecializationWithTimeFilter(slotDate, specializationId, LocalTime.now());
-        }
-        return doctorSlotRepository.findAvailableSlotsByDateAndSpecialization(slotDate, specializationId);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<AvailableSlotResponse> getAvailableSlotsBySpecializationAndDate(Long specializationId, LocalDate slotDate) {
+        // Served from the in-memory read model; past time slots of today are filtered there
+        return availableSlotReadModel.getAvailableSlots(slotDate, specializationId);
     }
     
-    public List<DoctorSlot> getAvailableSlotsByDate(LocalDate slotDate) {
-        // If it's today, filter out past time slots
-        if (slotDate.equals(LocalDate.now())) {
-            return doctorSlotRepository.findAvailableSlotsByDateWithTimeFilter(slotDate, LocalTime.now());
-        }
-        return doctorSlotRepository.findAvailableSlotsByDate(slotDate);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<AvailableSlotResponse> getAvailableSlotsByDate(LocalDate slotDate) {
+        return availableSlotReadModel.getAvailableSlots(slotDate, null);
     }
     
     public DoctorSlot bookSlot(Long slotId) {
-        DoctorSlot slot = doctorSlotRepository.findById(slotId)
-            .orElseThrow(() -> new RuntimeException("Slot not found"));
+        // Single conditional UPDATE instead of read-check-write, so only one concurrent caller can win the slot
+        int updated = doctorSlotRepository.updateStatusIfCurrent(
+            slotId, DoctorSlot.SlotStatus.AVAILABLE, DoctorSlot.SlotStatus.BOOKED, 1L); // Current user ID
         
-        if (slot.getStatus() != DoctorSlot.SlotStatus.AVAILABLE) {
+        if (updated == 0) {
+            if (!doctorSlotRepository.existsById(slotId)) {
+                throw new RuntimeException("Slot not found");
+            }
             throw new RuntimeException("Slot is not available for booking");
         }
         
-        slot.setStatus(DoctorSlot.SlotStatus.BOOKED);
-        slot.setUpdatedBy(1L); // Current user ID
-        
-        return doctorSlotRepository.save(slot);
+        DoctorSlot slot = doctorSlotRepository.findById(slotId)
+            .orElseThrow(() -> new RuntimeException("Slot not found"));
+        slotAvailabilityIndex.slotChanged(slot);
+        return slot;
     }
     
     public DoctorSlot cancelSlot(Long slotId) {
@@ -141,7 +90,9 @@ public class DoctorSlotService {
         slot.setStatus(DoctorSlot.SlotStatus.CANCELLED);
         slot.setUpdatedBy(1L); // Current user ID
         
-        return doctorSlotRepository.save(slot);
+        DoctorSlot savedSlot = doctorSlotRepository.save(slot);
+        slotAvailabilityIndex.slotChanged(savedSlot);
+        return savedSlot;
     }
     
     public void generateSlotsForNextMonth() {
@@ -172,7 +123,7 @@ public class DoctorSlotService {
         return doctorSlotRepository.findAll(pageable);
     }
     
-    public List<DoctorSlot> getAvailableSlots(Long doctorId, LocalDate slotDate) {
+    public List<SlotSummary> getAvailableSlots(Long doctorId, LocalDate slotDate) {
         return doctorSlotRepository.findAvailableSlotsByDoctorAndDate(doctorId, slotDate);
     }
     
@@ -196,7 +147,9 @@ public class DoctorSlotService {
                 .orElseThrow(() -> new RuntimeException("Doctor slot not found"));
         slot.setStatus(newStatus);
         slot.setUpdatedBy(1L); // Current user ID
-        return doctorSlotRepository.save(slot);
+        DoctorSlot savedSlot = doctorSlotRepository.save(slot);
+        slotAvailabilityIndex.slotChanged(savedSlot);
+        return savedSlot;
     }
     
     public DoctorSlot unbookSlot(Long slotId) {
@@ -210,7 +163,9 @@ public class DoctorSlotService {
         slot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
         slot.setUpdatedBy(1L); // Current user ID
         
-        return doctorSlotRepository.save(slot);
+        DoctorSlot savedSlot = doctorSlotRepository.save(slot);
+        slotAvailabilityIndex.slotChanged(savedSlot);
+        return savedSlot;
     }
     
     public DoctorSlot blockSlot(Long slotId) {
@@ -224,7 +179,9 @@ public class DoctorSlotService {
         slot.setStatus(DoctorSlot.SlotStatus.CANCELLED); // Using CANCELLED as blocked
         slot.setUpdatedBy(1L); // Current user ID
         
-        return doctorSlotRepository.save(slot);
+        DoctorSlot savedSlot = doctorSlotRepository.save(slot);
+        slotAvailabilityIndex.slotChanged(savedSlot);
+        return savedSlot;
     }
     
     public DoctorSlot unblockSlot(Long slotId) {
@@ -238,14 +195,20 @@ public class DoctorSlotService {
         slot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
         slot.setUpdatedBy(1L); // Current user ID
         
-        return doctorSlotRepository.save(slot);
+        DoctorSlot savedSlot = doctorSlotRepository.save(slot);
+        slotAvailabilityIndex.slotChanged(savedSlot);
+        return savedSlot;
     }
     
     public void deleteSlot(Long slotId) {
         DoctorSlot slot = doctorSlotRepository.findById(slotId)
             .orElseThrow(() -> new RuntimeException("Slot not found"));
+        if (slot.getStatus() == DoctorSlot.SlotStatus.BOOKED) {
+            throw new RuntimeException("Cannot delete a booked slot");
+        }
         
         doctorSlotRepository.delete(slot);
+        slotAvailabilityIndex.invalidate(slot.getDoctor().getDoctorId(), slot.getSlotDate());
     }
     
     public Map<String, Object> getSlotStats() {
@@ -260,6 +223,8 @@ public class DoctorSlotService {
         stats.put("availableSlots", availableSlots);
         stats.put("bookedSlots", bookedSlots);
         stats.put("cancelledSlots", cancelledSlots);
+        stats.put("availabilityIndex", slotAvailabilityIndex.getStats());
+        stats.put("availableSlotReadModel", availableSlotReadModel.getStats());
         
         return stats;
     }
@@ -11,13 +11,21 @@ import com.example.SpringDemo.repository.DoctorRepository;
 import com.example.SpringDemo.repository.DoctorSlotRepository;
 import com.example.SpringDemo.repository.PaymentRepository;
 import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.util.ExportWriter;
+import com.example.SpringDemo.util.GroupCounts;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -44,6 +52,21 @@ public class PaymentService {
     @Autowired
     private DoctorSlotRepository doctorSlotRepository;
     
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+    
+    @Autowired
+    private StatusCounterRegistry statusCounters;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public Payment createPayment(PaymentRequest request) {
         User patient = userRepository.findById(request.getPatientId())
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
@@ -91,7 +114,10 @@ public class PaymentService {
             payment.setTransactionId("TXN" + System.currentTimeMillis());
         }
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        statusCounters.created(StatusCounterRegistry.Kind.PAYMENT, savedPayment.getStatus());
+        revenueRollupService.paymentChanged(null, savedPayment);
+        return savedPayment;
     }
     
     @Transactional
@@ -162,7 +188,10 @@ public class PaymentService {
             payment.setTransactionId("TXN" + System.currentTimeMillis());
         }
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        statusCounters.created(StatusCounterRegistry.Kind.PAYMENT, savedPayment.getStatus());
+        revenueRollupService.paymentChanged(null, savedPayment);
+        return savedPayment;
     }
     
     @Transactional
@@ -178,9 +207,12 @@ public class PaymentService {
         System.out.println("Temp Slot ID: " + payment.getTempSlotId());
         
         // Update payment status to SUCCESS
+        Payment.Status previousStatus = payment.getStatus();
+        RevenueRollupService.Contribution previousRevenue = revenueRollupService.contributionOf(payment);
         payment.setStatus(Payment.Status.SUCCESS);
         payment.setUpdatedAt(LocalDateTime.now());
         paymentRepository.save(payment);
+        countStatusChange(payment, previousStatus);
         
         System.out.println("Payment status updated to SUCCESS");
         
@@ -188,16 +220,22 @@ public class PaymentService {
             throw new RuntimeException("Appointment already created for this payment");
         }
         
-        // Get the slot and mark it as booked
-        DoctorSlot slot = doctorSlotRepository.findById(payment.getTempSlotId())
-                .orElseThrow(() -> new RuntimeException("Doctor slot not found"));
-        
-        System.out.println("Slot found - Status: " + slot.getStatus());
+        // Mark the slot as booked in one conditional UPDATE - 0 rows means another booking got there first
+        int updated = doctorSlotRepository.updateStatusIfCurrent(payment.getTempSlotId(),
+                DoctorSlot.SlotStatus.AVAILABLE, DoctorSlot.SlotStatus.BOOKED, payment.getPatient().getId());
         
-        if (slot.getStatus() != DoctorSlot.SlotStatus.AVAILABLE) {
+        if (updated == 0) {
+            if (!doctorSlotRepository.existsById(payment.getTempSlotId())) {
+                throw new RuntimeException("Doctor slot not found");
+            }
             throw new RuntimeException("Selected slot is no longer available");
         }
         
+        DoctorSlot slot = doctorSlotRepository.findById(payment.getTempSlotId())
+                .orElseThrow(() -> new RuntimeException("Doctor slot not found"));
+        
+        System.out.println("Slot booked - Status: " + slot.getStatus());
+        
         System.out.println("Creating appointment...");
         
         // Create the appointment
@@ -219,17 +257,16 @@ public class PaymentService {
         
         // Save appointment
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        statusCounters.created(StatusCounterRegistry.Kind.APPOINTMENT, savedAppointment.getStatus());
         System.out.println("Appointment created successfully with ID: " + savedAppointment.getId());
         
-        // Update slot status to booked
-        slot.setStatus(DoctorSlot.SlotStatus.BOOKED);
-        doctorSlotRepository.save(slot);
-        System.out.println("Slot status updated to BOOKED");
+        slotAvailabilityIndex.slotChanged(slot);
         
         // Link payment to appointment
         payment.setAppointment(savedAppointment);
         payment.setUpdatedAt(LocalDateTime.now());
         paymentRepository.save(payment);
+        revenueRollupService.paymentChanged(previousRevenue, payment);
         System.out.println("Payment linked to appointment successfully");
         
         return savedAppointment;
@@ -242,18 +279,56 @@ public class PaymentService {
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
         
+        Payment.Status previousStatus = payment.getStatus();
+        RevenueRollupService.Contribution previousRevenue = revenueRollupService.contributionOf(payment);
         payment.setAppointment(appointment);
         payment.setStatus(Payment.Status.SUCCESS);
         payment.setUpdatedAt(LocalDateTime.now());
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        countStatusChange(savedPayment, previousStatus);
+        revenueRollupService.paymentChanged(previousRevenue, savedPayment);
+        return savedPayment;
     }
     
+    @Transactional(readOnly = true)
     public Page<Payment> getAllPayments(String status, String method, Long patientId, 
                                        Long appointmentId, Pageable pageable) {
         return paymentRepository.findPaymentsWithFilters(status, method, patientId, appointmentId, pageable);
     }
     
+    /**
+     * Streams every live payment matching the filters to {@code out} in id order, reading through a
+     * database cursor. Card and UPI details are not exported.
+     */
+    @Transactional(readOnly = true)
+    public long exportPayments(ExportWriter.Format format, String status, String method, Long patientId,
+                               Long appointmentId, OutputStream out) throws IOException {
+        Payment.Status statusEnum = null;
+        Payment.Method methodEnum = null;
+        try {
+            if (status != null && !status.isEmpty()) {
+                statusEnum = Payment.Status.valueOf(status.toUpperCase());
+            }
+            if (method != null && !method.isEmpty()) {
+                methodEnum = Payment.Method.valueOf(method.toUpperCase());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid payment status or method");
+        }
+        
+        ExportWriter writer = new ExportWriter(out, format, objectMapper,
+            "id", "paymentId", "paymentDate", "amount", "method", "status", "transactionId",
+            "patientId", "patientName", "patientEmail", "appointmentId", "createdAt", "updatedAt");
+        return writer.writeAll(paymentRepository.streamPaymentsForExport(statusEnum, methodEnum, patientId, appointmentId),
+            entityManager,
+            p -> new Object[] {
+                p.getId(), p.getPaymentId(), p.getPaymentDate(), p.getAmount(), p.getMethod(), p.getStatus(), p.getTransactionId(),
+                p.getPatient().getId(), p.getPatient().getName(), p.getPatient().getEmail(),
+                p.getAppointment() == null ? null : p.getAppointment().getId(), p.getCreatedAt(), p.getUpdatedAt()
+            });
+    }
+    
     public Page<Payment> getPaymentsByPatient(Long patientId, Pageable pageable) {
         return paymentRepository.findByPatientIdAndDeletedAtIsNull(patientId, pageable);
     }
@@ -262,6 +337,7 @@ public class PaymentService {
         return paymentRepository.findByAppointmentIdAndDeletedAtIsNull(appointmentId);
     }
     
+    @Transactional(readOnly = true)
     public Page<Payment> searchPayments(String paymentId, String transactionId, String status, 
                                       String method, Long patientId, Long appointmentId, 
                                       BigDecimal minAmount, BigDecimal maxAmount, Pageable pageable) {
@@ -281,6 +357,8 @@ public class PaymentService {
         Payment payment = paymentRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
         
+        Payment.Status previousStatus = payment.getStatus();
+        RevenueRollupService.Contribution previousRevenue = revenueRollupService.contributionOf(payment);
         if (request.getAmount() != null) payment.setAmount(request.getAmount());
         if (request.getMethod() != null) payment.setMethod(Payment.Method.valueOf(request.getMethod().toUpperCase()));
         if (request.getStatus() != null) payment.setStatus(Payment.Status.valueOf(request.getStatus().toUpperCase()));
@@ -289,59 +367,85 @@ public class PaymentService {
         payment.setUpdatedAt(LocalDateTime.now());
         payment.setUpdatedBy(payment.getPatient().getId());
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        countStatusChange(savedPayment, previousStatus);
+        revenueRollupService.paymentChanged(previousRevenue, savedPayment);
+        return savedPayment;
     }
     
     public Payment updatePaymentStatus(Long id, String status, String transactionId) {
         Payment payment = paymentRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
         
+        Payment.Status previousStatus = payment.getStatus();
+        RevenueRollupService.Contribution previousRevenue = revenueRollupService.contributionOf(payment);
         payment.setStatus(Payment.Status.valueOf(status.toUpperCase()));
         if (transactionId != null) {
             payment.setTransactionId(transactionId);
         }
         payment.setUpdatedAt(LocalDateTime.now());
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        countStatusChange(savedPayment, previousStatus);
+        revenueRollupService.paymentChanged(previousRevenue, savedPayment);
+        return savedPayment;
     }
     
     public void deletePayment(Long id) {
         Payment payment = paymentRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
         
+        RevenueRollupService.Contribution previousRevenue = revenueRollupService.contributionOf(payment);
         payment.setDeletedAt(LocalDateTime.now());
         payment.setDeletedBy(payment.getPatient().getId());
         paymentRepository.save(payment);
+        statusCounters.deleted(StatusCounterRegistry.Kind.PAYMENT, payment.getStatus());
+        revenueRollupService.paymentChanged(previousRevenue, payment);
     }
     
-    public Object getPaymentStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        stats.put("totalPayments", paymentRepository.countByDeletedAtIsNull());
-        stats.put("successfulPayments", paymentRepository.countByStatusAndDeletedAtIsNull("SUCCESS"));
-        stats.put("pendingPayments", paymentRepository.countByStatusAndDeletedAtIsNull("PENDING"));
-        stats.put("failedPayments", paymentRepository.countByStatusAndDeletedAtIsNull("FAILED"));
-        
-        return stats;
+    // Lookups by paymentId can return soft-deleted payments, which the status counters leave out
+    private void countStatusChange(Payment payment, Payment.Status previousStatus) {
+        if (payment.getDeletedAt() == null) {
+            statusCounters.statusChanged(StatusCounterRegistry.Kind.PAYMENT, previousStatus, payment.getStatus());
+        }
     }
     
-    public Object getRevenueStats(String period) {
+    @Transactional(readOnly = true)
+    public Object getPaymentStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        // Calculate total revenue
-        BigDecimal totalRevenue = paymentRepository.calculateTotalRevenue();
-        stats.put("totalRevenue", totalRevenue);
+        if (statusCounters.isReady()) {
+            stats.put("totalPayments", statusCounters.getTotal(StatusCounterRegistry.Kind.PAYMENT));
+            stats.put("successfulPayments", statusCounters.get(StatusCounterRegistry.Kind.PAYMENT, Payment.Status.SUCCESS));
+            stats.put("pendingPayments", statusCounters.get(StatusCounterRegistry.Kind.PAYMENT, Payment.Status.PENDING));
+            stats.put("failedPayments", statusCounters.get(StatusCounterRegistry.Kind.PAYMENT, Payment.Status.FAILED));
+            return stats;
+        }
         
-        // Calculate revenue by method
-        Map<String, BigDecimal> revenueByMethod = paymentRepository.calculateRevenueByMethod();
-        stats.put("revenueByMethod", revenueByMethod);
+        GroupCounts byStatus = GroupCounts.of(paymentRepository.countGroupedByStatus());
         
-        // Calculate daily revenue for the last 30 days
-        if ("daily".equals(period)) {
-            Map<String, BigDecimal> dailyRevenue = paymentRepository.calculateDailyRevenue();
-            stats.put("dailyRevenue", dailyRevenue);
-        }
+        stats.put("totalPayments", byStatus.getTotal());
+        stats.put("successfulPayments", byStatus.get(Payment.Status.SUCCESS));
+        stats.put("pendingPayments", byStatus.get(Payment.Status.PENDING));
+        stats.put("failedPayments", byStatus.get(Payment.Status.FAILED));
         
         return stats;
     }
+    
+    // Served from the daily revenue rollup, so the cost depends on the range, not the payment count
+    @Transactional(readOnly = true)
+    public Object getRevenueStats(String period, String fromDate, String toDate) {
+        return revenueRollupService.getRevenueStats(period, parseDate(fromDate), parseDate(toDate));
+    }
+    
+    private LocalDate parseDate(String date) {
+        if (date == null || date.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid date: " + date + " (expected yyyy-MM-dd)");
+        }
+    }
 }
@@ -0,0 +1,256 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.entity.Payment;
+import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.repository.RevenueRollupRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps revenue_daily_rollup in step with successful payments and answers the revenue queries from it.
+ * Callers take a {@link #contributionOf} snapshot before changing a payment and pass it to
+ * {@link #paymentChanged} afterwards; the difference is applied in the caller's transaction, so the
+ * rollup commits or rolls back together with the payment.
+ */
+@Service
+public class RevenueRollupService {
+
+    private static final String INSERT_EMPTY_ROW_SQL =
+        "INSERT INTO revenue_daily_rollup (revenue_date, method, doctor_id, specialization_id, amount, payment_count) " +
+        "VALUES (?, ?, ?, ?, 0, 0)";
+
+    // Same doctor resolution as contributionOf: the appointment's doctor, else the doctor picked before paying
+    private static final String REBUILD_SQL =
+        "INSERT INTO revenue_daily_rollup (revenue_date, method, doctor_id, specialization_id, amount, payment_count) " +
+        "SELECT CAST(p.payment_date AS DATE), p.method, COALESCE(d.doctor_id, 0), COALESCE(d.specialization_id, 0), " +
+        "SUM(p.amount), COUNT(*) " +
+        "FROM payment p LEFT JOIN appointments a ON a.id = p.appointment_id " +
+        "LEFT JOIN doctors d ON d.doctor_id = COALESCE(a.doctor_id, p.temp_doctor_id) " +
+        "WHERE p.status = 'SUCCESS' AND p.deleted_at IS NULL " +
+        "GROUP BY CAST(p.payment_date AS DATE), p.method, COALESCE(d.doctor_id, 0), COALESCE(d.specialization_id, 0)";
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.revenue-rollup.build-if-empty:true}")
+    private boolean buildIfEmpty;
+
+    private TransactionTemplate newTransaction;
+
+    /**
+     * What a payment adds to the rollup: nothing unless it is SUCCESS and not deleted.
+     */
+    public record Contribution(LocalDate revenueDate, Payment.Method method, Long doctorId, Long specializationId,
+                               BigDecimal amount) {
+    }
+
+    /**
+     * Fills an empty rollup (new database, or the table was just added) from the payment table. Runs while
+     * the context starts, before requests can change payments; a filled rollup is kept as it is, full
+     * rebuilds go through {@link #rebuild}.
+     */
+    @PostConstruct
+    public void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (buildIfEmpty) {
+            newTransaction.executeWithoutResult(status -> {
+                if (jdbcTemplate.queryForList("SELECT 1 FROM revenue_daily_rollup LIMIT 1").isEmpty()) {
+                    jdbcTemplate.update(REBUILD_SQL);
+                }
+            });
+        }
+    }
+
+    public Contribution contributionOf(Payment payment) {
+        if (payment == null || payment.getStatus() != Payment.Status.SUCCESS || payment.getDeletedAt() != null
+                || payment.getPaymentDate() == null || payment.getAmount() == null) {
+            return null;
+        }
+        Doctor doctor = null;
+        if (payment.getAppointment() != null) {
+            doctor = payment.getAppointment().getDoctor();
+        } else if (payment.getTempDoctorId() != null) {
+            doctor = doctorRepository.findById(payment.getTempDoctorId()).orElse(null);
+        }
+        Long doctorId = doctor != null ? doctor.getDoctorId() : 0L;
+        Long specializationId = doctor != null && doctor.getSpecialization() != null
+            ? doctor.getSpecialization().getSpecializationId() : 0L;
+        return new Contribution(payment.getPaymentDate().toLocalDate(), payment.getMethod(), doctorId, specializationId,
+            payment.getAmount());
+    }
+
+    /**
+     * Moves the payment's share of the rollup from {@code before} (null for a new payment) to its current state.
+     */
+    @Transactional
+    public void paymentChanged(Contribution before, Payment after) {
+        Contribution current = contributionOf(after);
+        if (Objects.equals(before, current)) {
+            return;
+        }
+        if (before != null) {
+            add(before, before.amount().negate(), -1);
+        }
+        if (current != null) {
+            add(current, current.amount(), 1);
+        }
+    }
+
+    /**
+     * Recomputes the whole rollup from the payment table, after bulk changes that bypass the payment
+     * service. Payments changed while it runs may be counted twice or missed; run it when payments are quiet.
+     *
+     * @return number of rollup rows
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update("DELETE FROM revenue_daily_rollup");
+        return jdbcTemplate.update(REBUILD_SQL);
+    }
+
+    /**
+     * Revenue totals plus, for a period, a zero-filled series over [fromDate, toDate] (default: the last
+     * 30 days, 12 weeks or 12 months) with the range broken down by method, specialization and doctor.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRevenueStats(String period, LocalDate fromDate, LocalDate toDate) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+
+        Object[] totals = revenueRollupRepository.sumAll().get(0);
+        stats.put("totalRevenue", totals[0]);
+        stats.put("successfulPayments", ((Number) totals[1]).longValue());
+        stats.put("revenueByMethod", toMap(revenueRollupRepository.sumByMethod()));
+
+        if (period == null || period.isBlank()) {
+            return stats;
+        }
+        String bucket = period.trim().toLowerCase();
+        if (!bucket.equals("daily") && !bucket.equals("weekly") && !bucket.equals("monthly")) {
+            throw new RuntimeException("Invalid period: " + period + " (use daily, weekly or monthly)");
+        }
+        LocalDate to = toDate != null ? toDate : LocalDate.now();
+        LocalDate from = fromDate != null ? fromDate : defaultFrom(bucket, to);
+        if (from.isAfter(to)) {
+            throw new RuntimeException("fromDate must not be after toDate");
+        }
+
+        Map<String, BigDecimal> series = new LinkedHashMap<>();
+        for (LocalDate day = bucketStart(bucket, from); !day.isAfter(to); day = nextBucket(bucket, day)) {
+            series.put(bucketLabel(bucket, day), BigDecimal.ZERO);
+        }
+        BigDecimal rangeRevenue = BigDecimal.ZERO;
+        long rangePayments = 0;
+        for (Object[] row : revenueRollupRepository.sumByDay(from, to)) {
+            BigDecimal amount = (BigDecimal) row[1];
+            series.merge(bucketLabel(bucket, bucketStart(bucket, (LocalDate) row[0])), amount, BigDecimal::add);
+            rangeRevenue = rangeRevenue.add(amount);
+            rangePayments += ((Number) row[2]).longValue();
+        }
+
+        stats.put("period", bucket);
+        stats.put("fromDate", from);
+        stats.put("toDate", to);
+        stats.put(bucket + "Revenue", series);
+        stats.put("rangeRevenue", rangeRevenue);
+        stats.put("rangePayments", rangePayments);
+        stats.put("rangeRevenueByMethod", toMap(revenueRollupRepository.sumByMethodBetween(from, to)));
+        stats.put("rangeRevenueBySpecialization", toMap(revenueRollupRepository.sumBySpecializationBetween(from, to)));
+        stats.put("rangeRevenueByDoctor", toMap(revenueRollupRepository.sumByDoctorBetween(from, to)));
+        return stats;
+    }
+
+    private void add(Contribution key, BigDecimal amount, long count) {
+        int updated = revenueRollupRepository.addToRollup(key.revenueDate(), key.method(), key.doctorId(),
+            key.specializationId(), amount, count);
+        if (updated == 0) {
+            createEmptyRow(key);
+            revenueRollupRepository.addToRollup(key.revenueDate(), key.method(), key.doctorId(),
+                key.specializationId(), amount, count);
+        }
+    }
+
+    // Committed on its own, so concurrent payments for a new key never both insert it inside their
+    // transactions; an empty row left behind by a rolled-back payment adds nothing
+    private void createEmptyRow(Contribution key) {
+        try {
+            newTransaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT_EMPTY_ROW_SQL,
+                key.revenueDate(), key.method().name(), key.doctorId(), key.specializationId()));
+        } catch (DataIntegrityViolationException e) {
+            // Another transaction created it first
+        }
+    }
+
+    private static LocalDate defaultFrom(String bucket, LocalDate to) {
+        switch (bucket) {
+            case "weekly":
+                return to.minusWeeks(11).with(DayOfWeek.MONDAY);
+            case "monthly":
+                return to.minusMonths(11).withDayOfMonth(1);
+            default:
+                return to.minusDays(29);
+        }
+    }
+
+    private static LocalDate bucketStart(String bucket, LocalDate day) {
+        switch (bucket) {
+            case "weekly":
+                return day.with(DayOfWeek.MONDAY);
+            case "monthly":
+                return day.withDayOfMonth(1);
+            default:
+                return day;
+        }
+    }
+
+    private static LocalDate nextBucket(String bucket, LocalDate bucketStart) {
+        switch (bucket) {
+            case "weekly":
+                return bucketStart.plus(1, ChronoUnit.WEEKS);
+            case "monthly":
+                return bucketStart.plusMonths(1);
+            default:
+                return bucketStart.plusDays(1);
+        }
+    }
+
+    private static String bucketLabel(String bucket, LocalDate bucketStart) {
+        return "monthly".equals(bucket) ? YearMonth.from(bucketStart).toString() : bucketStart.toString();
+    }
+
+    private static Map<String, BigDecimal> toMap(List<Object[]> rows) {
+        Map<String, BigDecimal> map = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            map.put(String.valueOf(row[0]), (BigDecimal) row[1]);
+        }
+        return map;
+    }
+}
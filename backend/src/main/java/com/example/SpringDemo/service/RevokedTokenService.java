@@ -0,0 +1,166 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.Session;
+import com.example.SpringDemo.repository.SessionRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked tokens, so claims-only authentication can reject logged out or
+ * invalidated tokens without a session lookup. Fed directly by session changes on this node and
+ * periodically from the session table so revocations made elsewhere are picked up too. Every
+ * revocation is recorded in the session table (the session is deactivated), so it survives a restart
+ * and reaches the other nodes through that sync.
+ */
+@Service
+public class RevokedTokenService {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private AuthenticationCacheService authenticationCache;
+
+    @Value("${jwt.expiration}")
+    private Long jwtExpiration;
+
+    // token hash -> epoch millis when the token expires (entry is useless after that)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // "USER:12" / "DOCTOR:3" -> epoch millis of the revocation (this node only; the sessions carry it elsewhere)
+    private final Map<String, Long> revokedPrincipals = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastSync;
+
+    public void revoke(Session session) {
+        if (session != null) {
+            revoke(session.getSessionToken(), session.getExpiresAt());
+        }
+    }
+
+    public void revoke(String token, LocalDateTime expiresAt) {
+        if (token == null) {
+            return;
+        }
+        long expiresAtMillis = expiresAt != null
+                ? expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis() + jwtExpiration;
+        if (expiresAtMillis > System.currentTimeMillis()) {
+            revokedTokens.put(AuthenticationCacheService.hashToken(token), expiresAtMillis);
+        }
+    }
+
+    /**
+     * Rejects every token issued to the user/doctor up to now, e.g. after deactivation or a role change.
+     * Their active sessions are deactivated in the caller's transaction, which is what restarts and other
+     * nodes see. Tokens carry their issue time in whole seconds only, so the in-memory check below rejects
+     * tokens from earlier seconds; a token from the same second is rejected through its deactivated
+     * session, while a fresh login right after the revocation gets a new session and stays valid.
+     */
+    @Transactional
+    public void revokePrincipal(String principalType, Long principalId) {
+        if (principalId == null) {
+            return;
+        }
+        revokedPrincipals.put(principalType + ":" + principalId, System.currentTimeMillis());
+
+        List<Session> sessions = AuthenticationCacheService.TYPE_DOCTOR.equals(principalType)
+                ? sessionRepository.findByDoctorIdAndIsActiveTrueAndDeletedAtIsNull(principalId)
+                : sessionRepository.findByUserIdAndIsActiveTrueAndDeletedAtIsNull(principalId);
+        if (sessions.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(sessions.size());
+        for (Session session : sessions) {
+            ids.add(session.getId());
+            revoke(session);
+        }
+        sessionRepository.deactivateSessions(ids, LocalDateTime.now());
+    }
+
+    public boolean isRevoked(String token, Claims claims) {
+        Long expiresAt = revokedTokens.get(AuthenticationCacheService.hashToken(token));
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            return true;
+        }
+
+        Long principalId = claims.get("userId") instanceof Number ? ((Number) claims.get("userId")).longValue() : null;
+        String principalType = "DOCTOR".equals(claims.get("role", String.class))
+                ? AuthenticationCacheService.TYPE_DOCTOR
+                : AuthenticationCacheService.TYPE_USER;
+        Long revokedBefore = principalId != null ? revokedPrincipals.get(principalType + ":" + principalId) : null;
+        Date issuedAt = claims.getIssuedAt();
+
+        // iat is truncated to the second: only a token from an earlier second is surely older than the revocation
+        return revokedBefore != null && (issuedAt == null || issuedAt.getTime() < revokedBefore / 1000 * 1000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevokedTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        int loaded = applyRevokedSessions(now.minusSeconds(jwtExpiration / 1000), now);
+        lastSync = now;
+        System.out.println("Loaded " + loaded + " revoked session tokens");
+    }
+
+    /**
+     * Picks up sessions invalidated by other instances (or by direct DB changes) since the last run.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.revocation-sync-ms:30000}", initialDelayString = "${app.auth.revocation-sync-ms:30000}")
+    public void syncRevokedTokens() {
+        LocalDateTime since = lastSync;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            // small overlap so rows committed just around the last run are not missed
+            applyRevokedSessions(since.minusSeconds(5), now);
+            lastSync = now;
+        } catch (Exception e) {
+            System.err.println("Error syncing revoked tokens: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops entries for tokens that have expired on their own. Called from the session cleanup jobs.
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedPrincipals.values().removeIf(revokedAt -> revokedAt + jwtExpiration <= now);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("revokedTokens", revokedTokens.size());
+        stats.put("revokedPrincipals", revokedPrincipals.size());
+        stats.put("lastSync", lastSync);
+        return stats;
+    }
+
+    private int applyRevokedSessions(LocalDateTime since, LocalDateTime now) {
+        List<Object[]> rows = sessionRepository.findRevokedTokensSince(since, now);
+        for (Object[] row : rows) {
+            String token = (String) row[0];
+            revoke(token, (LocalDateTime) row[1]);
+            authenticationCache.evict(token);
+        }
+        return rows.size();
+    }
+}
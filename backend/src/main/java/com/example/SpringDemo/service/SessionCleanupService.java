@@ -1,84 +1,160 @@
 package com.example.SpringDemo.service;
 
-import com.example.SpringDemo.entity.Session;
 import com.example.SpringDemo.repository.SessionRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
 
+/**
+ * Session housekeeping, all set-based: expired active sessions are deactivated, sessions inactive for
+ * {@code app.session-cleanup.inactive-retention-days} are soft-deleted, and soft-deleted sessions older
+ * than {@code app.session-cleanup.purge-after-days} are removed for good so the table stops growing.
+ * Each pass selects the next {@code batch-size} ids (keyset on id) and changes them with one statement,
+ * in its own short transaction, until nothing is left. Expired tokens need no revocation entry - they fail validation anyway.
+ */
 @Service
 public class SessionCleanupService {
     
     @Autowired
     private SessionRepository sessionRepository;
     
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.session-cleanup.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${app.session-cleanup.inactive-retention-days:30}")
+    private int inactiveRetentionDays;
+    
+    @Value("${app.session-cleanup.purge-after-days:90}")
+    private int purgeAfterDays;
+    
+    private TransactionTemplate chunkTransaction;
+    
+    private volatile LocalDateTime lastExpiryRun;
+    private volatile LocalDateTime lastPurgeRun;
+    private volatile int lastExpired;
+    private volatile int lastSoftDeleted;
+    private volatile int lastPurged;
+    
+    @PostConstruct
+    public void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+    
     /**
-     * Clean up expired sessions every hour
+     * Deactivate expired sessions every hour
+     *
+     * @return number of sessions deactivated
      */
     @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
-    @Transactional
-    public void cleanupExpiredSessions() {
+    public int cleanupExpiredSessions() {
         System.out.println("Starting session cleanup at: " + LocalDateTime.now());
         
         try {
-            // Find all expired active sessions
-            List<Session> expiredSessions = sessionRepository.findExpiredActiveSessions(LocalDateTime.now());
+            LocalDateTime now = LocalDateTime.now();
+            int expired = inChunks((afterId, page) -> sessionRepository.findExpiredActiveSessionIds(afterId, now, page),
+                    ids -> sessionRepository.deactivateSessions(ids, now));
             
-            if (!expiredSessions.isEmpty()) {
-                System.out.println("Found " + expiredSessions.size() + " expired sessions to clean up");
-                
-                // Mark expired sessions as inactive
-                for (Session session : expiredSessions) {
-                    session.setIsActive(false);
-                    session.setUpdatedAt(LocalDateTime.now());
-                    sessionRepository.save(session);
-                }
-                
-                System.out.println("Successfully cleaned up " + expiredSessions.size() + " expired sessions");
+            if (expired > 0) {
+                System.out.println("Successfully cleaned up " + expired + " expired sessions");
             } else {
                 System.out.println("No expired sessions found");
             }
+            lastExpired = expired;
+            lastExpiryRun = now;
+            
+            // Revoked tokens that have expired anyway no longer need tracking
+            revokedTokenService.purgeExpired();
+            return expired;
         } catch (Exception e) {
             System.err.println("Error during session cleanup: " + e.getMessage());
             e.printStackTrace();
+            return 0;
         }
     }
     
     /**
-     * Clean up old inactive sessions (older than 30 days) - runs daily
+     * Soft-delete old inactive sessions, then purge long soft-deleted ones - runs daily
+     *
+     * @return sessions soft-deleted and purged
      */
     @Scheduled(cron = "0 0 2 * * ?") // Daily at 2 AM
-    @Transactional
-    public void cleanupOldInactiveSessions() {
+    public Map<String, Integer> cleanupOldInactiveSessions() {
         System.out.println("Starting old inactive session cleanup at: " + LocalDateTime.now());
         
+        Map<String, Integer> result = new HashMap<>();
         try {
-            LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime inactiveCutoff = now.minusDays(inactiveRetentionDays);
+            int softDeleted = inChunks((afterId, page) -> sessionRepository.findInactiveSessionIdsBefore(afterId, inactiveCutoff, page),
+                    ids -> sessionRepository.softDeleteSessions(ids, now));
+            System.out.println("Soft-deleted " + softDeleted + " sessions inactive since " + inactiveCutoff);
             
-            // Find old inactive sessions
-            List<Session> oldSessions = sessionRepository.findByIsActiveFalseAndUpdatedAtBeforeAndDeletedAtIsNull(cutoffDate);
+            LocalDateTime purgeCutoff = now.minusDays(purgeAfterDays);
+            int purged = inChunks((afterId, page) -> sessionRepository.findDeletedSessionIdsBefore(afterId, purgeCutoff, page),
+                    sessionRepository::deleteSessions);
+            System.out.println("Purged " + purged + " sessions deleted before " + purgeCutoff);
             
-            if (!oldSessions.isEmpty()) {
-                System.out.println("Found " + oldSessions.size() + " old inactive sessions to delete");
-                
-                // Soft delete old sessions
-                for (Session session : oldSessions) {
-                    session.setDeletedAt(LocalDateTime.now());
-                    session.setDeletedBy(session.getUser() != null ? session.getUser().getId() : session.getDoctorId());
-                    sessionRepository.save(session);
-                }
-                
-                System.out.println("Successfully deleted " + oldSessions.size() + " old inactive sessions");
-            } else {
-                System.out.println("No old inactive sessions found");
-            }
+            lastSoftDeleted = softDeleted;
+            lastPurged = purged;
+            lastPurgeRun = now;
+            result.put("softDeleted", softDeleted);
+            result.put("purged", purged);
         } catch (Exception e) {
             System.err.println("Error during old session cleanup: " + e.getMessage());
             e.printStackTrace();
         }
+        return result;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("batchSize", batchSize);
+        stats.put("lastExpiryRun", lastExpiryRun);
+        stats.put("lastExpired", lastExpired);
+        stats.put("lastPurgeRun", lastPurgeRun);
+        stats.put("lastSoftDeleted", lastSoftDeleted);
+        stats.put("lastPurged", lastPurged);
+        return stats;
+    }
+    
+    // Runs select-ids + change-them chunks, each after the last id of the previous one, until no ids are left
+    private int inChunks(BiFunction<Long, Pageable, List<Long>> nextIds, ToIntFunction<List<Long>> change) {
+        Pageable page = PageRequest.of(0, batchSize);
+        int total = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            long from = afterId;
+            Chunk chunk = chunkTransaction.execute(status -> {
+                List<Long> ids = nextIds.apply(from, page);
+                return ids.isEmpty() ? null : new Chunk(ids.get(ids.size() - 1), change.applyAsInt(ids));
+            });
+            if (chunk == null) {
+                return total;
+            }
+            total += chunk.changed();
+            afterId = chunk.lastId();
+        }
+    }
+    
+    private record Chunk(long lastId, int changed) {
     }
 }
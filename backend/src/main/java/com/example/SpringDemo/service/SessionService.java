@@ -3,6 +3,7 @@ package com.example.SpringDemo.service;
 import com.example.SpringDemo.entity.Session;
 import com.example.SpringDemo.repository.SessionRepository;
 import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.util.GroupCounts;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,6 +26,12 @@ public class SessionService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private AuthenticationCacheService authenticationCache;
+    
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
     public Page<Session> getAllSessions(Long userId, Boolean isActive, Pageable pageable) {
         return sessionRepository.findSessionsWithFilters(userId, isActive, pageable);
     }
@@ -54,7 +61,10 @@ public class SessionService {
             session.setIsActive(false);
             session.setUpdatedAt(LocalDateTime.now());
             sessionRepository.save(session);
+            revokedTokenService.revoke(session);
         }
+        
+        authenticationCache.evictUser(userId);
     }
     
     public Session invalidateSession(Long id) {
@@ -63,6 +73,8 @@ public class SessionService {
         
         session.setIsActive(false);
         session.setUpdatedAt(LocalDateTime.now());
+        authenticationCache.evict(session.getSessionToken());
+        revokedTokenService.revoke(session);
         
         return sessionRepository.save(session);
     }
@@ -74,14 +86,21 @@ public class SessionService {
         session.setDeletedAt(LocalDateTime.now());
         session.setDeletedBy(session.getUser().getId());
         sessionRepository.save(session);
+        authenticationCache.evict(session.getSessionToken());
+        revokedTokenService.revoke(session);
     }
     
+    @Transactional(readOnly = true)
     public Object getSessionStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalSessions", sessionRepository.countByDeletedAtIsNull());
-        stats.put("activeSessions", sessionRepository.countByIsActiveTrueAndDeletedAtIsNull());
-        stats.put("inactiveSessions", sessionRepository.countByIsActiveFalseAndDeletedAtIsNull());
+        GroupCounts byActive = GroupCounts.of(sessionRepository.countGroupedByIsActive());
+        
+        stats.put("totalSessions", byActive.getTotal());
+        stats.put("activeSessions", byActive.get(Boolean.TRUE));
+        stats.put("inactiveSessions", byActive.get(Boolean.FALSE));
+        stats.put("authCache", authenticationCache.getStats());
+        stats.put("revocation", revokedTokenService.getStats());
         
         return stats;
     }
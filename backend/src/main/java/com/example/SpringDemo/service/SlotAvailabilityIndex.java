@@ -0,0 +1,323 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.DoctorSlot;
+import com.example.SpringDemo.repository.DoctorSlotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process availability index per (doctor, date) used on the booking hot path.
+ * Each day keeps its slots ordered by start time and a bitset of which ordinals are free;
+ * reserve/release flip a bit with compare-and-set. The database stays the source of truth:
+ * a successful reservation is always confirmed against the slot row before booking, and a miss
+ * or a "taken" bit is only a hint - the day is reloaded before the request is rejected, so slots
+ * generated or freed by another instance are still bookable. Days older than the TTL are reloaded too.
+ * Slot events are forwarded to AvailableSlotReadModel so the patient listing stays current too.
+ */
+@Service
+public class SlotAvailabilityIndex {
+
+    @Autowired
+    private DoctorSlotRepository doctorSlotRepository;
+
+    @Autowired
+    private AvailableSlotReadModel availableSlotReadModel;
+
+    @Value("${app.slot-index.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final Map<DayKey, DaySlots> days = new ConcurrentHashMap<>();
+
+    // Reserved in the index but not yet written as BOOKED, so a reload must not hand them out again
+    private final Set<Long> pendingSlotIds = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    /**
+     * Atomically claims the slot matching the given times. Returns its slot id, or null when the
+     * doctor has no free slot at that time. A free bit is trusted (the booking re-checks the row);
+     * a miss or taken bit is confirmed by reloading the day unless it was just loaded or the slot
+     * is reserved by a booking in flight on this instance.
+     */
+    public Long tryReserve(Long doctorId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        DaySlots day = days.get(new DayKey(doctorId, date));
+        boolean loaded = day == null || day.loadedAtMillis + ttlSeconds * 1000 < System.currentTimeMillis();
+        if (loaded) {
+            day = reload(doctorId, date);
+        }
+        int ordinal = day.ordinalOf(startTime, endTime);
+        if (!loaded && (ordinal < 0 || (!day.isFree(ordinal) && !pendingSlotIds.contains(day.slotIds[ordinal])))) {
+            // Slot may have been generated, cancelled or freed (possibly on another instance) since this day was loaded
+            day = reload(doctorId, date);
+            ordinal = day.ordinalOf(startTime, endTime);
+        }
+        if (ordinal < 0 || !day.compareAndSet(ordinal, true, false)) {
+            rejections.increment();
+            return null;
+        }
+        Long slotId = day.slotIds[ordinal];
+        if (!pendingSlotIds.add(slotId)) {
+            // Claimed concurrently through an older snapshot of this day
+            rejections.increment();
+            return null;
+        }
+        reservations.increment();
+        return slotId;
+    }
+
+    /**
+     * Called once the reserved slot has been saved as BOOKED; the bit stays cleared.
+     */
+    public void confirm(Long slotId) {
+        pendingSlotIds.remove(slotId);
+    }
+
+    /**
+     * Gives back a reservation taken with {@link #tryReserve} that did not end up booked.
+     */
+    public void release(Long doctorId, LocalDate date, Long slotId) {
+        // Already confirmed or marked taken - the bit must stay cleared
+        if (!pendingSlotIds.remove(slotId)) {
+            return;
+        }
+        DaySlots day = days.get(new DayKey(doctorId, date));
+        if (day != null) {
+            int ordinal = day.ordinalOf(slotId);
+            if (ordinal >= 0) {
+                day.compareAndSet(ordinal, false, true);
+            }
+        }
+    }
+
+    /**
+     * Ties a reservation to the current transaction: confirmed on commit, released on rollback.
+     * Without a transaction the caller must confirm or release itself.
+     */
+    public void settleOnCompletion(Long doctorId, LocalDate date, Long slotId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    confirm(slotId);
+                    availableSlotReadModel.slotTaken(date, slotId);
+                } else {
+                    release(doctorId, date, slotId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks a slot as taken in the index without a reservation, e.g. when the DB says it is no longer free.
+     */
+    public void markTaken(Long doctorId, LocalDate date, Long slotId) {
+        pendingSlotIds.remove(slotId);
+        availableSlotReadModel.slotTaken(date, slotId);
+        DaySlots day = days.get(new DayKey(doctorId, date));
+        if (day != null) {
+            int ordinal = day.ordinalOf(slotId);
+            if (ordinal >= 0) {
+                day.compareAndSet(ordinal, true, false);
+            }
+        }
+    }
+
+    /**
+     * Syncs the index with a slot whose status was changed outside the reserve/release path.
+     * Applied after commit when called inside a transaction, so a rollback never leaks into the index.
+     */
+    public void slotChanged(DoctorSlot slot) {
+        if (slot == null || slot.getDoctor() == null) {
+            return;
+        }
+        Long doctorId = slot.getDoctor().getDoctorId();
+        LocalDate date = slot.getSlotDate();
+        Long slotId = slot.getSlotId();
+        boolean available = slot.getStatus() == DoctorSlot.SlotStatus.AVAILABLE;
+
+        afterCommit(() -> {
+            if (available) {
+                availableSlotReadModel.slotFreed(date, slotId);
+            } else {
+                availableSlotReadModel.slotTaken(date, slotId);
+            }
+            DaySlots day = days.get(new DayKey(doctorId, date));
+            if (day == null) {
+                return;
+            }
+            int ordinal = day.ordinalOf(slotId);
+            if (ordinal < 0) {
+                days.remove(new DayKey(doctorId, date), day);
+            } else {
+                day.set(ordinal, available);
+            }
+        });
+    }
+
+    public void invalidate(Long doctorId, LocalDate date) {
+        afterCommit(() -> {
+            days.remove(new DayKey(doctorId, date));
+            availableSlotReadModel.invalidate(date);
+        });
+    }
+
+    public void invalidateDoctor(Long doctorId) {
+        afterCommit(() -> {
+            days.keySet().removeIf(key -> key.doctorId.equals(doctorId));
+            availableSlotReadModel.invalidateAll();
+        });
+    }
+
+    /**
+     * Drops every indexed day before the given date (past days can no longer be booked).
+     */
+    public void evictBefore(LocalDate date) {
+        days.keySet().removeIf(key -> key.date.isBefore(date));
+        availableSlotReadModel.evictBefore(date);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("indexedDays", days.size());
+        stats.put("pendingReservations", pendingSlotIds.size());
+        stats.put("reservations", reservations.sum());
+        stats.put("rejections", rejections.sum());
+        stats.put("dayLoads", loads.sum());
+        return stats;
+    }
+
+    private DaySlots reload(Long doctorId, LocalDate date) {
+        List<DoctorSlot> slots = doctorSlotRepository.findByDoctorDoctorIdAndSlotDateOrderByStartTime(doctorId, date);
+        DaySlots day = new DaySlots(slots, pendingSlotIds);
+        days.put(new DayKey(doctorId, date), day);
+        loads.increment();
+        return day;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class DayKey {
+        private final Long doctorId;
+        private final LocalDate date;
+
+        private DayKey(Long doctorId, LocalDate date) {
+            this.doctorId = doctorId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof DayKey)) return false;
+            DayKey other = (DayKey) o;
+            return doctorId.equals(other.doctorId) && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * doctorId.hashCode() + date.hashCode();
+        }
+    }
+
+    // Immutable slot layout for one doctor/day plus a mutable free-bit per slot ordinal
+    private static final class DaySlots {
+        private final long[] slotIds;
+        private final LocalTime[] endTimes;
+        private final Map<LocalTime, Integer> ordinalByStart = new HashMap<>();
+        private final Map<Long, Integer> ordinalBySlotId = new HashMap<>();
+        private final AtomicLongArray available;
+        private final long loadedAtMillis = System.currentTimeMillis();
+
+        private DaySlots(List<DoctorSlot> slots, Set<Long> pendingSlotIds) {
+            slotIds = new long[slots.size()];
+            endTimes = new LocalTime[slots.size()];
+            available = new AtomicLongArray((slots.size() + 63) / 64);
+
+            for (int i = 0; i < slots.size(); i++) {
+                DoctorSlot slot = slots.get(i);
+                slotIds[i] = slot.getSlotId();
+                endTimes[i] = slot.getEndTime();
+                ordinalByStart.put(slot.getStartTime(), i);
+                ordinalBySlotId.put(slot.getSlotId(), i);
+                // Same visibility rules as findAvailableSlotsByDoctorAndDate
+                boolean free = slot.getStatus() == DoctorSlot.SlotStatus.AVAILABLE
+                        && !pendingSlotIds.contains(slot.getSlotId())
+                        && Boolean.TRUE.equals(slot.getDoctor().getActive())
+                        && slot.getDoctor().getDeletedAt() == null;
+                if (free) {
+                    set(i, true);
+                }
+            }
+        }
+
+        private int ordinalOf(LocalTime startTime, LocalTime endTime) {
+            Integer ordinal = ordinalByStart.get(startTime);
+            return ordinal != null && endTimes[ordinal].equals(endTime) ? ordinal : -1;
+        }
+
+        private int ordinalOf(Long slotId) {
+            Integer ordinal = ordinalBySlotId.get(slotId);
+            return ordinal != null ? ordinal : -1;
+        }
+
+        private boolean isFree(int ordinal) {
+            return (available.get(ordinal >>> 6) & (1L << (ordinal & 63))) != 0;
+        }
+
+        private boolean compareAndSet(int ordinal, boolean expectFree, boolean free) {
+            int word = ordinal >>> 6;
+            long mask = 1L << (ordinal & 63);
+            while (true) {
+                long current = available.get(word);
+                if (((current & mask) != 0) != expectFree) {
+                    return false;
+                }
+                long next = free ? current | mask : current & ~mask;
+                if (available.compareAndSet(word, current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        private void set(int ordinal, boolean free) {
+            int word = ordinal >>> 6;
+            long mask = 1L << (ordinal & 63);
+            while (true) {
+                long current = available.get(word);
+                long next = free ? current | mask : current & ~mask;
+                if (current == next || available.compareAndSet(word, current, next)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.entity.DoctorSlot;
+import com.example.SpringDemo.entity.DoctorSlotTemplate;
+import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.repository.DoctorSlotRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Set-based slot generation. Existing coverage for the whole window is read in one query, the
+ * missing slots are computed in memory and written with JDBC batch inserts - no per-day or
+ * per-slot existence checks and no entity persistence for the rows being created.
+ */
+@Service
+public class SlotGenerationEngine {
+
+    private static final String INSERT_SLOT_SQL =
+        "INSERT INTO doctor_slots (slot_id, doctor_id, slot_date, start_time, end_time, status, version, created_at, created_by, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?, ?)";
+
+    private static final long SYSTEM_USER_ID = 1L;
+
+    @Autowired
+    private DoctorSlotRepository doctorSlotRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AvailableSlotReadModel availableSlotReadModel;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.slot-generation.batch-size:1000}")
+    private int batchSize;
+
+    // Per-doctor (striped) locks held until the surrounding transaction completes. Coverage that decides what is
+    // inserted is always read after taking the lock, so a second run for the same doctor sees the first one's
+    // inserts; different doctors run in parallel
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] doctorLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public SlotGenerationEngine() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            doctorLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Generates slots from each doctor's working days/hours for every day in [startDate, endDate]
+     * that has no slots yet. Doctors with incomplete slot configuration are skipped.
+     *
+     * @return number of slots inserted
+     */
+    @Transactional
+    public int generateSlots(List<Doctor> doctors, LocalDate startDate, LocalDate endDate) {
+        Map<Long, Doctor> configured = new HashMap<>();
+        for (Doctor doctor : doctors) {
+            if (hasSlotConfiguration(doctor)) {
+                configured.put(doctor.getDoctorId(), doctor);
+            } else {
+                System.err.println("Doctor " + doctor.getEmail() + " has incomplete slot configuration");
+            }
+        }
+        if (configured.isEmpty()) {
+            return 0;
+        }
+
+        lockUntilCompletion(configured.keySet());
+
+        Map<Long, Set<LocalDate>> coveredDays = findCoveredDays(configured.keySet(), startDate, endDate);
+
+        SlotBatch batch = new SlotBatch();
+        Set<Long> contiguous = new HashSet<>();
+        for (Doctor doctor : configured.values()) {
+            addDoctorSlots(batch, doctor, coveredDays.getOrDefault(doctor.getDoctorId(), Set.of()), startDate, endDate);
+            if (extendsWatermark(doctor, startDate)) {
+                contiguous.add(doctor.getDoctorId());
+            }
+        }
+        int inserted = batch.finish();
+        if (!contiguous.isEmpty()) {
+            doctorRepository.advanceSlotsMaterializedThrough(contiguous, endDate);
+        }
+        return inserted;
+    }
+
+    /**
+     * Generates one doctor's missing days. The doctor's coverage is read again after taking its lock, so a
+     * run-wide coverage read that another run has since filled in cannot cause duplicate slots. Each call is
+     * its own transaction, so doctors can be processed in parallel. The caller advances the watermarks for
+     * the whole run afterwards ({@link #advanceWatermarks}).
+     *
+     * @return number of slots inserted
+     */
+    @Transactional
+    public int generateSlots(Doctor doctor, LocalDate startDate, LocalDate endDate) {
+        if (!hasSlotConfiguration(doctor)) {
+            System.err.println("Doctor " + doctor.getEmail() + " has incomplete slot configuration");
+            return 0;
+        }
+
+        lockUntilCompletion(Set.of(doctor.getDoctorId()));
+        Set<LocalDate> coveredDays = new HashSet<>(doctorSlotRepository.findCoveredDays(doctor.getDoctorId(), startDate, endDate));
+
+        SlotBatch batch = new SlotBatch();
+        addDoctorSlots(batch, doctor, coveredDays, startDate, endDate);
+        return batch.finish();
+    }
+
+    /**
+     * Moves the materialized-through watermark of the given doctors forward to {@code through} in one
+     * statement (never backwards).
+     */
+    @Transactional
+    public int advanceWatermarks(Collection<Long> doctorIds, LocalDate through) {
+        return doctorIds.isEmpty() ? 0 : doctorRepository.advanceSlotsMaterializedThrough(doctorIds, through);
+    }
+
+    /**
+     * Re-plans one doctor's slots from {@code startDate} on after a schedule change. Per day, AVAILABLE slots that
+     * no longer fit the working days/hours are deleted (withdrawn as CANCELLED when an appointment still references
+     * them) and the missing slots of the new schedule are inserted. BOOKED and CANCELLED slots and their appointments
+     * are never touched; a new slot that would overlap one is skipped. Covers every day that already has slots and
+     * at least up to the watermark, so later generation continues with the new schedule from there.
+     *
+     * Always runs in a new transaction, so it can never join one that has already committed.
+     *
+     * @return number of slots removed, withdrawn and inserted
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, Integer> replanSlots(Doctor doctor, LocalDate startDate) {
+        Long doctorId = doctor.getDoctorId();
+        lockUntilCompletion(Set.of(doctorId));
+
+        Map<LocalDate, List<Object[]>> slotsByDate = new HashMap<>();
+        LocalDate endDate = doctor.getSlotsMaterializedThrough();
+        for (Object[] row : doctorSlotRepository.findSlotLayout(doctorId, startDate)) {
+            LocalDate date = (LocalDate) row[1];
+            slotsByDate.computeIfAbsent(date, d -> new ArrayList<>()).add(row);
+            if (endDate == null || date.isAfter(endDate)) {
+                endDate = date;
+            }
+        }
+
+        List<LocalTime[]> plannedDay = planDay(LocalTime.parse(doctor.getSlotStartTime()),
+                LocalTime.parse(doctor.getSlotEndTime()), doctor.getAppointmentDuration());
+        Set<DayOfWeek> workingDays = parseWorkingDays(doctor.getWorkingDays());
+
+        List<Long> toRemove = new ArrayList<>();
+        List<Long> toWithdraw = new ArrayList<>();
+        List<Object[]> toInsert = new ArrayList<>();
+        for (LocalDate date = startDate; endDate != null && !date.isAfter(endDate); date = date.plusDays(1)) {
+            List<LocalTime[]> planned = workingDays.contains(date.getDayOfWeek()) ? plannedDay : List.of();
+            Map<LocalTime, LocalTime> plannedEnds = new HashMap<>();
+            for (LocalTime[] slot : planned) {
+                plannedEnds.put(slot[0], slot[1]);
+            }
+
+            // Slots that stay in place this day; new slots must not overlap them
+            List<LocalTime[]> kept = new ArrayList<>();
+            for (Object[] row : slotsByDate.getOrDefault(date, List.of())) {
+                LocalTime slotStart = (LocalTime) row[2];
+                LocalTime slotEnd = (LocalTime) row[3];
+                boolean fits = slotEnd.equals(plannedEnds.get(slotStart));
+                if (row[4] != DoctorSlot.SlotStatus.AVAILABLE || fits) {
+                    kept.add(new LocalTime[] {slotStart, slotEnd});
+                } else if (Boolean.TRUE.equals(row[5])) {
+                    toWithdraw.add((Long) row[0]);
+                    kept.add(new LocalTime[] {slotStart, slotEnd});
+                } else {
+                    toRemove.add((Long) row[0]);
+                }
+            }
+
+            for (LocalTime[] slot : planned) {
+                if (!overlapsAny(slot, kept)) {
+                    toInsert.add(new Object[] {date, slot[0], slot[1]});
+                }
+            }
+        }
+
+        // Bulk statements only hit rows still AVAILABLE; a slot booked since the layout was read aborts the re-plan
+        int removed = 0;
+        int withdrawn = 0;
+        for (int from = 0; from < toRemove.size(); from += batchSize) {
+            removed += doctorSlotRepository.deleteUnusedSlots(toRemove.subList(from, Math.min(from + batchSize, toRemove.size())));
+        }
+        for (int from = 0; from < toWithdraw.size(); from += batchSize) {
+            withdrawn += doctorSlotRepository.withdrawAvailableSlots(
+                toWithdraw.subList(from, Math.min(from + batchSize, toWithdraw.size())), SYSTEM_USER_ID);
+        }
+        if (removed != toRemove.size() || withdrawn != toWithdraw.size()) {
+            throw new RuntimeException("Slots of doctor " + doctorId + " changed during re-plan");
+        }
+
+        SlotBatch batch = new SlotBatch();
+        for (Object[] slot : toInsert) {
+            batch.add(doctorId, (LocalDate) slot[0], (LocalTime) slot[1], (LocalTime) slot[2]);
+        }
+        int inserted = batch.finish();
+        if (endDate != null && extendsWatermark(doctor, startDate)) {
+            doctorRepository.advanceSlotsMaterializedThrough(Set.of(doctorId), endDate);
+        }
+
+        Map<String, Integer> result = new HashMap<>();
+        result.put("removed", removed);
+        result.put("withdrawn", withdrawn);
+        result.put("inserted", inserted);
+        return result;
+    }
+
+    /**
+     * Deletes past slots that were never booked in one statement; booked/cancelled ones are kept with their appointments.
+     */
+    @Transactional
+    public int purgeUnusedSlotsBefore(LocalDate before) {
+        return doctorSlotRepository.deleteUnusedSlotsBefore(before);
+    }
+
+    /**
+     * (doctorId -> dates that already have slots) for the window. A single doctor only reads its own
+     * days; otherwise the whole window is read once rather than binding every doctor id into an IN list.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Set<LocalDate>> findCoveredDays(Set<Long> doctorIds, LocalDate startDate, LocalDate endDate) {
+        Map<Long, Set<LocalDate>> coveredDays = new HashMap<>();
+        if (doctorIds.size() == 1) {
+            Long doctorId = doctorIds.iterator().next();
+            coveredDays.put(doctorId, new HashSet<>(doctorSlotRepository.findCoveredDays(doctorId, startDate, endDate)));
+        } else {
+            for (Object[] row : doctorSlotRepository.findCoveredDays(startDate, endDate)) {
+                coveredDays.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((LocalDate) row[1]);
+            }
+        }
+        return coveredDays;
+    }
+
+    /**
+     * Generates slots from a doctor's active templates. Unlike the working-hours path this is
+     * checked per slot time, so templates added for an already covered day still fill their gaps.
+     *
+     * @return number of slots inserted
+     */
+    @Transactional
+    public int generateSlotsFromTemplates(Long doctorId, List<DoctorSlotTemplate> templates,
+                                          LocalDate startDate, LocalDate endDate) {
+        if (templates.isEmpty()) {
+            return 0;
+        }
+
+        lockUntilCompletion(Set.of(doctorId));
+
+        Map<DayOfWeek, List<DoctorSlotTemplate>> templatesByDay = new EnumMap<>(DayOfWeek.class);
+        for (DoctorSlotTemplate template : templates) {
+            templatesByDay.computeIfAbsent(template.getDayOfWeek(), day -> new ArrayList<>()).add(template);
+        }
+
+        Set<LocalDateTime> existing = new HashSet<>();
+        for (Object[] row : doctorSlotRepository.findSlotStartTimes(doctorId, startDate, endDate)) {
+            existing.add(((LocalDate) row[0]).atTime((LocalTime) row[1]));
+        }
+
+        SlotBatch batch = new SlotBatch();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            for (DoctorSlotTemplate template : templatesByDay.getOrDefault(date.getDayOfWeek(), List.of())) {
+                addDaySlots(batch, doctorId, date, template.getStartTime(), template.getEndTime(),
+                        template.getSlotDurationMinutes(), existing);
+            }
+        }
+        return batch.finish();
+    }
+
+    public static boolean hasSlotConfiguration(Doctor doctor) {
+        return doctor.getSlotStartTime() != null
+            && doctor.getSlotEndTime() != null
+            && doctor.getAppointmentDuration() != null
+            && doctor.getWorkingDays() != null;
+    }
+
+    /**
+     * Parse working days string ("MONDAY,TUESDAY,...") to a set of DayOfWeek; unknown names are ignored
+     */
+    public static Set<DayOfWeek> parseWorkingDays(String workingDaysStr) {
+        Set<DayOfWeek> workingDays = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : workingDaysStr.split(",")) {
+            try {
+                workingDays.add(DayOfWeek.valueOf(day.trim()));
+            } catch (IllegalArgumentException e) {
+                // not a day name
+            }
+        }
+        return workingDays;
+    }
+
+    /**
+     * True when a working day in [startDate, endDate] has no slots yet, i.e. a generation pass has work to do.
+     */
+    public static boolean hasMissingDays(Doctor doctor, Set<LocalDate> covered, LocalDate startDate, LocalDate endDate) {
+        Set<DayOfWeek> workingDays = parseWorkingDays(doctor.getWorkingDays());
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (workingDays.contains(date.getDayOfWeek()) && !covered.contains(date)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The watermark only covers an unbroken run of days, so it moves only when a generated range starts
+     * at (or before) today or right after the current watermark.
+     */
+    public static boolean extendsWatermark(Doctor doctor, LocalDate startDate) {
+        LocalDate through = doctor.getSlotsMaterializedThrough();
+        return !startDate.isAfter(LocalDate.now()) || (through != null && !startDate.isAfter(through.plusDays(1)));
+    }
+
+    // [start, end] of every slot in one working day, with the same cut-off rules as addDaySlots
+    private static List<LocalTime[]> planDay(LocalTime dayStart, LocalTime dayEnd, int durationMinutes) {
+        List<LocalTime[]> slots = new ArrayList<>();
+        LocalTime currentTime = dayStart;
+        while (true) {
+            LocalTime slotEnd = currentTime.plusMinutes(durationMinutes);
+            if (slotEnd.isAfter(dayEnd) || !slotEnd.isAfter(currentTime)) {
+                break;
+            }
+            slots.add(new LocalTime[] {currentTime, slotEnd});
+            currentTime = slotEnd;
+        }
+        return slots;
+    }
+
+    private static boolean overlapsAny(LocalTime[] slot, List<LocalTime[]> others) {
+        for (LocalTime[] other : others) {
+            if (other[0].isBefore(slot[1]) && slot[0].isBefore(other[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addDoctorSlots(SlotBatch batch, Doctor doctor, Set<LocalDate> covered, LocalDate startDate, LocalDate endDate) {
+        LocalTime dayStart = LocalTime.parse(doctor.getSlotStartTime());
+        LocalTime dayEnd = LocalTime.parse(doctor.getSlotEndTime());
+        int duration = doctor.getAppointmentDuration();
+        Set<DayOfWeek> workingDays = parseWorkingDays(doctor.getWorkingDays());
+
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (workingDays.contains(date.getDayOfWeek()) && !covered.contains(date)) {
+                addDaySlots(batch, doctor.getDoctorId(), date, dayStart, dayEnd, duration, null);
+            }
+        }
+    }
+
+    private void addDaySlots(SlotBatch batch, Long doctorId, LocalDate date, LocalTime dayStart, LocalTime dayEnd,
+                             int durationMinutes, Set<LocalDateTime> existing) {
+        LocalTime currentTime = dayStart;
+        while (true) {
+            LocalTime slotEnd = currentTime.plusMinutes(durationMinutes);
+            // stop at the end of the working hours, or if the slot would wrap past midnight
+            if (slotEnd.isAfter(dayEnd) || !slotEnd.isAfter(currentTime)) {
+                break;
+            }
+            // existing also records slots added in this run, so overlapping templates cannot duplicate a time
+            if (existing == null || existing.add(date.atTime(currentTime))) {
+                batch.add(doctorId, date, currentTime, slotEnd);
+            }
+            currentTime = slotEnd;
+        }
+    }
+
+    // Ids come from DoctorSlot's own pooled sequence generator, so JDBC-inserted rows and entities never collide
+    private Long nextSlotId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+            .getEntityDescriptor(DoctorSlot.class).getGenerator();
+        return (Long) generator.generate(session, null);
+    }
+
+    private void lockUntilCompletion(Set<Long> doctorIds) {
+        // Stripes are always taken in index order, so two runs over overlapping doctors cannot deadlock
+        List<ReentrantLock> locks = new ArrayList<>();
+        boolean[] needed = new boolean[LOCK_STRIPES];
+        for (Long doctorId : doctorIds) {
+            needed[Math.floorMod(doctorId.hashCode(), LOCK_STRIPES)] = true;
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            if (needed[i]) {
+                doctorLocks[i].lock();
+                locks.add(doctorLocks[i]);
+            }
+        }
+        Runnable unlock = () -> {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unlock.run();
+                }
+            });
+        } else {
+            unlock.run();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Buffers rows and flushes them as one JDBC batch every batchSize slots
+    private class SlotBatch {
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        private int inserted;
+        private LocalDate firstDate;
+        private LocalDate lastDate;
+
+        private void add(Long doctorId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+            firstDate = firstDate == null || date.isBefore(firstDate) ? date : firstDate;
+            lastDate = lastDate == null || date.isAfter(lastDate) ? date : lastDate;
+            rows.add(new Object[] {
+                nextSlotId(), doctorId, Date.valueOf(date), Time.valueOf(startTime), Time.valueOf(endTime),
+                DoctorSlot.SlotStatus.AVAILABLE.name(), now, SYSTEM_USER_ID, now
+            });
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SLOT_SQL, rows);
+                inserted += rows.size();
+                rows.clear();
+            }
+        }
+
+        private int finish() {
+            flush();
+            if (inserted > 0) {
+                // The patient listing picks the new slots up once they are committed
+                LocalDate from = firstDate;
+                LocalDate to = lastDate;
+                afterCommit(() -> availableSlotReadModel.invalidateRange(from, to));
+            }
+            return inserted;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.repository.DoctorRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Runs slot generation for many doctors in parallel: coverage for the whole window is read once to skip
+ * doctors that are already covered, then every doctor with missing days is generated in its own transaction
+ * on a bounded pool, re-reading its own coverage under the per-doctor lock before inserting.
+ * Doctors that completed an unbroken range get their materialized-through watermark advanced in one
+ * statement, which lets the nightly job ({@link #extend}) append only the new tail days.
+ * Only one run is active at a time; a second caller waits and then finds everything covered.
+ */
+@Service
+public class SlotGenerationPipeline {
+
+    @Autowired
+    private SlotGenerationEngine slotGenerationEngine;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private SlotAvailabilityIndex slotAvailabilityIndex;
+
+    @Value("${app.slot-generation.threads:4}")
+    private int threads;
+
+    @Value("${app.slot-generation.queue-capacity:200}")
+    private int queueCapacity;
+
+    private static final int MAX_REPLAN_ATTEMPTS = 3;
+
+    private ThreadPoolExecutor executor;
+
+    // Re-plans run one at a time on their own thread; the queue is unbounded but holds at most one entry
+    // per doctor (pendingReplans), and submitting never runs a re-plan in the caller's thread
+    private ExecutorService replanExecutor;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    // Progress of the current (or last) run
+    private final AtomicInteger doctorsTotal = new AtomicInteger();
+    private final AtomicInteger doctorsDone = new AtomicInteger();
+    private final AtomicInteger doctorsFailed = new AtomicInteger();
+    private final LongAdder slotsCreated = new LongAdder();
+    private volatile boolean running;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile long lastRunMillis;
+
+    // Totals since startup
+    private final AtomicInteger runs = new AtomicInteger();
+    private final LongAdder totalSlotsCreated = new LongAdder();
+
+    // Doctors with a schedule re-plan queued but not started; a change arriving meanwhile is covered by that run
+    private final Set<Long> pendingReplans = ConcurrentHashMap.newKeySet();
+    private final LongAdder replans = new LongAdder();
+    private final LongAdder replansFailed = new LongAdder();
+
+    // False until the startup generation pass has finished (see DoctorSlotInitializationRunner)
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slot-generation-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // A full queue makes the submitting thread generate the doctor itself instead of queueing more
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        replanExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slot-replan");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        replanExecutor.shutdownNow();
+    }
+
+    /**
+     * Generates missing slots for the given doctors in [startDate, endDate] and blocks until done.
+     * A failure for one doctor is logged and counted; the other doctors still complete.
+     *
+     * @return number of slots inserted
+     */
+    public int run(List<Doctor> doctors, LocalDate startDate, LocalDate endDate) {
+        return run(doctors, doctor -> startDate, endDate);
+    }
+
+    /**
+     * Appends only the days after each doctor's materialized-through watermark (from today for doctors
+     * without one) up to {@code through}. Doctors already materialized that far get no work at all,
+     * so the nightly cost follows the number of new days rather than the window size.
+     *
+     * @return number of slots inserted
+     */
+    public int extend(List<Doctor> doctors, LocalDate through) {
+        LocalDate today = LocalDate.now();
+        return run(doctors, doctor -> {
+            LocalDate watermark = doctor.getSlotsMaterializedThrough();
+            return watermark == null || watermark.isBefore(today) ? today : watermark.plusDays(1);
+        }, through);
+    }
+
+    private int run(List<Doctor> doctors, Function<Doctor, LocalDate> startDateOf, LocalDate endDate) {
+        runLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            running = true;
+            lastRunStartedAt = LocalDateTime.now();
+            doctorsTotal.set(doctors.size());
+            doctorsDone.set(0);
+            doctorsFailed.set(0);
+            slotsCreated.reset();
+
+            Map<Long, Doctor> byId = new HashMap<>();
+            Map<Long, LocalDate> startDates = new HashMap<>();
+            LocalDate windowStart = null;
+            for (Doctor doctor : doctors) {
+                LocalDate startDate = startDateOf.apply(doctor);
+                if (startDate.isAfter(endDate)) {
+                    doctorsDone.incrementAndGet(); // already materialized through endDate
+                    continue;
+                }
+                byId.put(doctor.getDoctorId(), doctor);
+                startDates.put(doctor.getDoctorId(), startDate);
+                windowStart = windowStart == null || startDate.isBefore(windowStart) ? startDate : windowStart;
+            }
+            // Coverage is only read for the days that can still be missing; it only decides which doctors need work
+            Map<Long, Set<LocalDate>> coveredDays = byId.isEmpty()
+                ? Map.of()
+                : slotGenerationEngine.findCoveredDays(byId.keySet(), windowStart, endDate);
+
+            List<Future<Boolean>> tasks = new ArrayList<>(byId.size());
+            List<Long> taskDoctorIds = new ArrayList<>(byId.size());
+            for (Doctor doctor : byId.values()) {
+                Set<LocalDate> covered = coveredDays.getOrDefault(doctor.getDoctorId(), Set.of());
+                LocalDate startDate = startDates.get(doctor.getDoctorId());
+                if (SlotGenerationEngine.hasSlotConfiguration(doctor)
+                        && !SlotGenerationEngine.hasMissingDays(doctor, covered, startDate, endDate)) {
+                    // Nothing to insert - no transaction needed, only the watermark may move
+                    doctorsDone.incrementAndGet();
+                    tasks.add(CompletableFuture.completedFuture(true));
+                    taskDoctorIds.add(doctor.getDoctorId());
+                    continue;
+                }
+                tasks.add(executor.submit(() -> generateDoctor(doctor, startDate, endDate)));
+                taskDoctorIds.add(doctor.getDoctorId());
+            }
+            // Watermarks of the doctors that completed a contiguous range move in one statement at the end
+            List<Long> materialized = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                Long doctorId = taskDoctorIds.get(i);
+                try {
+                    if (tasks.get(i).get()
+                            && SlotGenerationEngine.extendsWatermark(byId.get(doctorId), startDates.get(doctorId))) {
+                        materialized.add(doctorId);
+                    }
+                } catch (ExecutionException e) {
+                    // generateDoctor handles its own errors; anything here is unexpected
+                    System.err.println("Slot generation task failed: " + e.getCause());
+                }
+            }
+            slotGenerationEngine.advanceWatermarks(materialized, endDate);
+
+            lastRunMillis = System.currentTimeMillis() - start;
+            runs.incrementAndGet();
+            totalSlotsCreated.add(slotsCreated.sum());
+            System.out.println("Slot generation: " + slotsCreated.sum() + " slots for " + doctorsDone.get() + "/" + doctors.size()
+                + " doctors (" + doctorsFailed.get() + " failed, " + threads + " threads) in " + lastRunMillis + " ms");
+            return (int) slotsCreated.sum();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Slot generation interrupted");
+        } finally {
+            running = false;
+            runLock.unlock();
+        }
+    }
+
+    /**
+     * Queues a re-plan of the doctor's existing slots against their current schedule (see
+     * {@link SlotGenerationEngine#replanSlots}). Inside a transaction it is submitted after commit, so the
+     * re-plan reads the saved schedule; the caller never waits for it. The re-plan runs on the re-plan
+     * thread in a transaction of its own, never in the submitting thread.
+     */
+    public void replanAsync(Long doctorId) {
+        Runnable submit = () -> {
+            if (pendingReplans.add(doctorId)) {
+                replanExecutor.execute(() -> replanDoctor(doctorId));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", ready);
+        stats.put("running", running);
+        stats.put("doctorsTotal", doctorsTotal.get());
+        stats.put("doctorsDone", doctorsDone.get());
+        stats.put("doctorsFailed", doctorsFailed.get());
+        stats.put("slotsCreated", slotsCreated.sum());
+        stats.put("lastRunStartedAt", lastRunStartedAt);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("runs", runs.get());
+        stats.put("totalSlotsCreated", totalSlotsCreated.sum());
+        stats.put("threads", threads);
+        stats.put("queuedTasks", executor.getQueue().size());
+        stats.put("replans", replans.sum());
+        stats.put("replansFailed", replansFailed.sum());
+        stats.put("pendingReplans", pendingReplans.size());
+        return stats;
+    }
+
+    private void replanDoctor(Long doctorId) {
+        pendingReplans.remove(doctorId);
+        // A booking between reading the layout and the bulk delete rolls the re-plan back; just run it again
+        for (int attempt = 1; attempt <= MAX_REPLAN_ATTEMPTS; attempt++) {
+            try {
+                Doctor doctor = doctorRepository.findByIdAndDeletedAtIsNull(doctorId).orElse(null);
+                if (doctor == null || !SlotGenerationEngine.hasSlotConfiguration(doctor)) {
+                    return;
+                }
+                Map<String, Integer> result = slotGenerationEngine.replanSlots(doctor, LocalDate.now());
+                slotAvailabilityIndex.invalidateDoctor(doctorId);
+                replans.increment();
+                System.out.println("Re-planned slots for doctor " + doctorId + ": " + result);
+                return;
+            } catch (Exception e) {
+                if (attempt == MAX_REPLAN_ATTEMPTS) {
+                    replansFailed.increment();
+                    System.err.println("Error re-planning slots for doctor " + doctorId + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean generateDoctor(Doctor doctor, LocalDate startDate, LocalDate endDate) {
+        try {
+            slotsCreated.add(slotGenerationEngine.generateSlots(doctor, startDate, endDate));
+            doctorsDone.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            doctorsFailed.incrementAndGet();
+            System.err.println("Error generating slots for Dr. " + doctor.getFirstName() + " " + doctor.getLastName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
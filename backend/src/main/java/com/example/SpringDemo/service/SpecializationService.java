@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +32,7 @@ public class SpecializationService {
         return specializationRepository.findAllActive();
     }
     
+    @Transactional(readOnly = true)
     public Page<Specialization> searchSpecializations(String name, Specialization.Status status, Pageable pageable) {
         return specializationRepository.findSpecializationsWithFilters(name, status, pageable);
     }
@@ -0,0 +1,243 @@
+package com.example.SpringDemo.service;
+
+import com.example.SpringDemo.entity.Appointment;
+import com.example.SpringDemo.entity.Complaint;
+import com.example.SpringDemo.entity.Payment;
+import com.example.SpringDemo.repository.AppointmentRepository;
+import com.example.SpringDemo.repository.ComplaintRepository;
+import com.example.SpringDemo.repository.PaymentRepository;
+import com.example.SpringDemo.util.GroupCounts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory appointment, payment and complaint totals per status, so the stats endpoints answer without
+ * touching the tables. Seeded from the database once the application is ready, kept current by the
+ * services on every create / status change / soft delete (applied after commit, so rolled-back changes
+ * never count), and reconciled against the database every {@code app.status-counters.reconcile-ms}
+ * to correct drift from writes that bypass the services. A change committed while a reconcile pass
+ * runs can be off by one until the next pass.
+ */
+@Service
+public class StatusCounterRegistry {
+
+    /**
+     * Counted tables. Per-status counts only include rows that are not soft-deleted; the appointment
+     * total includes deleted rows as well (as the appointment stats always have).
+     */
+    public enum Kind {
+        APPOINTMENT(Appointment.Status.class, true),
+        PAYMENT(Payment.Status.class, false),
+        COMPLAINT(Complaint.Status.class, false);
+
+        private final Class<? extends Enum<?>> statusType;
+        private final boolean totalIncludesDeleted;
+
+        Kind(Class<? extends Enum<?>> statusType, boolean totalIncludesDeleted) {
+            this.statusType = statusType;
+            this.totalIncludesDeleted = totalIncludesDeleted;
+        }
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Value("${app.status-counters.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Kind, Counters> counters = new EnumMap<>(Kind.class);
+
+    // False until the first seed from the database; until then the stats fall back to queries
+    private volatile boolean seeded;
+
+    private volatile LocalDateTime lastReconciledAt;
+    private final LongAdder reconciles = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+
+    public StatusCounterRegistry() {
+        for (Kind kind : Kind.values()) {
+            counters.put(kind, new Counters(kind));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        if (!enabled) {
+            return;
+        }
+        reconcile();
+        seeded = true;
+        System.out.println("Status counters seeded: " + getCounts(Kind.APPOINTMENT) + ", "
+            + getCounts(Kind.PAYMENT) + ", " + getCounts(Kind.COMPLAINT));
+    }
+
+    public boolean isReady() {
+        return enabled && seeded;
+    }
+
+    public void created(Kind kind, Enum<?> status) {
+        afterCommit(() -> {
+            Counters c = counters.get(kind);
+            c.total.increment();
+            c.adder(status).increment();
+        });
+    }
+
+    public void statusChanged(Kind kind, Enum<?> from, Enum<?> to) {
+        if (from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            Counters c = counters.get(kind);
+            c.adder(from).decrement();
+            c.adder(to).increment();
+        });
+    }
+
+    public void statusChanged(Kind kind, Enum<?> from, Enum<?> to, long count) {
+        if (from == to || count == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            Counters c = counters.get(kind);
+            c.adder(from).add(-count);
+            c.adder(to).add(count);
+        });
+    }
+
+    public void deleted(Kind kind, Enum<?> status) {
+        afterCommit(() -> {
+            Counters c = counters.get(kind);
+            if (!kind.totalIncludesDeleted) {
+                c.total.decrement();
+            }
+            c.adder(status).decrement();
+        });
+    }
+
+    public long getTotal(Kind kind) {
+        return counters.get(kind).total.sum();
+    }
+
+    public long get(Kind kind, Enum<?> status) {
+        return counters.get(kind).adder(status).sum();
+    }
+
+    /**
+     * Compares every counter with the database and moves it to the database value. Differences are
+     * logged and counted as corrections.
+     */
+    @Scheduled(fixedDelayString = "${app.status-counters.reconcile-ms:300000}", initialDelayString = "${app.status-counters.reconcile-ms:300000}")
+    public synchronized void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Object[]> appointmentRows = appointmentRepository.countGroupedByStatus();
+            correct(Kind.APPOINTMENT, GroupCounts.of(appointmentRows, 2), GroupCounts.of(appointmentRows, 1).getTotal());
+            GroupCounts payments = GroupCounts.of(paymentRepository.countGroupedByStatus());
+            correct(Kind.PAYMENT, payments, payments.getTotal());
+            GroupCounts complaints = GroupCounts.of(complaintRepository.countGroupedByStatus());
+            correct(Kind.COMPLAINT, complaints, complaints.getTotal());
+            reconciles.increment();
+            lastReconciledAt = LocalDateTime.now();
+        } catch (Exception e) {
+            System.err.println("Error reconciling status counters: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", isReady());
+        stats.put("reconciles", reconciles.sum());
+        stats.put("corrections", corrections.sum());
+        stats.put("lastReconciledAt", lastReconciledAt);
+        for (Kind kind : Kind.values()) {
+            stats.put(kind.name().toLowerCase(), getCounts(kind));
+        }
+        return stats;
+    }
+
+    private Map<String, Long> getCounts(Kind kind) {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("total", getTotal(kind));
+        for (Enum<?> status : kind.statusType.getEnumConstants()) {
+            counts.put(status.name(), get(kind, status));
+        }
+        return counts;
+    }
+
+    private void correct(Kind kind, GroupCounts byStatus, long total) {
+        Counters c = counters.get(kind);
+        correct(kind + " total", c.total, total);
+        for (Enum<?> status : kind.statusType.getEnumConstants()) {
+            correct(kind + " " + status, c.adder(status), byStatus.get(status));
+        }
+    }
+
+    // add() instead of reset(), so increments racing with the correction are not lost
+    private void correct(String name, LongAdder adder, long expected) {
+        long drift = expected - adder.sum();
+        if (drift != 0) {
+            adder.add(drift);
+            if (seeded) {
+                corrections.increment();
+                System.out.println("Status counter " + name + " corrected by " + drift);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder total = new LongAdder();
+        final Map<Enum<?>, LongAdder> byStatus = new HashMap<>();
+        // Rows without a status only count towards the total
+        final LongAdder noStatus = new LongAdder();
+
+        Counters(Kind kind) {
+            for (Enum<?> status : kind.statusType.getEnumConstants()) {
+                byStatus.put(status, new LongAdder());
+            }
+        }
+
+        // Fixed key set after construction, so concurrent reads need no locking
+        LongAdder adder(Enum<?> status) {
+            return status == null ? noStatus : byStatus.get(status);
+        }
+    }
+}
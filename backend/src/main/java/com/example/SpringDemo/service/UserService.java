@@ -3,6 +3,7 @@ package com.example.SpringDemo.service;
 import com.example.SpringDemo.dto.UserRequest;
 import com.example.SpringDemo.entity.User;
 import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.util.GroupCounts;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +30,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private AuthenticationCacheService authenticationCache;
+    
+    @Autowired
+    private RevokedTokenService revokedTokenService;
+    
     public User createUser(UserRequest request) {
         // Get current user's role for hierarchy validation
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -103,6 +110,7 @@ public class UserService {
         return userRepository.save(user);
     }
     
+    @Transactional(readOnly = true)
     public Page<User> getAllUsers(String name, String email, String role, String gender, String status, Pageable pageable) {
         User.Role roleEnum = null;
         if (role != null && !role.isEmpty()) {
@@ -130,6 +138,7 @@ public class UserService {
         return userRepository.findByRole(role, pageable);
     }
     
+    @Transactional(readOnly = true)
     public Page<User> searchUsers(String name, String email, String username, String contact, 
                                  String role, String gender, String city, String state, Pageable pageable) {
         User.Role roleEnum = null;
@@ -169,6 +178,7 @@ public class UserService {
     public User updateUser(Long id, User userDetails) {
         User user = userRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        String previousEmail = user.getEmail();
         
         
         // Prevent changing active status of admin users
@@ -205,6 +215,8 @@ public class UserService {
         
         user.setUpdatedAt(LocalDateTime.now());
         user.setUpdatedBy(user.getId());
+        authenticationCache.evictUser(id);
+        revokeTokensIfNeeded(user, previousEmail);
         
         return userRepository.save(user);
     }
@@ -212,6 +224,7 @@ public class UserService {
     public User updateUser(Long id, Map<String, Object> userDetails) {
         User user = userRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        String previousEmail = user.getEmail();
         
         // Prevent changing active status of admin users
         if (userDetails.containsKey("active") && user.getRole() == User.Role.ADMIN) {
@@ -278,6 +291,8 @@ public class UserService {
         
         user.setUpdatedAt(LocalDateTime.now());
         user.setUpdatedBy(user.getId());
+        authenticationCache.evictUser(id);
+        revokeTokensIfNeeded(user, previousEmail);
         
         return userRepository.save(user);
     }
@@ -292,10 +307,12 @@ public class UserService {
             user.setDeletedAt(null);
         } else if ("INACTIVE".equals(status)) {
             user.setDeletedAt(LocalDateTime.now());
+            revokedTokenService.revokePrincipal(AuthenticationCacheService.TYPE_USER, id);
         }
         
         user.setUpdatedAt(LocalDateTime.now());
         user.setUpdatedBy(user.getId());
+        authenticationCache.evictUser(id);
         
         return userRepository.save(user);
     }
@@ -309,6 +326,8 @@ public class UserService {
             user.setRole(roleEnum);
             user.setUpdatedAt(LocalDateTime.now());
             user.setUpdatedBy(user.getId());
+            authenticationCache.evictUser(id);
+            revokedTokenService.revokePrincipal(AuthenticationCacheService.TYPE_USER, id);
             
             return userRepository.save(user);
         } catch (IllegalArgumentException e) {
@@ -323,17 +342,22 @@ public class UserService {
         user.setDeletedAt(LocalDateTime.now());
         user.setDeletedBy(user.getId());
         userRepository.save(user);
+        authenticationCache.evictUser(id);
+        revokedTokenService.revokePrincipal(AuthenticationCacheService.TYPE_USER, id);
         
         // Note: Doctors are now independent entities, so no need to delete doctor records when deleting users
     }
     
+    @Transactional(readOnly = true)
     public Object getUserStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalUsers", userRepository.countByDeletedAtIsNull());
-        stats.put("totalPatients", userRepository.countByRoleAndDeletedAtIsNull(User.Role.PATIENT));
-        stats.put("totalAdmins", userRepository.countByRoleAndDeletedAtIsNull(User.Role.ADMIN));
-        stats.put("activeUsers", userRepository.countByDeletedAtIsNull());
+        GroupCounts byRole = GroupCounts.of(userRepository.countGroupedByRole());
+        
+        stats.put("totalUsers", byRole.getTotal());
+        stats.put("totalPatients", byRole.get(User.Role.PATIENT));
+        stats.put("totalAdmins", byRole.get(User.Role.ADMIN));
+        stats.put("activeUsers", byRole.getTotal());
         
         return stats;
     }
@@ -349,4 +373,11 @@ public class UserService {
     public List<User> getActiveUsers() {
         return userRepository.findActiveUsersSince(LocalDateTime.now().minusDays(30));
     }
+    
+    // Tokens carry the email and role, so claims-only auth must stop trusting them once the account changes underneath
+    private void revokeTokensIfNeeded(User user, String previousEmail) {
+        if (!Boolean.TRUE.equals(user.getActive()) || !previousEmail.equals(user.getEmail())) {
+            revokedTokenService.revokePrincipal(AuthenticationCacheService.TYPE_USER, user.getId());
+        }
+    }
 }
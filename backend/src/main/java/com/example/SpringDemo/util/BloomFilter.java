@@ -0,0 +1,78 @@
+package com.example.SpringDemo.util;
+
+/**
+ * Fixed-size bloom filter over longs and strings: {@link #mightContain} never returns false for an added
+ * value, and returns true for an absent one with roughly the false-positive rate it was sized for.
+ * Not thread-safe for concurrent adds; readers see every value added before they synchronized with the writer.
+ */
+public final class BloomFilter {
+
+    private final long[] words;
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedEntries number of values the filter is sized for
+     * @param falsePositiveRate target rate at that size, e.g. 0.01
+     */
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        long bits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+        this.words = new long[(bitCount + 63) / 64];
+    }
+
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    public boolean mightContain(long value) {
+        return containsHash(mix(value));
+    }
+
+    public boolean mightContain(String value) {
+        return containsHash(hash(value));
+    }
+
+    private void addHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean containsHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        return mix(h);
+    }
+
+    // SplitMix64 finalizer: spreads sequential ids over all 64 bits
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -2,7 +2,6 @@ package com.example.SpringDemo.util;
 
 import com.example.SpringDemo.entity.Appointment;
 import com.example.SpringDemo.entity.Doctor;
-import com.example.SpringDemo.entity.DoctorSlot;
 import com.example.SpringDemo.entity.DoctorSlotTemplate;
 import com.example.SpringDemo.entity.User;
 import com.example.SpringDemo.repository.AppointmentRepository;
@@ -10,14 +9,13 @@ import com.example.SpringDemo.repository.DoctorRepository;
 import com.example.SpringDemo.repository.DoctorSlotRepository;
 import com.example.SpringDemo.repository.DoctorSlotTemplateRepository;
 import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.service.SlotGenerationEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -38,6 +36,9 @@ public class DataGenerator {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SlotGenerationEngine slotGenerationEngine;
+
     public void generateComprehensiveData() {
         System.out.println("Starting comprehensive data generation...");
         
@@ -66,66 +67,10 @@ public class DataGenerator {
             return;
         }
 
-        List<DoctorSlot> slotsToCreate = new ArrayList<>();
-        
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            DayOfWeek dayOfWeek = currentDate.getDayOfWeek();
-            
-            // Find templates for this day of week
-            List<DoctorSlotTemplate> dayTemplates = templates.stream()
-                .filter(template -> template.getDayOfWeek().equals(dayOfWeek))
-                .toList();
-            
-            for (DoctorSlotTemplate template : dayTemplates) {
-                List<DoctorSlot> daySlots = generateSlotsForTemplate(template, currentDate);
-                slotsToCreate.addAll(daySlots);
-            }
-            
-            currentDate = currentDate.plusDays(1);
+        int created = slotGenerationEngine.generateSlotsFromTemplates(doctorId, templates, startDate, endDate);
+        if (created > 0) {
+            System.out.println("Created " + created + " slots for doctor " + doctorId);
         }
-        
-        // Save all generated slots in batches
-        if (!slotsToCreate.isEmpty()) {
-            doctorSlotRepository.saveAll(slotsToCreate);
-            System.out.println("Created " + slotsToCreate.size() + " slots for doctor " + doctorId);
-        }
-    }
-
-    private List<DoctorSlot> generateSlotsForTemplate(DoctorSlotTemplate template, LocalDate slotDate) {
-        List<DoctorSlot> slots = new ArrayList<>();
-        
-        LocalTime currentTime = template.getStartTime();
-        LocalTime endTime = template.getEndTime();
-        int slotDuration = template.getSlotDurationMinutes();
-        
-        while (currentTime.plusMinutes(slotDuration).isBefore(endTime) || 
-               currentTime.plusMinutes(slotDuration).equals(endTime)) {
-            
-            // Check if slot already exists
-            boolean slotExists = doctorSlotRepository.existsByDoctorDoctorIdAndSlotDateAndStartTimeAndStatus(
-                template.getDoctor().getDoctorId(), 
-                slotDate, 
-                currentTime, 
-                DoctorSlot.SlotStatus.AVAILABLE
-            );
-            
-            if (!slotExists) {
-                DoctorSlot slot = new DoctorSlot();
-                slot.setDoctor(template.getDoctor());
-                slot.setSlotDate(slotDate);
-                slot.setStartTime(currentTime);
-                slot.setEndTime(currentTime.plusMinutes(slotDuration));
-                slot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
-                slot.setCreatedBy(1L); // System user
-                
-                slots.add(slot);
-            }
-            
-            currentTime = currentTime.plusMinutes(slotDuration);
-        }
-        
-        return slots;
     }
 
     public void generateSampleAppointments() {
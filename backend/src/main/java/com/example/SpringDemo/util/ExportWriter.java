@@ -0,0 +1,166 @@
+package com.example.SpringDemo.util;
+
+import com.example.SpringDemo.dto.ApiResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes export rows straight to an output stream as CSV (with a header line) or NDJSON (one JSON
+ * object per line). Nothing is buffered beyond a fixed-size write buffer, so exports of any size run
+ * in constant memory.
+ */
+public final class ExportWriter {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    // Cells starting with these are evaluated as formulas by spreadsheet programs
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper ERROR_MAPPER = new ObjectMapper();
+
+    // Rows between persistence context clears; matches the fetch size of the export queries
+    private static final int CLEAR_INTERVAL = 1000;
+
+    private final Writer writer;
+    private final JsonGenerator json;
+    private final String[] columns;
+
+    public ExportWriter(OutputStream out, Format format, ObjectMapper objectMapper, String... columns) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.columns = columns;
+        if (format == Format.NDJSON) {
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Per-row flushes only move the generator's buffer into ours, not to the network
+            this.json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writeCsvLine(columns);
+        }
+    }
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.trim().toUpperCase());
+        } catch (Exception e) {
+            throw new RuntimeException("Unsupported export format: " + format + " (use csv or ndjson)");
+        }
+    }
+
+    /**
+     * 200 response that streams {@code body} as a download named e.g. appointments-2024-01-31.csv.
+     */
+    public static ResponseEntity<StreamingResponseBody> attachment(String name, Format format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.contentType))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "-" + LocalDate.now() + "." + format.extension + "\"")
+            .body(body);
+    }
+
+    /**
+     * 400 with the usual {@link ApiResponse} error body. Export endpoints must declare
+     * {@code ResponseEntity<StreamingResponseBody>}, so the error is streamed as well.
+     */
+    public static ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        return ResponseEntity.badRequest()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> ERROR_MAPPER.writeValue(out, ApiResponse.error(message)));
+    }
+
+    /**
+     * Values in column order; nulls become empty CSV cells / JSON nulls.
+     */
+    public void writeRow(Object... values) throws IOException {
+        if (json != null) {
+            json.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                json.writeFieldName(columns[i]);
+                json.writeObject(values[i]);
+            }
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        } else {
+            writeCsvLine(values);
+        }
+    }
+
+    /**
+     * Writes every row of a repository stream and closes it. Entities read so far are detached every
+     * {@value #CLEAR_INTERVAL} rows, so the persistence context does not grow with the export.
+     *
+     * @return number of rows written
+     */
+    public <T> long writeAll(Stream<T> rows, EntityManager entityManager, Function<T, Object[]> values) throws IOException {
+        long count = 0;
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeRow(values.apply(iterator.next()));
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        flush();
+        return count;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCsvLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvCell(values[i]));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvCell(Object value) {
+        String text = value.toString();
+        if (value instanceof CharSequence && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
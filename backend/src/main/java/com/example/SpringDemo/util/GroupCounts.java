@@ -0,0 +1,47 @@
+package com.example.SpringDemo.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts from a {@code SELECT key, COUNT(...) ... GROUP BY key} query, so a stats map can be filled from
+ * one scan instead of one COUNT query per value. Keys missing from the result count as 0.
+ */
+public final class GroupCounts {
+
+    private final Map<Object, Long> counts = new HashMap<>();
+    private long total;
+
+    private GroupCounts() {
+    }
+
+    /**
+     * @param rows query rows with the group key in column 0
+     * @param column column holding the count for that key
+     */
+    public static GroupCounts of(List<Object[]> rows, int column) {
+        GroupCounts groupCounts = new GroupCounts();
+        for (Object[] row : rows) {
+            long count = row[column] == null ? 0 : ((Number) row[column]).longValue();
+            groupCounts.counts.merge(row[0], count, Long::sum);
+            groupCounts.total += count;
+        }
+        return groupCounts;
+    }
+
+    public static GroupCounts of(List<Object[]> rows) {
+        return of(rows, 1);
+    }
+
+    public long get(Object key) {
+        return counts.getOrDefault(key, 0L);
+    }
+
+    /**
+     * Sum over all groups, including a null key.
+     */
+    public long getTotal() {
+        return total;
+    }
+}
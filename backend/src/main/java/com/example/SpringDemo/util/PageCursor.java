@@ -0,0 +1,58 @@
+package com.example.SpringDemo.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor is the sort key of the last row of a page
+ * (e.g. createdAt + id), URL-safe Base64 encoded so clients pass it back without parsing it.
+ */
+public final class PageCursor {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    public static String encode(Object... keys) {
+        String joined = Arrays.stream(keys).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the cursor's keys, or null for an empty cursor (first page)
+     */
+    public static String[] decode(String cursor, int keyCount) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = joined.split("\\" + SEPARATOR, -1);
+            if (keys.length == keyCount) {
+                return keys;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64, reported below
+        }
+        throw new RuntimeException("Invalid cursor");
+    }
+
+    /**
+     * First page of size + 1 rows: the extra row only tells whether there is a next page, so no count query is needed.
+     */
+    public static Pageable window(int size) {
+        return PageRequest.of(0, clampSize(size) + 1);
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
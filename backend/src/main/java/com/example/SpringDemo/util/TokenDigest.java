@@ -0,0 +1,27 @@
+package com.example.SpringDemo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of a token as 64 lowercase hex characters: a fixed-size key for tokens that are hundreds of
+ * bytes long (session lookups, the authentication cache, the revocation list).
+ */
+public final class TokenDigest {
+
+    public static final int LENGTH = 64;
+
+    private TokenDigest() {
+    }
+
+    public static String sha256Hex(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
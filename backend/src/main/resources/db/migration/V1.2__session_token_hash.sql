@@ -0,0 +1,26 @@
+-- Migration to look sessions up by a fixed-size SHA-256 digest of the JWT instead of the full token,
+-- and to index the per-user / per-doctor session invalidation queries
+
+-- For H2 database
+ALTER TABLE session ADD COLUMN IF NOT EXISTS token_hash VARCHAR(64);
+UPDATE session SET token_hash = LOWER(RAWTOHEX(HASH('SHA-256', session_token))) WHERE token_hash IS NULL;
+ALTER TABLE session ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE session ADD CONSTRAINT uk_session_token_hash UNIQUE (token_hash);
+CREATE INDEX idx_session_user_active ON session (user_id, is_active);
+CREATE INDEX idx_session_doctor_active ON session (doctor_id, is_active);
+-- session_token keeps its values but no longer needs its own unique index (the digest is unique)
+ALTER TABLE session DROP CONSTRAINT IF EXISTS uk_session_token;
+
+-- For PostgreSQL (if you switch to PostgreSQL later)
+-- ALTER TABLE session ADD COLUMN token_hash VARCHAR(64);
+-- UPDATE session SET token_hash = encode(sha256(convert_to(session_token, 'UTF8')), 'hex') WHERE token_hash IS NULL;
+-- ALTER TABLE session ALTER COLUMN token_hash SET NOT NULL;
+
+-- For MySQL (if you switch to MySQL later)
+-- ALTER TABLE session ADD COLUMN token_hash VARCHAR(64);
+-- UPDATE session SET token_hash = SHA2(session_token, 256) WHERE token_hash IS NULL;
+-- ALTER TABLE session MODIFY COLUMN token_hash VARCHAR(64) NOT NULL;
+
+-- The unique constraint and the two indexes above are the same statements on PostgreSQL and MySQL.
+-- So is dropping the session_token unique constraint (named uk_session_token by V1); on MySQL before 8.0.19
+-- ALTER TABLE session DROP INDEX uk_session_token;
@@ -0,0 +1,49 @@
+-- Migration to index the columns the repository queries filter and sort on, so none of them reads a
+-- whole table when a selective predicate or a paged ordering is available (checked by QueryPlanTest).
+-- The names match the @Table(indexes = ...) declarations on the entities.
+
+-- For H2 database
+-- Appointments: a patient's list / upcoming / past, a doctor's bookings by status, stats by status,
+-- and the admin keyset page (newest first, cursor is date, time, id)
+CREATE INDEX IF NOT EXISTS idx_appointments_patient_deleted_date ON appointments (patient_id, deleted_at, appointment_date);
+CREATE INDEX IF NOT EXISTS idx_appointments_doctor_status ON appointments (doctor_id, status);
+CREATE INDEX IF NOT EXISTS idx_appointments_status_deleted ON appointments (status, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_appointments_date_time_id ON appointments (appointment_date DESC, appointment_time DESC, id DESC);
+
+-- Doctor slots: one doctor's slots of a day, and every doctor's available slots of a day
+CREATE INDEX IF NOT EXISTS idx_doctor_slots_doctor_date_status ON doctor_slots (doctor_id, slot_date, status);
+CREATE INDEX IF NOT EXISTS idx_doctor_slots_date_status ON doctor_slots (slot_date, status);
+
+-- Doctors and specializations: the active, non-deleted listings
+CREATE INDEX IF NOT EXISTS idx_doctors_active_deleted ON doctors (active, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_specialization_status_deleted ON specialization (status, deleted_at);
+
+-- Payments: counts and revenue by status (payment_id already has its unique index)
+CREATE INDEX IF NOT EXISTS idx_payment_status_deleted ON payment (status, deleted_at);
+
+-- Complaints: a patient's complaints by status, counts by status, and the keyset page
+CREATE INDEX IF NOT EXISTS idx_complaints_patient_status ON complaints (patient_id, status);
+CREATE INDEX IF NOT EXISTS idx_complaints_status_deleted ON complaints (status, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_complaints_created_id ON complaints (created_at DESC, complaint_id DESC);
+
+-- Audit logs: recent entries and the keyset page, lookups by table and by action
+CREATE INDEX IF NOT EXISTS idx_audit_logs_created_id ON audit_logs (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_table_name ON audit_logs (table_name);
+CREATE INDEX IF NOT EXISTS idx_audit_logs_action ON audit_logs (action);
+
+-- Users: by role, by contact number (registration check) and recently active
+CREATE INDEX IF NOT EXISTS idx_users_role_deleted ON users (role, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_users_contact ON users (contact);
+CREATE INDEX IF NOT EXISTS idx_users_last_login ON users (last_login_at);
+
+-- Sessions: active / inactive counts and lists, and the revoked-token feed (updated since)
+CREATE INDEX IF NOT EXISTS idx_session_active_deleted ON session (is_active, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_session_updated_at ON session (updated_at);
+
+-- For PostgreSQL (if you switch to PostgreSQL later)
+-- The statements above run unchanged. On a live table add CONCURRENTLY (outside a transaction), e.g.
+-- CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_logs_created_id ON audit_logs (created_at DESC, id DESC);
+
+-- For MySQL (if you switch to MySQL later)
+-- MySQL has no CREATE INDEX IF NOT EXISTS: drop "IF NOT EXISTS" from each statement, e.g.
+-- CREATE INDEX idx_audit_logs_created_id ON audit_logs (created_at DESC, id DESC);
@@ -0,0 +1,277 @@
+-- Baseline schema: every table as it stood before V1.1, so an empty database migrated V1 -> latest ends
+-- up with exactly the schema the entities map (checked at startup by ddl-auto: validate in the prod profile).
+-- Columns and constraints follow the entities; the later migrations add to it.
+
+-- For H2 database
+CREATE SEQUENCE appointments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE audit_logs_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE doctor_slots_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE payment_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE session_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE appointments (
+    id BIGINT NOT NULL,
+    appointment_date DATE NOT NULL,
+    appointment_time TIME(6) NOT NULL,
+    consultation_fee NUMERIC(38,2) NOT NULL,
+    end_time TIME(6) NOT NULL,
+    cancelled_at TIMESTAMP(6),
+    cancelled_by_doctor BIGINT,
+    cancelled_by_user BIGINT,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    deleted_at TIMESTAMP(6),
+    deleted_by BIGINT,
+    doctor_id BIGINT NOT NULL,
+    doctor_slot_id BIGINT UNIQUE,
+    patient_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    appointment_type VARCHAR(255) NOT NULL CHECK (appointment_type IN ('CONSULTATION','FOLLOW_UP')),
+    cancellation_reason VARCHAR(255),
+    notes VARCHAR(255),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('SCHEDULED','CANCELLED','COMPLETED')),
+    symptoms VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE audit_logs (
+    id BIGINT NOT NULL,
+    created_at TIMESTAMP(6),
+    doctor_id BIGINT,
+    record_id BIGINT,
+    user_id BIGINT,
+    new_values VARCHAR(2000),
+    old_values VARCHAR(2000),
+    action VARCHAR(255) NOT NULL CHECK (action IN ('INSERT','UPDATE','DELETE','SELECT')),
+    ip_address VARCHAR(255),
+    table_name VARCHAR(255) NOT NULL,
+    user_agent VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE complaints (
+    complaint_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    appointment_id BIGINT,
+    assigned_to BIGINT,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    deleted_at TIMESTAMP(6),
+    deleted_by BIGINT,
+    patient_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    customer_feedback VARCHAR(1000),
+    description VARCHAR(1000) NOT NULL,
+    resolution VARCHAR(2000),
+    resolution_notes VARCHAR(2000),
+    category VARCHAR(255) NOT NULL CHECK (category IN ('TREATMENT_ISSUE','SERVICE_ISSUE','BILLING_ISSUE','STAFF_ISSUE','FACILITY_ISSUE','OTHER')),
+    contact_preference VARCHAR(255) NOT NULL CHECK (contact_preference IN ('CALL','EMAIL','SMS')),
+    priority VARCHAR(255) NOT NULL CHECK (priority IN ('LOW','MEDIUM','HIGH','CRITICAL')),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('OPEN','IN_PROGRESS','RESOLVED','CLOSED')),
+    title VARCHAR(255) NOT NULL,
+    PRIMARY KEY (complaint_id)
+);
+
+CREATE TABLE doctor_slot_templates (
+    template_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    end_time TIME(6) NOT NULL,
+    is_active BOOLEAN NOT NULL,
+    slot_duration_minutes INTEGER NOT NULL,
+    start_time TIME(6) NOT NULL,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    doctor_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    day_of_week VARCHAR(255) NOT NULL CHECK (day_of_week IN ('MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY','SATURDAY','SUNDAY')),
+    PRIMARY KEY (template_id)
+);
+
+CREATE TABLE doctor_slots (
+    slot_id BIGINT NOT NULL,
+    end_time TIME(6) NOT NULL,
+    slot_date DATE NOT NULL,
+    start_time TIME(6) NOT NULL,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    doctor_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    version BIGINT,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('AVAILABLE','BOOKED','CANCELLED')),
+    PRIMARY KEY (slot_id),
+    CONSTRAINT uk_doctor_slot_time UNIQUE (doctor_id, slot_date, start_time)
+);
+
+CREATE TABLE doctors (
+    doctor_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    active BOOLEAN NOT NULL,
+    appointment_duration INTEGER,
+    consultation_fee NUMERIC(38,2) NOT NULL,
+    joining_date DATE NOT NULL,
+    slots_materialized_through DATE,
+    years_of_exp INTEGER NOT NULL,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    deleted_at TIMESTAMP(6),
+    deleted_by BIGINT,
+    specialization_id BIGINT NOT NULL,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    address VARCHAR(255),
+    bio VARCHAR(255),
+    blood_group VARCHAR(255),
+    city VARCHAR(255),
+    contact VARCHAR(255),
+    country VARCHAR(255),
+    country_code VARCHAR(255),
+    email VARCHAR(255) NOT NULL UNIQUE,
+    emergency_contact_name VARCHAR(255),
+    emergency_contact_num VARCHAR(255),
+    first_name VARCHAR(255) NOT NULL,
+    gender VARCHAR(255) CHECK (gender IN ('MALE','FEMALE','OTHER')),
+    last_name VARCHAR(255) NOT NULL,
+    license_number VARCHAR(255) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    postal_code VARCHAR(255),
+    profile_url VARCHAR(255),
+    qualification VARCHAR(255) NOT NULL,
+    slot_end_time VARCHAR(255),
+    slot_start_time VARCHAR(255),
+    state VARCHAR(255),
+    working_days VARCHAR(255),
+    PRIMARY KEY (doctor_id)
+);
+
+CREATE TABLE payment (
+    id BIGINT NOT NULL,
+    amount NUMERIC(38,2) NOT NULL,
+    temp_appointment_date DATE,
+    temp_appointment_time TIME(6),
+    temp_end_time TIME(6),
+    appointment_id BIGINT,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    deleted_at TIMESTAMP(6),
+    deleted_by BIGINT,
+    patient_id BIGINT NOT NULL,
+    payment_date TIMESTAMP(6) NOT NULL,
+    temp_doctor_id BIGINT,
+    temp_slot_id BIGINT,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    billing_address VARCHAR(255),
+    card_number VARCHAR(255),
+    cardholder_name VARCHAR(255),
+    cvv VARCHAR(255),
+    expiry_date VARCHAR(255),
+    method VARCHAR(255) NOT NULL CHECK (method IN ('CARD','CASH','UPI','NETBANKING')),
+    mobile_number VARCHAR(255),
+    payment_id VARCHAR(255) NOT NULL UNIQUE,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('SUCCESS','PENDING','FAILED')),
+    temp_appointment_type VARCHAR(255),
+    temp_notes VARCHAR(255),
+    temp_symptoms VARCHAR(255),
+    transaction_id VARCHAR(255),
+    upi_id VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE revenue_daily_rollup (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    amount NUMERIC(19,2) NOT NULL,
+    revenue_date DATE NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    payment_count BIGINT NOT NULL,
+    specialization_id BIGINT NOT NULL,
+    method VARCHAR(255) NOT NULL CHECK (method IN ('CARD','CASH','UPI','NETBANKING')),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_revenue_rollup_key UNIQUE (revenue_date, method, doctor_id, specialization_id)
+);
+
+CREATE TABLE session (
+    id BIGINT NOT NULL,
+    is_active BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    deleted_at TIMESTAMP(6),
+    deleted_by BIGINT,
+    doctor_id BIGINT,
+    expires_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    user_id BIGINT,
+    session_token VARCHAR(1000) NOT NULL,
+    user_type VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_session_token UNIQUE (session_token)
+);
+
+CREATE TABLE specialization (
+    specialization_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    deleted_at TIMESTAMP(6),
+    deleted_by BIGINT,
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    description VARCHAR(255),
+    name VARCHAR(255) NOT NULL UNIQUE,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE','INACTIVE')),
+    PRIMARY KEY (specialization_id)
+);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    active BOOLEAN NOT NULL,
+    birthdate DATE,
+    created_at TIMESTAMP(6),
+    created_by BIGINT,
+    deleted_at TIMESTAMP(6),
+    deleted_by BIGINT,
+    last_login_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    updated_by BIGINT,
+    address VARCHAR(255),
+    blood_group VARCHAR(255),
+    city VARCHAR(255),
+    contact VARCHAR(255),
+    country VARCHAR(255),
+    country_code VARCHAR(255),
+    email VARCHAR(255) NOT NULL UNIQUE,
+    emergency_contact_name VARCHAR(255),
+    emergency_contact_num VARCHAR(255),
+    firstname VARCHAR(255) NOT NULL,
+    gender VARCHAR(255) CHECK (gender IN ('MALE','FEMALE','OTHER')),
+    lastname VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    postal_code VARCHAR(255),
+    profile_url VARCHAR(255),
+    role VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN','PATIENT')),
+    state VARCHAR(255),
+    username VARCHAR(255) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE appointments ADD CONSTRAINT fk_appointments_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (doctor_id);
+ALTER TABLE appointments ADD CONSTRAINT fk_appointments_doctor_slot FOREIGN KEY (doctor_slot_id) REFERENCES doctor_slots (slot_id);
+ALTER TABLE appointments ADD CONSTRAINT fk_appointments_patient FOREIGN KEY (patient_id) REFERENCES users (id);
+ALTER TABLE audit_logs ADD CONSTRAINT fk_audit_logs_user FOREIGN KEY (user_id) REFERENCES users (id);
+ALTER TABLE complaints ADD CONSTRAINT fk_complaints_appointment FOREIGN KEY (appointment_id) REFERENCES appointments (id);
+ALTER TABLE complaints ADD CONSTRAINT fk_complaints_assigned_to FOREIGN KEY (assigned_to) REFERENCES users (id);
+ALTER TABLE complaints ADD CONSTRAINT fk_complaints_patient FOREIGN KEY (patient_id) REFERENCES users (id);
+ALTER TABLE doctor_slot_templates ADD CONSTRAINT fk_doctor_slot_templates_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (doctor_id);
+ALTER TABLE doctor_slots ADD CONSTRAINT fk_doctor_slots_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (doctor_id);
+ALTER TABLE doctors ADD CONSTRAINT fk_doctors_specialization FOREIGN KEY (specialization_id) REFERENCES specialization (specialization_id);
+ALTER TABLE payment ADD CONSTRAINT fk_payment_appointment FOREIGN KEY (appointment_id) REFERENCES appointments (id);
+ALTER TABLE payment ADD CONSTRAINT fk_payment_patient FOREIGN KEY (patient_id) REFERENCES users (id);
+ALTER TABLE session ADD CONSTRAINT fk_session_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+-- For PostgreSQL (if you switch to PostgreSQL later)
+-- The statements above run unchanged (identity columns, CHECK constraints and the pooled sequences included).
+
+-- For MySQL (if you switch to MySQL later)
+-- Replace "GENERATED BY DEFAULT AS IDENTITY" with AUTO_INCREMENT, and emulate the sequences with tables
+-- (hibernate_sequence style) or switch the entities to GenerationType.TABLE.
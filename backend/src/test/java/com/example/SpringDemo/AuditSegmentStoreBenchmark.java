@@ -0,0 +1,181 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.AuditLog;
+import com.example.SpringDemo.repository.AuditLogRepository;
+import com.example.SpringDemo.service.AuditEvent;
+import com.example.SpringDemo.service.AuditLogService;
+import com.example.SpringDemo.service.AuditLogWriter;
+import com.example.SpringDemo.service.AuditSegmentStore;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Writes synthetic audit events through the writer with the segment store enabled (small segments, so
+ * there are many), then runs the same searches against the segments and against the audit_logs table:
+ * totals and first-page ids must match. Also reopens the store to check the index is rebuilt from the files,
+ * and checks that the service search applies the requested sort, and goes to the table for rows the store
+ * does not have (inserted directly, as by another node) until the store is backfilled.
+ *
+ * Usage: main [events]  (default 200000)
+ */
+public class AuditSegmentStoreBenchmark {
+
+    private static final String[] TABLES = {"appointments", "payments", "doctors", "users", "complaints"};
+    private static final int RUNS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Path dir = Paths.get("target/audit-segments-benchmark");
+        FileSystemUtils.deleteRecursively(dir);
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--app.audit.block-timeout-ms=10000",
+            "--app.audit.segment-store.enabled=true",
+            "--app.audit.segment-store.dir=" + dir,
+            "--app.audit.segment-store.segment-mb=4",
+            "--app.audit.segment-store.bloom-expected-entries=20000",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            AuditLogWriter writer = context.getBean(AuditLogWriter.class);
+            AuditSegmentStore store = context.getBean(AuditSegmentStore.class);
+            AuditLogRepository repository = context.getBean(AuditLogRepository.class);
+
+            List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+            LocalDateTime base = LocalDateTime.now().minusDays(1).withNano(0);
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                writer.submit(new AuditEvent(AuditLog.Action.values()[i % 3], TABLES[i % TABLES.length], (long) (i % 20000),
+                    null, Map.of("status", "COMPLETED", "seq", i), userIds.get(i % userIds.size()), null,
+                    "10.0.0." + (i % 50), "benchmark", base.plusNanos(i * 100_000_000L)));
+            }
+            while ((Long) writer.getStats().get("written") + (Long) writer.getStats().get("dropped") < events) {
+                Thread.sleep(50);
+            }
+            System.out.printf("Wrote %d events in %d ms%n", events, (System.nanoTime() - start) / 1_000_000);
+            System.out.println("Store: " + store.getStats());
+
+            Pageable dbPage = PageRequest.of(0, 20, Sort.by("id").ascending());
+            Pageable storePage = PageRequest.of(0, 20);
+            Long someUser = userIds.get(1);
+            LocalDateTime windowFrom = base.plusMinutes(100);
+            LocalDateTime windowTo = windowFrom.plusMinutes(10);
+
+            boolean ok = true;
+            ok &= compare("recordId = 12345", store, repository, 12345L, null, null, null, null, null, dbPage, storePage);
+            ok &= compare("missing recordId", store, repository, 999999L, null, null, null, null, null, dbPage, storePage);
+            ok &= compare("user + payments", store, repository, null, someUser, "payments", null, null, null, dbPage, storePage);
+            ok &= compare("10 minute window", store, repository, null, null, null, null, windowFrom, windowTo, dbPage, storePage);
+            ok &= compare("complaints, ip, 1 hour", store, repository, null, null, "complaints", "10.0.0.4",
+                windowFrom, windowFrom.plusHours(1), dbPage, storePage);
+
+            // Reopen: segment metadata is rebuilt from the files
+            long records = (Long) store.getStats().get("records");
+            store.shutdown();
+            store.init();
+            long reopened = (Long) store.getStats().get("records");
+            System.out.println("Reopened store: " + reopened + "/" + records + " records");
+            ok &= reopened == records && records == events;
+            ok &= compare("recordId = 12345 after reopen", store, repository, 12345L, null, null, null, null, null, dbPage, storePage);
+
+            // Service search: sorted pages from the store, unsupported sorts from the table
+            AuditLogService service = context.getBean(AuditLogService.class);
+            LocalDateTime hourTo = windowFrom.plusHours(1);
+            ok &= compareService("createdAt desc, page 3", service, store, repository, "payments", windowFrom, hourTo,
+                PageRequest.of(2, 20, Sort.by("createdAt").descending()), true);
+            ok &= compareService("id desc", service, store, repository, "payments", null, null,
+                PageRequest.of(0, 20, Sort.by("id").descending()), true);
+            ok &= compareService("createdAt asc", service, store, repository, null, windowFrom, hourTo,
+                PageRequest.of(1, 20, Sort.by("createdAt").ascending()), true);
+            ok &= compareService("ipAddress, id (table)", service, store, repository, "payments", windowFrom, hourTo,
+                PageRequest.of(0, 20, Sort.by("ipAddress", "id")), false);
+
+            // Rows written by another node: that range goes to the table until a backfill picks them up
+            long nextId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM audit_logs", Long.class) + 1000;
+            for (int i = 0; i < 50; i++) {
+                jdbcTemplate.update("INSERT INTO audit_logs (id, action, table_name, record_id, ip_address, created_at) " +
+                    "VALUES (?, 'UPDATE', 'payments', ?, '10.0.1.1', ?)", nextId + i, 500000L + i,
+                    Timestamp.valueOf(windowFrom.plusSeconds(30 + i)));
+            }
+            ok &= compareService("other node's rows (table)", service, store, repository, "payments", windowFrom, hourTo,
+                PageRequest.of(0, 20, Sort.by("createdAt").descending()), false);
+            ok &= compareService("range without them", service, store, repository, "payments", base, windowFrom.minusSeconds(1),
+                PageRequest.of(0, 20, Sort.by("createdAt").descending()), true);
+            store.shutdown();
+            store.init();
+            // What the writer thread does on startup; it is idle now
+            ReflectionTestUtils.invokeMethod(writer, "backfillSegmentStore");
+            long backfilled = (Long) store.getStats().get("records");
+            System.out.println("Backfilled store: " + backfilled + " records");
+            ok &= backfilled == events + 50;
+            ok &= compareService("other node's rows, backfilled", service, store, repository, "payments", windowFrom, hourTo,
+                PageRequest.of(0, 20, Sort.by("createdAt").descending()), true);
+
+            System.out.println("Store: " + store.getStats());
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static boolean compare(String label, AuditSegmentStore store, AuditLogRepository repository, Long recordId,
+                                   Long userId, String tableName, String ipAddress, LocalDateTime from, LocalDateTime to,
+                                   Pageable dbPage, Pageable storePage) {
+        Page<AuditLog> fromStore = store.search(userId, tableName, null, recordId, ipAddress, from, to, storePage);
+        Page<AuditLog> fromTable = repository.searchAuditLogs(userId, tableName, null, recordId, ipAddress, from, to, dbPage);
+        double storeMs = time(() -> store.search(userId, tableName, null, recordId, ipAddress, from, to, storePage));
+        double tableMs = time(() -> repository.searchAuditLogs(userId, tableName, null, recordId, ipAddress, from, to, dbPage));
+        List<Long> storeIds = fromStore.getContent().stream().map(AuditLog::getId).toList();
+        List<Long> tableIds = fromTable.getContent().stream().map(AuditLog::getId).toList();
+        boolean same = fromStore.getTotalElements() == fromTable.getTotalElements() && storeIds.equals(tableIds);
+        System.out.printf("%-32s total %6d  segments %6.2f ms  table %7.2f ms  %s%n", label, fromStore.getTotalElements(),
+            storeMs, tableMs, same ? "same rows" : "MISMATCH store=" + storeIds + " table=" + tableIds);
+        return same;
+    }
+
+    private static boolean compareService(String label, AuditLogService service, AuditSegmentStore store,
+                                          AuditLogRepository repository, String tableName, LocalDateTime from,
+                                          LocalDateTime to, Pageable pageable, boolean expectStore) {
+        long searches = (Long) store.getStats().get("searches");
+        Page<AuditLog> page = service.searchAuditLogs(null, tableName, null, null, null, from, to, pageable);
+        boolean fromStore = (Long) store.getStats().get("searches") > searches;
+        Page<AuditLog> fromTable = repository.searchAuditLogs(null, tableName, null, null, null, from, to, pageable);
+        List<Long> ids = page.getContent().stream().map(AuditLog::getId).toList();
+        List<Long> tableIds = fromTable.getContent().stream().map(AuditLog::getId).toList();
+        // Users come back complete from either path
+        List<String> emails = page.getContent().stream().map(log -> log.getUser() == null ? "-" : log.getUser().getEmail()).toList();
+        List<String> tableEmails = fromTable.getContent().stream().map(log -> log.getUser() == null ? "-" : log.getUser().getEmail()).toList();
+        boolean same = page.getTotalElements() == fromTable.getTotalElements() && ids.equals(tableIds)
+            && emails.equals(tableEmails) && !emails.contains(null);
+        System.out.printf("%-32s total %6d  answered by %-8s %s%n", label, page.getTotalElements(),
+            fromStore ? "segments" : "table", same ? "same rows" : "MISMATCH service=" + ids + " table=" + tableIds);
+        return same && fromStore == expectStore;
+    }
+
+    private static double time(Supplier<?> query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.repository.DoctorSlotRepository;
+import com.example.SpringDemo.service.DoctorSlotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Latency of the patient "available slots" listing: the entity query the endpoint used to run
+ * versus the in-memory read model, both including JSON serialization of the response.
+ *
+ * Usage: main [requests] [specializationId]  (defaults 20000 1)
+ */
+public class AvailableSlotsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        long specializationId = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            DoctorSlotService doctorSlotService = context.getBean(DoctorSlotService.class);
+            DoctorSlotRepository doctorSlotRepository = context.getBean(DoctorSlotRepository.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            // Next working day, so every doctor has slots
+            LocalDate date = LocalDate.now().plusDays(1);
+            while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                date = date.plusDays(1);
+            }
+            LocalDate day = date;
+
+            report("entity query", requests / 10, () -> tx.execute(status -> serialize(objectMapper,
+                doctorSlotRepository.findAvailableSlotsByDateAndSpecialization(day, specializationId))));
+            report("read model  ", requests, () -> serialize(objectMapper,
+                doctorSlotService.getAvailableSlotsBySpecializationAndDate(specializationId, day)));
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static int serialize(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value).length;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void report(String name, int requests, Callable<Integer> request) throws Exception {
+        for (int i = 0; i < Math.min(requests, 1000); i++) {
+            request.call(); // warm-up
+        }
+        long[] nanos = new long[requests];
+        int bytes = 0;
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            bytes = request.call();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%s: %d requests, %d bytes/response, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", name, requests, bytes,
+            nanos[requests / 2] / 1e6, nanos[(int) (requests * 0.99)] / 1e6, nanos[requests - 1] / 1e6);
+    }
+}
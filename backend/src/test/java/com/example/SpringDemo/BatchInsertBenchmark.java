@@ -0,0 +1,119 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.Appointment;
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.entity.DoctorSlot;
+import com.example.SpringDemo.entity.User;
+import com.example.SpringDemo.repository.AppointmentRepository;
+import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.repository.DoctorSlotRepository;
+import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.service.AppointmentService;
+import com.example.SpringDemo.service.SlotGenerationEngine;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures entity-level bulk writes: saveAll of new slots, the slot generation engine, and
+ * cancelling every appointment of a doctor. Run once per id strategy / batching setting to
+ * compare (IDENTITY ids make Hibernate insert row by row).
+ *
+ * Usage: main [slots] [appointments]  (defaults 20000 5000)
+ */
+public class BatchInsertBenchmark {
+
+    private static final long SLOT_DOCTOR_ID = 2L;
+    private static final long CANCEL_DOCTOR_ID = 3L;
+    private static final long PATIENT_ID = 3L;
+
+    public static void main(String[] args) {
+        int slotCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int appointmentCount = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+            DoctorSlotRepository doctorSlotRepository = context.getBean(DoctorSlotRepository.class);
+            AppointmentRepository appointmentRepository = context.getBean(AppointmentRepository.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            AppointmentService appointmentService = context.getBean(AppointmentService.class);
+            SlotGenerationEngine engine = context.getBean(SlotGenerationEngine.class);
+
+            // Far-future dates so nothing collides with the slots generated at startup
+            LocalDate farFuture = LocalDate.now().plusYears(5);
+
+            long start = System.nanoTime();
+            tx.executeWithoutResult(status -> {
+                Doctor doctor = doctorRepository.findById(SLOT_DOCTOR_ID).orElseThrow();
+                doctorSlotRepository.saveAll(buildSlots(doctor, farFuture, slotCount, DoctorSlot.SlotStatus.AVAILABLE));
+            });
+            long saveAllMs = (System.nanoTime() - start) / 1_000_000;
+
+            List<Doctor> doctors = doctorRepository.findAllActive();
+            start = System.nanoTime();
+            int generated = engine.generateSlots(doctors, LocalDate.now(), LocalDate.now().plusDays(89));
+            long engineMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Booked slots + scheduled appointments for one doctor, then cancel them all
+            tx.executeWithoutResult(status -> {
+                Doctor doctor = doctorRepository.findById(CANCEL_DOCTOR_ID).orElseThrow();
+                User patient = userRepository.findById(PATIENT_ID).orElseThrow();
+                List<DoctorSlot> slots = doctorSlotRepository.saveAll(
+                    buildSlots(doctor, farFuture, appointmentCount, DoctorSlot.SlotStatus.BOOKED));
+                List<Appointment> appointments = new ArrayList<>();
+                for (DoctorSlot slot : slots) {
+                    Appointment appointment = new Appointment();
+                    appointment.setPatient(patient);
+                    appointment.setDoctor(doctor);
+                    appointment.setDoctorSlot(slot);
+                    appointment.setAppointmentDate(slot.getSlotDate());
+                    appointment.setAppointmentTime(slot.getStartTime());
+                    appointment.setEndTime(slot.getEndTime());
+                    appointment.setStatus(Appointment.Status.SCHEDULED);
+                    appointment.setAppointmentType(Appointment.AppointmentType.CONSULTATION);
+                    appointment.setConsultationFee(new BigDecimal("300.00"));
+                    appointments.add(appointment);
+                }
+                appointmentRepository.saveAll(appointments);
+            });
+
+            start = System.nanoTime();
+            int cancelled = appointmentService.cancelAllAppointmentsForDoctor(CANCEL_DOCTOR_ID, "benchmark", null).size();
+            long cancelMs = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println("saveAll " + slotCount + " slots:             " + saveAllMs + " ms");
+            System.out.println("engine " + generated + " slots (" + doctors.size() + " doctors x 90 days): " + engineMs + " ms");
+            System.out.println("cancel " + cancelled + " appointments:        " + cancelMs + " ms");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static List<DoctorSlot> buildSlots(Doctor doctor, LocalDate firstDate, int count, DoctorSlot.SlotStatus status) {
+        List<DoctorSlot> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DoctorSlot slot = new DoctorSlot();
+            slot.setDoctor(doctor);
+            slot.setSlotDate(firstDate.plusDays(i / 16));
+            slot.setStartTime(LocalTime.of(9, 0).plusMinutes((i % 16) * 30L));
+            slot.setEndTime(slot.getStartTime().plusMinutes(30));
+            slot.setStatus(status);
+            slot.setCreatedBy(1L);
+            slots.add(slot);
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.Appointment;
+import com.example.SpringDemo.entity.DoctorSlot;
+import com.example.SpringDemo.repository.AppointmentRepository;
+import com.example.SpringDemo.repository.DoctorSlotRepository;
+import com.example.SpringDemo.service.AuditLogWriter;
+import com.example.SpringDemo.service.DoctorCancellationService;
+import com.example.SpringDemo.service.DoctorService;
+import com.example.SpringDemo.service.StatusCounterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Books N appointments (each holding a slot) for two doctors, then cancels one doctor's the old way -
+ * load every appointment, save its slot, save the appointment - and the other's through the bulk
+ * cancellation job. Checks that the job cancels exactly the scheduled appointments, frees their slots,
+ * writes one audit event per appointment and leaves the status counters without drift. The freed slots
+ * carry the id of the admin who submitted the background job, and of the admin who deletes a doctor.
+ *
+ * Usage: main [appointmentsPerDoctor]  (default 10000)
+ */
+public class DoctorCancellationBenchmark {
+
+    private static final long PATIENT_ID = 3L;
+    private static final long LOOP_DOCTOR_ID = 2L;
+    private static final long BULK_DOCTOR_ID = 1L;
+    private static final String REASON = "Doctor is no longer available";
+
+    public static void main(String[] args) throws Exception {
+        int appointments = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--app.status-counters.reconcile-ms=3600000",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            AppointmentRepository appointmentRepository = context.getBean(AppointmentRepository.class);
+            DoctorSlotRepository doctorSlotRepository = context.getBean(DoctorSlotRepository.class);
+            DoctorCancellationService cancellationService = context.getBean(DoctorCancellationService.class);
+            StatusCounterRegistry counters = context.getBean(StatusCounterRegistry.class);
+            AuditLogWriter auditLogWriter = context.getBean(AuditLogWriter.class);
+
+            book(jdbcTemplate, BULK_DOCTOR_ID, 10_000_000L, appointments);
+            book(jdbcTemplate, LOOP_DOCTOR_ID, 20_000_000L, appointments);
+            // A cancelled appointment of the bulk doctor must be left alone
+            jdbcTemplate.update("UPDATE appointments SET status = 'CANCELLED', doctor_slot_id = NULL WHERE id = ?", 10_000_001L);
+            jdbcTemplate.update("UPDATE doctor_slots SET status = 'AVAILABLE' WHERE slot_id = ?", 10_000_001L);
+            counters.reconcile();
+            long correctionsBefore = (Long) counters.getStats().get("corrections");
+            long auditRowsBefore = auditRows(jdbcTemplate);
+
+            // Previous implementation: one slot save and one appointment save per appointment
+            long start = System.nanoTime();
+            int loopCancelled = tx.execute(status -> {
+                int count = 0;
+                for (Appointment appointment : appointmentRepository.findScheduledAppointmentsByDoctorId(LOOP_DOCTOR_ID)) {
+                    DoctorSlot slot = appointment.getDoctorSlot();
+                    if (slot != null) {
+                        slot.setStatus(DoctorSlot.SlotStatus.AVAILABLE);
+                        doctorSlotRepository.save(slot);
+                        appointment.setDoctorSlot(null);
+                    }
+                    appointment.setStatus(Appointment.Status.CANCELLED);
+                    appointment.setCancellationReason(REASON);
+                    appointment.setCancelledAt(LocalDateTime.now());
+                    appointment.setCancelledByDoctor(LOOP_DOCTOR_ID);
+                    appointmentRepository.save(appointment);
+                    count++;
+                }
+                return count;
+            });
+            long loopMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("Per-row loop: %d appointments cancelled in %d ms%n", loopCancelled, loopMs);
+            // The loop bypasses the counters; bring them back in line before measuring drift for the job
+            counters.reconcile();
+            correctionsBefore = (Long) counters.getStats().get("corrections");
+            long loopAuditRows = waitForAuditRows(jdbcTemplate, auditRowsBefore + loopCancelled) - auditRowsBefore;
+
+            boolean background = cancellationService.shouldRunInBackground(BULK_DOCTOR_ID);
+            Map<String, Object> admin = jdbcTemplate.queryForMap("SELECT id, email FROM users WHERE role = 'ADMIN' ORDER BY id LIMIT 1");
+            long adminId = ((Number) admin.get("id")).longValue();
+            start = System.nanoTime();
+            DoctorCancellationService.Job job;
+            signInAs((String) admin.get("email"));
+            try {
+                job = cancellationService.submit(BULK_DOCTOR_ID, REASON);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+            while (job.getStatus() == DoctorCancellationService.JobStatus.QUEUED
+                    || job.getStatus() == DoctorCancellationService.JobStatus.RUNNING) {
+                Thread.sleep(5);
+            }
+            long bulkMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("Bulk job: %s, %d appointments cancelled in %d ms (background on delete: %s)%n",
+                job.getStatus(), job.getCancelledAppointmentIds().size(), bulkMs, background);
+            if (job.toMap().get("error") != null) {
+                System.out.println("Job error: " + job.toMap().get("error"));
+            }
+
+            Set<Long> expectedIds = new HashSet<>();
+            for (long id = 10_000_000L; id < 10_000_000L + appointments; id++) {
+                if (id != 10_000_001L) {
+                    expectedIds.add(id);
+                }
+            }
+            boolean ok = job.getStatus() == DoctorCancellationService.JobStatus.COMPLETED && background
+                && new HashSet<>(job.getCancelledAppointmentIds()).equals(expectedIds)
+                && job.getCancelledAppointmentIds().size() == expectedIds.size();
+
+            long stillScheduled = appointmentRepository.countScheduledAppointmentsByDoctorId(BULK_DOCTOR_ID);
+            Integer stillBooked = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM doctor_slots WHERE doctor_id = ? AND status = 'BOOKED'", Integer.class, BULK_DOCTOR_ID);
+            Integer withReason = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM appointments WHERE doctor_id = ? AND status = 'CANCELLED' AND cancellation_reason = ? " +
+                "AND cancelled_by_doctor = ? AND cancelled_at IS NOT NULL AND doctor_slot_id IS NULL",
+                Integer.class, BULK_DOCTOR_ID, REASON, BULK_DOCTOR_ID);
+            System.out.printf("Left scheduled: %d, slots still booked: %d, cancelled with reason: %d%n",
+                stillScheduled, stillBooked, withReason);
+            ok &= stillScheduled == 0 && stillBooked == 0 && withReason == expectedIds.size();
+
+            counters.reconcile();
+            long drift = (Long) counters.getStats().get("corrections") - correctionsBefore;
+            long bulkAuditRows = waitForAuditRows(jdbcTemplate, auditRowsBefore + loopAuditRows + expectedIds.size())
+                - auditRowsBefore - loopAuditRows;
+            System.out.printf("Status counter corrections after the job: %d; audit rows: loop %d, job %d (dropped %s)%n",
+                drift, loopAuditRows, bulkAuditRows, auditLogWriter.getStats().get("dropped"));
+            ok &= drift == 0 && bulkAuditRows == expectedIds.size();
+
+            // Freed slots name the admin, whether the job or the delete itself cancelled them
+            Integer jobUpdatedBy = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor_slots WHERE doctor_id = ? " +
+                "AND slot_id >= 10000000 AND status = 'AVAILABLE' AND updated_by = ?", Integer.class, BULK_DOCTOR_ID, adminId);
+            Long deletedDoctorId = jdbcTemplate.queryForObject("SELECT MIN(doctor_id) FROM doctors WHERE doctor_id > ? " +
+                "AND deleted_at IS NULL", Long.class, LOOP_DOCTOR_ID);
+            book(jdbcTemplate, deletedDoctorId, 30_000_000L, 5);
+            signInAs((String) admin.get("email"));
+            try {
+                context.getBean(DoctorService.class).deleteDoctor(deletedDoctorId);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+            Integer byAdmin = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor_slots WHERE slot_id >= 30000000 " +
+                "AND status = 'AVAILABLE' AND updated_by = ?", Integer.class, adminId);
+            System.out.printf("Freed slots naming the admin: job %d/%d, delete %d/5%n", jobUpdatedBy, expectedIds.size(), byAdmin);
+            ok &= jobUpdatedBy == expectedIds.size() && byAdmin == 5;
+
+            System.out.printf("Speed-up: %.1fx%n", (double) loopMs / Math.max(1, bulkMs));
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static void signInAs(String adminEmail) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            adminEmail, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    // One BOOKED slot per scheduled appointment, 40 slots a day from tomorrow; ids far above the sequences
+    private static void book(JdbcTemplate jdbcTemplate, long doctorId, long firstId, int count) {
+        jdbcTemplate.execute("INSERT INTO doctor_slots (slot_id, doctor_id, slot_date, start_time, end_time, status, version, created_at) " +
+            "SELECT " + firstId + " + X, " + doctorId + ", DATEADD('DAY', 1 + X / 40, CURRENT_DATE), " +
+            "DATEADD('MINUTE', MOD(X, 40) * 10, TIME '08:00:00'), DATEADD('MINUTE', MOD(X, 40) * 10 + 10, TIME '08:00:00'), " +
+            "'BOOKED', 0, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, " + (count - 1) + ")");
+        jdbcTemplate.execute("INSERT INTO appointments (id, patient_id, doctor_id, doctor_slot_id, appointment_date, " +
+            "appointment_time, end_time, status, appointment_type, consultation_fee, created_at) " +
+            "SELECT id, " + PATIENT_ID + ", doctor_id, slot_id, slot_date, start_time, end_time, 'SCHEDULED', 'CONSULTATION', " +
+            "500.00, CURRENT_TIMESTAMP FROM (SELECT slot_id AS id, slot_id, doctor_id, slot_date, start_time, end_time " +
+            "FROM doctor_slots WHERE slot_id >= " + firstId + " AND slot_id < " + (firstId + count) + ")");
+    }
+
+    private static long auditRows(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM audit_logs WHERE table_name = 'appointments' AND action = 'UPDATE'", Long.class);
+    }
+
+    // The audit writer drains its queue in the background
+    private static long waitForAuditRows(JdbcTemplate jdbcTemplate, long expected) throws InterruptedException {
+        long rows = auditRows(jdbcTemplate);
+        for (int i = 0; i < 200 && rows < expected; i++) {
+            Thread.sleep(50);
+            rows = auditRows(jdbcTemplate);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.config.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Compares the old token validation path (new key + new parser per claim, three signature checks)
+ * against the shared parser / single parse path. Run main() directly; prints ns/op for each.
+ */
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 50_000;
+
+    public static void main(String[] args) {
+        JwtConfig jwtConfig = new JwtConfig();
+        ReflectionTestUtils.setField(jwtConfig, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtConfig, "expiration", 604800000L);
+        jwtConfig.init();
+
+        UserDetails user = User.withUsername("rohan.mehta@email.com")
+                .password("x")
+                .authorities("ROLE_PATIENT")
+                .build();
+        String token = jwtConfig.generateToken(user);
+
+        System.out.println("Token validation benchmark (" + ITERATIONS + " iterations)");
+        // the filter used to call extractUsername first, then validateToken parsed twice more
+        long legacy = measure(() -> legacyExtract(token, Claims::getSubject) != null && legacyValidate(token, user));
+        long shared = measure(() -> jwtConfig.validateToken(token, user));
+        long singleParse = measure(() -> jwtConfig.validateToken(jwtConfig.parseClaims(token), user));
+
+        System.out.println("Legacy (rebuild key + parser, 3 parses): " + legacy + " ns/op");
+        System.out.println("Shared parser, validateToken(token):     " + shared + " ns/op");
+        System.out.println("Single parse, validateToken(claims):     " + singleParse + " ns/op");
+        System.out.printf("Speedup legacy -> single parse: %.2fx%n", (double) legacy / singleParse);
+    }
+
+    private static long measure(java.util.function.BooleanSupplier op) {
+        boolean sink = false;
+        for (int i = 0; i < WARMUP; i++) {
+            sink ^= op.getAsBoolean();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink ^= op.getAsBoolean();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink) {
+            // keeps the JIT from dropping the loop body
+            System.out.print("");
+        }
+        return elapsed / ITERATIONS;
+    }
+
+    // Mirrors the previous JwtConfig: extractUsername + isTokenExpired, each building its own key and parser
+    private static boolean legacyValidate(String token, UserDetails userDetails) {
+        String username = legacyExtract(token, Claims::getSubject);
+        Date expiration = legacyExtract(token, Claims::getExpiration);
+        return username.equals(userDetails.getUsername()) && !expiration.before(new Date());
+    }
+
+    private static <T> T legacyExtract(String token, Function<Claims, T> resolver) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return resolver.apply(claims);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.dto.CursorPage;
+import com.example.SpringDemo.entity.AuditLog;
+import com.example.SpringDemo.repository.AuditLogRepository;
+import com.example.SpringDemo.service.AuditLogService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Offset versus cursor pagination over a large audit log: latency of the first and the last page
+ * (offset pages also run a count query), then a full walk by cursor that must return every row
+ * exactly once. Timestamps repeat so the id tie-breaker is exercised.
+ *
+ * Usage: main [rows] [pageSize]  (defaults 200000 50)
+ */
+public class KeysetPaginationBenchmark {
+
+    private static final String INSERT_AUDIT_LOG_SQL =
+        "INSERT INTO audit_logs (id, user_id, action, table_name, record_id, created_at) VALUES (?, 1, ?, 'appointments', ?, ?)";
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int pageSize = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            AuditLogService auditLogService = context.getBean(AuditLogService.class);
+            AuditLogRepository auditLogRepository = context.getBean(AuditLogRepository.class);
+
+            // Three rows per second; ids far above the sequence so they never collide
+            LocalDateTime base = LocalDateTime.now().minusDays(30).withNano(0);
+            List<Object[]> batch = new ArrayList<>();
+            for (int i = 0; i < rows; i++) {
+                batch.add(new Object[] {1_000_000L + i, i % 2 == 0 ? "INSERT" : "UPDATE", (long) i,
+                    Timestamp.valueOf(base.plusSeconds(i / 3))});
+                if (batch.size() == 5000) {
+                    jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG_SQL, batch);
+                    batch.clear();
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG_SQL, batch);
+            long total = auditLogRepository.countAll();
+
+            Sort newestFirst = Sort.by("createdAt").descending().and(Sort.by("id").descending());
+            int lastPage = (int) ((total - 1) / pageSize);
+            long start = System.nanoTime();
+            auditLogService.getAllAuditLogs(null, null, null, null, null, null, PageRequest.of(0, pageSize, newestFirst));
+            double offsetFirstMs = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            Page<AuditLog> deepPage = auditLogService.getAllAuditLogs(null, null, null, null, null, null,
+                PageRequest.of(lastPage, pageSize, newestFirst));
+            double offsetLastMs = (System.nanoTime() - start) / 1e6;
+
+            // Walk every page by cursor, timing each fetch
+            Set<Long> seen = new HashSet<>();
+            int duplicates = 0;
+            int pages = 0;
+            double cursorFirstMs = 0;
+            double cursorLastMs = 0;
+            String cursor = null;
+            long walkStart = System.nanoTime();
+            do {
+                start = System.nanoTime();
+                CursorPage<AuditLog> page = auditLogService.getAuditLogsByCursor(null, null, null, null, null, cursor, pageSize);
+                double ms = (System.nanoTime() - start) / 1e6;
+                if (pages == 0) {
+                    cursorFirstMs = ms;
+                }
+                cursorLastMs = ms;
+                pages++;
+                for (AuditLog auditLog : page.getContent()) {
+                    if (!seen.add(auditLog.getId())) {
+                        duplicates++;
+                    }
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            long walkMs = (System.nanoTime() - walkStart) / 1_000_000;
+
+            System.out.printf("Offset page 0:          %.1f ms%n", offsetFirstMs);
+            System.out.printf("Offset page %d:      %.1f ms (%d rows)%n", lastPage, offsetLastMs, deepPage.getNumberOfElements());
+            System.out.printf("Cursor first page:      %.1f ms%n", cursorFirstMs);
+            System.out.printf("Cursor last page:       %.1f ms%n", cursorLastMs);
+            System.out.println("Cursor walk: " + pages + " pages, " + seen.size() + "/" + total + " rows, "
+                + duplicates + " duplicates in " + walkMs + " ms");
+            System.out.println(seen.size() == total && duplicates == 0 ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.SpringDemo;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Boots the prod profile against a file database in a temporary directory and checks that Flyway
+ * builds the schema from db/migration, that Hibernate validates it and the index check passes, that
+ * a restart keeps the data and applies nothing again, and that startup fails once an index declared
+ * on an entity is missing from the database.
+ */
+public class ProductionProfileTest {
+
+    public static void main(String[] args) throws Exception {
+        Path dataDir = Files.createTempDirectory("hospital-prod");
+        try {
+            boolean ok = true;
+
+            // First start: empty database, every migration applied
+            ConfigurableApplicationContext context = start(dataDir);
+            List<String> versions;
+            Integer historyRows;
+            try {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                versions = jdbcTemplate.queryForList("SELECT \"version\" FROM \"flyway_schema_history\" " +
+                    "WHERE \"success\" = TRUE AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class);
+                System.out.println("Applied migrations: " + versions);
+                ok &= versions.equals(List.of("1", "1.1", "1.2", "1.3"));
+                historyRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"flyway_schema_history\"", Integer.class);
+
+                HikariDataSource dataSource = context.getBean("primaryDataSource", HikariDataSource.class);
+                System.out.println("Pool " + dataSource.getPoolName() + ": max " + dataSource.getMaximumPoolSize() +
+                    ", leak detection " + dataSource.getLeakDetectionThreshold() + " ms");
+                ok &= dataSource.getLeakDetectionThreshold() > 0;
+
+                jdbcTemplate.update("INSERT INTO specialization (name, description, status, created_at) " +
+                    "VALUES ('Prod Check', 'survives restarts', 'ACTIVE', CURRENT_TIMESTAMP)");
+            } finally {
+                SpringApplication.exit(context);
+            }
+
+            // Second start: same file, nothing rebuilt or re-applied
+            context = start(dataDir);
+            try {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                Integer kept = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM specialization WHERE name = 'Prod Check'", Integer.class);
+                Integer history = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM \"flyway_schema_history\"", Integer.class);
+                System.out.println("Row kept across restart: " + (kept == 1) + ", history rows: " + history);
+                ok &= kept == 1 && history.equals(historyRows);
+
+                // Simulate a database that missed an index
+                jdbcTemplate.execute("DROP INDEX idx_users_contact");
+            } finally {
+                SpringApplication.exit(context);
+            }
+
+            // Third start: the schema check refuses to start
+            boolean refused = false;
+            try {
+                SpringApplication.exit(start(dataDir));
+            } catch (RuntimeException e) {
+                Throwable cause = e;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                refused = cause.getMessage() != null && cause.getMessage().contains("idx_users_contact");
+                System.out.println("Startup refused: " + cause.getMessage());
+            }
+            ok &= refused;
+
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            try (Stream<Path> files = Files.walk(dataDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path dataDir) {
+        return SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.profiles.active=prod",
+            "--app.data-dir=" + dataDir,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN");
+    }
+}
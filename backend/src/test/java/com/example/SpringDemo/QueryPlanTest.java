@@ -0,0 +1,293 @@
+package com.example.SpringDemo;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every query method declared on the repositories (with placeholder arguments, in a transaction
+ * that is rolled back), captures the SQL Hibernate issues for it - count queries of pages included -
+ * and fails if H2's EXPLAIN of any of them reads a table by full scan instead of through an index.
+ * The few queries that scan by design are listed in SCANS_BY_DESIGN with the reason; an entry that no
+ * longer scans fails the run too, so the list cannot go stale. Runs under {@code mvn test}.
+ *
+ * Usage: main [-v]  (-v prints every plan)
+ */
+public class QueryPlanTest {
+
+    private static final String OPTIONAL_FILTERS =
+        "every filter is optional (:x IS NULL OR ...) or a '%term%' search, so no index applies to all combinations";
+
+    // Repository method -> why a full scan is expected
+    private static final Map<String, String> SCANS_BY_DESIGN = Map.ofEntries(
+        Map.entry("AppointmentRepository.findAppointmentsWithFilters", OPTIONAL_FILTERS),
+        Map.entry("AppointmentRepository.findAppointmentsWithFiltersIncludingDeleted", OPTIONAL_FILTERS),
+        Map.entry("AppointmentRepository.findAppointmentsWithSearchIncludingDeleted", OPTIONAL_FILTERS),
+        Map.entry("AuditLogRepository.findAuditLogsWithFilters", OPTIONAL_FILTERS),
+        Map.entry("AuditLogRepository.searchAuditLogs", OPTIONAL_FILTERS),
+        Map.entry("ComplaintRepository.findAvailableComplaints", OPTIONAL_FILTERS),
+        Map.entry("ComplaintRepository.findComplaintsWithFilters", OPTIONAL_FILTERS),
+        Map.entry("ComplaintRepository.findComplaintsWithFiltersIncludingDeleted", OPTIONAL_FILTERS),
+        Map.entry("ComplaintRepository.searchComplaints", OPTIONAL_FILTERS),
+        Map.entry("DoctorRepository.findDoctorsWithFilters", OPTIONAL_FILTERS),
+        Map.entry("DoctorRepository.findDoctorsWithFiltersIncludingDeleted", OPTIONAL_FILTERS),
+        Map.entry("DoctorRepository.findDoctorsWithFiltersBySpecializationIdIncludingDeleted", OPTIONAL_FILTERS),
+        Map.entry("PaymentRepository.findPaymentsWithFilters", OPTIONAL_FILTERS),
+        Map.entry("PaymentRepository.searchPayments", OPTIONAL_FILTERS),
+        Map.entry("SessionRepository.findSessionsWithFilters", OPTIONAL_FILTERS),
+        Map.entry("SpecializationRepository.findSpecializationsWithFilters", OPTIONAL_FILTERS),
+        Map.entry("UserRepository.findUsersWithFilters", OPTIONAL_FILTERS),
+        Map.entry("UserRepository.findUsersWithFiltersIncludingDeleted", OPTIONAL_FILTERS),
+        Map.entry("UserRepository.searchUsers", OPTIONAL_FILTERS),
+        Map.entry("RevenueRollupRepository.sumAll", "totals over the rollup table itself (one row per day, method and doctor)"),
+        Map.entry("RevenueRollupRepository.sumByMethod", "totals over the rollup table itself (one row per day, method and doctor)"));
+
+    // H2 marks a table read without an index as "/* PUBLIC.TABLE.tableScan */"
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    private static final List<String> CAPTURED = new ArrayList<>();
+
+    /**
+     * Registered as Hibernate's statement inspector: records each SQL statement before it is prepared.
+     */
+    public static class Capture implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            synchronized (CAPTURED) {
+                CAPTURED.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() throws Exception {
+        assertTrue(verify(false));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!verify(args.length > 0 && args[0].equals("-v"))) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean verify(boolean verbose) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + Capture.class.getName(),
+            "--spring.jpa.properties.hibernate.format_sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            EntityManager entityManager = context.getBean(EntityManager.class);
+
+            // SQL statement -> the repository methods that issue it
+            Map<String, List<String>> statements = new LinkedHashMap<>();
+            int methods = 0;
+            for (Map.Entry<String, JpaRepository> bean : context.getBeansOfType(JpaRepository.class).entrySet()) {
+                Class<?> repository = Arrays.stream(bean.getValue().getClass().getInterfaces())
+                    .filter(type -> type.getPackageName().endsWith(".repository"))
+                    .findFirst().orElseThrow();
+                Method[] declared = repository.getDeclaredMethods();
+                Arrays.sort(declared, Comparator.comparing(Method::toGenericString));
+                for (Method method : declared) {
+                    if (method.isDefault() || method.isSynthetic()) {
+                        continue;
+                    }
+                    methods++;
+                    String name = repository.getSimpleName() + "." + method.getName();
+                    List<String> sql;
+                    try {
+                        sql = run(tx, entityManager, bean.getValue(), method, false);
+                    } catch (RuntimeException e) {
+                        // Some String parameters are compared with enum attributes and only accept null
+                        System.out.println(name + ": " + e.getCause().getMessage() + " - retrying with null strings");
+                        sql = run(tx, entityManager, bean.getValue(), method, true);
+                    }
+                    for (String statement : sql) {
+                        statements.computeIfAbsent(statement, key -> new ArrayList<>()).add(name);
+                    }
+                }
+            }
+
+            int scans = 0;
+            int expectedScans = 0;
+            Set<String> scanningMethods = new HashSet<>();
+            for (Map.Entry<String, List<String>> statement : statements.entrySet()) {
+                String plan = explain(jdbcTemplate, statement.getKey());
+                List<String> scanned = scannedTables(plan);
+                if (scanned.isEmpty()) {
+                    if (verbose) {
+                        System.out.println(statement.getValue() + ":\n  " + plan + "\n");
+                    }
+                    continue;
+                }
+                scanningMethods.addAll(statement.getValue());
+                if (SCANS_BY_DESIGN.keySet().containsAll(statement.getValue())) {
+                    expectedScans++;
+                    if (verbose) {
+                        System.out.println("Expected scan of " + scanned + " in " + statement.getValue() + " ("
+                            + SCANS_BY_DESIGN.get(statement.getValue().get(0)) + "):\n  " + plan + "\n");
+                    }
+                } else {
+                    scans++;
+                    System.out.println("FULL SCAN of " + scanned + " in " + statement.getValue() + ":\n  " + plan + "\n");
+                }
+            }
+            List<String> stale = SCANS_BY_DESIGN.keySet().stream()
+                .filter(method -> !scanningMethods.contains(method))
+                .sorted()
+                .toList();
+            if (!stale.isEmpty()) {
+                System.out.println("Listed as scanning by design but no longer scans (remove from the list): " + stale);
+            }
+            System.out.printf("%d repository methods, %d distinct statements, %d full table scans by design, %d unexpected%n",
+                methods, statements.size(), expectedScans, scans);
+            System.out.println(scans == 0 && stale.isEmpty() ? "PASSED" : "FAILED");
+            return scans == 0 && stale.isEmpty();
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    // Invokes the method and returns the SQL it issued; any update it makes is rolled back
+    private static List<String> run(TransactionTemplate tx, EntityManager entityManager, Object repository, Method method,
+                                    boolean nullStrings) {
+        synchronized (CAPTURED) {
+            CAPTURED.clear();
+        }
+        tx.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            Object[] arguments = new Object[method.getParameterCount()];
+            for (int i = 0; i < arguments.length; i++) {
+                Class<?> type = method.getParameterTypes()[i];
+                arguments[i] = nullStrings && type == String.class
+                    ? null : argument(entityManager, type, method.getGenericParameterTypes()[i]);
+            }
+            try {
+                Object result = method.invoke(repository, arguments);
+                if (result instanceof Stream<?> stream) {
+                    try (stream) {
+                        stream.count();
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(method + " failed", e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        synchronized (CAPTURED) {
+            return CAPTURED.stream()
+                .filter(sql -> !sql.regionMatches(true, 0, "insert", 0, 6))
+                .toList();
+        }
+    }
+
+    // A plausible value per parameter type; the second page so paged queries also run their count query
+    private static Object argument(EntityManager entityManager, Class<?> type, Type genericType) {
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type == String.class) {
+            return "a";
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == LocalTime.class) {
+            return LocalTime.NOON;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(1, 10);
+        }
+        if (type == Sort.class) {
+            return Sort.unsorted();
+        }
+        if (type.isAnnotationPresent(Entity.class)) {
+            return entityManager.getReference(type, 1L);
+        }
+        if (Collection.class.isAssignableFrom(type) && genericType instanceof ParameterizedType parameterized) {
+            Type element = parameterized.getActualTypeArguments()[0];
+            Object value = argument(entityManager, (Class<?>) element, element);
+            return Set.class.isAssignableFrom(type) ? Set.of(value) : List.of(value);
+        }
+        throw new IllegalArgumentException("No placeholder value for " + genericType);
+    }
+
+    // H2 plans the statement without values, so every parameter is bound to NULL
+    private static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1).replaceAll("\\s+", " ");
+                }
+            }
+        });
+    }
+
+    private static List<String> scannedTables(String plan) {
+        List<String> tables = new ArrayList<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            tables.add(matcher.group(1));
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.config.ReadReplicaRoutingDataSource;
+import com.example.SpringDemo.entity.Specialization;
+import com.example.SpringDemo.repository.SpecializationRepository;
+import com.example.SpringDemo.service.AuditLogService;
+import com.example.SpringDemo.service.PaymentService;
+import com.example.SpringDemo.service.SpecializationService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the application with a second in-memory H2 database as the replica, seeded with a copy of the
+ * primary (a snapshot stands in for replication), then checks that read-only transactions read the
+ * replica and everything else the primary, that reporting still answers while every primary
+ * connection is taken, that a write after a read-only transaction in the same entity manager (as with
+ * open-in-view) goes to the primary, and that the pool stats count connections per target.
+ */
+public class ReadReplicaRoutingTest {
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--app.datasource.replica.url=jdbc:h2:mem:replica;LAZY_QUERY_EXECUTION=1",
+            "--app.datasource.replica.username=sa",
+            "--app.datasource.replica.password=password",
+            "--spring.datasource.hikari.connection-timeout=2000",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        Path snapshot = Files.createTempFile("replica", ".sql");
+        try {
+            ReadReplicaRoutingDataSource routing = context.getBean(ReadReplicaRoutingDataSource.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            JdbcTemplate primary = new JdbcTemplate(routing.getTarget(ReadReplicaRoutingDataSource.Target.PRIMARY));
+            JdbcTemplate replica = new JdbcTemplate(routing.getTarget(ReadReplicaRoutingDataSource.Target.REPLICA));
+            PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+            primary.execute("SCRIPT TO '" + snapshot + "'");
+            replica.execute("RUNSCRIPT FROM '" + snapshot + "'");
+            // Only the primary has this row from now on
+            primary.update("INSERT INTO specialization (name, description, status, created_at) " +
+                "VALUES ('Primary Only', 'not replicated', 'ACTIVE', CURRENT_TIMESTAMP)");
+            String count = "SELECT COUNT(*) FROM specialization WHERE name = 'Primary Only'";
+
+            boolean ok = true;
+            Integer seenReadOnly = readOnly.execute(status -> jdbcTemplate.queryForObject(count, Integer.class));
+            Integer seenReadWrite = readWrite.execute(status -> jdbcTemplate.queryForObject(count, Integer.class));
+            Integer seenOutside = jdbcTemplate.queryForObject(count, Integer.class);
+            System.out.println("Read-only transaction sees the replica: " + (seenReadOnly == 0) +
+                ", read-write transaction and no transaction see the primary: " + (seenReadWrite == 1 && seenOutside == 1));
+            ok &= seenReadOnly == 0 && seenReadWrite == 1 && seenOutside == 1;
+
+            long found = context.getBean(SpecializationService.class)
+                .searchSpecializations("Primary Only", null, PageRequest.of(0, 10)).getTotalElements();
+            System.out.println("Admin search answered by the replica: " + (found == 0));
+            ok &= found == 0;
+
+            // Reporting keeps working while booking writes hold every primary connection
+            List<Connection> held = new ArrayList<>();
+            try {
+                HikariDataSource primaryPool = (HikariDataSource) routing.getTarget(ReadReplicaRoutingDataSource.Target.PRIMARY);
+                for (int i = 0; i < primaryPool.getMaximumPoolSize(); i++) {
+                    held.add(primaryPool.getConnection());
+                }
+                Object auditStats = CompletableFuture.supplyAsync(context.getBean(AuditLogService.class)::getAuditLogStats)
+                    .get(10, TimeUnit.SECONDS);
+                Object revenue = CompletableFuture.supplyAsync(
+                    () -> context.getBean(PaymentService.class).getRevenueStats("daily", null, null)).get(10, TimeUnit.SECONDS);
+                System.out.println("Stats with the primary pool exhausted (" + held.size() + " held): audit " +
+                    auditStats + ", revenue " + (revenue != null));
+            } catch (Exception e) {
+                System.out.println("Stats blocked behind the primary pool: " + e);
+                ok = false;
+            } finally {
+                for (Connection connection : held) {
+                    connection.close();
+                }
+            }
+
+            // One entity manager across transactions, as open-in-view keeps it for the request
+            EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+            SpecializationRepository specializationRepository = context.getBean(SpecializationRepository.class);
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+            try {
+                readOnly.execute(status -> specializationRepository.count());
+                readWrite.executeWithoutResult(status -> {
+                    Specialization specialization = new Specialization();
+                    specialization.setName("Written After Read");
+                    specialization.setStatus(Specialization.Status.ACTIVE);
+                    specializationRepository.save(specialization);
+                });
+            } finally {
+                TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                entityManager.close();
+            }
+            String written = "SELECT COUNT(*) FROM specialization WHERE name = 'Written After Read'";
+            boolean onPrimary = primary.queryForObject(written, Integer.class) == 1
+                && replica.queryForObject(written, Integer.class) == 0;
+            System.out.println("Write after a read-only transaction went to the primary: " + onPrimary);
+            ok &= onPrimary;
+
+            System.out.println("Pool stats: " + routing.getStats());
+            ok &= routing.getRoutedConnections(ReadReplicaRoutingDataSource.Target.REPLICA) >= 4;
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            Files.deleteIfExists(snapshot);
+            SpringApplication.exit(context);
+        }
+    }
+}
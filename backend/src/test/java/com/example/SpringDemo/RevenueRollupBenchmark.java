@@ -0,0 +1,255 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.dto.PaymentRequest;
+import com.example.SpringDemo.entity.Payment;
+import com.example.SpringDemo.service.PaymentService;
+import com.example.SpringDemo.service.RevenueRollupService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Checks the rollup filled at startup from the seed payments. Loads a large payment history (some payments
+ * without a doctor), rebuilds the revenue rollup and checks daily/weekly/monthly revenue
+ * against GROUP BY queries on the payment table. Then creates, re-statuses, edits and deletes payments
+ * through PaymentService on many threads (every fifth change rolled back) and checks the rollup still
+ * equals the payment table. The specialization breakdown must add up to the range total and the doctor
+ * breakdown come highest first. Finally times the revenue endpoint against the direct aggregation.
+ *
+ * Usage: main [payments] [operations]  (defaults 300000 1000)
+ */
+public class RevenueRollupBenchmark {
+
+    private static final long PATIENT_ID = 3L;
+    private static final long APPOINTMENT_ID = 20_000_000L;
+    private static final String[] METHODS = {"CARD", "CASH", "UPI", "NETBANKING"};
+    private static final String[] STATUSES = {"SUCCESS", "PENDING", "FAILED"};
+    private static final int THREADS = 8;
+    private static final int RUNS = 20;
+
+    // What the rollup must contain, computed from the payment table
+    private static final String EXPECTED_ROLLUP_SQL =
+        "SELECT CAST(p.payment_date AS DATE), p.method, COALESCE(d.doctor_id, 0), SUM(p.amount), COUNT(*) " +
+        "FROM payment p LEFT JOIN appointments a ON a.id = p.appointment_id " +
+        "LEFT JOIN doctors d ON d.doctor_id = COALESCE(a.doctor_id, p.temp_doctor_id) " +
+        "WHERE p.status = 'SUCCESS' AND p.deleted_at IS NULL " +
+        "GROUP BY CAST(p.payment_date AS DATE), p.method, COALESCE(d.doctor_id, 0)";
+
+    private static final String ROLLUP_SQL =
+        "SELECT revenue_date, method, doctor_id, SUM(amount), SUM(payment_count) FROM revenue_daily_rollup " +
+        "GROUP BY revenue_date, method, doctor_id HAVING SUM(payment_count) <> 0 OR SUM(amount) <> 0";
+
+    private static final String MONTHLY_FROM_PAYMENTS_SQL =
+        "SELECT FORMATDATETIME(payment_date, 'yyyy-MM'), SUM(amount) FROM payment " +
+        "WHERE status = 'SUCCESS' AND deleted_at IS NULL AND payment_date >= ? AND payment_date < ? " +
+        "GROUP BY FORMATDATETIME(payment_date, 'yyyy-MM')";
+
+    public static void main(String[] args) throws Exception {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 300000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            PaymentService paymentService = context.getBean(PaymentService.class);
+            RevenueRollupService revenueRollupService = context.getBean(RevenueRollupService.class);
+            LocalDate today = LocalDate.now();
+            boolean ok = sameRollup(jdbcTemplate, "at startup");
+
+            // Two years of history over the first doctors; ids far above the sequence
+            jdbcTemplate.update("INSERT INTO appointments (id, patient_id, doctor_id, appointment_date, appointment_time, " +
+                "end_time, status, appointment_type, consultation_fee, created_at) " +
+                "VALUES (?, ?, 2, DATEADD('DAY', 1, CURRENT_DATE), '09:00', '09:30', 'SCHEDULED', 'CONSULTATION', 500.00, CURRENT_TIMESTAMP)",
+                APPOINTMENT_ID, PATIENT_ID);
+            long start = System.nanoTime();
+            jdbcTemplate.execute("INSERT INTO payment (id, payment_id, patient_id, amount, method, status, payment_date, " +
+                "temp_doctor_id, created_at) " +
+                "SELECT 10000000 + X, 'BENCH-' || X, " + PATIENT_ID + ", 100 + MOD(X * 7, 900) + 0.25, " +
+                "CASE MOD(X, 4) WHEN 0 THEN 'CARD' WHEN 1 THEN 'CASH' WHEN 2 THEN 'UPI' ELSE 'NETBANKING' END, " +
+                "CASE WHEN MOD(X, 10) < 7 THEN 'SUCCESS' WHEN MOD(X, 10) < 9 THEN 'PENDING' ELSE 'FAILED' END, " +
+                "DATEADD('MINUTE', -MOD(X * 37, 730 * 1440), CURRENT_TIMESTAMP), NULLIF(1 + MOD(X, 6), 6), CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, " + payments + ")");
+            System.out.printf("Inserted %d payments in %d ms%n", payments, (System.nanoTime() - start) / 1_000_000);
+
+            start = System.nanoTime();
+            int rollupRows = revenueRollupService.rebuild();
+            System.out.printf("Rebuilt rollup: %d rows in %d ms%n", rollupRows, (System.nanoTime() - start) / 1_000_000);
+
+            ok &= sameRollup(jdbcTemplate, "after rebuild");
+            ok &= sameMonthly(jdbcTemplate, revenueRollupService, today);
+            ok &= sameTotals(jdbcTemplate, revenueRollupService, today);
+
+            List<Long> paymentIds = jdbcTemplate.queryForList(
+                "SELECT id FROM payment WHERE deleted_at IS NULL ORDER BY id LIMIT " + operations, Long.class);
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    Runnable operation = operation(n, paymentIds.get(n), paymentService);
+                    if (n % 5 == 4) {
+                        tx.executeWithoutResult(status -> {
+                            operation.run();
+                            status.setRollbackOnly();
+                        });
+                    } else {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+            int failed = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    if (failed++ == 0) {
+                        System.out.println("First failure: " + e.getMessage());
+                    }
+                }
+            }
+            pool.shutdown();
+            System.out.printf("%d payment changes on %d threads in %d ms (%d failed)%n",
+                operations, THREADS, (System.nanoTime() - start) / 1_000_000, failed);
+            ok &= failed == 0 && sameRollup(jdbcTemplate, "after concurrent changes");
+            ok &= sameTotals(jdbcTemplate, revenueRollupService, today);
+
+            double rollupMs = time(() -> revenueRollupService.getRevenueStats("monthly", today.minusYears(2), today));
+            double dailyMs = time(() -> revenueRollupService.getRevenueStats("daily", null, null));
+            double tableMs = time(() -> jdbcTemplate.queryForList(MONTHLY_FROM_PAYMENTS_SQL,
+                today.minusYears(2), today.plusDays(1)));
+            System.out.printf("Revenue, 24 months: rollup %.2f ms, payment table %.2f ms; 30 days from rollup %.2f ms%n",
+                rollupMs, tableMs, dailyMs);
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static Runnable operation(int n, Long paymentId, PaymentService paymentService) {
+        switch (n % 4) {
+            case 0:
+                return () -> {
+                    PaymentRequest request = new PaymentRequest();
+                    request.setAppointmentId(APPOINTMENT_ID);
+                    request.setPatientId(PATIENT_ID);
+                    request.setAmount(new BigDecimal("500.00"));
+                    request.setMethod(METHODS[n % METHODS.length]);
+                    request.setStatus("SUCCESS");
+                    paymentService.createPayment(request);
+                };
+            case 1:
+                return () -> paymentService.updatePaymentStatus(paymentId, STATUSES[(n / 4) % STATUSES.length], null);
+            case 2:
+                return () -> {
+                    PaymentRequest request = new PaymentRequest();
+                    request.setAmount(new BigDecimal("123.45"));
+                    request.setMethod(METHODS[(n / 4) % METHODS.length]);
+                    paymentService.updatePayment(paymentId, request);
+                };
+            default:
+                return () -> paymentService.deletePayment(paymentId);
+        }
+    }
+
+    private static boolean sameRollup(JdbcTemplate jdbcTemplate, String label) {
+        Map<String, String> expected = keyed(jdbcTemplate.queryForList(EXPECTED_ROLLUP_SQL));
+        Map<String, String> actual = keyed(jdbcTemplate.queryForList(ROLLUP_SQL));
+        boolean same = expected.equals(actual);
+        System.out.println("Rollup equals payment table " + label + ": " + same + " (" + actual.size() + " keys)");
+        if (!same) {
+            int shown = 0;
+            for (String key : expected.keySet()) {
+                if (!expected.get(key).equals(actual.get(key)) && shown++ < 5) {
+                    System.out.println("  " + key + ": expected " + expected.get(key) + ", rollup " + actual.get(key));
+                }
+            }
+        }
+        return same;
+    }
+
+    // date|method|doctor -> amount|count, with the amount normalized to two decimals
+    private static Map<String, String> keyed(List<Map<String, Object>> rows) {
+        Map<String, String> map = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            Object[] values = row.values().toArray();
+            map.put(values[0] + "|" + values[1] + "|" + values[2],
+                new BigDecimal(values[3].toString()).setScale(2) + "|" + ((Number) values[4]).longValue());
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean sameMonthly(JdbcTemplate jdbcTemplate, RevenueRollupService revenueRollupService, LocalDate today) {
+        LocalDate from = today.minusYears(2).withDayOfMonth(1);
+        Map<String, Object> stats = revenueRollupService.getRevenueStats("monthly", from, today);
+        Map<String, BigDecimal> series = (Map<String, BigDecimal>) stats.get("monthlyRevenue");
+        boolean same = true;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(MONTHLY_FROM_PAYMENTS_SQL, from, today.plusDays(1))) {
+            Object[] values = row.values().toArray();
+            BigDecimal expected = new BigDecimal(values[1].toString());
+            BigDecimal actual = series.get(values[0].toString());
+            if (actual == null || actual.compareTo(expected) != 0) {
+                System.out.println("  month " + values[0] + ": expected " + expected + ", rollup " + actual);
+                same = false;
+            }
+        }
+        System.out.println("Monthly revenue equals payment table: " + same + " (" + series.size() + " months)");
+        return same;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean sameTotals(JdbcTemplate jdbcTemplate, RevenueRollupService revenueRollupService, LocalDate today) {
+        BigDecimal expectedTotal = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(amount), 0) FROM payment WHERE status = 'SUCCESS' AND deleted_at IS NULL", BigDecimal.class);
+        BigDecimal expectedLast30 = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(amount), 0) FROM payment WHERE status = 'SUCCESS' AND deleted_at IS NULL " +
+            "AND payment_date >= ?", BigDecimal.class, today.minusDays(29));
+        Map<String, Object> stats = revenueRollupService.getRevenueStats("daily", null, null);
+        Map<String, BigDecimal> daily = (Map<String, BigDecimal>) stats.get("dailyRevenue");
+        boolean same = expectedTotal.compareTo((BigDecimal) stats.get("totalRevenue")) == 0
+            && expectedLast30.compareTo((BigDecimal) stats.get("rangeRevenue")) == 0 && daily.size() == 30;
+        System.out.println("Totals: " + stats.get("totalRevenue") + " (table " + expectedTotal + "), last 30 days "
+            + stats.get("rangeRevenue") + " (table " + expectedLast30 + "), " + daily.size() + " days: " + same);
+
+        Map<String, BigDecimal> bySpecialization = (Map<String, BigDecimal>) stats.get("rangeRevenueBySpecialization");
+        BigDecimal specializationSum = bySpecialization.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<BigDecimal> byDoctor = new ArrayList<>(((Map<String, BigDecimal>) stats.get("rangeRevenueByDoctor")).values());
+        boolean doctorsSorted = true;
+        for (int i = 1; i < byDoctor.size(); i++) {
+            doctorsSorted &= byDoctor.get(i - 1).compareTo(byDoctor.get(i)) >= 0;
+        }
+        boolean breakdowns = specializationSum.compareTo((BigDecimal) stats.get("rangeRevenue")) == 0 && doctorsSorted;
+        System.out.println("Specializations add up (" + bySpecialization.keySet() + "): "
+            + (specializationSum.compareTo((BigDecimal) stats.get("rangeRevenue")) == 0)
+            + ", doctors highest first: " + doctorsSorted);
+        return same && breakdowns;
+    }
+
+    private static double time(Supplier<?> query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
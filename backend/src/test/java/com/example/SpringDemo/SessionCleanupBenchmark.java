@@ -0,0 +1,119 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.Session;
+import com.example.SpringDemo.repository.SessionRepository;
+import com.example.SpringDemo.service.SessionCleanupService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the session table with a mix of live, expired, long-inactive and soft-deleted sessions and runs
+ * both cleanup jobs, checking every count and the final table state (a second run must find nothing).
+ * For comparison, the previous approach - load each expired session as an entity (with its user) and
+ * save it - is timed on a smaller set first.
+ *
+ * Usage: main [sessions] [baselineSessions]  (defaults 300000 20000)
+ */
+public class SessionCleanupBenchmark {
+
+    private static final long USER_ID = 3L;
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 300000;
+        int baselineSessions = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            SessionRepository sessionRepository = context.getBean(SessionRepository.class);
+            SessionCleanupService cleanupService = context.getBean(SessionCleanupService.class);
+
+            // Previous hourly job: every expired session loaded as an entity and saved one by one
+            insert(jdbcTemplate, 20_000_000L, baselineSessions, "TRUE", "DATEADD('HOUR', -1, CURRENT_TIMESTAMP)", "NULL", "NULL");
+            long start = System.nanoTime();
+            tx.executeWithoutResult(status -> {
+                List<Session> expired = sessionRepository.findAllById(
+                    jdbcTemplate.queryForList("SELECT id FROM session WHERE id >= 20000000", Long.class));
+                for (Session session : expired) {
+                    session.setIsActive(false);
+                    session.setUpdatedAt(LocalDateTime.now());
+                    sessionRepository.save(session);
+                }
+            });
+            long baselineMs = (System.nanoTime() - start) / 1_000_000;
+            jdbcTemplate.update("DELETE FROM session WHERE id >= 20000000");
+            System.out.printf("Entity loop: %d expired sessions in %d ms (%.1f us/session)%n",
+                baselineSessions, baselineMs, baselineMs * 1000.0 / baselineSessions);
+
+            // Live / expired / inactive 40 days / deleted 100 days ago / deleted 10 days ago, 1:2:1:0.5:0.5
+            int unit = sessions / 5;
+            insert(jdbcTemplate, 10_000_000L, unit, "TRUE", "DATEADD('DAY', 3, CURRENT_TIMESTAMP)", "NULL", "NULL");
+            insert(jdbcTemplate, 11_000_000L, 2 * unit, "TRUE", "DATEADD('HOUR', -2, CURRENT_TIMESTAMP)", "NULL", "NULL");
+            insert(jdbcTemplate, 12_000_000L, unit, "FALSE", "DATEADD('DAY', -33, CURRENT_TIMESTAMP)",
+                "DATEADD('DAY', -40, CURRENT_TIMESTAMP)", "NULL");
+            insert(jdbcTemplate, 13_000_000L, unit / 2, "FALSE", "DATEADD('DAY', -93, CURRENT_TIMESTAMP)",
+                "DATEADD('DAY', -100, CURRENT_TIMESTAMP)", "DATEADD('DAY', -100, CURRENT_TIMESTAMP)");
+            insert(jdbcTemplate, 14_000_000L, unit / 2, "FALSE", "DATEADD('DAY', -3, CURRENT_TIMESTAMP)",
+                "DATEADD('DAY', -10, CURRENT_TIMESTAMP)", "DATEADD('DAY', -10, CURRENT_TIMESTAMP)");
+
+            start = System.nanoTime();
+            int expired = cleanupService.cleanupExpiredSessions();
+            long expiryMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("Set-based expiry: %d sessions in %d ms (%.1f us/session)%n",
+                expired, expiryMs, expiryMs * 1000.0 / Math.max(1, expired));
+
+            start = System.nanoTime();
+            Map<String, Integer> purge = cleanupService.cleanupOldInactiveSessions();
+            long purgeMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("Set-based soft delete + purge: %s in %d ms%n", purge, purgeMs);
+
+            boolean ok = expired == 2 * unit
+                && purge.get("softDeleted") == unit
+                && purge.get("purged") == unit / 2;
+
+            Long remaining = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM session WHERE id >= 10000000", Long.class);
+            Long live = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM session WHERE id >= 10000000 AND is_active = TRUE AND deleted_at IS NULL", Long.class);
+            Long expiredLeft = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM session WHERE id >= 10000000 AND is_active = TRUE AND expires_at < CURRENT_TIMESTAMP", Long.class);
+            Long deletedBy = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM session WHERE id >= 12000000 AND id < 13000000 AND deleted_by = " + USER_ID, Long.class);
+            System.out.printf("Remaining rows %d (live %d, expired still active %d, soft-deleted by owner %d)%n",
+                remaining, live, expiredLeft, deletedBy);
+            ok &= remaining == unit * 4L + unit / 2 && live == unit && expiredLeft == 0 && deletedBy == unit;
+
+            int expiredAgain = cleanupService.cleanupExpiredSessions();
+            Map<String, Integer> purgeAgain = cleanupService.cleanupOldInactiveSessions();
+            System.out.println("Second run: expired " + expiredAgain + ", " + purgeAgain);
+            ok &= expiredAgain == 0 && purgeAgain.get("softDeleted") == 0 && purgeAgain.get("purged") == 0;
+
+            System.out.println("Cleanup stats: " + cleanupService.getStats());
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    // Ids far above session_seq; 7-day tokens, so created_at is expires_at minus 7 days
+    private static void insert(JdbcTemplate jdbcTemplate, long firstId, int count, String active, String expiresAt,
+                               String updatedAt, String deletedAt) {
+        jdbcTemplate.execute("INSERT INTO session (id, user_id, user_type, session_token, token_hash, is_active, expires_at, " +
+            "created_at, updated_at, deleted_at) " +
+            "SELECT " + firstId + " + X, " + USER_ID + ", 'USER', 'bench-token-' || (" + firstId + " + X), " +
+            "LOWER(RAWTOHEX(HASH('SHA-256', 'bench-token-' || (" + firstId + " + X)))), " + active + ", " +
+            expiresAt + ", DATEADD('DAY', -7, " + expiresAt + "), COALESCE(" + updatedAt + ", CURRENT_TIMESTAMP), " +
+            deletedAt + " FROM SYSTEM_RANGE(0, " + (count - 1) + ")");
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.Session;
+import com.example.SpringDemo.repository.SessionRepository;
+import com.example.SpringDemo.util.TokenDigest;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Times the per-request session lookup by token digest against matching the full token string, on a
+ * session table of N rows with JWT-sized tokens, at two table sizes (the digest lookup should not grow).
+ * Also checks that the database's SHA-256 (used by the V1.2 backfill) matches TokenDigest, that a saved
+ * session gets its digest, and that the lookup and invalidation queries use the new indexes.
+ *
+ * Usage: main [sessions] [lookups]  (defaults 300000 2000)
+ */
+public class SessionLookupBenchmark {
+
+    private static final long USER_ID = 3L;
+    // Roughly the length of the tokens this application issues
+    private static final String TOKEN_PADDING = "x".repeat(400);
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 300000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            SessionRepository sessionRepository = context.getBean(SessionRepository.class);
+
+            String sample = token(42);
+            String databaseDigest = jdbcTemplate.queryForObject(
+                "SELECT LOWER(RAWTOHEX(HASH('SHA-256', ?)))", String.class, sample);
+            boolean ok = TokenDigest.sha256Hex(sample).equals(databaseDigest);
+            System.out.println("Database SHA-256 matches TokenDigest: " + ok);
+
+            Session session = new Session();
+            session.setUserType("USER");
+            session.setSessionToken("saved-" + sample);
+            session.setExpiresAt(LocalDateTime.now().plusDays(7));
+            session = sessionRepository.save(session);
+            Optional<Session> found = sessionRepository.findByTokenHashAndIsActiveTrueAndDeletedAtIsNull(
+                TokenDigest.sha256Hex("saved-" + sample));
+            ok &= found.isPresent() && found.get().getId().equals(session.getId());
+            System.out.println("Saved session found by digest: " + found.isPresent());
+
+            int half = sessions / 2;
+            insert(jdbcTemplate, 0, half);
+            time(jdbcTemplate, sessionRepository, half, lookups); // warm-up
+            double[] small = time(jdbcTemplate, sessionRepository, half, lookups);
+            insert(jdbcTemplate, half, sessions - half);
+            double[] large = time(jdbcTemplate, sessionRepository, sessions, lookups);
+            System.out.printf("%d sessions: digest lookup %.3f ms, full-token match %.3f ms%n", half, small[0], small[1]);
+            System.out.printf("%d sessions: digest lookup %.3f ms, full-token match %.3f ms%n", sessions, large[0], large[1]);
+            // Constant-time lookup: doubling the table must not double the digest lookup
+            ok &= large[0] < large[1] && large[0] < small[0] * 1.5 + 0.05;
+
+            ok &= usesIndex(jdbcTemplate, "SELECT * FROM session WHERE token_hash = '" + databaseDigest + "' " +
+                "AND is_active = TRUE AND deleted_at IS NULL", "UK_SESSION_TOKEN_HASH");
+            ok &= usesIndex(jdbcTemplate, "SELECT * FROM session WHERE user_id = 3 AND is_active = TRUE " +
+                "AND deleted_at IS NULL", "IDX_SESSION_USER_ACTIVE");
+            ok &= usesIndex(jdbcTemplate, "SELECT * FROM session WHERE doctor_id = 1 AND is_active = TRUE " +
+                "AND deleted_at IS NULL", "IDX_SESSION_DOCTOR_ACTIVE");
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static String token(long n) {
+        return "eyJhbGciOiJIUzI1NiJ9." + TOKEN_PADDING + "." + n;
+    }
+
+    // Ids far above session_seq; digests computed by the database like the V1.2 backfill
+    private static void insert(JdbcTemplate jdbcTemplate, int from, int count) {
+        jdbcTemplate.execute("INSERT INTO session (id, user_id, user_type, session_token, token_hash, is_active, " +
+            "expires_at, created_at, updated_at) " +
+            "SELECT 10000000 + X, " + USER_ID + ", 'USER', 'eyJhbGciOiJIUzI1NiJ9." + TOKEN_PADDING + ".' || X, " +
+            "LOWER(RAWTOHEX(HASH('SHA-256', 'eyJhbGciOiJIUzI1NiJ9." + TOKEN_PADDING + ".' || X))), TRUE, " +
+            "DATEADD('DAY', 7, CURRENT_TIMESTAMP), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+            "FROM SYSTEM_RANGE(" + from + ", " + (from + count - 1) + ")");
+    }
+
+    // Average ms per lookup of a random existing token: {by digest, by full token}
+    private static double[] time(JdbcTemplate jdbcTemplate, SessionRepository sessionRepository, int sessions, int lookups) {
+        Random random = new Random(7);
+        long digestNanos = 0;
+        long tokenNanos = 0;
+        int tokenLookups = Math.max(1, lookups / 100);
+        for (int i = 0; i < lookups; i++) {
+            String token = token(random.nextInt(sessions));
+            long start = System.nanoTime();
+            if (sessionRepository.findByTokenHashAndIsActiveTrueAndDeletedAtIsNull(TokenDigest.sha256Hex(token)).isEmpty()) {
+                throw new IllegalStateException("Session not found by digest");
+            }
+            digestNanos += System.nanoTime() - start;
+            if (i < tokenLookups) {
+                start = System.nanoTime();
+                jdbcTemplate.queryForList("SELECT id FROM session WHERE session_token = ? AND is_active = TRUE " +
+                    "AND deleted_at IS NULL", Long.class, token);
+                tokenNanos += System.nanoTime() - start;
+            }
+        }
+        return new double[] {digestNanos / 1e6 / lookups, tokenNanos / 1e6 / tokenLookups};
+    }
+
+    private static boolean usesIndex(JdbcTemplate jdbcTemplate, String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        boolean uses = plan != null && plan.toUpperCase().contains(index);
+        System.out.println(index + " used: " + uses);
+        return uses;
+    }
+}
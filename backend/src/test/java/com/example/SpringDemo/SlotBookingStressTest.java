@@ -0,0 +1,152 @@
+package com.example.SpringDemo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires thousands of parallel bookings at one slot against a running server and checks that exactly
+ * one of them wins - once through POST /api/appointments/book (by slot id) and once through
+ * POST /api/appointments (by doctor/date/time). Under {@code mvn test} it starts the application on a
+ * random port and runs a smaller burst.
+ *
+ * Usage: main [baseUrl] [doctorId] [requests] [threads]
+ * defaults: http://localhost:8080 1 2000 64. Books for patientId 3 on the first day from tomorrow on
+ * that still has two free slots.
+ */
+public class SlotBookingStressTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient CLIENT = HttpClient.newBuilder().build();
+
+    @Test
+    void exactlyOneBookingWinsEachSlot() throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--server.port=0",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            assertTrue(stress("http://localhost:" + port, 1L, 300, 32));
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        long doctorId = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+
+        boolean ok = stress(baseUrl, doctorId, requests, threads);
+        System.out.println(ok ? "PASSED" : "FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean stress(String baseUrl, long doctorId, int requests, int threads) throws Exception {
+        // Skips days off (weekends) and days already booked by earlier runs
+        LocalDate date = LocalDate.now().plusDays(1);
+        JsonNode slots = get(baseUrl + "/api/appointments/doctors/" + doctorId + "/slots?date=" + date).path("data");
+        for (int i = 1; i < 14 && slots.size() < 2; i++) {
+            date = date.plusDays(1);
+            slots = get(baseUrl + "/api/appointments/doctors/" + doctorId + "/slots?date=" + date).path("data");
+        }
+        if (slots.size() < 2) {
+            throw new IllegalStateException("Need a day with at least two free slots for doctor " + doctorId);
+        }
+
+        JsonNode bySlotId = slots.get(0);
+        String bookBody = "{\"slotId\":" + bySlotId.path("slotId").asLong()
+                + ",\"patientId\":3,\"symptoms\":\"stress test\",\"notes\":\"\"}";
+        boolean slotIdOk = run("POST /api/appointments/book slot " + bySlotId.path("slotId").asLong(),
+                baseUrl + "/api/appointments/book", bookBody, requests, threads);
+
+        JsonNode byTime = slots.get(1);
+        String createBody = "{\"patientId\":3,\"doctorId\":" + doctorId
+                + ",\"appointmentDate\":\"" + date + "\""
+                + ",\"appointmentTime\":" + timeObject(byTime.path("startTime").asText())
+                + ",\"endTime\":" + timeObject(byTime.path("endTime").asText())
+                + ",\"appointmentType\":\"CONSULTATION\",\"consultationFee\":500"
+                + ",\"symptoms\":\"stress test\",\"notes\":\"\"}";
+        boolean timeOk = run("POST /api/appointments slot " + byTime.path("slotId").asLong(),
+                baseUrl + "/api/appointments", createBody, requests, threads);
+
+        return slotIdOk && timeOk;
+    }
+
+    private static boolean run(String label, String url, String body, int requests, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>(requests);
+        try {
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return post(url, body);
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+
+            int succeeded = 0;
+            int rejected = 0;
+            int errors = 0;
+            for (Future<Integer> result : results) {
+                int status = result.get();
+                if (status == 200 || status == 201) {
+                    succeeded++;
+                } else if (status == 400 || status == 409) {
+                    rejected++;
+                } else {
+                    errors++;
+                }
+            }
+            long elapsedMs = (System.nanoTime() - begin) / 1_000_000;
+
+            System.out.println(label + ": " + requests + " requests in " + elapsedMs + " ms - "
+                    + succeeded + " booked, " + rejected + " rejected, " + errors + " errors");
+            return succeeded == 1 && errors == 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int post(String url, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    // AppointmentController reads times as {"hour":..,"minute":..} maps
+    private static String timeObject(String time) {
+        String[] parts = time.split(":");
+        return "{\"hour\":" + Integer.parseInt(parts[0]) + ",\"minute\":" + Integer.parseInt(parts[1]) + "}";
+    }
+
+    private static JsonNode get(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        return MAPPER.readTree(CLIENT.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+}
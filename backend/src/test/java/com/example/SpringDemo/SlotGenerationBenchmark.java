@@ -0,0 +1,120 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.service.SlotGenerationEngine;
+import com.example.SpringDemo.service.SlotGenerationPipeline;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times set-based slot generation for many doctors over a long window against the in-memory
+ * database: one run from empty, a second run that must find everything covered, and a nightly
+ * append of one more day from the materialized-through watermarks. Then changes one doctor's hours
+ * and queues re-plans for more doctors than the generation queue holds, from inside a transaction:
+ * the commit must not wait for them, and the changed doctor ends up without slots outside the new hours.
+ *
+ * Usage: main [doctors] [days] [engine|pipeline]  (defaults 1000 90 pipeline) - "engine" runs the single
+ * transaction pass, "pipeline" the parallel per-doctor one (thread count from app.slot-generation.threads).
+ */
+public class SlotGenerationBenchmark {
+
+    private static final String INSERT_DOCTOR_SQL =
+        "INSERT INTO doctors (first_name, last_name, email, password_hash, contact, gender, specialization_id, " +
+        "license_number, years_of_exp, qualification, consultation_fee, joining_date, active, " +
+        "slot_start_time, slot_end_time, appointment_duration, working_days, created_at) " +
+        "VALUES ('Bench', ?, ?, 'x', ?, 'MALE', 1, ?, 5, 'MBBS', 300.00, CURRENT_DATE, true, " +
+        "'09:00', '17:00', 30, 'MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY', CURRENT_TIMESTAMP)";
+
+    public static void main(String[] args) {
+        int doctorCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 90;
+        boolean parallel = args.length <= 2 || "pipeline".equals(args[2]);
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            SlotGenerationEngine engine = context.getBean(SlotGenerationEngine.class);
+            SlotGenerationPipeline pipeline = context.getBean(SlotGenerationPipeline.class);
+            DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+
+            List<Object[]> doctorRows = new ArrayList<>();
+            for (int i = 0; i < doctorCount; i++) {
+                doctorRows.add(new Object[] {"Doctor" + i, "bench" + i + "@doctor.com", String.format("9%09d", i), "BENCH" + i});
+            }
+            jdbcTemplate.batchUpdate(INSERT_DOCTOR_SQL, doctorRows);
+
+            List<Doctor> doctors = doctorRepository.findAllActive();
+            LocalDate startDate = LocalDate.now();
+            LocalDate endDate = startDate.plusDays(days - 1);
+            System.out.println("Generating slots for " + doctors.size() + " doctors x " + days + " days ("
+                + (parallel ? "pipeline" : "engine") + ")");
+
+            long start = System.nanoTime();
+            int created = parallel ? pipeline.run(doctors, startDate, endDate) : engine.generateSlots(doctors, startDate, endDate);
+            long firstMs = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            int createdAgain = parallel ? pipeline.run(doctors, startDate, endDate) : engine.generateSlots(doctors, startDate, endDate);
+            long secondMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Nightly job: reload the watermarks and append only the next day
+            List<Doctor> reloaded = doctorRepository.findAllActive();
+            start = System.nanoTime();
+            int appended = pipeline.extend(reloaded, endDate.plusDays(1));
+            long nightlyMs = (System.nanoTime() - start) / 1_000_000;
+
+            Integer duplicates = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT doctor_id, slot_date, start_time FROM doctor_slots " +
+                "GROUP BY doctor_id, slot_date, start_time HAVING COUNT(*) > 1) d", Integer.class);
+
+            System.out.println("First run:  " + created + " slots in " + firstMs + " ms");
+            System.out.println("Second run: " + createdAgain + " slots in " + secondMs + " ms");
+            System.out.println("Nightly:    " + appended + " slots in " + nightlyMs + " ms");
+            System.out.println("Duplicate slot times: " + duplicates);
+            boolean ok = createdAgain == 0 && duplicates == 0;
+
+            // Schedule change: the first doctor now works mornings only; re-plans are submitted after commit
+            Long changed = reloaded.get(0).getDoctorId();
+            List<Long> others = reloaded.stream().skip(1).limit(300).map(Doctor::getDoctorId).toList();
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            start = System.nanoTime();
+            tx.executeWithoutResult(status -> {
+                jdbcTemplate.update("UPDATE doctors SET slot_end_time = '13:00' WHERE doctor_id = ?", changed);
+                pipeline.replanAsync(changed);
+                others.forEach(pipeline::replanAsync);
+            });
+            long submitMs = (System.nanoTime() - start) / 1_000_000;
+            long deadline = System.currentTimeMillis() + 120_000;
+            Map<String, Object> stats = pipeline.getStats();
+            while (((Number) stats.get("replans")).longValue() + ((Number) stats.get("replansFailed")).longValue() < others.size() + 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                stats = pipeline.getStats();
+            }
+            Integer outsideHours = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor_slots WHERE doctor_id = ? " +
+                "AND status = 'AVAILABLE' AND slot_date >= CURRENT_DATE AND start_time >= '13:00'", Integer.class, changed);
+            System.out.println("Re-plan: " + (others.size() + 1) + " queued in " + submitMs + " ms, " + stats.get("replans")
+                + " done, " + stats.get("replansFailed") + " failed, " + outsideHours + " slots left outside the new hours");
+            ok &= outsideHours == 0 && ((Number) stats.get("replansFailed")).longValue() == 0
+                && ((Number) stats.get("replans")).longValue() == others.size() + 1;
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.Appointment;
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.entity.DoctorSlot;
+import com.example.SpringDemo.entity.User;
+import com.example.SpringDemo.repository.AppointmentRepository;
+import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.repository.DoctorSlotRepository;
+import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.service.AppointmentService;
+import com.example.SpringDemo.service.AuditLogService;
+import com.example.SpringDemo.service.ComplaintService;
+import com.example.SpringDemo.service.DashboardService;
+import com.example.SpringDemo.service.DoctorSlotService;
+import com.example.SpringDemo.service.PaymentService;
+import com.example.SpringDemo.service.SessionService;
+import com.example.SpringDemo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements each appointment/slot listing issues, including JSON serialization of
+ * the result outside any session (an association the query did not fetch would fail there).
+ * Appointments are spread over several doctors so an N+1 shows up as a count well above the limit.
+ * Also checks that each stats call is a single aggregate query and that concurrent dashboard requests
+ * after the cache expires trigger only one recomputation. Runs under {@code mvn test} with the defaults.
+ *
+ * Usage: main [appointments]  (default 200)
+ */
+public class SqlStatementCountTest {
+
+    private static final long PATIENT_ID = 3L;
+    private static final long DOCTOR_ID = 1L;
+    private static final String DOCTOR_EMAIL = "rajesh.sharma@doctor.com";
+
+    private static int failures;
+
+    @Test
+    void listingsStayWithinStatementLimits() throws Exception {
+        assertTrue(verify(200));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!verify(args.length > 0 ? Integer.parseInt(args[0]) : 200)) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean verify(int appointmentCount) throws Exception {
+        failures = 0;
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--spring.jpa.properties.hibernate.generate_statistics=true",
+            "--app.dashboard.cache-ttl-ms=1000",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+            DoctorSlotRepository doctorSlotRepository = context.getBean(DoctorSlotRepository.class);
+            AppointmentRepository appointmentRepository = context.getBean(AppointmentRepository.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            AppointmentService appointmentService = context.getBean(AppointmentService.class);
+            DoctorSlotService doctorSlotService = context.getBean(DoctorSlotService.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+            // Round-robin over the first doctors; half are moved into the past afterwards (validation rejects past dates)
+            LocalDate firstDate = LocalDate.now().plusDays(1);
+            tx.executeWithoutResult(status -> {
+                List<Doctor> doctors = doctorRepository.findAllActive().stream().limit(5).toList();
+                User patient = userRepository.findById(PATIENT_ID).orElseThrow();
+                List<DoctorSlot> slots = new ArrayList<>();
+                for (int i = 0; i < appointmentCount; i++) {
+                    DoctorSlot slot = new DoctorSlot();
+                    slot.setDoctor(doctors.get(i % doctors.size()));
+                    slot.setSlotDate(firstDate.plusDays(i / 2));
+                    slot.setStartTime(LocalTime.of(8, 0).plusMinutes((i % 2) * 15L));
+                    slot.setEndTime(slot.getStartTime().plusMinutes(15));
+                    slot.setStatus(DoctorSlot.SlotStatus.BOOKED);
+                    slot.setCreatedBy(1L);
+                    slots.add(slot);
+                }
+                doctorSlotRepository.saveAll(slots);
+                List<Appointment> appointments = new ArrayList<>();
+                for (DoctorSlot slot : slots) {
+                    Appointment appointment = new Appointment();
+                    appointment.setPatient(patient);
+                    appointment.setDoctor(slot.getDoctor());
+                    appointment.setDoctorSlot(slot);
+                    appointment.setAppointmentDate(slot.getSlotDate());
+                    appointment.setAppointmentTime(slot.getStartTime());
+                    appointment.setEndTime(slot.getEndTime());
+                    appointment.setStatus(Appointment.Status.SCHEDULED);
+                    appointment.setAppointmentType(Appointment.AppointmentType.CONSULTATION);
+                    appointment.setConsultationFee(new BigDecimal("300.00"));
+                    appointments.add(appointment);
+                }
+                appointmentRepository.saveAll(appointments);
+            });
+            context.getBean(JdbcTemplate.class).update(
+                "UPDATE appointments SET appointment_date = DATEADD('DAY', -400, appointment_date) WHERE MOD(id, 2) = 0");
+
+            PageRequest page = PageRequest.of(0, 50, Sort.by("appointmentDate"));
+            check("patient appointments page", 2, statistics, objectMapper,
+                () -> appointmentService.getAppointmentsByPatient(PATIENT_ID, page));
+            check("doctor appointments page", 2, statistics, objectMapper,
+                () -> appointmentService.getAppointmentsByDoctor(DOCTOR_ID, page));
+            check("search appointments", 2, statistics, objectMapper,
+                () -> appointmentService.searchAppointments(PATIENT_ID, null, null, null, null, null, page));
+            check("upcoming appointments", 1, statistics, objectMapper,
+                () -> appointmentService.getUpcomingAppointmentsByPatient(PATIENT_ID));
+            check("past appointments", 1, statistics, objectMapper,
+                () -> appointmentService.getPastAppointmentsByPatient(PATIENT_ID));
+            check("patient paginated (upcoming)", 2, statistics, objectMapper,
+                () -> appointmentService.getAppointmentsByPatientPaginatedWithDateFilter(PATIENT_ID, null, "upcoming", page));
+            check("admin appointments", 2, statistics, objectMapper,
+                () -> appointmentService.getAllAppointments(null, null, null, null, null, null, page));
+            check("admin search", 2, statistics, objectMapper,
+                () -> appointmentService.getAllAppointments("a", "a", null, null, null, null, page));
+            check("admin appointments (cursor)", 1, statistics, objectMapper,
+                () -> appointmentService.getAllAppointmentsByCursor(null, null, null, null, null, null, null, 50));
+            check("doctor slots of a day", 1, statistics, objectMapper,
+                () -> doctorSlotService.getAvailableSlotsByDoctorAndDate(DOCTOR_ID, firstDate));
+
+            // Doctor lookup from the security context (doctor + specialization) comes on top of select + count
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                DOCTOR_EMAIL, null, List.of(new SimpleGrantedAuthority("ROLE_DOCTOR"))));
+            try {
+                check("my appointments (doctor)", 4, statistics, objectMapper,
+                    () -> appointmentService.getMyAppointmentsAsDoctor(page, null, null, null, null, null));
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+
+            check("appointment stats", 1, statistics, objectMapper,
+                () -> appointmentService.getAppointmentStats());
+            check("payment stats", 1, statistics, objectMapper,
+                () -> context.getBean(PaymentService.class).getPaymentStats());
+            check("complaint stats", 1, statistics, objectMapper,
+                () -> context.getBean(ComplaintService.class).getComplaintStats());
+            check("audit log stats", 1, statistics, objectMapper,
+                () -> context.getBean(AuditLogService.class).getAuditLogStats());
+            check("user stats", 1, statistics, objectMapper,
+                () -> context.getBean(UserService.class).getUserStats());
+            check("session stats", 1, statistics, objectMapper,
+                () -> context.getBean(SessionService.class).getSessionStats());
+
+            DashboardService dashboardService = context.getBean(DashboardService.class);
+            check("dashboard", 6, statistics, objectMapper, dashboardService::getDashboard);
+            check("dashboard (cached)", 0, statistics, objectMapper, dashboardService::getDashboard);
+            checkDashboardStampede(dashboardService);
+
+            System.out.println(failures == 0 ? "PASSED" : "FAILED (" + failures + ")");
+            return failures == 0;
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    // Once the cached snapshot expires, many simultaneous requests must share one recomputation
+    private static void checkDashboardStampede(DashboardService dashboardService) throws Exception {
+        int callers = 32;
+        Thread.sleep(1100);
+        long before = (Long) dashboardService.getCacheStats().get("computations");
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            calls.add(pool.submit(() -> {
+                start.await();
+                return dashboardService.getDashboard();
+            }));
+        }
+        start.countDown();
+        for (Future<?> call : calls) {
+            call.get();
+        }
+        pool.shutdown();
+        long recomputations = (Long) dashboardService.getCacheStats().get("computations") - before;
+        boolean ok = recomputations == 1;
+        if (!ok) {
+            failures++;
+        }
+        System.out.println("dashboard stampede: " + callers + " concurrent requests, " + recomputations
+            + " recomputation(s) " + dashboardService.getCacheStats() + (ok ? "" : " - FAILED"));
+    }
+
+    private static void check(String name, int maxStatements, Statistics statistics, ObjectMapper objectMapper,
+                              Supplier<Object> listing) {
+        statistics.clear();
+        int bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(listing.get()).length;
+        } catch (Exception e) {
+            failures++;
+            System.out.println(name + ": FAILED - " + e.getMessage());
+            return;
+        }
+        long statements = statistics.getPrepareStatementCount();
+        boolean ok = statements <= maxStatements;
+        if (!ok) {
+            failures++;
+        }
+        System.out.println(name + ": " + statements + " statements (max " + maxStatements + "), "
+            + bytes + " bytes" + (ok ? "" : " - FAILED"));
+    }
+}
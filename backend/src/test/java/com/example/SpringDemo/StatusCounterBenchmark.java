@@ -0,0 +1,222 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.dto.ComplaintRequest;
+import com.example.SpringDemo.dto.PaymentRequest;
+import com.example.SpringDemo.entity.Appointment;
+import com.example.SpringDemo.entity.Complaint;
+import com.example.SpringDemo.entity.Payment;
+import com.example.SpringDemo.repository.AppointmentRepository;
+import com.example.SpringDemo.repository.ComplaintRepository;
+import com.example.SpringDemo.repository.PaymentRepository;
+import com.example.SpringDemo.service.AppointmentService;
+import com.example.SpringDemo.service.ComplaintService;
+import com.example.SpringDemo.service.PaymentService;
+import com.example.SpringDemo.service.StatusCounterRegistry;
+import com.example.SpringDemo.util.GroupCounts;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Bulk-loads appointments behind the services' back (the next reconcile must correct the counters),
+ * then runs creates, status changes, soft deletes and rolled-back changes on many threads through
+ * the services. Afterwards the counters must equal the table counts without any correction. Finally
+ * times the stats calls against the GROUP BY query they replace.
+ *
+ * Usage: main [bulkAppointments] [operations]  (defaults 300000 2000)
+ */
+public class StatusCounterBenchmark {
+
+    private static final long PATIENT_ID = 3L;
+    private static final String[] APPOINTMENT_STATUSES = {"SCHEDULED", "COMPLETED", "CANCELLED"};
+    private static final String[] PAYMENT_STATUSES = {"SUCCESS", "PENDING", "FAILED"};
+    private static final String[] COMPLAINT_STATUSES = {"OPEN", "IN_PROGRESS", "RESOLVED", "CLOSED"};
+    private static final int THREADS = 8;
+    private static final int RUNS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int bulkAppointments = args.length > 0 ? Integer.parseInt(args[0]) : 300000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--app.status-counters.reconcile-ms=3600000",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            StatusCounterRegistry counters = context.getBean(StatusCounterRegistry.class);
+            AppointmentService appointmentService = context.getBean(AppointmentService.class);
+            PaymentService paymentService = context.getBean(PaymentService.class);
+            ComplaintService complaintService = context.getBean(ComplaintService.class);
+            AppointmentRepository appointmentRepository = context.getBean(AppointmentRepository.class);
+            PaymentRepository paymentRepository = context.getBean(PaymentRepository.class);
+            ComplaintRepository complaintRepository = context.getBean(ComplaintRepository.class);
+
+            boolean ok = counters.isReady();
+
+            // Rows the services never saw: only the reconcile pass can pick them up (ids far above the sequence)
+            jdbcTemplate.execute("INSERT INTO appointments (id, patient_id, doctor_id, appointment_date, appointment_time, " +
+                "end_time, status, appointment_type, consultation_fee, created_at) " +
+                "SELECT 10000000 + X, " + PATIENT_ID + ", 1, DATEADD('DAY', 1 + MOD(X, 365), CURRENT_DATE), '09:00', '09:30', " +
+                "CASEWHEN(MOD(X, 3) = 0, 'COMPLETED', CASEWHEN(MOD(X, 3) = 1, 'SCHEDULED', 'CANCELLED')), " +
+                "'CONSULTATION', 300.00, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + bulkAppointments + ")");
+            long correctionsBefore = (Long) counters.getStats().get("corrections");
+            counters.reconcile();
+            long bulkCorrections = (Long) counters.getStats().get("corrections") - correctionsBefore;
+            System.out.println("Bulk insert of " + bulkAppointments + " appointments: " + bulkCorrections + " counter corrections");
+            ok &= bulkCorrections > 0 && matches(counters, appointmentRepository, paymentRepository, complaintRepository);
+
+            List<Long> appointmentIds = jdbcTemplate.queryForList(
+                "SELECT id FROM appointments WHERE deleted_at IS NULL ORDER BY id DESC LIMIT " + operations, Long.class);
+
+            // Mixed workload; every fifth operation runs in a transaction that is rolled back
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    Runnable operation = operation(n, appointmentIds.get(n), appointmentService, paymentService, complaintService);
+                    if (n % 5 == 4) {
+                        tx.executeWithoutResult(status -> {
+                            operation.run();
+                            status.setRollbackOnly();
+                        });
+                    } else {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+            int failed = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    if (failed++ == 0) {
+                        System.out.println("First failure: " + e.getMessage());
+                    }
+                }
+            }
+            pool.shutdown();
+            System.out.printf("%d service operations on %d threads in %d ms (%d failed)%n",
+                operations, THREADS, (System.nanoTime() - start) / 1_000_000, failed);
+
+            ok &= matches(counters, appointmentRepository, paymentRepository, complaintRepository);
+            correctionsBefore = (Long) counters.getStats().get("corrections");
+            counters.reconcile();
+            long driftCorrections = (Long) counters.getStats().get("corrections") - correctionsBefore;
+            System.out.println("Corrections after the workload: " + driftCorrections);
+            ok &= driftCorrections == 0 && failed == 0;
+
+            double counterMs = time(appointmentService::getAppointmentStats);
+            double queryMs = time(appointmentRepository::countGroupedByStatus);
+            System.out.printf("getAppointmentStats from counters %.4f ms, GROUP BY over %d rows %.3f ms%n",
+                counterMs, appointmentRepository.count(), queryMs);
+            System.out.println("Counters: " + counters.getStats());
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static Runnable operation(int n, Long appointmentId, AppointmentService appointmentService,
+                                      PaymentService paymentService, ComplaintService complaintService) {
+        switch (n % 6) {
+            case 0:
+                return () -> appointmentService.updateAppointment(appointmentId,
+                    Map.of("status", APPOINTMENT_STATUSES[(n / 6) % APPOINTMENT_STATUSES.length]));
+            case 1:
+                return () -> appointmentService.deleteAppointment(appointmentId);
+            case 2:
+                return () -> {
+                    PaymentRequest request = new PaymentRequest();
+                    request.setAppointmentId(appointmentId);
+                    request.setPatientId(PATIENT_ID);
+                    request.setAmount(new BigDecimal("300.00"));
+                    request.setMethod("CASH");
+                    request.setStatus(PAYMENT_STATUSES[(n / 6) % PAYMENT_STATUSES.length]);
+                    Payment payment = paymentService.createPayment(request);
+                    paymentService.updatePaymentStatus(payment.getId(), PAYMENT_STATUSES[(n / 6 + 1) % PAYMENT_STATUSES.length], null);
+                };
+            case 3:
+                return () -> {
+                    ComplaintRequest request = new ComplaintRequest();
+                    request.setPatientId(PATIENT_ID);
+                    request.setCategory("SERVICE_ISSUE");
+                    request.setTitle("Counter benchmark complaint " + n);
+                    request.setDescription("Complaint created by the status counter benchmark");
+                    request.setContactPreference("EMAIL");
+                    Complaint complaint = complaintService.createComplaint(request);
+                    complaintService.updateComplaintStatus(complaint.getComplaintId(), COMPLAINT_STATUSES[(n / 6) % COMPLAINT_STATUSES.length]);
+                };
+            case 4:
+                return () -> {
+                    ComplaintRequest request = new ComplaintRequest();
+                    request.setPatientId(PATIENT_ID);
+                    request.setCategory("BILLING_ISSUE");
+                    request.setTitle("Counter benchmark complaint " + n);
+                    request.setDescription("Complaint deleted by the status counter benchmark");
+                    request.setContactPreference("CALL");
+                    Complaint complaint = complaintService.createComplaint(request);
+                    complaintService.updateComplaintStatus(complaint.getComplaintId(), "IN_PROGRESS", "Looking into it");
+                    complaintService.deleteComplaint(complaint.getComplaintId());
+                };
+            default:
+                return () -> appointmentService.updateAppointment(appointmentId, Map.of("status", "CANCELLED",
+                    "appointmentDate", LocalDate.now().plusDays(n % 30).toString()));
+        }
+    }
+
+    private static boolean matches(StatusCounterRegistry counters, AppointmentRepository appointmentRepository,
+                                   PaymentRepository paymentRepository, ComplaintRepository complaintRepository) {
+        boolean same = true;
+        List<Object[]> appointmentRows = appointmentRepository.countGroupedByStatus();
+        same &= matches(counters, StatusCounterRegistry.Kind.APPOINTMENT, Appointment.Status.values(),
+            GroupCounts.of(appointmentRows, 2), GroupCounts.of(appointmentRows, 1).getTotal());
+        GroupCounts payments = GroupCounts.of(paymentRepository.countGroupedByStatus());
+        same &= matches(counters, StatusCounterRegistry.Kind.PAYMENT, Payment.Status.values(), payments, payments.getTotal());
+        GroupCounts complaints = GroupCounts.of(complaintRepository.countGroupedByStatus());
+        same &= matches(counters, StatusCounterRegistry.Kind.COMPLAINT, Complaint.Status.values(), complaints, complaints.getTotal());
+        System.out.println("Counters match the tables: " + same);
+        return same;
+    }
+
+    private static boolean matches(StatusCounterRegistry counters, StatusCounterRegistry.Kind kind, Enum<?>[] statuses,
+                                   GroupCounts table, long total) {
+        boolean same = counters.getTotal(kind) == total;
+        for (Enum<?> status : statuses) {
+            if (counters.get(kind, status) != table.get(status)) {
+                System.out.println(kind + " " + status + ": counter " + counters.get(kind, status) + ", table " + table.get(status));
+                same = false;
+            }
+        }
+        if (counters.getTotal(kind) != total) {
+            System.out.println(kind + " total: counter " + counters.getTotal(kind) + ", table " + total);
+        }
+        return same;
+    }
+
+    private static double time(Supplier<?> call) {
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            call.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.entity.AuditLog;
+import com.example.SpringDemo.repository.AuditLogRepository;
+import com.example.SpringDemo.service.AuditLogService;
+import com.example.SpringDemo.util.ExportWriter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the audit log export for a small and a large table and samples the live heap (after a GC)
+ * while it runs: the growth over the pre-export baseline must not depend on the row count. Loading
+ * the large table with findAll() is shown for comparison. Output goes to a stream that only counts lines.
+ *
+ * Usage: main [smallRows] [largeRows]  (defaults 20000 400000)
+ */
+public class StreamingExportBenchmark {
+
+    private static final String INSERT_AUDIT_LOG_SQL =
+        "INSERT INTO audit_logs (id, user_id, action, table_name, record_id, new_values, ip_address, created_at) " +
+        "VALUES (?, 1, ?, 'appointments', ?, ?, '127.0.0.1', ?)";
+
+    public static void main(String[] args) throws Exception {
+        int smallRows = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int largeRows = args.length > 1 ? Integer.parseInt(args[1]) : 400000;
+
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            AuditLogService auditLogService = context.getBean(AuditLogService.class);
+            AuditLogRepository auditLogRepository = context.getBean(AuditLogRepository.class);
+
+            insertRows(jdbcTemplate, 0, smallRows);
+            Result small = measure(() -> export(auditLogService, ExportWriter.Format.CSV));
+            insertRows(jdbcTemplate, smallRows, largeRows);
+            Result large = measure(() -> export(auditLogService, ExportWriter.Format.CSV));
+            Result largeJson = measure(() -> export(auditLogService, ExportWriter.Format.NDJSON));
+            Result loaded = measure(() -> (long) auditLogRepository.findAll().size());
+
+            System.out.printf("CSV export    %7d rows: %6d ms, live heap +%5.1f MB%n", small.rows, small.millis, small.heapMb);
+            System.out.printf("CSV export    %7d rows: %6d ms, live heap +%5.1f MB%n", large.rows, large.millis, large.heapMb);
+            System.out.printf("NDJSON export %7d rows: %6d ms, live heap +%5.1f MB%n", largeJson.rows, largeJson.millis, largeJson.heapMb);
+            System.out.printf("findAll()     %7d rows: %6d ms, live heap +%5.1f MB%n", loaded.rows, loaded.millis, loaded.heapMb);
+
+            // Header line for CSV; heap growth may not scale with the 20x larger table
+            boolean complete = small.rows == smallRows + 1 && large.rows == largeRows + 1 && largeJson.rows == largeRows;
+            boolean flat = large.heapMb < Math.max(2 * small.heapMb, small.heapMb + 16) && large.heapMb < loaded.heapMb / 4;
+            System.out.println("Rows complete: " + complete + ", heap flat: " + flat);
+            System.out.println(complete && flat ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    // Ids far above the sequence so they never collide
+    private static void insertRows(JdbcTemplate jdbcTemplate, int from, int to) {
+        LocalDateTime base = LocalDateTime.now().minusDays(30).withNano(0);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            batch.add(new Object[] {1_000_000L + i, i % 2 == 0 ? "INSERT" : "UPDATE", (long) i,
+                "{\"status\":\"COMPLETED\",\"notes\":\"row " + i + ", \\\"quoted\\\"\"}", Timestamp.valueOf(base.plusSeconds(i))});
+            if (batch.size() == 5000) {
+                jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG_SQL, batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG_SQL, batch);
+    }
+
+    private static long export(AuditLogService auditLogService, ExportWriter.Format format) throws Exception {
+        LineCountingOutputStream out = new LineCountingOutputStream();
+        auditLogService.exportAuditLogs(format, null, null, null, null, null, out);
+        return out.lines;
+    }
+
+    /**
+     * Runs the task while a sampler thread records the highest live heap (used after a full GC).
+     */
+    private static Result measure(Callable<Long> task) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                System.gc();
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+        long start = System.nanoTime();
+        long rows;
+        try {
+            rows = task.call();
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(rows, millis, (peak.get() - baseline) / 1024.0 / 1024.0);
+    }
+
+    private record Result(long rows, long millis, double heapMb) {
+    }
+
+    private static final class LineCountingOutputStream extends OutputStream {
+        long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.SpringDemo;
+
+import com.example.SpringDemo.config.JwtConfig;
+import com.example.SpringDemo.entity.Doctor;
+import com.example.SpringDemo.entity.Session;
+import com.example.SpringDemo.entity.User;
+import com.example.SpringDemo.repository.DoctorRepository;
+import com.example.SpringDemo.repository.SessionRepository;
+import com.example.SpringDemo.repository.UserRepository;
+import com.example.SpringDemo.service.DoctorService;
+import com.example.SpringDemo.service.RevokedTokenService;
+import com.example.SpringDemo.service.UserService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Checks that revoking a user's or doctor's tokens (deactivation, role change, deletion) is recorded
+ * in the session table: after the in-memory revocation state is dropped, as on a restart or another
+ * node, reloading it from the database still rejects the old tokens. Also checks that a login right
+ * after a revocation, within the same second, is accepted while a token from before it is not.
+ */
+public class TokenRevocationTest {
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(HospitalManagementSystemApplication.class,
+            "--spring.main.web-application-type=none",
+            "--app.auto-generate-doctor-slots=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.SpringDemo=WARN",
+            "--spring.jpa.show-sql=false");
+        try {
+            JwtConfig jwtConfig = context.getBean(JwtConfig.class);
+            RevokedTokenService revokedTokenService = context.getBean(RevokedTokenService.class);
+            SessionRepository sessionRepository = context.getBean(SessionRepository.class);
+            UserService userService = context.getBean(UserService.class);
+            DoctorService doctorService = context.getBean(DoctorService.class);
+
+            User patient = context.getBean(UserRepository.class).findById(3L).orElseThrow();
+            Doctor doctor = context.getBean(DoctorRepository.class).findAllActive().get(0);
+            String patientToken = jwtConfig.generateTokenForUser(patient);
+            String doctorToken = jwtConfig.generateTokenForDoctor(doctor);
+            saveSession(sessionRepository, patientToken, patient, null);
+            saveSession(sessionRepository, doctorToken, null, doctor.getDoctorId());
+
+            userService.updateUserRole(patient.getId(), "ADMIN");
+            doctorService.deleteDoctor(doctor.getDoctorId());
+            // A login in the same second as the revocation; its iat cannot be told apart from the old token's
+            String freshToken = jwtConfig.generateTokenForUser(patient);
+            saveSession(sessionRepository, freshToken, patient, null);
+
+            boolean ok = revokedTokenService.isRevoked(patientToken, jwtConfig.parseClaims(patientToken))
+                && revokedTokenService.isRevoked(doctorToken, jwtConfig.parseClaims(doctorToken));
+            System.out.println("Old tokens rejected on this node: " + ok);
+            boolean freshAccepted = !revokedTokenService.isRevoked(freshToken, jwtConfig.parseClaims(freshToken));
+            System.out.println("Fresh login in the same second accepted: " + freshAccepted);
+            ok &= freshAccepted;
+
+            // Restart / another node: nothing in memory, only what the database says
+            ((Map<?, ?>) ReflectionTestUtils.getField(revokedTokenService, "revokedTokens")).clear();
+            ((Map<?, ?>) ReflectionTestUtils.getField(revokedTokenService, "revokedPrincipals")).clear();
+            revokedTokenService.loadRevokedTokens();
+            boolean persisted = revokedTokenService.isRevoked(patientToken, jwtConfig.parseClaims(patientToken))
+                && revokedTokenService.isRevoked(doctorToken, jwtConfig.parseClaims(doctorToken))
+                && !revokedTokenService.isRevoked(freshToken, jwtConfig.parseClaims(freshToken));
+            System.out.println("Revocations reloaded from the session table: " + persisted);
+            ok &= persisted;
+
+            System.out.println(ok ? "PASSED" : "FAILED");
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static void saveSession(SessionRepository sessionRepository, String token, User user, Long doctorId) {
+        Session session = new Session();
+        session.setUser(user);
+        session.setDoctorId(doctorId);
+        session.setUserType(user != null ? "USER" : "DOCTOR");
+        session.setSessionToken(token);
+        session.setIsActive(true);
+        session.setExpiresAt(LocalDateTime.now().plusDays(7));
+        sessionRepository.save(session);
+    }
+}